@@ -0,0 +1,59 @@
+package com.cookie;
+
+/**
+ * A micro-benchmark of extended-range cookie arithmetic against plain doubles.
+ * <p>
+ * This is not part of the test suite. Build it with the {@code bench} Maven profile, and run it
+ * directly with an optional number of additions per trial, for example {@code 100000000}. Each
+ * trial sums rate times ticks products, as a warp does, and reports nanoseconds per addition after
+ * a few warm-up trials.
+ */
+public class CookieAmountBenchmark {
+
+  private static final int WARMUP_TRIALS = 5;
+  private static final int TRIALS = 5;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args The number of additions per trial.
+   */
+  public static void main(String[] args) {
+    int additions = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+    double sink = 0;
+    for (int trial = 0; trial < WARMUP_TRIALS + TRIALS; trial++) {
+      boolean report = trial >= WARMUP_TRIALS;
+
+      long start = System.nanoTime();
+      double total = 0;
+      for (int i = 0; i < additions; i++) {
+        total += (1 + (i & 15)) * 30.0;
+      }
+      sink += total;
+      long plain = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      CookieAccumulator accumulator = new CookieAccumulator();
+      for (int i = 0; i < additions; i++) {
+        accumulator.addProduct(1 + (i & 15), 30.0);
+      }
+      sink += accumulator.toDouble();
+      long mutable = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      CookieAmount amount = CookieAmount.ZERO;
+      for (int i = 0; i < additions; i++) {
+        amount = amount.plus(CookieAmount.of((1 + (i & 15)) * 30.0));
+      }
+      sink += amount.toDouble();
+      long immutable = System.nanoTime() - start;
+
+      if (report) {
+        System.out.printf("double=%.2fns accumulator=%.2fns amount=%.2fns%n",
+                (double) plain / additions, (double) mutable / additions,
+                (double) immutable / additions);
+      }
+    }
+    System.out.println("checksum=" + sink);
+  }
+}
@@ -0,0 +1,63 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.mocks.MockBuildingType;
+
+import java.util.List;
+
+/**
+ * A benchmark of the FluidModel against simulating purchases exactly, reporting the relative error
+ * and speed up of each scenario.
+ * <p>
+ * This is not part of the test suite. Build it with the {@code bench} Maven profile, and run it
+ * directly with an optional tolerance, for example {@code 1e-6}.
+ */
+public class FluidModelBenchmark {
+
+  private static final long HOUR = 30L * 60 * 60;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args The solver tolerance.
+   */
+  public static void main(String[] args) {
+    double tolerance = args.length > 0 ? Double.parseDouble(args[0]) : 1e-6;
+    List<BuildingType> mocks = List.of(MockBuildingType.RATE8PRICE100,
+            MockBuildingType.RATE50PRICE1200);
+    List<BuildingType> cursors = List.of(Building.CURSOR);
+    CookieClicker clicking = new SimpleCookieClicker().setClickingRate(0.2);
+    CookieClicker upgraded = new SimpleCookieClicker().setClickingRate(0.2).adjustBank(1e4)
+            .transactBuildings(Building.CURSOR, 1)
+            .buyUpgrade(CursorUpgrade.REINFORCED_INDEX_FINGER)
+            .buyUpgrade(CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM);
+
+    System.out.printf("%-28s %10s %12s %12s %10s %10s %8s%n", "scenario", "horizon",
+            "exact", "fluid", "baked err", "rate err", "speedup");
+    run("mocks payback", new FluidModel(mocks, FluidModel.Policy.bestPayback(), tolerance),
+            clicking, HOUR);
+    run("mocks payback", new FluidModel(mocks, FluidModel.Policy.bestPayback(), tolerance),
+            clicking, 24 * HOUR);
+    run("mocks shares 1:3", new FluidModel(mocks, FluidModel.Policy.fixedShares(1, 3),
+            tolerance), clicking, 24 * HOUR);
+    run("cursors upgraded", new FluidModel(cursors, FluidModel.Policy.bestPayback(),
+            tolerance), upgraded, 24 * HOUR);
+    run("cursors upgraded", new FluidModel(cursors, FluidModel.Policy.bestPayback(),
+            tolerance), upgraded, 365 * 24 * HOUR);
+  }
+
+  private static void run(String name, FluidModel model, CookieClicker start, long horizon) {
+    long begin = System.nanoTime();
+    FluidModel.Result exact = model.runExact(start, horizon);
+    long exactNanos = System.nanoTime() - begin;
+    begin = System.nanoTime();
+    FluidModel.Result fluid = model.run(start, horizon);
+    long fluidNanos = System.nanoTime() - begin;
+    System.out.printf("%-28s %10d %12d %12d %10.2e %10.2e %8.1f%n", name, horizon,
+            exact.getSteps(), fluid.getSteps(),
+            Math.abs(fluid.getCookiesBaked() / exact.getCookiesBaked() - 1),
+            Math.abs(fluid.getRate() / exact.getRate() - 1),
+            (double) exactNanos / fluidNanos);
+  }
+}
@@ -0,0 +1,69 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Building;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * A load test for the SessionManager, reporting command latency percentiles.
+ * <p>
+ * This is not part of the test suite. Build it with the {@code bench} Maven profile, and run it
+ * directly with optional arguments for the number of sessions, and commands per session, for
+ * example {@code 100000 20}.
+ */
+public class SessionLoadHarness {
+
+  /**
+   * Run the load test.
+   *
+   * @param args The number of sessions, and the number of commands per session.
+   * @throws Exception If the load test is interrupted.
+   */
+  public static void main(String[] args) throws Exception {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int commands = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    try (SessionManager manager = new SessionManager(commands)) {
+      long[] ids = new long[sessions];
+      for (int i = 0; i < sessions; i++) {
+        ids[i] = manager.open(new SimpleCookieClicker().setClickingRate(1));
+      }
+
+      long[] latencies = new long[sessions * commands];
+      AtomicInteger recorded = new AtomicInteger();
+      CompletableFuture<?>[] last = new CompletableFuture<?>[sessions];
+      long start = System.nanoTime();
+      for (int c = 0; c < commands; c++) {
+        UnaryOperator<CookieClicker> command = c % 2 == 0
+                ? game -> game.warp(300)
+                : game -> game.getCurrentBank() >= game.getBuildingTransactionBill(Building.CURSOR, 1)
+                ? game.transactBuildings(Building.CURSOR, 1) : game;
+        for (int s = 0; s < sessions; s++) {
+          long submitted = System.nanoTime();
+          last[s] = manager.submit(ids[s], command).thenRun(() ->
+                  latencies[recorded.getAndIncrement()] = System.nanoTime() - submitted);
+        }
+      }
+      CompletableFuture.allOf(last).join();
+      long elapsed = System.nanoTime() - start;
+
+      long[] sorted = Arrays.copyOf(latencies, recorded.get());
+      Arrays.sort(sorted);
+      System.out.printf("sessions=%d commands=%d virtual=%b%n", sessions, sorted.length,
+              manager.isVirtual());
+      System.out.printf("throughput=%.0f commands/s%n", sorted.length / (elapsed / 1e9));
+      System.out.printf("p50=%.3fms p99=%.3fms max=%.3fms%n",
+              percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+              sorted[sorted.length - 1] / 1e6);
+    }
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.floor(fraction * sorted.length))];
+  }
+}
@@ -0,0 +1,66 @@
+package com.cookie.strategy;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A benchmark of the built-in strategies, reporting steps per second and where each ends up.
+ * <p>
+ * This is not part of the test suite. Build it with the {@code bench} Maven profile, and run it
+ * directly with an optional number of games per strategy, for example {@code 10000}.
+ */
+public class StrategyBenchmark {
+
+  private static final long DAY = 30L * 60 * 60 * 24;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args The number of games per strategy.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(0.2);
+    List<Purchase> script = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      script.add(Purchase.of(Building.CURSOR));
+    }
+    script.add(Purchase.of(CursorUpgrade.REINFORCED_INDEX_FINGER));
+    script.add(Purchase.of(CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM));
+    for (int i = 0; i < 20; i++) {
+      script.add(Purchase.of(Building.CURSOR));
+    }
+
+    StrategyRunner runner = new StrategyRunner(state -> state.getCookiesBaked() >= 1e6, DAY);
+    run("greedy payback", runner, start,
+            new GreedyPaybackStrategy(Assets.buildings(), Assets.upgrades()), games);
+    run("cheapest first", runner, start,
+            new CheapestFirstStrategy(Assets.buildings(), Assets.upgrades()), games);
+    run("scripted", runner, start, new ScriptedStrategy(script), games);
+  }
+
+  private static void run(String name, StrategyRunner runner, CookieClicker start,
+                          Strategy strategy, int games) {
+    // Warm up before timing.
+    for (int i = 0; i < Math.min(games, 1000); i++) {
+      runner.run(start, strategy);
+    }
+    long purchases = 0;
+    long begin = System.nanoTime();
+    StrategyRunner.Report report = null;
+    for (int i = 0; i < games; i++) {
+      report = runner.run(start, strategy);
+      purchases += report.getPurchases();
+    }
+    double seconds = (System.nanoTime() - begin) / 1e9;
+    System.out.printf("%-16s %12.0f steps/s  outcome=%s ticks=%d baked=%.0f%n", name,
+            purchases / seconds, report.getOutcome(), report.getState().getTicks(),
+            report.getState().getCookiesBaked());
+  }
+}
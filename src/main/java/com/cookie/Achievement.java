@@ -0,0 +1,26 @@
+package com.cookie;
+
+/**
+ * An achievement, earned the first time a counter reaches a threshold.
+ * <p>
+ * Achievements earned add milk, see {@link SavedCookieClicker#getMilk()}, which effects may use to
+ * scale production.
+ * <p>
+ * It is recommended to create these statically, like upgrades, since they are compared by equals.
+ */
+public interface Achievement {
+
+  /**
+   * Returns the counter this achievement watches.
+   *
+   * @return The counter watched.
+   */
+  AchievementCounter getCounter();
+
+  /**
+   * Returns the value the counter must reach to earn this achievement.
+   *
+   * @return The threshold of the counter.
+   */
+  double getThreshold();
+}
@@ -0,0 +1,58 @@
+package com.cookie;
+
+import java.util.Objects;
+
+/**
+ * A game statistic achievements are earned by reaching thresholds of.
+ */
+public enum AchievementCounter {
+  /**
+   * The cookies baked all-time, see {@link SavedCookieClicker#getCookiesBaked()}.
+   */
+  COOKIES_BAKED,
+  /**
+   * The cookies baked by clicking, see {@link SavedCookieClicker#getHandmadeCookies()}.
+   */
+  HANDMADE_COOKIES,
+  /**
+   * The times the big cookie was clicked, see {@link SavedCookieClicker#getCookieClicks()}.
+   */
+  COOKIE_CLICKS,
+  /**
+   * The number of buildings currently owned, of all types.
+   */
+  BUILDINGS_OWNED,
+  /**
+   * The number of production upgrades currently owned.
+   */
+  UPGRADES_OWNED;
+
+  /**
+   * Read this counter from a game state.
+   *
+   * @param state The state to read from.
+   * @return The value of this counter in the state.
+   * @throws NullPointerException If the state is null.
+   */
+  public double of(SavedCookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null state.");
+    switch (this) {
+      case COOKIES_BAKED:
+        return state.getCookiesBaked();
+      case HANDMADE_COOKIES:
+        return state.getHandmadeCookies();
+      case COOKIE_CLICKS:
+        return state.getCookieClicks();
+      case BUILDINGS_OWNED:
+        long owned = 0;
+        for (int count : state.getBuildingInventory().values()) {
+          owned += count;
+        }
+        return owned;
+      case UPGRADES_OWNED:
+        return state.getProductionUpgrades().size();
+      default:
+        throw new AssertionError("Unexpected branch!");
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package com.cookie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The achievements earned by a game, and the achievements left to earn.
+ * <p>
+ * A tracker is built from a catalog of achievements, which is sorted by threshold per counter
+ * once and then shared by every tracker derived from it. Each counter keeps a pointer to its next
+ * unearned achievement. Updating a counter compares it against only that next threshold, so
+ * transitions that don't cross a threshold cost one comparison per changed counter, and crossing
+ * one costs a copy of the earned set.
+ * <p>
+ * Instances are immutable. Equal trackers have earned the same achievements out of equal
+ * catalogs.
+ */
+public final class AchievementTracker {
+
+  private static final AchievementCounter[] COUNTERS = AchievementCounter.values();
+
+  /**
+   * The milk added by each earned achievement.
+   */
+  public static final double MILK_PER_ACHIEVEMENT = 0.04;
+
+  /**
+   * A tracker with no achievements to earn.
+   */
+  public static final AchievementTracker NONE = of(Collections.emptyList());
+
+  private final Catalog catalog;
+  private final int[] next;
+  private final Map<Achievement, Long> earned;
+
+  private AchievementTracker(Catalog catalog, int[] next, Map<Achievement, Long> earned) {
+    this.catalog = catalog;
+    this.next = next;
+    this.earned = earned;
+  }
+
+  /**
+   * Create a tracker with nothing earned yet.
+   *
+   * @param achievements The catalog of achievements that can be earned.
+   * @return A new tracker of the catalog.
+   * @throws NullPointerException     If the catalog or any achievement in it is null.
+   * @throws IllegalArgumentException If the catalog has duplicates.
+   */
+  public static AchievementTracker of(Collection<? extends Achievement> achievements) {
+    return new AchievementTracker(new Catalog(achievements), new int[COUNTERS.length],
+            Collections.emptyMap());
+  }
+
+  /**
+   * Earn every achievement of a counter at or below a value.
+   *
+   * @param tick    The tick the counter reached the value.
+   * @param counter The counter that changed.
+   * @param value   The new value of the counter.
+   * @return A tracker with any newly crossed achievements earned at the tick, or this tracker if
+   * none were crossed.
+   */
+  public AchievementTracker update(long tick, AchievementCounter counter, double value) {
+    int ordinal = counter.ordinal();
+    Achievement[] sorted = catalog.sorted[ordinal];
+    int index = next[ordinal];
+    if (index >= sorted.length || sorted[index].getThreshold() > value) {
+      return this;
+    }
+
+    Map<Achievement, Long> newEarned = new LinkedHashMap<>(earned);
+    while (index < sorted.length && sorted[index].getThreshold() <= value) {
+      newEarned.put(sorted[index], tick);
+      index++;
+    }
+    int[] newNext = next.clone();
+    newNext[ordinal] = index;
+    return new AchievementTracker(catalog, newNext, Collections.unmodifiableMap(newEarned));
+  }
+
+  /**
+   * Earn every achievement a game state has reached, checking every counter.
+   *
+   * @param state The state to read counters from.
+   * @return A tracker with any newly crossed achievements earned at the state's tick.
+   * @throws NullPointerException If the state is null.
+   */
+  public AchievementTracker updateAll(SavedCookieClicker state) {
+    AchievementTracker tracker = this;
+    for (AchievementCounter counter : COUNTERS) {
+      if (next[counter.ordinal()] < catalog.sorted[counter.ordinal()].length) {
+        tracker = tracker.update(state.getTicks(), counter, counter.of(state));
+      }
+    }
+    return tracker;
+  }
+
+  /**
+   * Returns the threshold of the next achievement a counter will earn.
+   *
+   * @param counter The counter.
+   * @return The lowest unearned threshold of the counter, or positive infinity if there is none.
+   */
+  public double getNextThreshold(AchievementCounter counter) {
+    Achievement[] sorted = catalog.sorted[counter.ordinal()];
+    int index = next[counter.ordinal()];
+    return index < sorted.length ? sorted[index].getThreshold() : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the achievements earned.
+   *
+   * @return A read-only set of earned achievements, in the order they were earned.
+   */
+  public Set<Achievement> getEarned() {
+    return earned.keySet();
+  }
+
+  /**
+   * Returns the tick each achievement was earned at.
+   *
+   * @return A read-only map of earned achievements to the tick their threshold was crossed.
+   */
+  public Map<Achievement, Long> getEarnedTicks() {
+    return earned;
+  }
+
+  /**
+   * Returns the catalog of this tracker.
+   *
+   * @return A read-only list of all achievements that can be earned.
+   */
+  public List<Achievement> getCatalog() {
+    return catalog.all;
+  }
+
+  /**
+   * Returns the milk of the achievements earned.
+   *
+   * @return The number of earned achievements times {@link #MILK_PER_ACHIEVEMENT}.
+   */
+  public double getMilk() {
+    return earned.size() * MILK_PER_ACHIEVEMENT;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * catalog.hash + earned.keySet().hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof AchievementTracker)) {
+      return false;
+    }
+    AchievementTracker other = (AchievementTracker) o;
+    return (catalog == other.catalog || catalog.all.equals(other.catalog.all))
+            && earned.keySet().equals(other.earned.keySet());
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "earned = " + earned + ", " +
+            "catalog = " + catalog.all.size() +
+            "}";
+  }
+
+  /**
+   * The achievements of a catalog, sorted by threshold for each counter.
+   */
+  private static final class Catalog {
+    private final List<Achievement> all;
+    // Trackers mix the catalog into every state hash, so its hash is computed once.
+    private final int hash;
+    private final Achievement[][] sorted = new Achievement[COUNTERS.length][];
+
+    Catalog(Collection<? extends Achievement> achievements) {
+      this.all = List.copyOf(achievements);
+      if (Set.copyOf(all).size() != all.size()) {
+        throw new IllegalArgumentException("Cannot use a catalog with duplicate achievements.");
+      }
+      this.hash = all.hashCode();
+      Map<AchievementCounter, List<Achievement>> byCounter =
+              new EnumMap<>(AchievementCounter.class);
+      for (Achievement achievement : all) {
+        byCounter.computeIfAbsent(Objects.requireNonNull(achievement.getCounter(),
+                "Expected a non-null counter."), counter -> new ArrayList<>()).add(achievement);
+      }
+      for (AchievementCounter counter : COUNTERS) {
+        List<Achievement> list = byCounter.getOrDefault(counter, Collections.emptyList());
+        list.sort(Comparator.comparingDouble(Achievement::getThreshold));
+        sorted[counter.ordinal()] = list.toArray(new Achievement[0]);
+      }
+    }
+  }
+}
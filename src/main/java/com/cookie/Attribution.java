@@ -0,0 +1,393 @@
+package com.cookie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A breakdown of building rates and cookies per click by the effects that produce them.
+ * <p>
+ * A production rate is {@code units * (base * multiplier + constant)}, where the multiplier is the
+ * product of all multiplicative effects and the constant is the sum of all constant effects. Each
+ * effect is given two numbers:
+ * <ul>
+ *   <li>A share, which splits the rate additively. The base share is {@code units * base}, constant
+ *   effects get {@code units * number}, and multiplicative effects split the rest in proportion to
+ *   the logarithm of their numbers. Shares of one rate always sum to that rate.</li>
+ *   <li>A marginal, the rate lost if only that effect were removed and other effects' numbers held
+ *   fixed.</li>
+ * </ul>
+ * If multipliers cancel out, or any is non-positive, logarithms don't apply; multiplicative
+ * shares are then split evenly among the non-positive multipliers, or are all zero.
+ * <p>
+ * Building levels are folded into the base of a building rate, so they are part of its base share.
+ * <p>
+ * The effects and their numbers are gathered in the same pass as the rates of a
+ * {@link SimpleCookieClicker}, but the contributions are only built the first time a state is
+ * asked for its attribution.
+ */
+public final class Attribution {
+
+  /**
+   * What gave a state an effect.
+   */
+  public enum SourceKind {
+    /**
+     * An owned production upgrade.
+     */
+    UPGRADE,
+    /**
+     * An active production buff.
+     */
+    BUFF,
+    /**
+     * The prestige of ascensions.
+     */
+    PRESTIGE;
+  }
+
+  /**
+   * The contribution of one effect from one source to one rate.
+   */
+  public static final class Contribution {
+    private final BuildingType target;
+    private final ProductionEffect effect;
+    private final Object source;
+    private final SourceKind sourceKind;
+    private final double number;
+    private final double share;
+    private final double marginal;
+
+    Contribution(BuildingType target, ProductionEffect effect, Object source,
+                 SourceKind sourceKind, double number, double share, double marginal) {
+      this.target = target;
+      this.effect = effect;
+      this.source = source;
+      this.sourceKind = sourceKind;
+      this.number = number;
+      this.share = share;
+      this.marginal = marginal;
+    }
+
+    /**
+     * Returns the building this effect contributes to.
+     *
+     * @return The building type contributed to, or empty when contributing to cookies per click.
+     */
+    public Optional<BuildingType> getTarget() {
+      return Optional.ofNullable(target);
+    }
+
+    /**
+     * Returns the effect contributing.
+     *
+     * @return The effect contributing.
+     */
+    public ProductionEffect getEffect() {
+      return effect;
+    }
+
+    /**
+     * Returns what gave the state this effect.
+     *
+     * @return The {@link ProductionUpgrade}, {@link ProductionBuff}, or {@link Prestige} with this
+     * effect.
+     */
+    public Object getSource() {
+      return source;
+    }
+
+    /**
+     * Returns the kind of source of this effect.
+     *
+     * @return If the source is an upgrade, buff, or prestige.
+     */
+    public SourceKind getSourceKind() {
+      return sourceKind;
+    }
+
+    /**
+     * Returns the number the effect evaluated to in this state.
+     *
+     * @return The multiplier or constant of the effect.
+     */
+    public double getNumber() {
+      return number;
+    }
+
+    /**
+     * Returns the additive share of the rate attributed to this effect.
+     *
+     * @return This effect's share of the rate, in cookies per tick.
+     */
+    public double getShare() {
+      return share;
+    }
+
+    /**
+     * Returns the rate lost if only this effect were removed.
+     *
+     * @return The marginal rate of this effect, in cookies per tick.
+     */
+    public double getMarginal() {
+      return marginal;
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "target = " + target + ", " +
+              "effect = " + effect + ", " +
+              "source = " + source + ", " +
+              "number = " + number + ", " +
+              "share = " + share + ", " +
+              "marginal = " + marginal +
+              "}";
+    }
+  }
+
+  /**
+   * The inputs of one production rate: the units producing, their base, and the effects on them.
+   * <p>
+   * A state keeps these from the pass that computes its rates, so contributions are only built
+   * for the states that are asked for their attribution.
+   */
+  static final class Inputs {
+    private final BuildingType target;
+    private final double units;
+    private final double base;
+    private final List<? extends ProductionEffect> effects;
+    private final List<Object> sources;
+    private final double[] numbers;
+
+    /**
+     * Create the inputs of a production rate.
+     *
+     * @param target  The building produced by, or null for cookies per click.
+     * @param units   The number of units producing, buildings owned or one click.
+     * @param base    The unit rate before any effects.
+     * @param effects The effects on this rate.
+     * @param sources The source of each effect.
+     * @param numbers The number of each effect.
+     */
+    Inputs(BuildingType target, double units, double base,
+           List<? extends ProductionEffect> effects, List<Object> sources, double[] numbers) {
+      this.target = target;
+      this.units = units;
+      this.base = base;
+      this.effects = effects;
+      this.sources = sources;
+      this.numbers = numbers;
+    }
+
+    /**
+     * Compute the production rate.
+     *
+     * @return {@code units * (base * multiplier + constant)}.
+     */
+    double getRate() {
+      double multiplier = 1;
+      double constant = 0;
+      for (int i = 0; i < effects.size(); i++) {
+        if (effects.get(i).getTerm() == ProductionEffect.TERM.MULTIPLIER) {
+          multiplier *= numbers[i];
+        } else {
+          constant += numbers[i];
+        }
+      }
+      return units * (multiplier * base + constant);
+    }
+  }
+
+  private final Map<BuildingType, Double> buildingRates;
+  private final Map<BuildingType, Double> baseRates;
+  private final double cookiesPerClick;
+  private final List<Contribution> contributions;
+
+  Attribution(Map<BuildingType, Double> buildingRates, Map<BuildingType, Integer> inventory,
+              SugarLumps sugarLumps, double cookiesPerClick, List<Inputs> inputs) {
+    this.buildingRates = buildingRates;
+    Map<BuildingType, Double> baseRates = new LinkedHashMap<>();
+    for (BuildingType building : buildingRates.keySet()) {
+      baseRates.put(building, inventory.get(building) * building.getRate()
+              * sugarLumps.getMultiplier(building));
+    }
+    this.baseRates = Collections.unmodifiableMap(baseRates);
+    this.cookiesPerClick = cookiesPerClick;
+    List<Contribution> contributions = new ArrayList<>();
+    for (Inputs rate : inputs) {
+      attribute(rate, contributions);
+    }
+    this.contributions = Collections.unmodifiableList(contributions);
+  }
+
+  /**
+   * Attribute a production rate to the effects producing it.
+   *
+   * @param inputs The inputs of the rate.
+   * @param out    The list to add contributions to.
+   */
+  private static void attribute(Inputs inputs, List<Contribution> out) {
+    List<? extends ProductionEffect> effects = inputs.effects;
+    double[] numbers = inputs.numbers;
+    double multiplier = 1;
+    double constant = 0;
+    double logSum = 0;
+    int nonPositive = 0;
+    for (int i = 0; i < effects.size(); i++) {
+      if (effects.get(i).getTerm() == ProductionEffect.TERM.MULTIPLIER) {
+        multiplier *= numbers[i];
+        if (numbers[i] > 0) {
+          logSum += Math.log(numbers[i]);
+        } else {
+          nonPositive++;
+        }
+      } else {
+        constant += numbers[i];
+      }
+    }
+    double units = inputs.units;
+    double base = inputs.base;
+    double rate = units * (multiplier * base + constant);
+    double gain = units * base * (multiplier - 1);
+
+    for (int i = 0; i < effects.size(); i++) {
+      ProductionEffect effect = effects.get(i);
+      double share;
+      double marginal;
+      if (effect.getTerm() == ProductionEffect.TERM.MULTIPLIER) {
+        if (nonPositive > 0) {
+          share = numbers[i] > 0 ? 0 : gain / nonPositive;
+        } else {
+          share = logSum == 0 ? 0 : gain * Math.log(numbers[i]) / logSum;
+        }
+        double others = 1;
+        for (int j = 0; j < effects.size(); j++) {
+          if (j != i && effects.get(j).getTerm() == ProductionEffect.TERM.MULTIPLIER) {
+            others *= numbers[j];
+          }
+        }
+        marginal = rate - units * (others * base + constant);
+      } else {
+        share = units * numbers[i];
+        marginal = share;
+      }
+      Object source = inputs.sources.get(i);
+      out.add(new Contribution(inputs.target, effect, source, sourceKind(source), numbers[i],
+              share, marginal));
+    }
+  }
+
+  private static SourceKind sourceKind(Object source) {
+    if (source instanceof ProductionBuff) {
+      return SourceKind.BUFF;
+    } else if (source instanceof Prestige) {
+      return SourceKind.PRESTIGE;
+    }
+    return SourceKind.UPGRADE;
+  }
+
+  /**
+   * Returns the rate of a building.
+   *
+   * @param building The building type.
+   * @return The production rate of all owned buildings of that type, in cookies per tick.
+   * @throws NullPointerException If the building is null.
+   */
+  public double getBuildingRate(BuildingType building) {
+    return buildingRates.getOrDefault(Objects.requireNonNull(building,
+            "Expected a non-null building type."), 0.0);
+  }
+
+  /**
+   * Returns the share of a building's rate not attributed to any effect.
+   *
+   * @param building The building type.
+   * @return The number owned times the unit rate of the building at its level, in cookies per
+   * tick.
+   * @throws NullPointerException If the building is null.
+   */
+  public double getBaseRate(BuildingType building) {
+    return baseRates.getOrDefault(Objects.requireNonNull(building,
+            "Expected a non-null building type."), 0.0);
+  }
+
+  /**
+   * Returns the cookies per click.
+   *
+   * @return The cookies produced by a single click.
+   */
+  public double getCookiesPerClick() {
+    return cookiesPerClick;
+  }
+
+  /**
+   * Returns all contributions, to building rates and then cookies per click.
+   *
+   * @return A read-only list of contributions.
+   */
+  public List<Contribution> getContributions() {
+    return contributions;
+  }
+
+  /**
+   * Returns the contributions to the rate of a building.
+   *
+   * @param building The building type.
+   * @return The contributions targeting the building.
+   * @throws NullPointerException If the building is null.
+   */
+  public List<Contribution> getContributions(BuildingType building) {
+    Objects.requireNonNull(building, "Expected a non-null building type.");
+    List<Contribution> result = new ArrayList<>();
+    for (Contribution contribution : contributions) {
+      if (building.equals(contribution.target)) {
+        result.add(contribution);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the contributions to cookies per click.
+   *
+   * @return The contributions of clicking effects.
+   */
+  public List<Contribution> getClickingContributions() {
+    List<Contribution> result = new ArrayList<>();
+    for (Contribution contribution : contributions) {
+      if (contribution.target == null) {
+        result.add(contribution);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the share of building production of every source.
+   *
+   * @return The summed shares of building effects, keyed by their upgrade or buff.
+   */
+  public Map<Object, Double> getBuildingSharesBySource() {
+    Map<Object, Double> result = new LinkedHashMap<>();
+    for (Contribution contribution : contributions) {
+      if (contribution.target != null) {
+        result.merge(contribution.source, contribution.share, Double::sum);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "buildingRates = " + buildingRates + ", " +
+            "cookiesPerClick = " + cookiesPerClick + ", " +
+            "contributions = " + contributions +
+            "}";
+  }
+}
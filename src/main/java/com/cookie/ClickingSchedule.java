@@ -0,0 +1,30 @@
+package com.cookie;
+
+/**
+ * A clicking rate that varies over time.
+ * <p>
+ * Ticks given to a schedule are counted from the moment the schedule was set on a game. A schedule
+ * is expected to integrate clicks in closed form so that warping does not need to step through its
+ * changes tick by tick.
+ */
+public interface ClickingSchedule {
+
+  /**
+   * Returns the clicking rate at a point in the schedule.
+   *
+   * @param tick The non-negative number of ticks since the schedule started.
+   * @return The non-negative clicking rate in clicks per tick at this point.
+   * @throws IllegalArgumentException If the tick is negative.
+   */
+  double getRate(long tick);
+
+  /**
+   * Returns the total number of clicks made over a span of the schedule.
+   *
+   * @param from  The non-negative number of ticks since the schedule started to begin counting at.
+   * @param ticks The non-negative number of ticks to count clicks over.
+   * @return The total number of clicks in the span [from, from + ticks).
+   * @throws IllegalArgumentException If from or ticks are negative.
+   */
+  double getClicks(long from, long ticks);
+}
@@ -0,0 +1,224 @@
+package com.cookie;
+
+/**
+ * A mutable, extended-range running total of cookies.
+ * <p>
+ * This holds the same mantissa and exponent as a {@link CookieAmount} in primitive fields, so
+ * adding to it in a hot loop never allocates. Take a snapshot with {@link #toAmount()}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class CookieAccumulator {
+
+  private double mantissa;
+  private long exponent;
+
+  /**
+   * Create an accumulator holding zero.
+   */
+  public CookieAccumulator() {
+  }
+
+  /**
+   * Create an accumulator holding an amount.
+   *
+   * @param initial The amount to start from.
+   * @throws NullPointerException If the amount is null.
+   */
+  public CookieAccumulator(CookieAmount initial) {
+    set(initial);
+  }
+
+  /**
+   * Replace the total.
+   *
+   * @param amount The new total.
+   * @return This accumulator.
+   * @throws NullPointerException If the amount is null.
+   */
+  public CookieAccumulator set(CookieAmount amount) {
+    mantissa = amount.getMantissa();
+    exponent = amount.getExponent();
+    return this;
+  }
+
+  /**
+   * Reset the total to zero.
+   *
+   * @return This accumulator.
+   */
+  public CookieAccumulator reset() {
+    mantissa = 0;
+    exponent = 0;
+    return this;
+  }
+
+  /**
+   * Add a double to the total.
+   *
+   * @param value The finite value to add.
+   * @return This accumulator.
+   * @throws IllegalArgumentException If the value is infinite or NaN.
+   */
+  public CookieAccumulator add(double value) {
+    if (!Double.isFinite(value)) {
+      throw new IllegalArgumentException("Cannot add a non-finite amount.");
+    } else if (value != 0) {
+      int shift = CookieAmount.binaryExponent(value);
+      addNormalized(CookieAmount.scaleToUnit(value, shift), shift);
+    }
+    return this;
+  }
+
+  /**
+   * Add an amount to the total.
+   *
+   * @param amount The amount to add.
+   * @return This accumulator.
+   * @throws NullPointerException If the amount is null.
+   */
+  public CookieAccumulator add(CookieAmount amount) {
+    if (amount.getMantissa() != 0) {
+      addNormalized(amount.getMantissa(), amount.getExponent());
+    }
+    return this;
+  }
+
+  /**
+   * Subtract an amount from the total.
+   *
+   * @param amount The amount to subtract.
+   * @return This accumulator.
+   * @throws NullPointerException If the amount is null.
+   */
+  public CookieAccumulator subtract(CookieAmount amount) {
+    if (amount.getMantissa() != 0) {
+      addNormalized(-amount.getMantissa(), amount.getExponent());
+    }
+    return this;
+  }
+
+  /**
+   * Add the product of two doubles to the total, such as a rate times a number of ticks, without
+   * the product overflowing.
+   *
+   * @param a The first finite factor.
+   * @param b The second finite factor.
+   * @return This accumulator.
+   * @throws IllegalArgumentException If either factor is infinite or NaN.
+   */
+  public CookieAccumulator addProduct(double a, double b) {
+    if (!Double.isFinite(a) || !Double.isFinite(b)) {
+      throw new IllegalArgumentException("Cannot add a non-finite product.");
+    } else if (a != 0 && b != 0) {
+      int shiftA = CookieAmount.binaryExponent(a);
+      int shiftB = CookieAmount.binaryExponent(b);
+      // Both unit mantissas are in [1, 2), so their product is in [1, 4).
+      double product = CookieAmount.scaleToUnit(a, shiftA) * CookieAmount.scaleToUnit(b, shiftB);
+      long shift = (long) shiftA + shiftB;
+      if (Math.abs(product) >= 2) {
+        product *= 0.5;
+        shift++;
+      }
+      addNormalized(product, shift);
+    }
+    return this;
+  }
+
+  /**
+   * Multiply the total by a double.
+   *
+   * @param factor The finite factor.
+   * @return This accumulator.
+   * @throws IllegalArgumentException If the factor is infinite or NaN.
+   */
+  public CookieAccumulator multiply(double factor) {
+    if (!Double.isFinite(factor)) {
+      throw new IllegalArgumentException("Cannot multiply by a non-finite factor.");
+    }
+    if (factor == 0 || mantissa == 0) {
+      return reset();
+    }
+    int factorShift = CookieAmount.binaryExponent(factor);
+    double product = mantissa * CookieAmount.scaleToUnit(factor, factorShift);
+    int shift = Math.getExponent(product);
+    mantissa = CookieAmount.scaleToUnit(product, shift);
+    exponent += factorShift + shift;
+    return this;
+  }
+
+  /**
+   * Add a normalized mantissa and exponent to the total, and renormalize.
+   */
+  private void addNormalized(double otherMantissa, long otherExponent) {
+    if (mantissa == 0) {
+      mantissa = otherMantissa;
+      exponent = otherExponent;
+      return;
+    }
+    double sum;
+    long base;
+    if (exponent >= otherExponent) {
+      long gap = exponent - otherExponent;
+      if (gap > 64) {
+        return;
+      }
+      sum = mantissa + otherMantissa * CookieAmount.NEGATIVE_POWERS[(int) gap];
+      base = exponent;
+    } else {
+      long gap = otherExponent - exponent;
+      sum = gap > 64 ? otherMantissa
+              : otherMantissa + mantissa * CookieAmount.NEGATIVE_POWERS[(int) gap];
+      base = otherExponent;
+    }
+    if (sum == 0) {
+      reset();
+      return;
+    }
+    int shift = CookieAmount.binaryExponent(sum);
+    mantissa = CookieAmount.scaleToUnit(sum, shift);
+    exponent = base + shift;
+  }
+
+  /**
+   * Compare the total to an amount.
+   *
+   * @param amount The amount to compare to.
+   * @return A negative number, zero, or a positive number as the total is less than, equal to, or
+   * more than the amount.
+   * @throws NullPointerException If the amount is null.
+   */
+  public int compareTo(CookieAmount amount) {
+    int sign = (int) Math.signum(mantissa);
+    int otherSign = amount.signum();
+    if (sign != otherSign) {
+      return Integer.compare(sign, otherSign);
+    } else if (sign == 0 || exponent == amount.getExponent()) {
+      return Double.compare(mantissa, amount.getMantissa());
+    }
+    return sign * Long.compare(exponent, amount.getExponent());
+  }
+
+  /**
+   * Returns the total as an immutable amount.
+   *
+   * @return A snapshot of the total.
+   */
+  public CookieAmount toAmount() {
+    return CookieAmount.ofBinary(mantissa, exponent);
+  }
+
+  /**
+   * Returns the total as a double.
+   *
+   * @return The closest double, saturating to an infinity or zero outside the range of doubles.
+   */
+  public double toDouble() {
+    return Math.scalb(mantissa, (int) Math.max(-2100, Math.min(2100, exponent)));
+  }
+
+  @Override
+  public String toString() {
+    return toAmount().toString();
+  }
+}
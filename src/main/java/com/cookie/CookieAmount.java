@@ -0,0 +1,325 @@
+package com.cookie;
+
+/**
+ * An amount of cookies with a range far beyond a double.
+ * <p>
+ * An amount is a double mantissa, normalized into [1, 2) in magnitude, times two to the power of
+ * a long exponent. Arithmetic keeps a double's 53 bits of precision, but never overflows to
+ * infinity, so endgame banks and prices past 1e308 stay representable. Normalizing only adjusts
+ * the exponent bits of the mantissa, so every operation is a few floating point instructions.
+ * <p>
+ * Instances are immutable. For accumulating in hot loops without allocating, see {@link
+ * CookieAccumulator}.
+ */
+public final class CookieAmount implements Comparable<CookieAmount> {
+
+  /**
+   * No cookies.
+   */
+  public static final CookieAmount ZERO = new CookieAmount(0, 0);
+
+  /**
+   * One cookie.
+   */
+  public static final CookieAmount ONE = new CookieAmount(1, 0);
+
+  private static final double LOG10_2 = Math.log10(2);
+  private static final long SIGN_AND_FRACTION_BITS = 0x800FFFFFFFFFFFFFL;
+  private static final long UNIT_EXPONENT_BITS = 0x3FF0000000000000L;
+
+  /**
+   * Powers of two from 2^0 down to 2^-64, for aligning mantissas by exact multiplication.
+   */
+  static final double[] NEGATIVE_POWERS = new double[65];
+
+  static {
+    for (int i = 0; i < NEGATIVE_POWERS.length; i++) {
+      NEGATIVE_POWERS[i] = Math.scalb(1.0, -i);
+    }
+  }
+  private static final double LOG2_E = 1 / Math.log(2);
+
+  private final double mantissa;
+  private final long exponent;
+
+  private CookieAmount(double mantissa, long exponent) {
+    this.mantissa = mantissa;
+    this.exponent = exponent;
+  }
+
+  /**
+   * Returns an amount equal to a double.
+   *
+   * @param value The finite value.
+   * @return The amount.
+   * @throws IllegalArgumentException If the value is infinite or NaN.
+   */
+  public static CookieAmount of(double value) {
+    return normalize(value, 0);
+  }
+
+  /**
+   * Returns an amount of a mantissa times two to the power of an exponent.
+   *
+   * @param mantissa The finite mantissa, not necessarily normalized.
+   * @param exponent The binary exponent.
+   * @return The amount.
+   * @throws IllegalArgumentException If the mantissa is infinite or NaN.
+   */
+  public static CookieAmount ofBinary(double mantissa, long exponent) {
+    return normalize(mantissa, exponent);
+  }
+
+  /**
+   * Returns a positive base raised to a power, such as a price growth factor raised to a count.
+   * <p>
+   * Where the result fits in a double it is exactly {@link Math#pow}, beyond that it is computed
+   * in log space.
+   *
+   * @param base  The positive finite base.
+   * @param power The power.
+   * @return The base raised to the power.
+   * @throws IllegalArgumentException If the base is non-positive, infinite or NaN.
+   */
+  public static CookieAmount pow(double base, long power) {
+    if (!(base > 0) || Double.isInfinite(base)) {
+      throw new IllegalArgumentException("Cannot raise a non-positive or non-finite base.");
+    }
+    double direct = Math.pow(base, power);
+    if (direct >= Double.MIN_NORMAL && direct <= Double.MAX_VALUE) {
+      return normalize(direct, 0);
+    }
+    double log2 = power * (Math.log(base) * LOG2_E);
+    double whole = Math.floor(log2);
+    return normalize(Math.pow(2, log2 - whole), (long) whole);
+  }
+
+  /**
+   * Normalize a mantissa and exponent.
+   * <p>
+   * This is shared with {@link CookieAccumulator}, which normalizes its own fields the same way.
+   */
+  static CookieAmount normalize(double mantissa, long exponent) {
+    if (Double.isNaN(mantissa) || Double.isInfinite(mantissa)) {
+      throw new IllegalArgumentException("Cannot represent a non-finite amount.");
+    } else if (mantissa == 0) {
+      return ZERO;
+    }
+    int shift = binaryExponent(mantissa);
+    return new CookieAmount(scaleToUnit(mantissa, shift), exponent + shift);
+  }
+
+  /**
+   * Returns a non-zero finite double divided by two to the power of its binary exponent.
+   * <p>
+   * For normal doubles this only replaces the exponent bits, which is much cheaper than {@link
+   * Math#scalb}.
+   */
+  static double scaleToUnit(double value, int shift) {
+    if (shift >= Double.MIN_EXPONENT) {
+      return Double.longBitsToDouble(
+              (Double.doubleToRawLongBits(value) & SIGN_AND_FRACTION_BITS) | UNIT_EXPONENT_BITS);
+    }
+    return Math.scalb(value, -shift);
+  }
+
+  /**
+   * Returns the binary exponent of a non-zero finite double, including subnormals.
+   */
+  static int binaryExponent(double value) {
+    int shift = Math.getExponent(value);
+    if (shift == Double.MIN_EXPONENT - 1) { // Subnormal, scale it into the normal range first.
+      shift = Math.getExponent(value * 0x1p64) - 64;
+    }
+    return shift;
+  }
+
+  /**
+   * Returns the mantissa of this amount.
+   *
+   * @return The mantissa, in [1, 2) in magnitude, or zero.
+   */
+  public double getMantissa() {
+    return mantissa;
+  }
+
+  /**
+   * Returns the binary exponent of this amount.
+   *
+   * @return The exponent, zero for zero.
+   */
+  public long getExponent() {
+    return exponent;
+  }
+
+  /**
+   * Returns the sum of this and another amount.
+   *
+   * @param other The amount to add.
+   * @return The sum.
+   * @throws NullPointerException If other is null.
+   */
+  public CookieAmount plus(CookieAmount other) {
+    if (other.mantissa == 0) {
+      return this;
+    } else if (mantissa == 0) {
+      return other;
+    } else if (exponent >= other.exponent) {
+      long gap = exponent - other.exponent;
+      return gap > 64 ? this
+              : normalize(mantissa + other.mantissa * NEGATIVE_POWERS[(int) gap], exponent);
+    } else {
+      return other.plus(this);
+    }
+  }
+
+  /**
+   * Returns the difference of this and another amount.
+   *
+   * @param other The amount to subtract.
+   * @return The difference.
+   * @throws NullPointerException If other is null.
+   */
+  public CookieAmount minus(CookieAmount other) {
+    return plus(other.negate());
+  }
+
+  /**
+   * Returns the negation of this amount.
+   *
+   * @return The amount with its sign flipped.
+   */
+  public CookieAmount negate() {
+    return mantissa == 0 ? this : new CookieAmount(-mantissa, exponent);
+  }
+
+  /**
+   * Returns the product of this amount and a double.
+   *
+   * @param factor The finite factor.
+   * @return The product.
+   * @throws IllegalArgumentException If the factor is infinite or NaN.
+   */
+  public CookieAmount times(double factor) {
+    if (!Double.isFinite(factor)) {
+      throw new IllegalArgumentException("Cannot multiply by a non-finite factor.");
+    } else if (factor == 0 || mantissa == 0) {
+      return ZERO;
+    }
+    // Normalizing the factor first keeps tiny factors from losing precision as subnormals.
+    int shift = binaryExponent(factor);
+    return normalize(mantissa * scaleToUnit(factor, shift), exponent + shift);
+  }
+
+  /**
+   * Returns the product of this and another amount.
+   *
+   * @param other The amount to multiply by.
+   * @return The product.
+   * @throws NullPointerException If other is null.
+   */
+  public CookieAmount times(CookieAmount other) {
+    return normalize(mantissa * other.mantissa, exponent + other.exponent);
+  }
+
+  /**
+   * Returns the quotient of this and another amount.
+   *
+   * @param other The non-zero amount to divide by.
+   * @return The quotient.
+   * @throws NullPointerException If other is null.
+   * @throws ArithmeticException  If other is zero.
+   */
+  public CookieAmount dividedBy(CookieAmount other) {
+    if (other.mantissa == 0) {
+      throw new ArithmeticException("Cannot divide an amount by zero.");
+    }
+    return normalize(mantissa / other.mantissa, exponent - other.exponent);
+  }
+
+  /**
+   * Returns the smallest whole amount no less than this amount.
+   *
+   * @return This amount rounded up, which is this amount itself when it is too large to have a
+   * fractional part.
+   */
+  public CookieAmount ceil() {
+    return exponent >= 52 ? this : normalize(Math.ceil(Math.scalb(mantissa, (int) exponent)), 0);
+  }
+
+  /**
+   * Returns the sign of this amount.
+   *
+   * @return -1, 0, or 1 as this amount is negative, zero, or positive.
+   */
+  public int signum() {
+    return (int) Math.signum(mantissa);
+  }
+
+  /**
+   * Returns the base ten logarithm of this amount.
+   *
+   * @return The logarithm, NaN for negative amounts, and negative infinity for zero.
+   */
+  public double log10() {
+    return Math.log10(mantissa) + exponent * LOG10_2;
+  }
+
+  /**
+   * Returns this amount as a double.
+   *
+   * @return The closest double, saturating to an infinity or zero outside the range of doubles.
+   */
+  public double toDouble() {
+    return Math.scalb(mantissa, (int) Math.max(-2100, Math.min(2100, exponent)));
+  }
+
+  @Override
+  public int compareTo(CookieAmount other) {
+    int sign = signum();
+    int otherSign = other.signum();
+    if (sign != otherSign) {
+      return Integer.compare(sign, otherSign);
+    } else if (sign == 0 || exponent == other.exponent) {
+      return Double.compare(mantissa, other.mantissa);
+    }
+    return sign * Long.compare(exponent, other.exponent);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof CookieAmount)) {
+      return false;
+    }
+    CookieAmount other = (CookieAmount) o;
+    return Double.compare(mantissa, other.mantissa) == 0 && exponent == other.exponent;
+  }
+
+  @Override
+  public int hashCode() {
+    return Double.hashCode(mantissa) * 31 + Long.hashCode(exponent);
+  }
+
+  /**
+   * Returns this amount in decimal scientific notation, like {@code 1.5e400}.
+   *
+   * @return The decimal representation, as a plain double where one suffices.
+   */
+  @Override
+  public String toString() {
+    double value = toDouble();
+    if (value == 0 ? mantissa == 0 : Double.isFinite(value) && Math.abs(value) >= 1e-300) {
+      return Double.toString(value);
+    }
+    double log = Math.log10(Math.abs(mantissa)) + exponent * LOG10_2;
+    double whole = Math.floor(log);
+    double digits = Math.pow(10, log - whole);
+    if (digits >= 10) { // Rounding of the logarithm may carry into the next power.
+      digits /= 10;
+      whole++;
+    }
+    return (mantissa < 0 ? "-" : "") + digits + "e" + (long) whole;
+  }
+}
@@ -1,5 +1,7 @@
 package com.cookie;
 
+import java.util.Objects;
+
 /**
  * A simulated game of Cookie Clicker queryable, and transformable with user actions.
  * <p>
@@ -26,8 +28,9 @@ public interface CookieClicker extends SavedCookieClicker {
    * in bank should be at least the sum of building, and clicking incomes. This is left ambiguous in
    * case of future support for other game features that also provide earnings.
    * <p>
-   * Interpretations should not alter building inventory, upgrade inventory, or clicking rate on
-   * warp.
+   * Interpretations should not alter building inventory, upgrade inventory, or clicking schedule
+   * on warp. The clicking rate only changes as dictated by a schedule set with {@link
+   * #setClickingSchedule}, and clicks should be counted as the schedule dictates over the warp.
    *
    * @param ticks The non-negative number of in-game ticks to fast-forward by. Cookie Clicker runs
    *              at 30FPS.
@@ -36,6 +39,21 @@ public interface CookieClicker extends SavedCookieClicker {
    */
   CookieClicker warp(long ticks);
 
+  /**
+   * Fast-forwards this game state over a gap the player was away for, and itemizes the earnings.
+   * <p>
+   * This is {@link #warp} with earnings scaled by the offline rules. Earnings should be computed
+   * from measures in closed form between the moments they change, so very long gaps cost no more
+   * than short ones.
+   *
+   * @param ticks The non-negative number of in-game ticks the player was away for.
+   * @param rules The rules for what is earned while away.
+   * @return The report of earnings over the gap, including the resulting game state.
+   * @throws IllegalArgumentException If the provided number of ticks are negative.
+   * @throws NullPointerException     If the rules are null.
+   */
+  OfflineReport warpOffline(long ticks, OfflineRules rules);
+
   /**
    * Provides a new version of this post-building-sale (buying or selling).
    * <p>
@@ -91,6 +109,145 @@ public interface CookieClicker extends SavedCookieClicker {
    */
   CookieClicker adjustBank(double cookies);
 
+  /**
+   * Provides a new version of this game state with a grimoire.
+   * <p>
+   * By default, games don't support grimoires, and only accept {@link Grimoire#NONE}.
+   *
+   * @param grimoire The grimoire to replace this game's with, {@link Grimoire#NONE} for none.
+   * @return The new game state.
+   * @throws NullPointerException          If the grimoire is null.
+   * @throws UnsupportedOperationException If this game can't hold the grimoire.
+   */
+  default CookieClicker setGrimoire(Grimoire grimoire) {
+    if (!Grimoire.NONE.equals(Objects.requireNonNull(grimoire, "Expected a non-null grimoire."))) {
+      throw new UnsupportedOperationException("Unable to hold a grimoire in this game.");
+    }
+    return this;
+  }
+
+  /**
+   * Provides a new version of this game state post-spell-cast.
+   * <p>
+   * The spell's cost is spent from the grimoire, every active buff is replaced by the spell's
+   * version of it, and then the bank is adjusted as with {@link #adjustBank}. Use {@link
+   * Grimoire#ticksUntilCastable} to find when a spell can be cast.
+   *
+   * @param spell The spell to cast.
+   * @return The game state after casting.
+   * @throws NullPointerException          If the spell is null, or it replaces a buff with null.
+   * @throws IllegalArgumentException      If the grimoire doesn't hold the spell's cost, or the
+   *                                       bank would be put into an impossible state.
+   * @throws UnsupportedOperationException If this game can't cast spells, as by default.
+   */
+  default CookieClicker castSpell(Spell spell) {
+    Objects.requireNonNull(spell, "Expected a non-null spell.");
+    throw new UnsupportedOperationException("Unable to cast spells in this game.");
+  }
+
+  /**
+   * Provides a new version of this game state with sugar lumps.
+   * <p>
+   * By default, games don't support sugar lumps, and only accept {@link SugarLumps#NONE}.
+   *
+   * @param sugarLumps The sugar lumps, and building levels, to replace this game's with.
+   * @return The new game state.
+   * @throws NullPointerException          If the sugar lumps are null.
+   * @throws UnsupportedOperationException If this game can't hold the sugar lumps.
+   */
+  default CookieClicker setSugarLumps(SugarLumps sugarLumps) {
+    if (!SugarLumps.NONE.equals(
+            Objects.requireNonNull(sugarLumps, "Expected non-null sugar lumps."))) {
+      throw new UnsupportedOperationException("Unable to hold sugar lumps in this game.");
+    }
+    return this;
+  }
+
+  /**
+   * Provides a new version of this game state with a building type one level higher.
+   * <p>
+   * The level is paid for in sugar lumps, see {@link SugarLumps#getLevelUpCost}. Building types
+   * can be leveled up whether or not any are owned.
+   *
+   * @param buildingType The building type to level up.
+   * @return The game state after leveling up.
+   * @throws NullPointerException          If the buildingType is null.
+   * @throws IllegalArgumentException      If the sugar lumps held don't cover the level's cost.
+   * @throws UnsupportedOperationException If this game can't level up buildings, as by default.
+   */
+  default CookieClicker levelUpBuilding(BuildingType buildingType) {
+    Objects.requireNonNull(buildingType, "Expected a non-null building type.");
+    throw new UnsupportedOperationException("Unable to level up buildings in this game.");
+  }
+
+  /**
+   * Provides a new version of this game state with wrinklers.
+   * <p>
+   * By default, games don't support wrinklers, and only accept {@link Wrinklers#NONE}.
+   *
+   * @param wrinklers The wrinklers to replace this game's with, {@link Wrinklers#NONE} for none.
+   * @return The new game state.
+   * @throws NullPointerException          If the wrinklers are null.
+   * @throws UnsupportedOperationException If this game can't hold the wrinklers.
+   */
+  default CookieClicker setWrinklers(Wrinklers wrinklers) {
+    if (!Wrinklers.NONE.equals(
+            Objects.requireNonNull(wrinklers, "Expected non-null wrinklers."))) {
+      throw new UnsupportedOperationException("Unable to hold wrinklers in this game.");
+    }
+    return this;
+  }
+
+  /**
+   * Provides a new version of this game state with one more wrinkler attached.
+   * <p>
+   * Later warps wither a larger share of building production, see {@link Wrinklers}.
+   *
+   * @return The game state after the wrinkler attaches.
+   * @throws IllegalArgumentException      If {@link Wrinklers#MAX_WRINKLERS} are already
+   *                                       attached.
+   * @throws UnsupportedOperationException If this game can't hold wrinklers, as by default.
+   */
+  default CookieClicker spawnWrinkler() {
+    throw new UnsupportedOperationException("Unable to hold wrinklers in this game.");
+  }
+
+  /**
+   * Provides a new version of this game state with every wrinkler popped.
+   * <p>
+   * The payout of the wrinklers is added to the bank, as with {@link #adjustBank}, and no
+   * wrinklers are attached afterwards. Use {@link Wrinklers#getPayoutAfter} to project the payout
+   * of popping later.
+   * <p>
+   * By default, games have no wrinklers to pop, and are returned as is.
+   *
+   * @return The game state after popping.
+   * @throws UnsupportedOperationException If this game has wrinklers but can't pop them.
+   */
+  default CookieClicker popWrinklers() {
+    if (!Wrinklers.NONE.equals(getWrinklers())) {
+      throw new UnsupportedOperationException("Unable to pop wrinklers in this game.");
+    }
+    return this;
+  }
+
+  /**
+   * Provides a fresh game state, keeping the prestige earned from this one.
+   * <p>
+   * Buildings, upgrades, buffs, wrinklers, and the bank are reset, and whatever the wrinklers
+   * digested is lost. Time, all-time statistics, achievements, the grimoire, sugar lumps and
+   * building levels, and the clicking schedule carry over. The cookies baked all-time count towards
+   * the new prestige, see {@link Prestige#ascend(double)}.
+   * <p>
+   * By default, games don't support ascending.
+   *
+   * @return The new game state.
+   * @throws UnsupportedOperationException If this game can't ascend.
+   */
+  default CookieClicker ascend() {
+    throw new UnsupportedOperationException("Unable to ascend this game.");
+  }
+
   /**
    * Provides a new version of this game state with a new clicking rate.
    *
@@ -100,6 +257,18 @@ public interface CookieClicker extends SavedCookieClicker {
    */
   CookieClicker setClickingRate(double rate);
 
+  /**
+   * Provides a new version of this game state with a clicking schedule.
+   * <p>
+   * The schedule starts from the ticks of this game state. This replaces any constant clicking rate
+   * previously set, and is replaced by any later call to {@link #setClickingRate}.
+   *
+   * @param schedule The schedule to click at from now on.
+   * @return The new game state.
+   * @throws NullPointerException If the schedule is null.
+   */
+  CookieClicker setClickingSchedule(ClickingSchedule schedule);
+
   // Measures.
 
   /**
@@ -127,6 +296,25 @@ public interface CookieClicker extends SavedCookieClicker {
    */
   double getBuildingTransactionBill(BuildingType target, int amount);
 
+  /**
+   * Returns the price, or refund of this building sale, without overflowing.
+   * <p>
+   * Prices grow exponentially with the number owned, and past about 1e308 a double price is
+   * infinite. This returns the same bill as an extended-range amount.
+   *
+   * @param target A non-null building type to lookup the sale amount for.
+   * @param amount The number of buildings involved in the sale, as in {@link
+   *               #getBuildingTransactionBill}.
+   * @return A positive amount for purchases indicating price, a negative amount indicating refund.
+   * @throws NullPointerException     If the buildingType is null.
+   * @throws IllegalArgumentException If there is an attempt to query the refund price for more
+   *                                  buildings than are currently owned, or the bill can't be
+   *                                  represented.
+   */
+  default CookieAmount getBuildingTransactionBillAmount(BuildingType target, int amount) {
+    return CookieAmount.of(getBuildingTransactionBill(target, amount));
+  }
+
   /**
    * Returns the price of this upgrade purchase.
    *
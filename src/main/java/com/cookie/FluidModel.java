@@ -0,0 +1,581 @@
+package com.cookie;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An approximation of a game buying buildings under a policy, for horizons too long to simulate
+ * purchase by purchase.
+ * <p>
+ * The bank held at the start is spent exactly, one building at a time, until the policy's next
+ * choice is unaffordable. From then on building counts are treated as continuous, and all income
+ * is spent as it is earned: with income R, and the policy giving building i a share s_i of it,
+ * {@code dn_i/dt = s_i * R / p_i(n_i)}, where {@code p_i(n) = unitPrice * g^n} is the geometric
+ * price of {@link CookieClicker#getBuildingTransactionBill} made continuous. Cookies baked grow by
+ * R. This system is integrated with an adaptive Dormand-Prince 5(4) solver.
+ * <p>
+ * Income comes from the exact game. At the start of every step a {@link SimpleCookieClicker} is
+ * built with the counts rounded down, and its total rate and per building unit rates (see {@link
+ * Sensitivity}) are held for the step, with income interpolated linearly in the fractional
+ * counts. So effects across buildings, and achievements, are caught up with step by step.
+ * <p>
+ * Buffs are ignored, and clicking is at the start's constant clicking rate. How far this is from
+ * buying discretely is measured by {@link #runExact}, which simulates the same policy purchase by
+ * purchase.
+ * <p>
+ * Instances are immutable and thread-safe if their policy is.
+ */
+public final class FluidModel {
+
+  // Dormand-Prince 5(4) coefficients. The system doesn't depend on time, so the nodes are unused.
+  private static final double[][] A = {
+          {},
+          {1.0 / 5},
+          {3.0 / 40, 9.0 / 40},
+          {44.0 / 45, -56.0 / 15, 32.0 / 9},
+          {19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729},
+          {9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656},
+          {35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84}};
+  private static final double[] ERROR = {71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920,
+          -17253.0 / 339200, 22.0 / 525, -1.0 / 40};
+
+  // Steps only shrink this far before the solver gives up on the tolerance.
+  private static final double MIN_STEP = 1e-6;
+  private static final int MAX_STEPS = 1_000_000;
+
+  /**
+   * How income is split between buildings.
+   */
+  public interface Policy {
+
+    /**
+     * Split continuous spending between buildings.
+     *
+     * @param unitRates The rate one more of each building adds.
+     * @param prices    The current price of one more of each building.
+     * @param shares    The array to write the non-negative share of income spent on each building
+     *                  to, summing to at most one.
+     */
+    void allocate(double[] unitRates, double[] prices, double[] shares);
+
+    /**
+     * Choose the next building to buy.
+     *
+     * @param unitRates The rate one more of each building adds.
+     * @param prices    The current price of one more of each building.
+     * @param spent     The cookies spent so far on each building.
+     * @return The index of the building to buy next, or -1 to stop buying.
+     */
+    int choose(double[] unitRates, double[] prices, double[] spent);
+
+    /**
+     * Returns a policy buying the building that pays back its price soonest.
+     * <p>
+     * Spending continuously on only the best building makes the choice flip back and forth, so
+     * income is instead split between buildings within a small band of the best payback, in
+     * proportion to their prices. That keeps their paybacks moving together, the way alternating
+     * purchases would.
+     *
+     * @return The payback policy.
+     */
+    static Policy bestPayback() {
+      return PaybackPolicy.INSTANCE;
+    }
+
+    /**
+     * Returns a policy spending fixed shares of income on each building.
+     * <p>
+     * Buying discretely, the next building is the one furthest behind its share of spending.
+     *
+     * @param shares The non-negative share of each building, by index. They are normalized to sum
+     *               to one.
+     * @return The fixed share policy.
+     * @throws NullPointerException     If shares is null.
+     * @throws IllegalArgumentException If a share is negative, or none are positive.
+     */
+    static Policy fixedShares(double... shares) {
+      return new FixedSharesPolicy(shares);
+    }
+  }
+
+  private final List<BuildingType> buildings;
+  private final Policy policy;
+  private final double tolerance;
+
+  /**
+   * Create a fluid model.
+   *
+   * @param buildings The building types the policy buys from, indexed in this order.
+   * @param policy    The purchase policy.
+   * @param tolerance The positive relative error allowed per solver step.
+   * @throws NullPointerException     If buildings, any building, or policy are null.
+   * @throws IllegalArgumentException If buildings is empty, or tolerance is non-positive.
+   */
+  public FluidModel(List<BuildingType> buildings, Policy policy, double tolerance) {
+    this.buildings = List.copyOf(Objects.requireNonNull(buildings,
+            "Expected non-null buildings."));
+    this.policy = Objects.requireNonNull(policy, "Expected a non-null policy.");
+    if (this.buildings.isEmpty()) {
+      throw new IllegalArgumentException("Cannot use an empty list of buildings.");
+    } else if (!(tolerance > 0)) {
+      throw new IllegalArgumentException("Cannot use a non-positive tolerance.");
+    }
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Approximate a game buying under the policy for a horizon.
+   *
+   * @param start   The game to start from, which must be a {@link SimpleCookieClicker}.
+   * @param horizon The non-negative number of ticks to look ahead.
+   * @return The approximate game at the horizon.
+   * @throws NullPointerException     If the start is null.
+   * @throws IllegalArgumentException If the start isn't a SimpleCookieClicker, or the horizon is
+   *                                  negative.
+   * @throws IllegalStateException    If the solver can't meet the tolerance.
+   */
+  public Result run(CookieClicker start, long horizon) {
+    SimpleCookieClicker simple = checkStart(start, horizon);
+    int k = buildings.size();
+    double[] spent = new double[k];
+    SimpleCookieClicker spentState = (SimpleCookieClicker) spendBank(simple, spent);
+
+    double[] y = new double[k + 1];
+    for (int i = 0; i < k; i++) {
+      y[i] = spentState.inventory.getOrDefault(buildings.get(i), 0);
+    }
+    double[][] stages = new double[A.length][k + 1];
+    double[] trial = new double[k + 1];
+    double[] prices = new double[k];
+    double[] shares = new double[k];
+    double t = 0;
+    double h = Math.min(horizon, 1);
+    double errorEstimate = 0;
+    int accepted = 0;
+    int rejected = 0;
+    Frame frame = new Frame(spentState, y);
+    while (t < horizon) {
+      if (accepted + rejected >= MAX_STEPS) {
+        throw new IllegalStateException("Fluid model took too many steps.");
+      }
+      boolean last = h >= horizon - t;
+      if (last) {
+        h = horizon - t;
+      }
+      for (int s = 0; s < A.length; s++) {
+        for (int j = 0; j <= k; j++) {
+          double yj = y[j];
+          for (int r = 0; r < s; r++) {
+            yj += h * A[s][r] * stages[r][j];
+          }
+          trial[j] = yj;
+        }
+        frame.derivative(trial, stages[s], prices, shares);
+      }
+      // The seventh stage is evaluated at the fifth order solution, which is left in trial.
+      double norm = 0;
+      double bakedError = 0;
+      for (int j = 0; j <= k; j++) {
+        double error = 0;
+        for (int s = 0; s < A.length; s++) {
+          error += h * ERROR[s] * stages[s][j];
+        }
+        double scale = tolerance * Math.max(1, Math.max(Math.abs(y[j]), Math.abs(trial[j])));
+        norm = Math.max(norm, Math.abs(error) / scale);
+        if (j == k) {
+          bakedError = Math.abs(error);
+        }
+      }
+      if (Double.isNaN(norm)) {
+        norm = Double.POSITIVE_INFINITY;
+      }
+      if (norm <= 1) {
+        t = last ? horizon : t + h;
+        System.arraycopy(trial, 0, y, 0, k + 1);
+        errorEstimate += bakedError;
+        accepted++;
+        frame = new Frame(spentState, y);
+      } else {
+        rejected++;
+        if (h <= MIN_STEP) {
+          throw new IllegalStateException("Fluid model can't meet its tolerance.");
+        }
+      }
+      h *= Math.min(5, Math.max(0.2, 0.9 * Math.pow(Math.max(norm, 1e-10), -0.2)));
+    }
+
+    Map<BuildingType, Double> counts = new LinkedHashMap<>();
+    for (int i = 0; i < k; i++) {
+      counts.put(buildings.get(i), y[i]);
+    }
+    return new Result(horizon, Collections.unmodifiableMap(counts), y[k],
+            spentState.getCurrentBank(), frame.rate(y), accepted, rejected, errorEstimate);
+  }
+
+  /**
+   * Simulate a game buying under the policy for a horizon, one building at a time.
+   *
+   * @param start   The game to start from, which must be a {@link SimpleCookieClicker}.
+   * @param horizon The non-negative number of ticks to look ahead.
+   * @return The game at the horizon. Its steps are the buildings bought, and its error estimate is
+   * zero.
+   * @throws NullPointerException     If the start is null.
+   * @throws IllegalArgumentException If the start isn't a SimpleCookieClicker, or the horizon is
+   *                                  negative.
+   */
+  public Result runExact(CookieClicker start, long horizon) {
+    checkStart(start, horizon);
+    int k = buildings.size();
+    double[] unitRates = new double[k];
+    double[] prices = new double[k];
+    double[] spent = new double[k];
+    CookieClicker state = start;
+    int bought = 0;
+    while (true) {
+      int choice = choose(state, unitRates, prices, spent);
+      if (choice < 0) {
+        break;
+      }
+      Optional<CookieClicker> ready =
+              Forecast.warpUntilAffordable(state, buildings.get(choice), 1);
+      if (ready.isEmpty() || ready.get().getTicks() - start.getTicks() > horizon) {
+        break;
+      }
+      state = ready.get().transactBuildings(buildings.get(choice), 1);
+      spent[choice] += prices[choice];
+      bought++;
+    }
+    state = state.warp(horizon - (state.getTicks() - start.getTicks()));
+
+    Map<BuildingType, Double> counts = new LinkedHashMap<>();
+    for (BuildingType building : buildings) {
+      counts.put(building, (double) state.getBuildingInventory().getOrDefault(building, 0));
+    }
+    return new Result(horizon, Collections.unmodifiableMap(counts),
+            state.getCookiesBaked() - start.getCookiesBaked(), state.getCurrentBank(),
+            Forecast.getTotalRate(state), bought, 0, 0);
+  }
+
+  private static SimpleCookieClicker checkStart(CookieClicker start, long horizon) {
+    if (!(Objects.requireNonNull(start, "Expected a non-null state.")
+            instanceof SimpleCookieClicker)) {
+      throw new IllegalArgumentException("Can only model SimpleCookieClicker states.");
+    } else if (horizon < 0) {
+      throw new IllegalArgumentException("Cannot use a negative horizon.");
+    }
+    return (SimpleCookieClicker) start;
+  }
+
+  /**
+   * Buy the policy's choices with the bank until the next one is unaffordable.
+   */
+  private CookieClicker spendBank(CookieClicker state, double[] spent) {
+    int k = buildings.size();
+    double[] unitRates = new double[k];
+    double[] prices = new double[k];
+    while (true) {
+      int choice = choose(state, unitRates, prices, spent);
+      if (choice < 0 || prices[choice] > state.getCurrentBank()) {
+        return state;
+      }
+      state = state.transactBuildings(buildings.get(choice), 1);
+      spent[choice] += prices[choice];
+    }
+  }
+
+  private int choose(CookieClicker state, double[] unitRates, double[] prices, double[] spent) {
+    unitRates(state, unitRates);
+    for (int i = 0; i < prices.length; i++) {
+      prices[i] = state.getBuildingTransactionBill(buildings.get(i), 1);
+    }
+    return policy.choose(unitRates, prices, spent);
+  }
+
+  private void unitRates(CookieClicker state, double[] unitRates) {
+    Map<Object, Double> derivatives = Sensitivity.of(state, buildings,
+            Collections.emptyList(), 0).getRateDerivatives();
+    for (int i = 0; i < unitRates.length; i++) {
+      unitRates[i] = derivatives.get(buildings.get(i));
+    }
+  }
+
+  /**
+   * The exact game at counts rounded down, which income is taken from for one solver step.
+   */
+  private final class Frame {
+    private final int[] floors;
+    private final double baseRate;
+    private final double[] unitRates;
+    private final double growthFactor;
+
+    Frame(SimpleCookieClicker origin, double[] y) {
+      int k = buildings.size();
+      Map<BuildingType, Integer> inventory = new HashMap<>(origin.inventory);
+      floors = new int[k];
+      for (int i = 0; i < k; i++) {
+        floors[i] = (int) Math.min(Integer.MAX_VALUE, Math.floor(y[i]));
+        if (floors[i] > 0) {
+          inventory.put(buildings.get(i), floors[i]);
+        } else {
+          inventory.remove(buildings.get(i));
+        }
+      }
+      CookieClicker state = new SimpleCookieClicker(origin.ticks, inventory,
+              origin.upgrades, Collections.emptyList(), origin.clickingRate, 0,
+              origin.getCookiesBaked() + y[k], origin.handmadeCookies, origin.cookieClicks,
+              origin.priceGrowthFactor, origin.refundFactor, origin.achievements,
+              origin.prestige).setSugarLumps(origin.sugarLumps).setWrinklers(origin.wrinklers);
+      baseRate = Forecast.getTotalRate(state);
+      unitRates = new double[k];
+      unitRates(state, unitRates);
+      growthFactor = origin.priceGrowthFactor;
+    }
+
+    double rate(double[] y) {
+      double rate = baseRate;
+      for (int i = 0; i < floors.length; i++) {
+        rate += unitRates[i] * (y[i] - floors[i]);
+      }
+      return rate;
+    }
+
+    void derivative(double[] y, double[] dy, double[] prices, double[] shares) {
+      int k = floors.length;
+      for (int i = 0; i < k; i++) {
+        // Trial stages of a step that is about to be rejected can wander below zero.
+        prices[i] = buildings.get(i).getUnitPrice() * Math.pow(growthFactor, Math.max(0, y[i]));
+      }
+      Arrays.fill(shares, 0);
+      policy.allocate(unitRates, prices, shares);
+      double rate = Math.max(0, rate(y));
+      for (int i = 0; i < k; i++) {
+        dy[i] = shares[i] * rate / prices[i];
+      }
+      dy[k] = rate;
+    }
+  }
+
+  /**
+   * Spends on the buildings within a band of the best payback, in proportion to their prices.
+   */
+  private enum PaybackPolicy implements Policy {
+    INSTANCE;
+
+    // Paybacks this far above the best, relatively, get no share.
+    private static final double BAND = 0.05;
+
+    @Override
+    public void allocate(double[] unitRates, double[] prices, double[] shares) {
+      double best = bestPayback(unitRates, prices);
+      if (best == Double.POSITIVE_INFINITY) {
+        return;
+      }
+      double total = 0;
+      for (int i = 0; i < shares.length; i++) {
+        // The weight falls linearly to zero across the band, so shares are continuous.
+        double excess = (prices[i] / unitRates[i] / best - 1) / BAND;
+        shares[i] = unitRates[i] > 0 ? prices[i] * Math.max(0, 1 - excess) : 0;
+        total += shares[i];
+      }
+      for (int i = 0; i < shares.length; i++) {
+        shares[i] /= total;
+      }
+    }
+
+    @Override
+    public int choose(double[] unitRates, double[] prices, double[] spent) {
+      double best = Double.POSITIVE_INFINITY;
+      int choice = -1;
+      for (int i = 0; i < prices.length; i++) {
+        if (unitRates[i] > 0 && prices[i] / unitRates[i] < best) {
+          best = prices[i] / unitRates[i];
+          choice = i;
+        }
+      }
+      return choice;
+    }
+
+    private static double bestPayback(double[] unitRates, double[] prices) {
+      double best = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < prices.length; i++) {
+        if (unitRates[i] > 0) {
+          best = Math.min(best, prices[i] / unitRates[i]);
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * Spends fixed shares of income on each building.
+   */
+  private static final class FixedSharesPolicy implements Policy {
+    private final double[] shares;
+
+    FixedSharesPolicy(double[] shares) {
+      this.shares = Objects.requireNonNull(shares, "Expected non-null shares.").clone();
+      double total = 0;
+      for (double share : this.shares) {
+        if (!(share >= 0)) {
+          throw new IllegalArgumentException("Cannot use a negative share.");
+        }
+        total += share;
+      }
+      if (!(total > 0)) {
+        throw new IllegalArgumentException("Cannot use shares that are all zero.");
+      }
+      for (int i = 0; i < this.shares.length; i++) {
+        this.shares[i] /= total;
+      }
+    }
+
+    @Override
+    public void allocate(double[] unitRates, double[] prices, double[] shares) {
+      System.arraycopy(this.shares, 0, shares, 0, Math.min(shares.length, this.shares.length));
+    }
+
+    @Override
+    public int choose(double[] unitRates, double[] prices, double[] spent) {
+      double total = 0;
+      for (int i = 0; i < spent.length; i++) {
+        total += spent[i];
+      }
+      // The building furthest behind its share, after counting the price of buying it.
+      double worst = Double.POSITIVE_INFINITY;
+      int choice = -1;
+      for (int i = 0; i < Math.min(spent.length, shares.length); i++) {
+        if (shares[i] > 0) {
+          double ahead = spent[i] + prices[i] - shares[i] * (total + prices[i]);
+          if (ahead < worst) {
+            worst = ahead;
+            choice = i;
+          }
+        }
+      }
+      return choice;
+    }
+  }
+
+  /**
+   * A game at the end of a horizon, approximated or simulated.
+   */
+  public static final class Result {
+    private final long horizon;
+    private final Map<BuildingType, Double> counts;
+    private final double cookiesBaked;
+    private final double bank;
+    private final double rate;
+    private final int steps;
+    private final int rejectedSteps;
+    private final double errorEstimate;
+
+    private Result(long horizon, Map<BuildingType, Double> counts, double cookiesBaked,
+                   double bank, double rate, int steps, int rejectedSteps, double errorEstimate) {
+      this.horizon = horizon;
+      this.counts = counts;
+      this.cookiesBaked = cookiesBaked;
+      this.bank = bank;
+      this.rate = rate;
+      this.steps = steps;
+      this.rejectedSteps = rejectedSteps;
+      this.errorEstimate = errorEstimate;
+    }
+
+    /**
+     * Returns the number of ticks looked ahead.
+     *
+     * @return The horizon in ticks.
+     */
+    public long getHorizon() {
+      return horizon;
+    }
+
+    /**
+     * Returns the building counts at the horizon.
+     *
+     * @return A read-only map of each building of the model to its count, fractional if
+     * approximated.
+     */
+    public Map<BuildingType, Double> getCounts() {
+      return counts;
+    }
+
+    /**
+     * Returns the cookies baked over the horizon.
+     *
+     * @return The cookies baked between the start and the horizon.
+     */
+    public double getCookiesBaked() {
+      return cookiesBaked;
+    }
+
+    /**
+     * Returns the bank at the horizon.
+     *
+     * @return The cookies in the bank. Approximated, this is what was left after spending the
+     * start's bank, since income is spent as it is earned.
+     */
+    public double getBank() {
+      return bank;
+    }
+
+    /**
+     * Returns the total rate at the horizon.
+     *
+     * @return The income at the horizon in cookies per tick.
+     */
+    public double getRate() {
+      return rate;
+    }
+
+    /**
+     * Returns the steps taken to reach the horizon.
+     *
+     * @return The accepted solver steps, or the buildings bought if simulated.
+     */
+    public int getSteps() {
+      return steps;
+    }
+
+    /**
+     * Returns the solver steps rejected for being outside the tolerance.
+     *
+     * @return The rejected solver steps, or zero if simulated.
+     */
+    public int getRejectedSteps() {
+      return rejectedSteps;
+    }
+
+    /**
+     * Returns the solver's estimate of its error in cookies baked.
+     * <p>
+     * This is the sum of the local error estimates of every step, so it bounds the error of
+     * solving the continuous system, not the error of treating counts as continuous.
+     *
+     * @return The estimated absolute error of {@link #getCookiesBaked()}.
+     */
+    public double getErrorEstimate() {
+      return errorEstimate;
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "horizon = " + horizon + ", " +
+              "counts = " + counts + ", " +
+              "cookiesBaked = " + cookiesBaked + ", " +
+              "bank = " + bank + ", " +
+              "rate = " + rate + ", " +
+              "steps = " + steps + ", " +
+              "rejectedSteps = " + rejectedSteps + ", " +
+              "errorEstimate = " + errorEstimate +
+              "}";
+    }
+  }
+}
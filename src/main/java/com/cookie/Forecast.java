@@ -0,0 +1,250 @@
+package com.cookie;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Helpers for looking ahead in a game, like when the bank will afford a purchase.
+ * <p>
+ * Forecasts jump straight to the moment of interest with {@link CookieClicker#warp} instead of
+ * stepping tick by tick. They extrapolate from current measures, and re-check after warping in
+ * case measures changed on the way, for example when a buff expired. If measures rose on the way
+ * instead, the jump is searched back to the earliest tick the goal was met. Grimoire events, like mana
+ * becoming full, and sugar lumps ripening are found in closed form, so they take a single warp.
+ * Wrinkler payouts are linear in time at fixed rates, so they are projected without warping.
+ */
+public final class Forecast {
+
+  // Jumps only fall short where rates dropped on the way, and idle jumps double, so this is only
+  // reached if income stalls entirely.
+  private static final int MAX_JUMPS = 1024;
+
+  private Forecast() {
+  }
+
+  /**
+   * Returns the total income of a game.
+   *
+   * @param state The game to measure.
+   * @return The sum of all building rates left after wrinklers wither their share, and clicking
+   * income, in cookies per tick.
+   * @throws NullPointerException If the state is null.
+   */
+  public static double getTotalRate(CookieClicker state) {
+    return state.getClickingRate() * state.getCookiesPerClick()
+            + getBuildingRate(state) * state.getWrinklers().getRetainedFraction();
+  }
+
+  /**
+   * Returns the building production of a game, before wrinklers wither their share.
+   *
+   * @param state The game to measure.
+   * @return The sum of all building rates, in cookies per tick.
+   * @throws NullPointerException If the state is null.
+   */
+  public static double getBuildingRate(CookieClicker state) {
+    double rate = 0;
+    for (Map.Entry<BuildingType, Integer> entry : state.getBuildingInventory().entrySet()) {
+      rate += state.getRate(entry.getKey());
+    }
+    return rate;
+  }
+
+  /**
+   * Returns a projection of the payout of a game's wrinklers, for choosing when to pop them.
+   * <p>
+   * The building rate is summed once, and every projection after that takes constant time, see
+   * {@link Wrinklers#getPayoutAfter}. Projections assume rates hold, so they don't see buffs
+   * expiring.
+   *
+   * @param state The game to project.
+   * @return A function from ticks waited to the cookies popping returns after the wait.
+   * @throws NullPointerException If the state is null.
+   */
+  public static LongToDoubleFunction projectWrinklerPayout(CookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    Wrinklers wrinklers = state.getWrinklers();
+    double buildingRate = getBuildingRate(state);
+    return ticks -> wrinklers.getPayoutAfter(ticks, buildingRate);
+  }
+
+  /**
+   * Fast-forward a game until its bank holds at least an amount of cookies.
+   *
+   * @param state The game to fast-forward.
+   * @param bank  The number of cookies the bank should hold.
+   * @return The earliest fast-forwarded game holding the amount, or empty if the game has no
+   * income to get there. The game itself if it already holds the amount.
+   * @throws NullPointerException If the state is null.
+   */
+  public static Optional<CookieClicker> warpUntilBank(CookieClicker state, double bank) {
+    return warpUntil(state, bank, CookieClicker::getCurrentBank);
+  }
+
+  /**
+   * Fast-forward a game until it has baked at least an amount of cookies all-time.
+   *
+   * @param state        The game to fast-forward.
+   * @param cookiesBaked The number of cookies the game should have baked.
+   * @return The earliest fast-forwarded game to have baked the amount, or empty if the game has
+   * no income to get there. The game itself if it already baked the amount.
+   * @throws NullPointerException If the state is null.
+   */
+  public static Optional<CookieClicker> warpUntilBaked(CookieClicker state, double cookiesBaked) {
+    return warpUntil(state, cookiesBaked, CookieClicker::getCookiesBaked);
+  }
+
+  /**
+   * Fast-forward a game until a count of cookies, which never falls while warping, reaches a goal.
+   * <p>
+   * Each jump is sized by the current rate. Rates can rise within a jump, from a clicking burst or
+   * an achievement adding milk, so a jump that reaches the goal is searched back to its earliest
+   * tick. A game without income now may still click later in its schedule, so it jumps ahead in
+   * doubling steps instead of giving up.
+   */
+  private static Optional<CookieClicker> warpUntil(CookieClicker state, double goal,
+                                                   ToDoubleFunction<CookieClicker> cookies) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    long idleJump = 1;
+    for (int jump = 0; jump < MAX_JUMPS; jump++) {
+      double deficit = goal - cookies.applyAsDouble(state);
+      if (deficit <= 0) {
+        return Optional.of(state);
+      }
+      double rate = getTotalRate(state);
+      long ticks;
+      if (rate > 0) {
+        ticks = (long) Math.min(Long.MAX_VALUE, Math.max(1, Math.ceil(deficit / rate)));
+      } else {
+        ticks = idleJump;
+        idleJump = idleJump > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : idleJump * 2;
+      }
+      ticks = Math.min(ticks, Long.MAX_VALUE - state.getTicks());
+      if (ticks == 0) {
+        return Optional.empty();
+      }
+      CookieClicker warped = state.warp(ticks);
+      if (cookies.applyAsDouble(warped) >= goal) {
+        return Optional.of(earliest(state, ticks, warped, goal, cookies));
+      }
+      state = warped;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the earliest game within a jump to reach a goal, given the end of the jump does.
+   */
+  private static CookieClicker earliest(CookieClicker state, long ticks, CookieClicker reached,
+                                        double goal, ToDoubleFunction<CookieClicker> cookies) {
+    // At a steady rate the tick before the end falls short, so one probe usually settles it.
+    if (ticks == 1 || cookies.applyAsDouble(state.warp(ticks - 1)) < goal) {
+      return reached;
+    }
+    long shortfall = 0;
+    long enough = ticks - 1;
+    while (enough - shortfall > 1) {
+      long middle = shortfall + (enough - shortfall) / 2;
+      if (cookies.applyAsDouble(state.warp(middle)) >= goal) {
+        enough = middle;
+      } else {
+        shortfall = middle;
+      }
+    }
+    return state.warp(enough);
+  }
+
+  /**
+   * Fast-forward a game until it can afford to buy buildings.
+   *
+   * @param state    The game to fast-forward.
+   * @param building The building type to buy.
+   * @param amount   The positive number of buildings to buy.
+   * @return The earliest fast-forwarded game that can afford the buildings, or empty if it never
+   * will.
+   * @throws NullPointerException If the state or building type are null.
+   */
+  public static Optional<CookieClicker> warpUntilAffordable(CookieClicker state,
+                                                            BuildingType building, int amount) {
+    return warpUntilBank(state, state.getBuildingTransactionBill(building, amount));
+  }
+
+  /**
+   * Fast-forward a game until it can afford to buy an upgrade.
+   *
+   * @param state   The game to fast-forward.
+   * @param upgrade The upgrade to buy, not yet owned.
+   * @return The earliest fast-forwarded game that can afford the upgrade, or empty if it never
+   * will.
+   * @throws NullPointerException     If the state or upgrade are null.
+   * @throws IllegalArgumentException If the upgrade is already owned.
+   */
+  public static Optional<CookieClicker> warpUntilAffordable(CookieClicker state,
+                                                            ProductionUpgrade upgrade) {
+    return warpUntilBank(state, state.getUpgradePrice(upgrade));
+  }
+
+  /**
+   * Fast-forward a game until it holds some sugar lumps.
+   *
+   * @param state The game to fast-forward.
+   * @param lumps The number of sugar lumps the game should hold.
+   * @return The earliest fast-forwarded game holding the lumps, the game itself if it already
+   * does.
+   * @throws NullPointerException If the state is null.
+   */
+  public static CookieClicker warpUntilLumps(CookieClicker state, long lumps) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    long ticks = state.getSugarLumps().ticksUntilLumps(lumps);
+    return ticks == 0 ? state : state.warp(ticks);
+  }
+
+  /**
+   * Fast-forward a game until its grimoire holds an amount of mana.
+   *
+   * @param state The game to fast-forward.
+   * @param mana  The amount of mana the grimoire should hold.
+   * @return The earliest fast-forwarded game holding the mana, or empty if it's over the
+   * grimoire's maximum. The game itself if it already holds the mana.
+   * @throws NullPointerException If the state is null.
+   */
+  public static Optional<CookieClicker> warpUntilMana(CookieClicker state, double mana) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    OptionalLong ticks = state.getGrimoire().ticksUntil(mana);
+    if (ticks.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(ticks.getAsLong() == 0 ? state : state.warp(ticks.getAsLong()));
+  }
+
+  /**
+   * Fast-forward a game until its grimoire is full.
+   *
+   * @param state The game to fast-forward.
+   * @return The earliest fast-forwarded game with full mana, the game itself if already full.
+   * @throws NullPointerException If the state is null.
+   */
+  public static CookieClicker warpUntilManaFull(CookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    return warpUntilMana(state, state.getGrimoire().getMaxMana()).orElseThrow();
+  }
+
+  /**
+   * Fast-forward a game until it can cast a spell.
+   *
+   * @param state The game to fast-forward.
+   * @param spell The spell to cast.
+   * @return The earliest fast-forwarded game with the mana to cast the spell, or empty if the
+   * spell costs more than the grimoire's maximum.
+   * @throws NullPointerException If the state or spell are null.
+   */
+  public static Optional<CookieClicker> warpUntilCastable(CookieClicker state, Spell spell) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    Objects.requireNonNull(spell, "Expected a non-null spell.");
+    return warpUntilMana(state, spell.getCost(state.getGrimoire().getMaxMana()));
+  }
+}
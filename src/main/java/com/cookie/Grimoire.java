@@ -0,0 +1,241 @@
+package com.cookie;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * The mana of a game's grimoire, spent to cast {@link Spell}s.
+ * <p>
+ * Mana regenerates every tick by {@link #REGENERATION} times the square root of the fraction of
+ * maximum mana held, but by at least {@link #REGENERATION} times {@link #MIN_FRACTION}, until it
+ * is full. Grimoires with less than {@link #MIN_SCALE} maximum mana regenerate as if they had that
+ * much. Regeneration is solved in closed form, so warping, and finding when mana reaches an
+ * amount, cost the same however long the wait.
+ * <p>
+ * Mana regenerates continuously, where the game adds it once a frame. The two differ by a fraction
+ * of a tick's regeneration.
+ * <p>
+ * Instances are immutable.
+ */
+public final class Grimoire {
+
+  /**
+   * The mana regenerated per tick by a full grimoire, were it not full.
+   */
+  public static final double REGENERATION = 0.002;
+
+  /**
+   * The smallest fraction of the full regeneration a grimoire regenerates.
+   */
+  public static final double MIN_FRACTION = 0.002;
+
+  /**
+   * The smallest maximum mana regeneration is scaled by.
+   */
+  public static final double MIN_SCALE = 100;
+
+  /**
+   * The grimoire of a game without one, with no mana.
+   */
+  public static final Grimoire NONE = new Grimoire(0, 0);
+
+  private final double mana;
+  private final double maxMana;
+
+  /**
+   * Create a grimoire.
+   *
+   * @param mana    The non-negative mana held, at most the maximum.
+   * @param maxMana The non-negative, finite, maximum mana.
+   * @throws IllegalArgumentException If mana or maxMana are negative, maxMana is infinite, or mana
+   *                                  is over maxMana.
+   */
+  public Grimoire(double mana, double maxMana) {
+    if (!(maxMana >= 0) || Double.isInfinite(maxMana) || !(mana >= 0) || mana > maxMana) {
+      throw new IllegalArgumentException("Cannot use negative mana, or mana over the maximum.");
+    }
+    this.mana = mana;
+    this.maxMana = maxMana;
+  }
+
+  /**
+   * Returns the mana held.
+   *
+   * @return The non-negative mana, at most the maximum.
+   */
+  public double getMana() {
+    return mana;
+  }
+
+  /**
+   * Returns the maximum mana.
+   *
+   * @return The mana held once full.
+   */
+  public double getMaxMana() {
+    return maxMana;
+  }
+
+  /**
+   * Returns how fast mana regenerates right now.
+   *
+   * @return The mana regenerated per tick, zero if full.
+   */
+  public double getRegenerationRate() {
+    if (mana >= maxMana) {
+      return 0;
+    }
+    return REGENERATION * Math.max(MIN_FRACTION, Math.sqrt(mana / scale()));
+  }
+
+  /**
+   * Provides a new version of this grimoire fast-forwarded.
+   *
+   * @param ticks The non-negative number of ticks to regenerate for.
+   * @return The grimoire after regenerating.
+   * @throws IllegalArgumentException If ticks is negative.
+   */
+  public Grimoire warp(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Unable to warp by negative amount of ticks.");
+    }
+    double regenerated = manaAfter(ticks);
+    return regenerated == mana ? this : new Grimoire(regenerated, maxMana);
+  }
+
+  /**
+   * Returns the number of ticks until this grimoire holds an amount of mana.
+   * <p>
+   * Warping by the returned number of ticks is guaranteed to hold the amount.
+   *
+   * @param target The amount of mana to hold.
+   * @return The fewest ticks to hold at least the target, zero if it already does, or empty if the
+   * target is over the maximum.
+   */
+  public OptionalLong ticksUntil(double target) {
+    if (target <= mana) {
+      return OptionalLong.of(0);
+    } else if (target > maxMana) {
+      return OptionalLong.empty();
+    }
+    double scale = scale();
+    double knee = MIN_FRACTION * MIN_FRACTION * scale;
+    double linearRate = REGENERATION * MIN_FRACTION;
+    double time = 0;
+    double from = mana;
+    if (from < knee) {
+      time += (Math.min(target, knee) - from) / linearRate;
+      from = knee;
+    }
+    if (target > from) {
+      // The square root of mana grows linearly above the knee.
+      time += 2 * (Math.sqrt(target) - Math.sqrt(from)) * Math.sqrt(scale) / REGENERATION;
+    }
+    long ticks = (long) Math.min(Long.MAX_VALUE, Math.ceil(time));
+    // The closed forms can round either way, so the estimate is settled against the warp itself.
+    while (ticks > 0 && manaAfter(ticks - 1) >= target) {
+      ticks--;
+    }
+    while (manaAfter(ticks) < target) {
+      ticks++;
+    }
+    return OptionalLong.of(ticks);
+  }
+
+  /**
+   * Returns the number of ticks until this grimoire is full.
+   *
+   * @return The fewest ticks to hold the maximum mana, zero if already full.
+   */
+  public long ticksUntilFull() {
+    return ticksUntil(maxMana).orElseThrow();
+  }
+
+  /**
+   * Returns the number of ticks until this grimoire can cast a spell.
+   *
+   * @param spell The spell to cast.
+   * @return The fewest ticks to hold the spell's cost, zero if it already does, or empty if the
+   * spell costs more than the maximum.
+   * @throws NullPointerException If the spell is null.
+   */
+  public OptionalLong ticksUntilCastable(Spell spell) {
+    Objects.requireNonNull(spell, "Expected a non-null spell.");
+    return ticksUntil(spell.getCost(maxMana));
+  }
+
+  /**
+   * Returns if this grimoire can cast a spell.
+   *
+   * @param spell The spell to cast.
+   * @return True if the mana held covers the spell's cost.
+   * @throws NullPointerException If the spell is null.
+   */
+  public boolean canCast(Spell spell) {
+    Objects.requireNonNull(spell, "Expected a non-null spell.");
+    return mana >= spell.getCost(maxMana);
+  }
+
+  /**
+   * Provides a new version of this grimoire with mana spent.
+   *
+   * @param cost The non-negative mana to spend, at most the mana held.
+   * @return The grimoire after spending.
+   * @throws IllegalArgumentException If the cost is negative, or over the mana held.
+   */
+  Grimoire spend(double cost) {
+    if (!(cost >= 0) || cost > mana) {
+      throw new IllegalArgumentException("Cannot spend negative mana, or more than is held.");
+    }
+    return new Grimoire(mana - cost, maxMana);
+  }
+
+  private double scale() {
+    return Math.max(maxMana, MIN_SCALE);
+  }
+
+  private double manaAfter(double ticks) {
+    if (mana >= maxMana || ticks == 0) {
+      return mana;
+    }
+    double scale = scale();
+    double knee = MIN_FRACTION * MIN_FRACTION * scale;
+    double linearRate = REGENERATION * MIN_FRACTION;
+    double from = mana;
+    if (from < knee) {
+      double linearTicks = (knee - from) / linearRate;
+      if (ticks <= linearTicks) {
+        return Math.min(maxMana, from + linearRate * ticks);
+      }
+      ticks -= linearTicks;
+      from = knee;
+    }
+    double root = Math.sqrt(from) + REGENERATION * ticks / (2 * Math.sqrt(scale));
+    return Math.min(maxMana, root * root);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(mana, maxMana);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof Grimoire)) {
+      return false;
+    }
+    Grimoire other = (Grimoire) o;
+    return Double.compare(mana, other.mana) == 0
+            && Double.compare(maxMana, other.maxMana) == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "mana = " + mana + ", " +
+            "maxMana = " + maxMana +
+            "}";
+  }
+}
@@ -0,0 +1,164 @@
+package com.cookie;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An itemized account of what a game earned over a gap of time.
+ * <p>
+ * Building and clicking earnings include whatever buffs added to them. The share buffs added is
+ * reported separately as well, so it is counted twice if all items are summed.
+ */
+public final class OfflineReport {
+
+  private final long ticks;
+  private final Map<BuildingType, Double> buildingCookies;
+  private final double clickingCookies;
+  private final double cookieClicks;
+  private final double buffCookies;
+  private final CookieClicker state;
+
+  /**
+   * Create a new report, see {@link Tally}.
+   */
+  private OfflineReport(long ticks, Map<BuildingType, Double> buildingCookies,
+                        double clickingCookies, double cookieClicks, double buffCookies,
+                        CookieClicker state) {
+    this.ticks = ticks;
+    this.buildingCookies = Collections.unmodifiableMap(buildingCookies);
+    this.clickingCookies = clickingCookies;
+    this.cookieClicks = cookieClicks;
+    this.buffCookies = buffCookies;
+    this.state = state;
+  }
+
+  /**
+   * Returns the length of the gap.
+   *
+   * @return The number of ticks the game was fast-forwarded by.
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * Returns the cookies each building type produced over the gap.
+   *
+   * @return A read-only map of building types to cookies produced, buffs included.
+   */
+  public Map<BuildingType, Double> getBuildingCookies() {
+    return buildingCookies;
+  }
+
+  /**
+   * Returns the cookies made by clicking the big cookie over the gap.
+   *
+   * @return The handmade cookies made, buffs included.
+   */
+  public double getClickingCookies() {
+    return clickingCookies;
+  }
+
+  /**
+   * Returns the number of times the big cookie was clicked over the gap.
+   *
+   * @return The number of clicks made.
+   */
+  public double getCookieClicks() {
+    return cookieClicks;
+  }
+
+  /**
+   * Returns the share of earnings that was only made because of active buffs.
+   *
+   * @return The cookies buffs added to building and clicking earnings.
+   */
+  public double getBuffCookies() {
+    return buffCookies;
+  }
+
+  /**
+   * Returns the total earnings over the gap.
+   *
+   * @return The sum of building, and clicking earnings.
+   */
+  public double getTotalCookies() {
+    double total = clickingCookies;
+    for (double cookies : buildingCookies.values()) {
+      total += cookies;
+    }
+    return total;
+  }
+
+  /**
+   * Returns the game state at the end of the gap.
+   *
+   * @return The fast-forwarded game state.
+   */
+  public CookieClicker getState() {
+    return state;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "ticks = " + ticks + ", " +
+            "buildingCookies = " + buildingCookies + ", " +
+            "clickingCookies = " + clickingCookies + ", " +
+            "cookieClicks = " + cookieClicks + ", " +
+            "buffCookies = " + buffCookies +
+            "}";
+  }
+
+  /**
+   * A running tally of earnings, one warp segment at a time.
+   */
+  static final class Tally {
+    private final Map<BuildingType, Double> buildingCookies = new LinkedHashMap<>();
+    private double clickingCookies;
+    private double cookieClicks;
+    private double buffCookies;
+
+    /**
+     * Record the earnings of one warp segment, during which measures are constant.
+     *
+     * @param state              The state at the start of the segment.
+     * @param unbuffed           The same state without any buffs.
+     * @param ticks              The length of the segment.
+     * @param productionFraction The fraction of building production earned.
+     * @param clicks             The number of clicks made in the segment.
+     */
+    void record(SimpleCookieClicker state, SimpleCookieClicker unbuffed,
+                long ticks, double productionFraction, double clicks) {
+      double buffedRate = 0;
+      for (Map.Entry<BuildingType, Double> entry : state.buildingRates.entrySet()) {
+        buildingCookies.merge(entry.getKey(), entry.getValue() * ticks * productionFraction,
+                Double::sum);
+        buffedRate += entry.getValue();
+      }
+      double unbuffedRate = 0;
+      for (double rate : unbuffed.buildingRates.values()) {
+        unbuffedRate += rate;
+      }
+
+      clickingCookies += clicks * state.cookiesPerClick;
+      cookieClicks += clicks;
+      buffCookies += (buffedRate - unbuffedRate) * ticks * productionFraction
+              + (state.cookiesPerClick - unbuffed.cookiesPerClick) * clicks;
+    }
+
+    /**
+     * Finish the tally.
+     *
+     * @param ticks The total length of the gap.
+     * @param state The state at the end of the gap.
+     * @return The report of this tally.
+     */
+    OfflineReport toReport(long ticks, CookieClicker state) {
+      return new OfflineReport(ticks, new LinkedHashMap<>(buildingCookies),
+              clickingCookies, cookieClicks, buffCookies, Objects.requireNonNull(state));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.cookie;
+
+/**
+ * The rules for what a game earns while the player is away.
+ * <p>
+ * While away, buildings keep producing at a fraction of their rate, and the player's clicking
+ * schedule is kept up at a fraction of its clicks. Buffs still run out as they would online.
+ */
+public final class OfflineRules {
+
+  /**
+   * Earn everything as if the player never left, equivalent to {@link CookieClicker#warp}.
+   */
+  public static final OfflineRules ONLINE = new OfflineRules(1, 1);
+
+  /**
+   * Earn full building production, but make no clicks.
+   */
+  public static final OfflineRules IDLE = new OfflineRules(1, 0);
+
+  private final double productionFraction;
+  private final double clickingFraction;
+
+  /**
+   * Create new offline rules.
+   *
+   * @param productionFraction The non-negative fraction of building production earned while away.
+   * @param clickingFraction   The non-negative fraction of scheduled clicks made while away.
+   * @throws IllegalArgumentException If either fraction is negative.
+   */
+  public OfflineRules(double productionFraction, double clickingFraction) {
+    if (productionFraction < 0 || clickingFraction < 0) {
+      throw new IllegalArgumentException("Cannot use negative production or clicking fractions.");
+    }
+    this.productionFraction = productionFraction;
+    this.clickingFraction = clickingFraction;
+  }
+
+  /**
+   * Returns the fraction of building production earned while away.
+   *
+   * @return The non-negative fraction of building production.
+   */
+  public double getProductionFraction() {
+    return productionFraction;
+  }
+
+  /**
+   * Returns the fraction of scheduled clicks made while away.
+   *
+   * @return The non-negative fraction of clicks.
+   */
+  public double getClickingFraction() {
+    return clickingFraction;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "productionFraction = " + productionFraction + ", " +
+            "clickingFraction = " + clickingFraction +
+            "}";
+  }
+}
@@ -0,0 +1,174 @@
+package com.cookie;
+
+import java.util.Arrays;
+
+/**
+ * A clicking schedule made of segments of constant clicking rate.
+ * <p>
+ * A periodic schedule repeats its segments forever. A non-periodic schedule holds the rate of its
+ * last segment forever once its segments run out.
+ * <p>
+ * Clicks are integrated with prefix sums over the segments, so any span is counted in logarithmic
+ * time in the number of segments, regardless of its length.
+ */
+public final class PiecewiseClickingSchedule implements ClickingSchedule {
+
+  private final long[] durations;
+  private final double[] rates;
+  private final boolean periodic;
+
+  // Prefix sums of segment durations and clicks. starts[i] is the tick segment i starts at.
+  private final long[] starts;
+  private final double[] clicksBefore;
+  private final long length;
+  private final double clicksPerLength;
+
+  /**
+   * Create a new piecewise clicking schedule.
+   *
+   * @param durations The positive durations of each segment in ticks.
+   * @param rates     The non-negative clicking rate of each segment in clicks per tick.
+   * @param periodic  True to repeat the segments forever, false to hold the last rate forever.
+   * @throws NullPointerException     If durations or rates are null.
+   * @throws IllegalArgumentException If durations and rates differ in length or are empty, any
+   *                                  duration is non-positive, or any rate is negative.
+   */
+  public PiecewiseClickingSchedule(long[] durations, double[] rates, boolean periodic) {
+    if (durations.length != rates.length || durations.length == 0) {
+      throw new IllegalArgumentException("Expected the same non-zero number of durations and rates.");
+    }
+    this.durations = durations.clone();
+    this.rates = rates.clone();
+    this.periodic = periodic;
+
+    this.starts = new long[durations.length];
+    this.clicksBefore = new double[durations.length];
+    long tick = 0;
+    double clicks = 0;
+    for (int i = 0; i < durations.length; i++) {
+      if (this.durations[i] <= 0 || this.rates[i] < 0) {
+        throw new IllegalArgumentException("Cannot use non-positive durations or negative rates.");
+      }
+      starts[i] = tick;
+      clicksBefore[i] = clicks;
+      tick = Math.addExact(tick, this.durations[i]);
+      clicks += this.durations[i] * this.rates[i];
+    }
+    this.length = tick;
+    this.clicksPerLength = clicks;
+  }
+
+  /**
+   * Create a schedule that clicks at a constant rate forever.
+   *
+   * @param rate The non-negative clicking rate in clicks per tick.
+   * @return A constant schedule.
+   * @throws IllegalArgumentException If the rate is negative.
+   */
+  public static PiecewiseClickingSchedule constant(double rate) {
+    return new PiecewiseClickingSchedule(new long[]{1}, new double[]{rate}, true);
+  }
+
+  /**
+   * Create a schedule that alternates between bursts of clicking and rests.
+   *
+   * @param burstTicks The positive length of each burst in ticks.
+   * @param burstRate  The non-negative clicking rate during a burst in clicks per tick.
+   * @param restTicks  The positive length of each rest in ticks.
+   * @return A periodic schedule starting with a burst.
+   * @throws IllegalArgumentException If a length is non-positive, or the rate is negative.
+   */
+  public static PiecewiseClickingSchedule bursts(long burstTicks, double burstRate, long restTicks) {
+    return new PiecewiseClickingSchedule(new long[]{burstTicks, restTicks},
+            new double[]{burstRate, 0}, true);
+  }
+
+  @Override
+  public double getRate(long tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Cannot query a negative tick.");
+    }
+    if (tick >= length) {
+      if (!periodic) {
+        return rates[rates.length - 1];
+      }
+      tick %= length;
+    }
+    return rates[segmentAt(tick)];
+  }
+
+  @Override
+  public double getClicks(long from, long ticks) {
+    if (from < 0 || ticks < 0) {
+      throw new IllegalArgumentException("Cannot count clicks over negative ticks.");
+    }
+    // The span is measured from where it starts instead of from the start of the schedule, so
+    // from + ticks is never computed and spans ending past Long.MAX_VALUE don't overflow.
+    if (!periodic) {
+      if (from >= length) {
+        return ticks * rates[rates.length - 1];
+      } else if (ticks < length - from) {
+        return clicksWithin(from + ticks) - clicksWithin(from);
+      }
+      return clicksPerLength - clicksWithin(from)
+              + (ticks - (length - from)) * rates[rates.length - 1];
+    }
+    long phase = from % length;
+    long rest = ticks % length;
+    double clicks = (ticks / length) * clicksPerLength;
+    if (rest < length - phase) {
+      return clicks + clicksWithin(phase + rest) - clicksWithin(phase);
+    }
+    return clicks + clicksPerLength - clicksWithin(phase) + clicksWithin(rest - (length - phase));
+  }
+
+  /**
+   * Returns the number of clicks made from the start of the segments until a tick within them.
+   *
+   * @param tick The tick to count until, less than the total segment length.
+   * @return The number of clicks in [0, tick).
+   */
+  private double clicksWithin(long tick) {
+    int segment = segmentAt(tick);
+    return clicksBefore[segment] + (tick - starts[segment]) * rates[segment];
+  }
+
+  /**
+   * Find the segment a tick falls into with a binary search.
+   *
+   * @param tick The tick to look up, less than the total segment length.
+   * @return The index of the segment containing the tick.
+   */
+  private int segmentAt(long tick) {
+    int index = Arrays.binarySearch(starts, tick);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof PiecewiseClickingSchedule)) {
+      return false;
+    }
+    PiecewiseClickingSchedule other = (PiecewiseClickingSchedule) o;
+    return periodic == other.periodic
+            && Arrays.equals(durations, other.durations)
+            && Arrays.equals(rates, other.rates);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(durations) + Arrays.hashCode(rates))
+            + Boolean.hashCode(periodic);
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "durations = " + Arrays.toString(durations) + ", " +
+            "rates = " + Arrays.toString(rates) + ", " +
+            "periodic = " + periodic +
+            "}";
+  }
+}
@@ -0,0 +1,249 @@
+package com.cookie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The prestige a game keeps across ascensions.
+ * <p>
+ * Ascending resets a game to a fresh state, except for its prestige. The prestige level is the
+ * cube root of the cookies baked all-time before the last ascension, in trillions, rounded down.
+ * Each level is also earned once as a heavenly chip, and raises building production by {@link
+ * #MULTIPLIER_PER_LEVEL}, applied as a multiplicative effect on every building type.
+ * <p>
+ * Instances are immutable.
+ */
+public final class Prestige {
+
+  /**
+   * The cookies baked all-time needed for prestige level one. Level n needs n cubed times this.
+   */
+  public static final double COOKIES_PER_LEVEL = 1e12;
+
+  /**
+   * The production multiplier added by each prestige level.
+   */
+  public static final double MULTIPLIER_PER_LEVEL = 0.01;
+
+  /**
+   * The prestige of a game that never ascended.
+   */
+  public static final Prestige NONE = new Prestige(0, 0, 0);
+
+  private final double resetCookies;
+  private final long ascensions;
+  private final long heavenlyChips;
+
+  /**
+   * Create a prestige.
+   *
+   * @param resetCookies  The non-negative cookies baked all-time before the last ascension.
+   * @param ascensions    The non-negative number of ascensions.
+   * @param heavenlyChips The non-negative number of unspent heavenly chips.
+   * @throws IllegalArgumentException If any argument is negative.
+   */
+  public Prestige(double resetCookies, long ascensions, long heavenlyChips) {
+    if (!(resetCookies >= 0) || ascensions < 0 || heavenlyChips < 0) {
+      throw new IllegalArgumentException("Cannot use negative reset cookies, ascensions, or"
+              + " heavenly chips.");
+    }
+    this.resetCookies = resetCookies;
+    this.ascensions = ascensions;
+    this.heavenlyChips = heavenlyChips;
+  }
+
+  /**
+   * Returns the prestige level reached by baking an amount of cookies all-time.
+   *
+   * @param cookiesBaked The cookies baked all-time.
+   * @return The largest level whose cube, in trillions of cookies, is at most the cookies baked.
+   */
+  public static long levelOf(double cookiesBaked) {
+    if (!(cookiesBaked >= COOKIES_PER_LEVEL)) {
+      return 0;
+    }
+    // The cube root can be an ulp off, so the rounding is corrected with exact cubes.
+    long level = (long) Math.cbrt(cookiesBaked / COOKIES_PER_LEVEL);
+    while (cubed(level + 1) <= cookiesBaked) {
+      level++;
+    }
+    while (level > 0 && cubed(level) > cookiesBaked) {
+      level--;
+    }
+    return level;
+  }
+
+  private static double cubed(long level) {
+    return (double) level * level * level * COOKIES_PER_LEVEL;
+  }
+
+  /**
+   * Returns the prestige level.
+   *
+   * @return The level reached by the cookies baked before the last ascension.
+   */
+  public long getLevel() {
+    return levelOf(resetCookies);
+  }
+
+  /**
+   * Returns the production multiplier of this prestige.
+   *
+   * @return One plus {@link #MULTIPLIER_PER_LEVEL} for each level.
+   */
+  public double getMultiplier() {
+    return 1 + MULTIPLIER_PER_LEVEL * getLevel();
+  }
+
+  /**
+   * Returns the heavenly chips ascending would earn.
+   *
+   * @param cookiesBaked The cookies baked all-time at the ascension.
+   * @return The number of levels gained over the current level.
+   */
+  public long getPendingChips(double cookiesBaked) {
+    return Math.max(0, levelOf(cookiesBaked) - getLevel());
+  }
+
+  /**
+   * Ascend, keeping the cookies baked towards prestige.
+   *
+   * @param cookiesBaked The non-negative cookies baked all-time at the ascension.
+   * @return The prestige after ascending, with the pending chips earned.
+   * @throws IllegalArgumentException If cookiesBaked is negative.
+   */
+  public Prestige ascend(double cookiesBaked) {
+    if (!(cookiesBaked >= 0)) {
+      throw new IllegalArgumentException("Cannot use negative cookies baked.");
+    }
+    return new Prestige(Math.max(resetCookies, cookiesBaked), ascensions + 1,
+            heavenlyChips + getPendingChips(cookiesBaked));
+  }
+
+  /**
+   * Returns the cookies counted towards prestige.
+   *
+   * @return The cookies baked all-time before the last ascension.
+   */
+  public double getResetCookies() {
+    return resetCookies;
+  }
+
+  /**
+   * Returns the number of ascensions.
+   *
+   * @return The number of times the game ascended.
+   */
+  public long getAscensions() {
+    return ascensions;
+  }
+
+  /**
+   * Returns the unspent heavenly chips.
+   *
+   * @return The heavenly chips earned by ascending, and not spent.
+   */
+  public long getHeavenlyChips() {
+    return heavenlyChips;
+  }
+
+  /**
+   * Returns the effects of this prestige on some building types.
+   *
+   * @param buildings The building types to affect.
+   * @return A multiplicative effect per building type, or nothing below level one.
+   */
+  List<ProductionEffect> getEffects(Collection<? extends BuildingType> buildings) {
+    double multiplier = getMultiplier();
+    if (multiplier == 1) {
+      return List.of();
+    }
+    List<ProductionEffect> effects = new ArrayList<>(buildings.size());
+    for (BuildingType building : buildings) {
+      effects.add(new PrestigeEffect(building, multiplier));
+    }
+    return effects;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(resetCookies, ascensions, heavenlyChips);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof Prestige)) {
+      return false;
+    }
+    Prestige other = (Prestige) o;
+    return Double.compare(resetCookies, other.resetCookies) == 0
+            && ascensions == other.ascensions
+            && heavenlyChips == other.heavenlyChips;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "resetCookies = " + resetCookies + ", " +
+            "ascensions = " + ascensions + ", " +
+            "heavenlyChips = " + heavenlyChips +
+            "}";
+  }
+
+  /**
+   * The prestige multiplier on one building type.
+   */
+  private static final class PrestigeEffect implements BuildingProductionEffect {
+    private final BuildingType target;
+    private final double multiplier;
+
+    PrestigeEffect(BuildingType target, double multiplier) {
+      this.target = target;
+      this.multiplier = multiplier;
+    }
+
+    @Override
+    public TERM getTerm() {
+      return TERM.MULTIPLIER;
+    }
+
+    @Override
+    public double getNumber(SavedCookieClicker stats) {
+      Objects.requireNonNull(stats);
+      return multiplier;
+    }
+
+    @Override
+    public BuildingType getTarget() {
+      return target;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(target, multiplier);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof PrestigeEffect)) {
+        return false;
+      }
+      PrestigeEffect other = (PrestigeEffect) o;
+      return target.equals(other.target) && Double.compare(multiplier, other.multiplier) == 0;
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "target = " + target + ", " +
+              "multiplier = " + multiplier +
+              "}";
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.cookie;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -36,6 +37,15 @@ public interface SavedCookieClicker {
    */
   double getCurrentBank();
 
+  /**
+   * Returns the current amount of cookies in the bank, in extended range.
+   *
+   * @return The bank, which keeps growing where {@link #getCurrentBank} saturates to infinity.
+   */
+  default CookieAmount getCurrentBankAmount() {
+    return CookieAmount.of(getCurrentBank());
+  }
+
   /**
    * Returns the current game inventory of buildings.
    *
@@ -44,6 +54,31 @@ public interface SavedCookieClicker {
    */
   Map<BuildingType, Integer> getBuildingInventory();
 
+  /**
+   * Returns how many of a building type are owned.
+   *
+   * @param buildingType The building type.
+   * @return The number owned, zero if none are.
+   * @throws NullPointerException If the building type is null.
+   */
+  default int getBuildingCount(BuildingType buildingType) {
+    Objects.requireNonNull(buildingType, "Expected a non-null building type.");
+    return getBuildingInventory().getOrDefault(buildingType, 0);
+  }
+
+  /**
+   * Returns how many buildings are owned over all building types.
+   *
+   * @return The sum of the counts of the building inventory.
+   */
+  default long getBuildingsOwned() {
+    long owned = 0;
+    for (int count : getBuildingInventory().values()) {
+      owned += count;
+    }
+    return owned;
+  }
+
   /**
    * Returns the current game inventory of production upgrades.
    *
@@ -74,6 +109,16 @@ public interface SavedCookieClicker {
    */
   double getCookiesBaked();
 
+  /**
+   * Returns the current amount of cookies baked all-time, in extended range.
+   *
+   * @return The cookies baked, which keep growing where {@link #getCookiesBaked} saturates to
+   * infinity.
+   */
+  default CookieAmount getCookiesBakedAmount() {
+    return CookieAmount.of(getCookiesBaked());
+  }
+
   /**
    * Returns the current amount of cookies generated in one click.
    *
@@ -94,4 +139,69 @@ public interface SavedCookieClicker {
    * @return The total number of times the big cookie was clicked all time.
    */
   double getCookieClicks();
+
+  /**
+   * Returns the achievements earned.
+   * <p>
+   * By default, games don't track achievements and none are earned.
+   *
+   * @return A read-only set of achievements earned.
+   */
+  default Set<Achievement> getAchievements() {
+    return Set.of();
+  }
+
+  /**
+   * Returns the milk of this game, which grows with the achievements earned.
+   *
+   * @return The milk as a fraction, where each achievement adds
+   * {@link AchievementTracker#MILK_PER_ACHIEVEMENT}.
+   */
+  default double getMilk() {
+    return getAchievements().size() * AchievementTracker.MILK_PER_ACHIEVEMENT;
+  }
+
+  /**
+   * Returns the prestige kept across ascensions.
+   * <p>
+   * By default, games never ascend and have {@link Prestige#NONE}.
+   *
+   * @return The prestige of this game.
+   */
+  default Prestige getPrestige() {
+    return Prestige.NONE;
+  }
+
+  /**
+   * Returns the grimoire, whose mana regenerates as the game is warped.
+   * <p>
+   * By default, games have no grimoire.
+   *
+   * @return The grimoire of this game, {@link Grimoire#NONE} if it has none.
+   */
+  default Grimoire getGrimoire() {
+    return Grimoire.NONE;
+  }
+
+  /**
+   * Returns the sugar lumps, which ripen as the game is warped, and the building levels.
+   * <p>
+   * By default, games have no sugar lumps and no building levels.
+   *
+   * @return The sugar lumps of this game, {@link SugarLumps#NONE} if it has none.
+   */
+  default SugarLumps getSugarLumps() {
+    return SugarLumps.NONE;
+  }
+
+  /**
+   * Returns the wrinklers, which digest a share of building production as the game is warped.
+   * <p>
+   * By default, games have no wrinklers.
+   *
+   * @return The wrinklers of this game, {@link Wrinklers#NONE} if none are attached.
+   */
+  default Wrinklers getWrinklers() {
+    return Wrinklers.NONE;
+  }
 }
@@ -0,0 +1,382 @@
+package com.cookie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The sensitivity of a game's production to its inputs.
+ * <p>
+ * Inputs are building counts (keyed by {@link BuildingType}), owning upgrades (keyed by {@link
+ * ProductionUpgrade}), and the clicking rate (keyed by {@link Parameter#CLICKING_RATE}). For each
+ * input this gives the derivative of the total production rate now, of the bank at a horizon, and
+ * of the ticks needed to bank that much.
+ * <p>
+ * Derivatives are analytic. Every rate has the form {@code units * (M * base + C)}, with M the
+ * product of {@link ProductionEffect.TERM#MULTIPLIER} numbers and C the sum of {@link
+ * ProductionEffect.TERM#CONSTANT} numbers, so one more building adds {@code M * base + C}, and one
+ * more click per tick adds the cookies per click. Owning an upgrade is not continuous, its
+ * derivative is the exact change in rate from owning it or not. Between buff expiries rates are
+ * constant, so the bank at the horizon is linear in each rate, and its derivatives are sums over
+ * those segments. The ticks to bank an amount move by minus the change in bank over the rate at
+ * the time it is reached.
+ * <p>
+ * These are first-order in effect numbers: effects whose numbers depend on the inputs, like one
+ * scaling with a building count, are evaluated at the current state and held fixed. Achievements
+ * earned within the horizon are not accounted for, and the clicking rate derivative assumes a
+ * constant clicking rate.
+ */
+public final class Sensitivity {
+
+  /**
+   * Inputs of a game that are neither buildings nor upgrades.
+   */
+  public enum Parameter {
+    /**
+     * The clicking rate, in clicks per tick.
+     */
+    CLICKING_RATE
+  }
+
+  private final long horizon;
+  private final double totalRate;
+  private final double bankAtHorizon;
+  private final double rateAtHorizon;
+  private final Map<Object, Double> rateDerivatives;
+  private final Map<Object, Double> bankDerivatives;
+  private final Map<Object, Double> ticksDerivatives;
+  private final Map<BuildingType, Double> priceDerivatives;
+
+  private Sensitivity(long horizon, double totalRate, double bankAtHorizon, double rateAtHorizon,
+                      Map<Object, Double> rateDerivatives, Map<Object, Double> bankDerivatives,
+                      Map<Object, Double> ticksDerivatives,
+                      Map<BuildingType, Double> priceDerivatives) {
+    this.horizon = horizon;
+    this.totalRate = totalRate;
+    this.bankAtHorizon = bankAtHorizon;
+    this.rateAtHorizon = rateAtHorizon;
+    this.rateDerivatives = rateDerivatives;
+    this.bankDerivatives = bankDerivatives;
+    this.ticksDerivatives = ticksDerivatives;
+    this.priceDerivatives = priceDerivatives;
+  }
+
+  /**
+   * Analyze a game.
+   *
+   * @param state     The game to analyze, which must be a {@link SimpleCookieClicker}.
+   * @param buildings The building types to differentiate by count, owned or not.
+   * @param upgrades  The upgrades to differentiate by ownership, owned or not.
+   * @param horizon   The non-negative number of ticks to look ahead for the bank.
+   * @return The sensitivity of the game.
+   * @throws NullPointerException     If any argument is null.
+   * @throws IllegalArgumentException If the state isn't a SimpleCookieClicker, or the horizon is
+   *                                  negative.
+   */
+  public static Sensitivity of(CookieClicker state, Collection<BuildingType> buildings,
+                               Collection<ProductionUpgrade> upgrades, long horizon) {
+    if (!(Objects.requireNonNull(state, "Expected a non-null state.")
+            instanceof SimpleCookieClicker)) {
+      throw new IllegalArgumentException("Can only analyze SimpleCookieClicker states.");
+    } else if (horizon < 0) {
+      throw new IllegalArgumentException("Cannot use a negative horizon.");
+    }
+    List<Object> inputs = new ArrayList<>(buildings);
+    inputs.addAll(upgrades);
+    inputs.add(Parameter.CLICKING_RATE);
+
+    // Rates are constant until the next buff expires, so the bank is summed segment by segment.
+    double[] rateNow = derivatives(state, inputs);
+    double[] bank = new double[inputs.size()];
+    CookieClicker current = state;
+    double rateBeforeHorizon = Forecast.getTotalRate(state);
+    double[] rates = rateNow;
+    long remaining = horizon;
+    while (remaining > 0) {
+      long segment = remaining;
+      for (ProductionBuff buff : current.getActiveProductionBuffs()) {
+        segment = Math.min(segment, buff.getTimeLeft());
+      }
+      for (int i = 0; i < bank.length; i++) {
+        bank[i] += segment * rates[i];
+      }
+      rateBeforeHorizon = Forecast.getTotalRate(current);
+      current = current.warp(segment);
+      remaining -= segment;
+      if (remaining > 0) {
+        rates = derivatives(current, inputs);
+      }
+    }
+
+    Map<Object, Double> rateMap = new LinkedHashMap<>();
+    Map<Object, Double> bankMap = new LinkedHashMap<>();
+    Map<Object, Double> ticksMap = new LinkedHashMap<>();
+    for (int i = 0; i < inputs.size(); i++) {
+      rateMap.put(inputs.get(i), rateNow[i]);
+      bankMap.put(inputs.get(i), bank[i]);
+      ticksMap.put(inputs.get(i), rateBeforeHorizon > 0 ? -bank[i] / rateBeforeHorizon
+              : Double.NaN);
+    }
+
+    // The next unit costs unitPrice * g^n, so its price moves by n * unitPrice * g^(n - 1).
+    SimpleCookieClicker simple = (SimpleCookieClicker) state;
+    double growth = simple.priceGrowthFactor;
+    Map<BuildingType, Double> priceMap = new LinkedHashMap<>();
+    for (BuildingType building : buildings) {
+      int owned = simple.inventory.getOrDefault(building, 0);
+      priceMap.put(building, owned * building.getUnitPrice() * Math.pow(growth, owned - 1));
+    }
+
+    return new Sensitivity(horizon, Forecast.getTotalRate(state), current.getCurrentBank(),
+            rateBeforeHorizon, Collections.unmodifiableMap(rateMap),
+            Collections.unmodifiableMap(bankMap), Collections.unmodifiableMap(ticksMap),
+            Collections.unmodifiableMap(priceMap));
+  }
+
+  /**
+   * Returns the derivative of the total rate of a state with respect to every input.
+   */
+  private static double[] derivatives(CookieClicker state, List<Object> inputs) {
+    Terms terms = new Terms(state, inputs);
+    double[] result = new double[inputs.size()];
+    for (int i = 0; i < inputs.size(); i++) {
+      Object input = inputs.get(i);
+      if (input instanceof BuildingType) {
+        BuildingType building = (BuildingType) input;
+        result[i] = terms.unitRate(building, null, false);
+      } else if (input instanceof ProductionUpgrade) {
+        ProductionUpgrade upgrade = (ProductionUpgrade) input;
+        boolean owned = state.getProductionUpgrades().contains(upgrade);
+        if (!owned) {
+          terms.addCandidate(upgrade);
+        }
+        double with = terms.totalRate(upgrade, true);
+        double without = terms.totalRate(upgrade, false);
+        result[i] = with - without;
+      } else {
+        result[i] = terms.cookiesPerClick(null, false);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of ticks the bank was looked ahead.
+   *
+   * @return The horizon in ticks.
+   */
+  public long getHorizon() {
+    return horizon;
+  }
+
+  /**
+   * Returns the total production rate of the game now.
+   *
+   * @return The rate in cookies per tick.
+   */
+  public double getTotalRate() {
+    return totalRate;
+  }
+
+  /**
+   * Returns the bank of the game at the horizon, if nothing is bought.
+   *
+   * @return The number of cookies banked at the horizon.
+   */
+  public double getBankAtHorizon() {
+    return bankAtHorizon;
+  }
+
+  /**
+   * Returns the total production rate during the last tick before the horizon.
+   *
+   * @return The rate in cookies per tick.
+   */
+  public double getRateAtHorizon() {
+    return rateAtHorizon;
+  }
+
+  /**
+   * Returns the derivatives of the total production rate now.
+   *
+   * @return A read-only map from every input to the cookies per tick gained per unit of it.
+   */
+  public Map<Object, Double> getRateDerivatives() {
+    return rateDerivatives;
+  }
+
+  /**
+   * Returns the derivatives of the bank at the horizon.
+   *
+   * @return A read-only map from every input to the cookies banked by the horizon per unit of it.
+   */
+  public Map<Object, Double> getBankDerivatives() {
+    return bankDerivatives;
+  }
+
+  /**
+   * Returns the derivatives of the ticks needed to bank {@link #getBankAtHorizon()}.
+   * <p>
+   * For the time to reach a goal, analyze with the horizon at which the goal is reached, see
+   * {@link Forecast#warpUntilBank}.
+   *
+   * @return A read-only map from every input to the ticks saved (negative) or lost per unit of
+   * it, or NaN for all inputs if nothing is produced at the horizon.
+   */
+  public Map<Object, Double> getTicksDerivatives() {
+    return ticksDerivatives;
+  }
+
+  /**
+   * Returns the derivatives of the price of the next building with respect to the price growth
+   * factor.
+   * <p>
+   * Production doesn't depend on prices, so the growth factor only moves how long purchases take
+   * to afford: by this over the total rate, in ticks.
+   *
+   * @return A read-only map from every building type to the change of the price of its next unit
+   * per unit of growth factor.
+   */
+  public Map<BuildingType, Double> getPriceDerivatives() {
+    return priceDerivatives;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "horizon = " + horizon + ", " +
+            "totalRate = " + totalRate + ", " +
+            "bankAtHorizon = " + bankAtHorizon + ", " +
+            "rateDerivatives = " + rateDerivatives + ", " +
+            "bankDerivatives = " + bankDerivatives +
+            "}";
+  }
+
+  /**
+   * The evaluated effect numbers of a state, with the upgrade or buff each came from.
+   */
+  private static final class Terms {
+    private final CookieClicker state;
+    private final Map<BuildingType, List<Term>> buildingTerms = new HashMap<>();
+    private final List<Term> clickingTerms = new ArrayList<>();
+    private Object currentSource;
+    private boolean currentCandidate;
+
+    private final ProductionEffectVisitor<Boolean> collector = new ProductionEffectVisitor<>() {
+      @Override
+      public Boolean applyToBuildingProductionEffect(BuildingProductionEffect effect) {
+        return buildingTerms.computeIfAbsent(effect.getTarget(), target -> new ArrayList<>())
+                .add(new Term(currentSource, currentCandidate,
+                        effect.getTerm() == ProductionEffect.TERM.MULTIPLIER,
+                        effect.getNumber(state)));
+      }
+
+      @Override
+      public Boolean applyToClickingProductionEffect(ClickingProductionEffect effect) {
+        return clickingTerms.add(new Term(currentSource, currentCandidate,
+                effect.getTerm() == ProductionEffect.TERM.MULTIPLIER,
+                effect.getNumber(state)));
+      }
+    };
+
+    Terms(CookieClicker state, List<Object> inputs) {
+      this.state = state;
+      for (ProductionUpgrade upgrade : state.getProductionUpgrades()) {
+        add(upgrade, upgrade.getEffects(), false);
+      }
+      for (ProductionBuff buff : state.getActiveProductionBuffs()) {
+        add(buff, buff.getEffects(), false);
+      }
+      // Prestige multiplies every building, owned or only being analyzed.
+      Set<BuildingType> buildings = new HashSet<>(state.getBuildingInventory().keySet());
+      for (Object input : inputs) {
+        if (input instanceof BuildingType) {
+          buildings.add((BuildingType) input);
+        }
+      }
+      add(state.getPrestige(), state.getPrestige().getEffects(buildings), false);
+    }
+
+    /**
+     * Add the effects of an upgrade that isn't owned, counted only when asked for.
+     */
+    void addCandidate(ProductionUpgrade upgrade) {
+      add(upgrade, upgrade.getEffects(), true);
+    }
+
+    private void add(Object source, Collection<ProductionEffect> effects, boolean candidate) {
+      currentSource = source;
+      currentCandidate = candidate;
+      effects.forEach(effect -> effect.accept(collector));
+    }
+
+    /**
+     * Returns the total rate of the state, with or without the effects of one source.
+     */
+    double totalRate(Object source, boolean with) {
+      double rate = state.getClickingRate() * cookiesPerClick(source, with);
+      for (Map.Entry<BuildingType, Integer> entry : state.getBuildingInventory().entrySet()) {
+        rate += entry.getValue() * unitRate(entry.getKey(), source, with);
+      }
+      return rate;
+    }
+
+    /**
+     * Returns the rate one building adds to the bank, after wrinklers wither their share.
+     */
+    double unitRate(BuildingType building, Object source, boolean with) {
+      return combine(buildingTerms.getOrDefault(building, Collections.emptyList()),
+              building.getRate() * state.getSugarLumps().getMultiplier(building), source, with)
+              * state.getWrinklers().getRetainedFraction();
+    }
+
+    double cookiesPerClick(Object source, boolean with) {
+      return combine(clickingTerms, 1, source, with);
+    }
+
+    /**
+     * Returns {@code M * base + C} over the owned terms, and the terms of the given source only if
+     * asked to include it.
+     */
+    private static double combine(List<Term> terms, double base, Object source, boolean with) {
+      double multiplier = 1;
+      double constant = 0;
+      for (Term term : terms) {
+        boolean fromSource = source != null && term.source.equals(source);
+        if (fromSource ? !with : term.candidate) {
+          continue;
+        }
+        if (term.multiplier) {
+          multiplier *= term.number;
+        } else {
+          constant += term.number;
+        }
+      }
+      return multiplier * base + constant;
+    }
+  }
+
+  /**
+   * One evaluated effect number.
+   */
+  private static final class Term {
+    private final Object source;
+    private final boolean candidate;
+    private final boolean multiplier;
+    private final double number;
+
+    Term(Object source, boolean candidate, boolean multiplier, double number) {
+      this.source = source;
+      this.candidate = candidate;
+      this.multiplier = multiplier;
+      this.number = number;
+    }
+  }
+}
@@ -1,18 +1,22 @@
 package com.cookie;
 
+import com.cookie.jfr.EffectEvaluationEvent;
+import com.cookie.jfr.StateConstructionEvent;
+import com.cookie.jfr.WarpSegmentEvent;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A SimpleCookieClicker is a simple functional approach to fulfilling the simulator API.
@@ -24,6 +28,20 @@ import java.util.stream.Stream;
  * <p>
  * Methods returning a changed replica of this instance will have the same refund and price growth
  * constants.
+ * <p>
+ * A constant clicking rate is kept as a constant {@link ClickingSchedule}. Warping integrates clicks
+ * over the schedule in closed form, so only buff expirations and achievement thresholds split a
+ * warp into segments. The tick a threshold is crossed is found by binary search over a segment.
+ * <p>
+ * Two instances are equal when they hold the same save: ticks, bank, statistics, clicking rate,
+ * price growth and refund factors, owned buildings (ignoring zero counts), owned upgrades, active
+ * buffs (ignoring order), and achievements earned out of the same catalog. Hashing is
+ * Zobrist-style, maintained incrementally across purchases, so states reached through different
+ * purchase orders can be deduplicated cheaply.
+ * <p>
+ * Building a state, evaluating its effects, and each warp segment emit the flight recorder events of
+ * {@link com.cookie.jfr}. They are disabled by default, and cost nothing unless a recording enables
+ * them.
  */
 public class SimpleCookieClicker implements CookieClicker {
 
@@ -32,20 +50,48 @@ public class SimpleCookieClicker implements CookieClicker {
   final Map<BuildingType, Integer> inventory;
   final Set<ProductionUpgrade> upgrades;
   final List<ProductionBuff> buffs;
+  final ClickingSchedule clickingSchedule;
+  final long scheduleStart;
   final double clickingRate;
-  final double currentBank;
-  final double cookiesBaked;
+  // The bank and cookies baked are extended-range, so they keep growing past 1e308.
+  final CookieAmount currentBank;
+  final CookieAmount cookiesBaked;
   final double handmadeCookies;
   final double cookieClicks;
 
   // Calculated measures.
   final Map<BuildingType, Double> buildingRates;
   final double cookiesPerClick;
+  // Rebuilt from the effects on the first request. Attributions are immutable, so a race only
+  // builds an equal one twice.
+  private Attribution attribution;
+
+  // Incrementally maintained hashes of the inventories, and the resulting state hash.
+  final long inventoryHash;
+  // A running total of buildings owned, kept up to date by transactions.
+  final long buildingsOwned;
+  final long upgradesHash;
+  final long stateHash;
 
   // Specific to the implementation, price growth and refund factors.
   final double priceGrowthFactor;
   final double refundFactor;
 
+  // The achievements earned, and left to earn.
+  final AchievementTracker achievements;
+
+  // The prestige kept across ascensions.
+  final Prestige prestige;
+
+  // The mana for casting spells.
+  final Grimoire grimoire;
+
+  // The sugar lumps, and the building levels bought with them.
+  final SugarLumps sugarLumps;
+
+  // The wrinklers, and the cookies they digested.
+  final Wrinklers wrinklers;
+
   /**
    * Create a new instance of a SimpleCookieClicker with the following properties.
    *
@@ -65,7 +111,8 @@ public class SimpleCookieClicker implements CookieClicker {
    *                          determine the total refund.
    * @throws IllegalArgumentException If ticks, clickingRate, currentBank, cookiesBaked,
    *                                  handmadeCookies, or cookieClicks are negative. If
-   *                                  priceGrowthFactor, or refundFactor are non-positive.
+   *                                  priceGrowthFactor, or refundFactor are non-positive. If
+   *                                  currentBank or cookiesBaked aren't finite.
    * @throws NullPointerException     If inventory, upgrades, or buffs are null.
    */
   public SimpleCookieClicker(long ticks,
@@ -76,11 +123,177 @@ public class SimpleCookieClicker implements CookieClicker {
                              double currentBank,
                              double cookiesBaked, double handmadeCookies, double cookieClicks,
                              double priceGrowthFactor, double refundFactor) {
+    this(ticks, inventory, upgrades, buffs, clickingRate, currentBank,
+            cookiesBaked, handmadeCookies, cookieClicks, priceGrowthFactor, refundFactor,
+            AchievementTracker.NONE);
+  }
+
+  /**
+   * Create a new instance of a SimpleCookieClicker that tracks achievements.
+   * <p>
+   * Any achievements of the tracker the given statistics already reached are earned at the given
+   * ticks.
+   *
+   * @param ticks             See the other public constructor.
+   * @param inventory         See the other public constructor.
+   * @param upgrades          See the other public constructor.
+   * @param buffs             See the other public constructor.
+   * @param clickingRate      See the other public constructor.
+   * @param currentBank       See the other public constructor.
+   * @param cookiesBaked      See the other public constructor.
+   * @param handmadeCookies   See the other public constructor.
+   * @param cookieClicks      See the other public constructor.
+   * @param priceGrowthFactor See the other public constructor.
+   * @param refundFactor      See the other public constructor.
+   * @param achievements      The non-null tracker of achievements earned, and left to earn.
+   * @throws IllegalArgumentException See the other public constructor.
+   * @throws NullPointerException     If inventory, upgrades, buffs, or achievements are null.
+   */
+  public SimpleCookieClicker(long ticks,
+                             Map<BuildingType, Integer> inventory,
+                             Set<ProductionUpgrade> upgrades,
+                             List<ProductionBuff> buffs,
+                             double clickingRate,
+                             double currentBank,
+                             double cookiesBaked, double handmadeCookies, double cookieClicks,
+                             double priceGrowthFactor, double refundFactor,
+                             AchievementTracker achievements) {
+    this(ticks, inventory, upgrades, buffs, clickingRate, currentBank,
+            cookiesBaked, handmadeCookies, cookieClicks, priceGrowthFactor, refundFactor,
+            achievements, Prestige.NONE);
+  }
+
+  /**
+   * Create a new instance of a SimpleCookieClicker that tracks achievements, and has ascended.
+   *
+   * @param ticks             See the other public constructor.
+   * @param inventory         See the other public constructor.
+   * @param upgrades          See the other public constructor.
+   * @param buffs             See the other public constructor.
+   * @param clickingRate      See the other public constructor.
+   * @param currentBank       See the other public constructor.
+   * @param cookiesBaked      See the other public constructor.
+   * @param handmadeCookies   See the other public constructor.
+   * @param cookieClicks      See the other public constructor.
+   * @param priceGrowthFactor See the other public constructor.
+   * @param refundFactor      See the other public constructor.
+   * @param achievements      See the other public constructor.
+   * @param prestige          The non-null prestige kept across ascensions.
+   * @throws IllegalArgumentException See the other public constructor.
+   * @throws NullPointerException     If inventory, upgrades, buffs, achievements, or prestige are
+   *                                  null.
+   */
+  public SimpleCookieClicker(long ticks,
+                             Map<BuildingType, Integer> inventory,
+                             Set<ProductionUpgrade> upgrades,
+                             List<ProductionBuff> buffs,
+                             double clickingRate,
+                             double currentBank,
+                             double cookiesBaked, double handmadeCookies, double cookieClicks,
+                             double priceGrowthFactor, double refundFactor,
+                             AchievementTracker achievements, Prestige prestige) {
+    this(ticks, inventory, upgrades, buffs, clickingRate, CookieAmount.of(currentBank),
+            CookieAmount.of(cookiesBaked), handmadeCookies, cookieClicks, priceGrowthFactor,
+            refundFactor, achievements, prestige);
+  }
+
+  /**
+   * Create a new instance with an extended-range bank and cookies baked, like the codec decodes.
+   *
+   * @param ticks             See the public constructors.
+   * @param inventory         See the public constructors.
+   * @param upgrades          See the public constructors.
+   * @param buffs             See the public constructors.
+   * @param clickingRate      See the public constructors.
+   * @param currentBank       The non-negative current amount of cookies owned.
+   * @param cookiesBaked      The non-negative total amount of cookies made all-time.
+   * @param handmadeCookies   See the public constructors.
+   * @param cookieClicks      See the public constructors.
+   * @param priceGrowthFactor See the public constructors.
+   * @param refundFactor      See the public constructors.
+   * @param achievements      See the public constructors.
+   * @param prestige          See the public constructors.
+   */
+  SimpleCookieClicker(long ticks,
+                      Map<BuildingType, Integer> inventory,
+                      Set<ProductionUpgrade> upgrades,
+                      List<ProductionBuff> buffs,
+                      double clickingRate,
+                      CookieAmount currentBank,
+                      CookieAmount cookiesBaked, double handmadeCookies, double cookieClicks,
+                      double priceGrowthFactor, double refundFactor,
+                      AchievementTracker achievements, Prestige prestige) {
+    this(ticks,
+            inventory, StateHashes.inventoryHash(inventory), buildingsOwned(inventory),
+            upgrades, StateHashes.upgradesHash(upgrades),
+            buffs,
+            PiecewiseClickingSchedule.constant(clickingRate), 0,
+            currentBank,
+            cookiesBaked, handmadeCookies, cookieClicks,
+            priceGrowthFactor, refundFactor,
+            Objects.requireNonNull(achievements, "Null achievement tracker.")
+                    .update(ticks, AchievementCounter.COOKIES_BAKED, cookiesBaked.toDouble())
+                    .update(ticks, AchievementCounter.HANDMADE_COOKIES, handmadeCookies)
+                    .update(ticks, AchievementCounter.COOKIE_CLICKS, cookieClicks)
+                    .update(ticks, AchievementCounter.BUILDINGS_OWNED, buildingsOwned(inventory))
+                    .update(ticks, AchievementCounter.UPGRADES_OWNED, upgrades.size()),
+            prestige, Grimoire.NONE, SugarLumps.NONE, Wrinklers.NONE);
+  }
+
+  /**
+   * Create a new instance with already computed inventory hashes, and a clicking schedule.
+   * <p>
+   * This is used by transitions to update hashes incrementally instead of rehashing inventories.
+   * Constant schedules should always start at tick zero, so equal rates give equal states.
+   *
+   * @param ticks             See the public constructor.
+   * @param inventory         See the public constructor.
+   * @param inventoryHash     The hash of the inventory as computed by {@link StateHashes}.
+   * @param buildingsOwned    The sum of all building counts of the inventory.
+   * @param upgrades          See the public constructor.
+   * @param upgradesHash      The hash of the upgrades as computed by {@link StateHashes}.
+   * @param buffs             See the public constructor.
+   * @param clickingSchedule  The non-null clicking schedule of this game.
+   * @param scheduleStart     The tick the clicking schedule started at, not after ticks.
+   * @param currentBank       See the public constructor.
+   * @param cookiesBaked      See the public constructor.
+   * @param handmadeCookies   See the public constructor.
+   * @param cookieClicks      See the public constructor.
+   * @param priceGrowthFactor See the public constructor.
+   * @param refundFactor      See the public constructor.
+   * @param achievements      The tracker, already updated with the given statistics.
+   * @param prestige          The non-null prestige kept across ascensions.
+   * @param grimoire          The non-null grimoire of this game.
+   * @param sugarLumps        The non-null sugar lumps of this game.
+   * @param wrinklers         The non-null wrinklers of this game.
+   */
+  private SimpleCookieClicker(long ticks,
+                              Map<BuildingType, Integer> inventory, long inventoryHash,
+                              long buildingsOwned,
+                              Set<ProductionUpgrade> upgrades, long upgradesHash,
+                              List<ProductionBuff> buffs,
+                              ClickingSchedule clickingSchedule, long scheduleStart,
+                              CookieAmount currentBank,
+                              CookieAmount cookiesBaked, double handmadeCookies,
+                              double cookieClicks,
+                              double priceGrowthFactor, double refundFactor,
+                              AchievementTracker achievements, Prestige prestige,
+                              Grimoire grimoire, SugarLumps sugarLumps,
+                              Wrinklers wrinklers) {
+    // Flight recorder events are disabled by default, and compile away unless enabled.
+    StateConstructionEvent constructionEvent = new StateConstructionEvent();
+    constructionEvent.begin();
+
     // We can start with input validation.
+    this.clickingSchedule = Objects.requireNonNull(clickingSchedule, "Null clicking schedule.");
+    if (scheduleStart > ticks) {
+      throw new IllegalArgumentException("Cannot start a clicking schedule in the future.");
+    }
+    double clickingRate = clickingSchedule.getRate(ticks - scheduleStart);
     if (ticks < 0 ||
             clickingRate < 0 ||
-            currentBank < 0 ||
-            cookiesBaked < 0 ||
+            currentBank.signum() < 0 ||
+            cookiesBaked.signum() < 0 ||
             handmadeCookies < 0 ||
             cookieClicks < 0
     ) {
@@ -97,6 +310,7 @@ public class SimpleCookieClicker implements CookieClicker {
     this.inventory = Objects.requireNonNull(inventory, "Null building inventory.");
     this.upgrades = Objects.requireNonNull(upgrades, "Null upgrades inventory.");
     this.buffs = Objects.requireNonNull(buffs, "Null buffs inventory.");
+    this.scheduleStart = scheduleStart;
     this.clickingRate = clickingRate;
     this.currentBank = currentBank;
     this.cookiesBaked = cookiesBaked;
@@ -104,79 +318,77 @@ public class SimpleCookieClicker implements CookieClicker {
     this.cookieClicks = cookieClicks;
     this.priceGrowthFactor = priceGrowthFactor;
     this.refundFactor = refundFactor;
+    this.inventoryHash = inventoryHash;
+    this.buildingsOwned = buildingsOwned;
+    this.upgradesHash = upgradesHash;
+    // Achievements are set before rates, since effects may scale with milk.
+    this.achievements = Objects.requireNonNull(achievements, "Null achievement tracker.");
+    this.prestige = Objects.requireNonNull(prestige, "Null prestige.");
+    this.grimoire = Objects.requireNonNull(grimoire, "Null grimoire.");
+    // Sugar lumps are set before rates, since building levels fold into unit rates.
+    this.sugarLumps = Objects.requireNonNull(sugarLumps, "Null sugar lumps.");
+    this.wrinklers = Objects.requireNonNull(wrinklers, "Null wrinklers.");
 
     // Now we have to calculate building rates, and cookies per click.
     // This gets complicated with effects.
 
-    // There are a few sources of effects, so I combine them all first.
-    Stream<ProductionEffect> effects = Stream.concat(upgrades.stream()
-                    .flatMap(upgrade -> upgrade.getEffects().stream()),
-            getActiveProductionBuffs().stream().flatMap(buff -> buff.getEffects().stream()));
-
-    // Effect are bucketed into if they are a BuildingProductionEffect or not.
+    // Effect are bucketed into if they are a BuildingProductionEffect or not, remembering the
+    // upgrade or buff each came from for attribution.
     List<BuildingProductionEffect> buildingProductionEffects = new ArrayList<>();
+    List<Object> buildingSources = new ArrayList<>();
     List<ClickingProductionEffect> clickingProductionEffects = new ArrayList<>();
+    List<Object> clickingSources = new ArrayList<>();
+    bucketEffects(buildingProductionEffects, buildingSources, clickingProductionEffects,
+            clickingSources);
 
-    // A visitor to consume effects and drop them into the correct bucket.
-    // We need to do this because building effects are processed first,
-    // and then clicking production effects are processed second.
-
-    ProductionEffectVisitor<Boolean> bucketVisitor = new ProductionEffectVisitor<>() {
-      @Override
-      public Boolean applyToBuildingProductionEffect(BuildingProductionEffect bpe) {
-        return buildingProductionEffects.add(bpe);
-      }
+    EffectEvaluationEvent evaluationEvent = new EffectEvaluationEvent();
+    evaluationEvent.begin();
 
-      @Override
-      public Boolean applyToClickingProductionEffect(ClickingProductionEffect cpe) {
-        return clickingProductionEffects.add(cpe);
-      }
-    };
-
-    effects.forEach(effect -> effect.accept(bucketVisitor));
-
-    // First we process building production terms.
-    // We bucket by building type, and then by term.
-    // And while we are here we compute the constants.
-    Map<BuildingType, Map<ProductionEffect.TERM, List<Double>>> buildingNumbers = buildingProductionEffects.stream()
-            .collect(Collectors.groupingBy(BuildingProductionEffect::getTarget,
-                    Collectors.groupingBy(BuildingProductionEffect::getTerm,
-                            Collectors.mapping(effect -> effect.getNumber(this),
-                                    Collectors.toList()))));
-
-    // Now we combine the results for each building to create a new buildings rate.
+    // First we combine the numbers for each building to create a new buildings rate.
     Map<BuildingType, Double> newBuildingRates = new LinkedHashMap<>();
-    for (Map.Entry<BuildingType, Integer> buildingEntry : inventory.entrySet()) {
-      Map<ProductionEffect.TERM, List<Double>> effectNumbers = buildingNumbers.getOrDefault(buildingEntry.getKey(),
-              Collections.emptyMap());
-
-      List<Double> constants = effectNumbers.getOrDefault(ProductionEffect.TERM.CONSTANT, Collections.emptyList());
-      List<Double> multipliers = effectNumbers.getOrDefault(ProductionEffect.TERM.MULTIPLIER, Collections.emptyList());
-
-      double constant = constants.stream()
-              .reduce(0.0, Double::sum);
-      double multiplier = multipliers.stream()
-              .reduce(1.0, (a, b) -> a * b);
-
-      newBuildingRates.put(buildingEntry.getKey(),
-              buildingEntry.getValue() *
-                      (multiplier * buildingEntry.getKey().getRate() + constant));
+    Iterator<BuildingType> targets = inventory.keySet().iterator();
+    for (Attribution.Inputs inputs : buildingInputs(buildingProductionEffects, buildingSources)) {
+      newBuildingRates.put(targets.next(), inputs.getRate());
     }
     this.buildingRates = Map.copyOf(newBuildingRates);
 
     // Now we can process clicking production since it could depend on building production.
-    // We bucket by the term, and then compute the constants.
     // It's safe to let the effect query building rates now since we set them above.
-    Map<ProductionEffect.TERM, List<Double>> clickingNumbers = clickingProductionEffects.stream()
-            .collect(Collectors.groupingBy(ClickingProductionEffect::getTerm,
-                    Collectors.mapping(effect -> effect.getNumber(this), Collectors.toList())));
+    this.cookiesPerClick = clickingInputs(clickingProductionEffects, clickingSources).getRate();
+    int effectCount = buildingProductionEffects.size() + clickingProductionEffects.size();
+    evaluationEvent.end();
+    if (evaluationEvent.shouldCommit()) {
+      evaluationEvent.effectCount = effectCount;
+      evaluationEvent.buildingCount = inventory.size();
+      evaluationEvent.commit();
+    }
 
-    List<Double> clickingConstants = clickingNumbers.getOrDefault(ProductionEffect.TERM.CONSTANT, Collections.emptyList());
-    List<Double> clickingMultipliers = clickingNumbers.getOrDefault(ProductionEffect.TERM.MULTIPLIER, Collections.emptyList());
+    // Finally, the state hash. Scalars are mixed in positionally, collections were combined above.
+    long hash = StateHashes.mix(ticks);
+    hash = StateHashes.mix(hash ^ StateHashes.amountKey(currentBank));
+    hash = StateHashes.mix(hash ^ StateHashes.amountKey(cookiesBaked));
+    hash = StateHashes.mix(hash ^ StateHashes.doubleKey(handmadeCookies));
+    hash = StateHashes.mix(hash ^ StateHashes.doubleKey(cookieClicks));
+    hash = StateHashes.mix(hash ^ StateHashes.doubleKey(clickingRate));
+    hash = StateHashes.mix(hash ^ clickingSchedule.hashCode() ^ scheduleStart);
+    hash = StateHashes.mix(hash ^ StateHashes.doubleKey(priceGrowthFactor));
+    hash = StateHashes.mix(hash ^ StateHashes.doubleKey(refundFactor));
+    hash = StateHashes.mix(hash ^ achievements.hashCode());
+    hash = StateHashes.mix(hash ^ prestige.hashCode());
+    hash = StateHashes.mix(hash ^ grimoire.hashCode());
+    hash = StateHashes.mix(hash ^ sugarLumps.hashCode());
+    hash = StateHashes.mix(hash ^ wrinklers.hashCode());
+    this.stateHash = hash ^ inventoryHash
+            ^ Long.rotateLeft(upgradesHash, 21)
+            ^ Long.rotateLeft(StateHashes.buffsHash(getActiveProductionBuffs()), 42);
 
-    this.cookiesPerClick = 1 *
-            clickingMultipliers.stream().reduce(1.0, (a, b) -> a * b) +
-            clickingConstants.stream().reduce(0.0, Double::sum);
+    constructionEvent.end();
+    if (constructionEvent.shouldCommit()) {
+      constructionEvent.tick = ticks;
+      constructionEvent.effectCount = effectCount;
+      constructionEvent.buffCount = buffs.size();
+      constructionEvent.commit();
+    }
   }
 
   private static final double DEFAULT_PRICE_GROWTH_FACTOR = 1.15;
@@ -206,44 +418,228 @@ public class SimpleCookieClicker implements CookieClicker {
     // Input validation.
     if (ticks < 0) {
       throw new IllegalArgumentException("Unable to warp by negative amount of ticks.");
-    } else if (ticks == 0) {
-      return this; // Easy way out.
-    }
-
-    // It's not enough to extrapolate from current rates.
-    // Instead, we need to seek to where those calculated measures change.
-    // And then warp again.
-    OptionalLong ticksToBuffExpiration = getActiveProductionBuffs().stream()
-            .mapToLong(ProductionBuff::getTimeLeft)
-            .min();
-
-    long ticksToWarp = ticksToBuffExpiration.isPresent() ?
-            Math.min(ticksToBuffExpiration.getAsLong(), ticks) : ticks;
-
-    double newCookieClicks = clickingRate * ticksToWarp;
-    double newHandmadeCookies = newCookieClicks * getCookiesPerClick();
-    double newBuildingBakedCookies = buildingRates.values().stream()
-            .mapToDouble(rate -> rate * ticksToWarp)
-            .sum();
-    double newlyBakedCookies = newHandmadeCookies + newBuildingBakedCookies;
-    List<ProductionBuff> newBuffs = buffs.stream()
-            .flatMap(buff -> buff.warp(ticksToWarp).stream())
-            .collect(Collectors.toList());
-
-    // It's safe to warp without fearing for infinite recursion because we have a zero base case.
-
-    return new SimpleCookieClicker(this.ticks + ticksToWarp,
-            this.inventory,
-            this.upgrades,
+    }
+    return advance(ticks, 1, 1, null);
+  }
+
+  @Override
+  public OfflineReport warpOffline(long ticks, OfflineRules rules) {
+    Objects.requireNonNull(rules);
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Unable to warp by negative amount of ticks.");
+    }
+    OfflineReport.Tally tally = new OfflineReport.Tally();
+    CookieClicker result = advance(ticks,
+            rules.getProductionFraction(), rules.getClickingFraction(), tally);
+    return tally.toReport(ticks, result);
+  }
+
+  /**
+   * Fast-forward this state, scaling what is earned.
+   * <p>
+   * It's not enough to extrapolate from current rates. Instead, we need to seek to where those
+   * calculated measures change, and then warp again. Measures only change when a buff expires or an
+   * achievement is earned, so the number of segments is bounded by the number of buffs and
+   * achievements, no matter how many ticks pass.
+   * <p>
+   * Wrinklers don't change over a warp, so they scale the production earned like the production
+   * fraction does, and digest what they withered once per segment.
+   *
+   * @param ticks              The non-negative number of ticks to fast-forward by.
+   * @param productionFraction The fraction of building production to earn.
+   * @param clickingFraction   The fraction of scheduled clicks to make.
+   * @param tally              The tally to itemize earnings into, or null to skip itemizing.
+   * @return The resulting game state.
+   */
+  private SimpleCookieClicker advance(long ticks,
+                                      double productionFraction, double clickingFraction,
+                                      OfflineReport.Tally tally) {
+    SimpleCookieClicker state = this;
+    SimpleCookieClicker unbuffed = null; // Lazily evaluated to itemize what buffs earned.
+    double witheredFraction = productionFraction * this.wrinklers.getWitheredFraction();
+    double earnedFraction = productionFraction * this.wrinklers.getRetainedFraction();
+    while (ticks > 0) {
+      WarpSegmentEvent segmentEvent = new WarpSegmentEvent();
+      segmentEvent.begin();
+      int segmentBuffs = state.buffs.size();
+      long ticksToWarp = ticks;
+      for (ProductionBuff buff : state.buffs) {
+        if (buff.getTimeLeft() > 0) {
+          ticksToWarp = Math.min(ticksToWarp, buff.getTimeLeft());
+        }
+      }
+
+      // Achievements may change rates through milk, so a segment also ends on the exact tick a
+      // counter crosses its next threshold.
+      if (state.crossesThreshold(ticksToWarp, earnedFraction, clickingFraction)) {
+        long low = 1;
+        while (low < ticksToWarp) {
+          long middle = low + (ticksToWarp - low) / 2;
+          if (state.crossesThreshold(middle, earnedFraction, clickingFraction)) {
+            ticksToWarp = middle;
+          } else {
+            low = middle + 1;
+          }
+        }
+      }
+
+      double newCookieClicks = state.clicksOver(ticksToWarp, clickingFraction);
+      double newHandmadeCookies = newCookieClicks * state.cookiesPerClick;
+      CookieAmount newlyBakedCookies = state.cookiesOver(ticksToWarp, earnedFraction,
+              newHandmadeCookies);
+      Wrinklers newWrinklers = state.wrinklers.digest(
+              state.cookiesOver(ticksToWarp, witheredFraction, 0).toDouble());
+
+      List<ProductionBuff> newBuffs = new ArrayList<>(state.buffs.size());
+      for (ProductionBuff buff : state.buffs) {
+        buff.warp(ticksToWarp).ifPresent(newBuffs::add);
+      }
+
+      if (tally != null) {
+        // Inventory and upgrades don't change over a warp, so one unbuffed state serves all
+        // segments until an achievement changes the milk.
+        SimpleCookieClicker base = state;
+        if (!state.buffs.isEmpty()) {
+          if (unbuffed == null || unbuffed.achievements != state.achievements) {
+            unbuffed = state.withBuffs(Collections.emptyList());
+          }
+          base = unbuffed;
+        }
+        tally.record(state, base, ticksToWarp, earnedFraction, newCookieClicks);
+      }
+
+      long newTicks = state.ticks + ticksToWarp;
+      // Mana and sugar lumps don't change any measure, so they grow from the start of the whole
+      // warp, landing on exactly what Grimoire#ticksUntil and SugarLumps#ticksUntilLumps predict.
+      CookieAmount newCookiesBaked = state.cookiesBaked.plus(newlyBakedCookies);
+      AchievementTracker newAchievements = state.achievements
+              .update(newTicks, AchievementCounter.COOKIES_BAKED, newCookiesBaked.toDouble())
+              .update(newTicks, AchievementCounter.HANDMADE_COOKIES,
+                      state.handmadeCookies + newHandmadeCookies)
+              .update(newTicks, AchievementCounter.COOKIE_CLICKS,
+                      state.cookieClicks + newCookieClicks);
+      state = new SimpleCookieClicker(newTicks,
+              state.inventory, state.inventoryHash, state.buildingsOwned,
+              state.upgrades, state.upgradesHash,
+              newBuffs,
+              state.clickingSchedule, state.scheduleStart,
+              state.currentBank.plus(newlyBakedCookies),
+              newCookiesBaked,
+              state.handmadeCookies + newHandmadeCookies,
+              state.cookieClicks + newCookieClicks,
+              state.priceGrowthFactor,
+              state.refundFactor,
+              newAchievements,
+              state.prestige,
+              this.grimoire.warp(newTicks - this.ticks),
+              this.sugarLumps.warp(newTicks - this.ticks),
+              newWrinklers);
+      ticks -= ticksToWarp;
+
+      segmentEvent.end();
+      if (segmentEvent.shouldCommit()) {
+        segmentEvent.startTick = newTicks - ticksToWarp;
+        segmentEvent.tickSpan = ticksToWarp;
+        segmentEvent.buffCount = segmentBuffs;
+        segmentEvent.commit();
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Returns the clicks made over some ticks from this state.
+   *
+   * @param ticks            The number of ticks to click for.
+   * @param clickingFraction The fraction of scheduled clicks to make.
+   * @return The number of clicks made.
+   */
+  private double clicksOver(long ticks, double clickingFraction) {
+    return clickingFraction * clickingSchedule.getClicks(this.ticks - scheduleStart, ticks);
+  }
+
+  /**
+   * Returns the cookies baked over some ticks from this state.
+   * <p>
+   * Production is summed in extended range, so a rate times a long warp never overflows.
+   *
+   * @param ticks              The number of ticks to bake for.
+   * @param productionFraction The fraction of building production to earn.
+   * @param handmadeCookies    The cookies made by clicking over the ticks.
+   * @return The number of cookies baked by buildings, and by hand.
+   */
+  private CookieAmount cookiesOver(long ticks, double productionFraction,
+                                   double handmadeCookies) {
+    CookieAccumulator cookies = new CookieAccumulator().add(handmadeCookies);
+    for (double rate : buildingRates.values()) {
+      cookies.addProduct(rate * productionFraction, ticks);
+    }
+    return cookies.toAmount();
+  }
+
+  /**
+   * Returns if warping some ticks at current rates earns an achievement.
+   * <p>
+   * This uses the same arithmetic as warping, so the tick found by searching with it is the tick
+   * the warp itself earns the achievement at.
+   *
+   * @param ticks              The number of ticks to warp.
+   * @param productionFraction The fraction of building production to earn.
+   * @param clickingFraction   The fraction of scheduled clicks to make.
+   * @return True if any warped counter reaches its next threshold.
+   */
+  private boolean crossesThreshold(long ticks, double productionFraction, double clickingFraction) {
+    double bakedThreshold = achievements.getNextThreshold(AchievementCounter.COOKIES_BAKED);
+    double handmadeThreshold = achievements.getNextThreshold(AchievementCounter.HANDMADE_COOKIES);
+    double clicksThreshold = achievements.getNextThreshold(AchievementCounter.COOKIE_CLICKS);
+    if (bakedThreshold == Double.POSITIVE_INFINITY
+            && handmadeThreshold == Double.POSITIVE_INFINITY
+            && clicksThreshold == Double.POSITIVE_INFINITY) {
+      return false;
+    }
+    double clicks = clicksOver(ticks, clickingFraction);
+    double handmade = clicks * cookiesPerClick;
+    return cookieClicks + clicks >= clicksThreshold
+            || handmadeCookies + handmade >= handmadeThreshold
+            || cookiesBaked.plus(cookiesOver(ticks, productionFraction, handmade)).toDouble()
+            >= bakedThreshold;
+  }
+
+  /**
+   * Returns the number of buildings in an inventory.
+   *
+   * @param inventory The building inventory.
+   * @return The sum of all building counts.
+   */
+  private static long buildingsOwned(Map<BuildingType, Integer> inventory) {
+    long owned = 0;
+    for (int count : inventory.values()) {
+      owned += count;
+    }
+    return owned;
+  }
+
+  /**
+   * Provides a version of this game state with different buffs, and nothing else changed.
+   *
+   * @param newBuffs The buffs of the new state.
+   * @return The new game state.
+   */
+  private SimpleCookieClicker withBuffs(List<ProductionBuff> newBuffs) {
+    return new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
             newBuffs,
-            this.clickingRate,
-            this.currentBank + newlyBakedCookies,
-            this.cookiesBaked + newlyBakedCookies,
-            this.handmadeCookies + newHandmadeCookies,
-            this.cookieClicks + newCookieClicks,
+            this.clickingSchedule, this.scheduleStart,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
             this.priceGrowthFactor,
-            this.refundFactor)
-            .warp(ticks - ticksToWarp);
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire,
+            this.sugarLumps,
+            this.wrinklers);
   }
 
   @Override
@@ -254,21 +650,31 @@ public class SimpleCookieClicker implements CookieClicker {
       throw new IllegalArgumentException("The number of buildings does not permit this sale.");
     }
 
-    double bankCharge = getBuildingTransactionBill(buildingType, amount);
-    if (currentBank - bankCharge < 0) {
+    CookieAmount newBank = currentBank
+            .minus(getBuildingTransactionBillAmount(buildingType, amount));
+    if (newBank.signum() < 0) {
       throw new IllegalArgumentException("This sale is unaffordable.");
     } else {
       Map<BuildingType, Integer> inventoryCopy = new LinkedHashMap<>(this.inventory);
       inventoryCopy.put(buildingType, typeOwned + amount);
+      long newInventoryHash = this.inventoryHash
+              ^ StateHashes.buildingKey(buildingType, typeOwned)
+              ^ StateHashes.buildingKey(buildingType, typeOwned + amount);
       return new SimpleCookieClicker(this.ticks,
-              Map.copyOf(inventoryCopy),
-              this.upgrades,
+              Map.copyOf(inventoryCopy), newInventoryHash, this.buildingsOwned + amount,
+              this.upgrades, this.upgradesHash,
               this.buffs,
-              this.clickingRate,
-              this.currentBank - bankCharge,
+              this.clickingSchedule, this.scheduleStart,
+              newBank,
               this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
               this.priceGrowthFactor,
-              this.refundFactor);
+              this.refundFactor,
+              this.achievements.update(this.ticks, AchievementCounter.BUILDINGS_OWNED,
+                      this.buildingsOwned + amount),
+              this.prestige,
+              this.grimoire,
+              this.sugarLumps,
+              this.wrinklers);
     }
   }
 
@@ -281,20 +687,26 @@ public class SimpleCookieClicker implements CookieClicker {
       throw new IllegalArgumentException("Upgrade already owned cannot purchase.");
     } else if (!upgrade.isPurchasable(this)) {
       throw new IllegalArgumentException("Upgrade is not purchasable.");
-    } else if (upgradePrice > currentBank) {
+    } else if (CookieAmount.of(upgradePrice).compareTo(currentBank) > 0) {
       throw new IllegalArgumentException("Unable to afford the current upgrade purchase.");
     } else {
       Set<ProductionUpgrade> upgradesCopy = new LinkedHashSet<>(this.upgrades);
       upgradesCopy.add(upgrade);
       return new SimpleCookieClicker(this.ticks,
-              this.inventory,
-              Set.copyOf(upgradesCopy),
+              this.inventory, this.inventoryHash, this.buildingsOwned,
+              Set.copyOf(upgradesCopy), this.upgradesHash ^ StateHashes.upgradeKey(upgrade),
               this.buffs,
-              this.clickingRate,
-              this.currentBank - upgradePrice,
+              this.clickingSchedule, this.scheduleStart,
+              this.currentBank.minus(CookieAmount.of(upgradePrice)),
               this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
               this.priceGrowthFactor,
-              this.refundFactor);
+              this.refundFactor,
+              this.achievements.update(this.ticks, AchievementCounter.UPGRADES_OWNED,
+                      upgradesCopy.size()),
+              this.prestige,
+              this.grimoire,
+              this.sugarLumps,
+              this.wrinklers);
     }
   }
 
@@ -304,15 +716,7 @@ public class SimpleCookieClicker implements CookieClicker {
 
     List<ProductionBuff> buffsCopy = new LinkedList<>(this.buffs);
     buffsCopy.add(buff);
-    return new SimpleCookieClicker(this.ticks,
-            this.inventory,
-            this.upgrades,
-            List.copyOf(buffsCopy),
-            this.clickingRate,
-            this.currentBank,
-            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
-            this.priceGrowthFactor,
-            this.refundFactor);
+    return withBuffs(List.copyOf(buffsCopy));
   }
 
   @Override
@@ -321,33 +725,213 @@ public class SimpleCookieClicker implements CookieClicker {
       throw new IllegalArgumentException("Unable to set negative clicking rate.");
     }
     return new SimpleCookieClicker(this.ticks,
-            this.inventory,
-            this.upgrades,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
+            this.buffs,
+            PiecewiseClickingSchedule.constant(rate), 0,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire,
+            this.sugarLumps,
+            this.wrinklers);
+  }
+
+  @Override
+  public CookieClicker setClickingSchedule(ClickingSchedule schedule) {
+    Objects.requireNonNull(schedule);
+    return new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
             this.buffs,
-            rate,
+            schedule, this.ticks,
             this.currentBank,
             this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
             this.priceGrowthFactor,
-            this.refundFactor);
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire,
+            this.sugarLumps,
+            this.wrinklers);
   }
 
   @Override
   public CookieClicker adjustBank(double cookies) {
-    if (this.currentBank + cookies < 0) {
+    if (!Double.isFinite(cookies)) {
+      throw new IllegalArgumentException("Cannot ask for illegal bank state.");
+    }
+    CookieAmount newBank = this.currentBank.plus(CookieAmount.of(cookies));
+    if (newBank.signum() < 0) {
       throw new IllegalArgumentException("Cannot ask for illegal bank state.");
     } else {
+      CookieAmount newCookiesBaked = cookies > 0
+              ? this.cookiesBaked.plus(CookieAmount.of(cookies)) : this.cookiesBaked;
       return new SimpleCookieClicker(this.ticks,
-              this.inventory,
-              this.upgrades,
+              this.inventory, this.inventoryHash, this.buildingsOwned,
+              this.upgrades, this.upgradesHash,
               this.buffs,
-              this.clickingRate,
-              this.currentBank + cookies,
-              this.cookiesBaked + Math.max(cookies, 0),
+              this.clickingSchedule, this.scheduleStart,
+              newBank,
+              newCookiesBaked,
               this.handmadeCookies,
               this.cookieClicks,
               this.priceGrowthFactor,
-              this.refundFactor);
+              this.refundFactor,
+              this.achievements.update(this.ticks, AchievementCounter.COOKIES_BAKED,
+                      newCookiesBaked.toDouble()),
+              this.prestige,
+              this.grimoire,
+              this.sugarLumps,
+              this.wrinklers);
+    }
+  }
+
+  @Override
+  public CookieClicker setGrimoire(Grimoire grimoire) {
+    Objects.requireNonNull(grimoire);
+    return new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
+            this.buffs,
+            this.clickingSchedule, this.scheduleStart,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            grimoire,
+            this.sugarLumps,
+            this.wrinklers);
+  }
+
+  @Override
+  public CookieClicker castSpell(Spell spell) {
+    Objects.requireNonNull(spell);
+    double cost = spell.getCost(grimoire.getMaxMana());
+    if (!(cost >= 0) || cost > grimoire.getMana()) {
+      throw new IllegalArgumentException("Unable to afford the mana cost of the spell.");
+    }
+    double bankChange = spell.getBankChange(this);
+    List<ProductionBuff> newBuffs = new ArrayList<>(this.buffs.size());
+    for (ProductionBuff buff : getActiveProductionBuffs()) {
+      newBuffs.add(Objects.requireNonNull(spell.applyToBuff(buff), "Null spell buff."));
     }
+    CookieClicker cast = new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
+            List.copyOf(newBuffs),
+            this.clickingSchedule, this.scheduleStart,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire.spend(cost),
+            this.sugarLumps,
+            this.wrinklers);
+    return bankChange == 0 ? cast : cast.adjustBank(bankChange);
+  }
+
+  @Override
+  public CookieClicker setSugarLumps(SugarLumps sugarLumps) {
+    Objects.requireNonNull(sugarLumps);
+    return withSugarLumps(sugarLumps);
+  }
+
+  @Override
+  public CookieClicker levelUpBuilding(BuildingType buildingType) {
+    Objects.requireNonNull(buildingType);
+    return withSugarLumps(this.sugarLumps.levelUp(buildingType));
+  }
+
+  /**
+   * Provides a version of this game state with different sugar lumps, and nothing else changed.
+   *
+   * @param newSugarLumps The sugar lumps of the new state.
+   * @return The new game state.
+   */
+  private SimpleCookieClicker withSugarLumps(SugarLumps newSugarLumps) {
+    return new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
+            this.buffs,
+            this.clickingSchedule, this.scheduleStart,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire,
+            newSugarLumps,
+            this.wrinklers);
+  }
+
+  @Override
+  public CookieClicker setWrinklers(Wrinklers wrinklers) {
+    Objects.requireNonNull(wrinklers);
+    return withWrinklers(wrinklers);
+  }
+
+  @Override
+  public CookieClicker spawnWrinkler() {
+    return withWrinklers(this.wrinklers.spawn());
+  }
+
+  @Override
+  public CookieClicker popWrinklers() {
+    double payout = this.wrinklers.getPayout();
+    CookieClicker popped = withWrinklers(Wrinklers.NONE);
+    return payout == 0 ? popped : popped.adjustBank(payout);
+  }
+
+  /**
+   * Provides a version of this game state with different wrinklers, and nothing else changed.
+   *
+   * @param newWrinklers The wrinklers of the new state.
+   * @return The new game state.
+   */
+  private SimpleCookieClicker withWrinklers(Wrinklers newWrinklers) {
+    return new SimpleCookieClicker(this.ticks,
+            this.inventory, this.inventoryHash, this.buildingsOwned,
+            this.upgrades, this.upgradesHash,
+            this.buffs,
+            this.clickingSchedule, this.scheduleStart,
+            this.currentBank,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige,
+            this.grimoire,
+            this.sugarLumps,
+            newWrinklers);
+  }
+
+  @Override
+  public CookieClicker ascend() {
+    Map<BuildingType, Integer> noBuildings = Collections.emptyMap();
+    Set<ProductionUpgrade> noUpgrades = Collections.emptySet();
+    return new SimpleCookieClicker(this.ticks,
+            noBuildings, StateHashes.inventoryHash(noBuildings), 0,
+            noUpgrades, StateHashes.upgradesHash(noUpgrades),
+            Collections.emptyList(),
+            this.clickingSchedule, this.scheduleStart,
+            CookieAmount.ZERO,
+            this.cookiesBaked, this.handmadeCookies, this.cookieClicks,
+            this.priceGrowthFactor,
+            this.refundFactor,
+            this.achievements,
+            this.prestige.ascend(this.cookiesBaked.toDouble()),
+            this.grimoire,
+            this.sugarLumps,
+            Wrinklers.NONE);
   }
 
   @Override
@@ -357,6 +941,11 @@ public class SimpleCookieClicker implements CookieClicker {
 
   @Override
   public double getCurrentBank() {
+    return this.currentBank.toDouble();
+  }
+
+  @Override
+  public CookieAmount getCurrentBankAmount() {
     return this.currentBank;
   }
 
@@ -379,6 +968,11 @@ public class SimpleCookieClicker implements CookieClicker {
 
   @Override
   public double getCookiesBaked() {
+    return this.cookiesBaked.toDouble();
+  }
+
+  @Override
+  public CookieAmount getCookiesBakedAmount() {
     return this.cookiesBaked;
   }
 
@@ -402,6 +996,56 @@ public class SimpleCookieClicker implements CookieClicker {
     return this.cookiesPerClick;
   }
 
+  @Override
+  public Set<Achievement> getAchievements() {
+    return this.achievements.getEarned();
+  }
+
+  @Override
+  public double getMilk() {
+    return this.achievements.getMilk();
+  }
+
+  /**
+   * Returns the achievement tracker of this state, including the tick each achievement was earned.
+   *
+   * @return The achievements earned, and left to earn.
+   */
+  public AchievementTracker getAchievementTracker() {
+    return this.achievements;
+  }
+
+  @Override
+  public Prestige getPrestige() {
+    return this.prestige;
+  }
+
+  @Override
+  public Grimoire getGrimoire() {
+    return this.grimoire;
+  }
+
+  @Override
+  public SugarLumps getSugarLumps() {
+    return this.sugarLumps;
+  }
+
+  @Override
+  public Wrinklers getWrinklers() {
+    return this.wrinklers;
+  }
+
+  @Override
+  public int getBuildingCount(BuildingType buildingType) {
+    Objects.requireNonNull(buildingType);
+    return this.inventory.getOrDefault(buildingType, 0);
+  }
+
+  @Override
+  public long getBuildingsOwned() {
+    return this.buildingsOwned;
+  }
+
   @Override
   public double getRate(BuildingType target) {
     Objects.requireNonNull(target);
@@ -412,7 +1056,7 @@ public class SimpleCookieClicker implements CookieClicker {
   public double getBuildingTransactionBill(BuildingType target, int amount) {
     Objects.requireNonNull(target);
 
-    int targetOwned = inventory.getOrDefault(target, amount);
+    int targetOwned = inventory.getOrDefault(target, 0);
     if (amount < 0 && amount < -targetOwned) {
       throw new IllegalArgumentException("Unable to provide refund price for more buildings than are currently owned.");
     }
@@ -434,6 +1078,34 @@ public class SimpleCookieClicker implements CookieClicker {
     }
   }
 
+  @Override
+  public CookieAmount getBuildingTransactionBillAmount(BuildingType target, int amount) {
+    Objects.requireNonNull(target);
+
+    // The same formulas as above, with the powers of the growth factor in extended range.
+    int targetOwned = inventory.getOrDefault(target, 0);
+    if (amount < 0 && amount < -targetOwned) {
+      throw new IllegalArgumentException("Unable to provide refund price for more buildings than are currently owned.");
+    }
+
+    if (amount > 0) {
+      return CookieAmount.pow(priceGrowthFactor, targetOwned)
+              .times(target.getUnitPrice())
+              .times(CookieAmount.pow(priceGrowthFactor, amount).minus(CookieAmount.ONE))
+              .dividedBy(CookieAmount.of(priceGrowthFactor - 1))
+              .ceil();
+    } else if (amount == 0) {
+      return CookieAmount.ZERO;
+    } else {
+      return CookieAmount.pow(priceGrowthFactor, targetOwned + amount)
+              .times(target.getUnitPrice() * refundFactor)
+              .times(CookieAmount.pow(priceGrowthFactor, -amount).minus(CookieAmount.ONE))
+              .dividedBy(CookieAmount.of(priceGrowthFactor - 1))
+              .ceil()
+              .negate();
+    }
+  }
+
   @Override
   public double getUpgradePrice(ProductionUpgrade upgrade) {
     // We do no upgrade price adjustment.
@@ -466,6 +1138,199 @@ public class SimpleCookieClicker implements CookieClicker {
     return this.refundFactor;
   }
 
+  /**
+   * Returns the 64-bit Zobrist-style hash of this state.
+   * <p>
+   * This is the full-width version of {@link #hashCode()}, useful for transposition tables where
+   * 32 bits collide too often. It is only stable within one JVM.
+   *
+   * @return The 64-bit hash of this state.
+   */
+  public long getStateHash() {
+    return this.stateHash;
+  }
+
+  /**
+   * Returns the breakdown of this state's rates by contributing effect and source.
+   * <p>
+   * The effects are evaluated again on the first call, the same way the rates were computed, so
+   * this is available without rebuilding the state once per removed upgrade or buff. The
+   * contributions are kept after the first call.
+   *
+   * @return The attribution of this state's building rates and cookies per click.
+   */
+  public Attribution getAttribution() {
+    Attribution result = this.attribution;
+    if (result == null) {
+      List<BuildingProductionEffect> buildingProductionEffects = new ArrayList<>();
+      List<Object> buildingSources = new ArrayList<>();
+      List<ClickingProductionEffect> clickingProductionEffects = new ArrayList<>();
+      List<Object> clickingSources = new ArrayList<>();
+      bucketEffects(buildingProductionEffects, buildingSources, clickingProductionEffects,
+              clickingSources);
+      List<Attribution.Inputs> inputs = new ArrayList<>(
+              buildingInputs(buildingProductionEffects, buildingSources));
+      inputs.add(clickingInputs(clickingProductionEffects, clickingSources));
+      result = new Attribution(this.buildingRates, this.inventory, this.sugarLumps,
+              this.cookiesPerClick, inputs);
+      this.attribution = result;
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (this.stateHash ^ (this.stateHash >>> 32));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof SimpleCookieClicker)) {
+      return false;
+    }
+    SimpleCookieClicker other = (SimpleCookieClicker) o;
+    // The hash check is cheap and rejects most unequal states before any collection is compared.
+    return this.stateHash == other.stateHash
+            && this.ticks == other.ticks
+            && this.currentBank.equals(other.currentBank)
+            && this.cookiesBaked.equals(other.cookiesBaked)
+            && Double.compare(this.handmadeCookies, other.handmadeCookies) == 0
+            && Double.compare(this.cookieClicks, other.cookieClicks) == 0
+            && Double.compare(this.clickingRate, other.clickingRate) == 0
+            && this.scheduleStart == other.scheduleStart
+            && this.clickingSchedule.equals(other.clickingSchedule)
+            && Double.compare(this.priceGrowthFactor, other.priceGrowthFactor) == 0
+            && Double.compare(this.refundFactor, other.refundFactor) == 0
+            && ownedBuildings().equals(other.ownedBuildings())
+            && this.upgrades.equals(other.upgrades)
+            && activeBuffCounts().equals(other.activeBuffCounts())
+            && this.achievements.equals(other.achievements)
+            && this.prestige.equals(other.prestige)
+            && this.grimoire.equals(other.grimoire)
+            && this.sugarLumps.equals(other.sugarLumps)
+            && this.wrinklers.equals(other.wrinklers);
+  }
+
+  /**
+   * Returns the building inventory without zero counts.
+   *
+   * @return The canonical building inventory.
+   */
+  /**
+   * Sorts the effects of this state's upgrades, buffs, and prestige by kind, alongside the source
+   * each came from. Upgrades come before buffs, and buffs before prestige.
+   */
+  private void bucketEffects(List<BuildingProductionEffect> buildingProductionEffects,
+          List<Object> buildingSources, List<ClickingProductionEffect> clickingProductionEffects,
+          List<Object> clickingSources) {
+    // A visitor to consume effects and drop them into the correct bucket.
+    // We need to do this because building effects are processed first,
+    // and then clicking production effects are processed second.
+    Object[] currentSource = new Object[1];
+    ProductionEffectVisitor<Boolean> bucketVisitor = new ProductionEffectVisitor<>() {
+      @Override
+      public Boolean applyToBuildingProductionEffect(BuildingProductionEffect bpe) {
+        buildingSources.add(currentSource[0]);
+        return buildingProductionEffects.add(bpe);
+      }
+
+      @Override
+      public Boolean applyToClickingProductionEffect(ClickingProductionEffect cpe) {
+        clickingSources.add(currentSource[0]);
+        return clickingProductionEffects.add(cpe);
+      }
+    };
+
+    for (ProductionUpgrade upgrade : upgrades) {
+      currentSource[0] = upgrade;
+      upgrade.getEffects().forEach(effect -> effect.accept(bucketVisitor));
+    }
+    for (ProductionBuff buff : getActiveProductionBuffs()) {
+      currentSource[0] = buff;
+      buff.getEffects().forEach(effect -> effect.accept(bucketVisitor));
+    }
+    currentSource[0] = prestige;
+    prestige.getEffects(inventory.keySet()).forEach(effect -> effect.accept(bucketVisitor));
+  }
+
+  /**
+   * Evaluates the building production effects against this state, one set of inputs per owned
+   * building type in inventory order.
+   */
+  private List<Attribution.Inputs> buildingInputs(
+          List<BuildingProductionEffect> buildingProductionEffects, List<Object> buildingSources) {
+    Map<BuildingType, List<Integer>> effectsByTarget = new HashMap<>();
+    for (int i = 0; i < buildingProductionEffects.size(); i++) {
+      effectsByTarget.computeIfAbsent(buildingProductionEffects.get(i).getTarget(),
+              target -> new ArrayList<>()).add(i);
+    }
+
+    List<Attribution.Inputs> inputs = new ArrayList<>(inventory.size());
+    for (Map.Entry<BuildingType, Integer> buildingEntry : inventory.entrySet()) {
+      List<Integer> indices = effectsByTarget.getOrDefault(buildingEntry.getKey(),
+              Collections.emptyList());
+      List<BuildingProductionEffect> targetEffects = new ArrayList<>(indices.size());
+      List<Object> targetSources = new ArrayList<>(indices.size());
+      double[] numbers = new double[indices.size()];
+      for (int i = 0; i < numbers.length; i++) {
+        BuildingProductionEffect effect = buildingProductionEffects.get(indices.get(i));
+        targetEffects.add(effect);
+        targetSources.add(buildingSources.get(indices.get(i)));
+        numbers[i] = effect.getNumber(this);
+      }
+
+      inputs.add(new Attribution.Inputs(buildingEntry.getKey(), buildingEntry.getValue(),
+              buildingEntry.getKey().getRate() * sugarLumps.getMultiplier(buildingEntry.getKey()),
+              targetEffects, targetSources, numbers));
+    }
+    return inputs;
+  }
+
+  /**
+   * Evaluates the clicking production effects against this state. The building rates must be set,
+   * since clicking effects may query them.
+   */
+  private Attribution.Inputs clickingInputs(
+          List<ClickingProductionEffect> clickingProductionEffects, List<Object> clickingSources) {
+    double[] numbers = new double[clickingProductionEffects.size()];
+    for (int i = 0; i < numbers.length; i++) {
+      numbers[i] = clickingProductionEffects.get(i).getNumber(this);
+    }
+    return new Attribution.Inputs(null, 1, 1, clickingProductionEffects, clickingSources,
+            numbers);
+  }
+
+  private Map<BuildingType, Integer> ownedBuildings() {
+    Map<BuildingType, Integer> owned = new HashMap<>();
+    for (Map.Entry<BuildingType, Integer> entry : inventory.entrySet()) {
+      if (entry.getValue() != 0) {
+        owned.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return owned;
+  }
+
+  /**
+   * Returns the active buffs as a multiset, ignoring their order.
+   * <p>
+   * Warping creates new buff instances, so buffs are compared by their class, times, and effects,
+   * like {@link StateHashes#buffKey} hashes them.
+   *
+   * @return A map of the identity of each active buff to the number of times it is active.
+   */
+  private Map<List<Object>, Integer> activeBuffCounts() {
+    Map<List<Object>, Integer> counts = new HashMap<>();
+    for (ProductionBuff buff : buffs) {
+      if (buff.getTimeLeft() > 0) {
+        counts.merge(List.of(buff.getClass(), buff.getTimeTotal(), buff.getTimeLeft(),
+                List.copyOf(buff.getEffects())), 1, Integer::sum);
+      }
+    }
+    return counts;
+  }
+
   // toString is overridden to be helpful for those debugging.
 
   /**
@@ -490,13 +1355,20 @@ public class SimpleCookieClicker implements CookieClicker {
             "upgrades = " + this.upgrades.toString() + ", " +
             "buffs = " + this.buffs.toString() + ", " +
             "clickingRate = " + this.clickingRate + ", " +
+            "clickingSchedule = " + this.clickingSchedule + ", " +
+            "scheduleStart = " + this.scheduleStart + ", " +
             "cookiesBaked = " + this.cookiesBaked + ", " +
             "handmadeCookies = " + this.handmadeCookies + ", " +
             "cookieClicks = " + this.cookieClicks + ", " +
             "buildingRates = " + this.buildingRates.toString() + ", " +
             "cookiesPerClick = " + this.cookiesPerClick + ", " +
             "priceGrowthFactor = " + this.priceGrowthFactor + ", " +
-            "refundFactor = " + this.refundFactor +
+            "refundFactor = " + this.refundFactor + ", " +
+            "achievements = " + this.achievements + ", " +
+            "prestige = " + this.prestige + ", " +
+            "grimoire = " + this.grimoire + ", " +
+            "sugarLumps = " + this.sugarLumps + ", " +
+            "wrinklers = " + this.wrinklers +
             "}";
   }
 }
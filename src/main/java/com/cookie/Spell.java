@@ -0,0 +1,33 @@
+package com.cookie;
+
+/**
+ * A spell cast from a {@link Grimoire}, changing active buffs or the bank.
+ * <p>
+ * Casting a spell spends its cost in mana, replaces every active buff with the spell's version of
+ * it, and then adjusts the bank. See {@link CookieClicker#castSpell}.
+ */
+public interface Spell {
+  /**
+   * Returns the mana it costs to cast this spell.
+   *
+   * @param maxMana The maximum mana of the grimoire casting it.
+   * @return The non-negative cost in mana.
+   */
+  double getCost(double maxMana);
+
+  /**
+   * Returns the version of an active buff after casting this spell.
+   *
+   * @param buff The active buff.
+   * @return The non-null buff replacing it, the buff itself if unchanged.
+   */
+  ProductionBuff applyToBuff(ProductionBuff buff);
+
+  /**
+   * Returns the change in bank of casting this spell.
+   *
+   * @param state The game casting the spell, before the cast.
+   * @return The number of cookies to adjust the bank by, see {@link CookieClicker#adjustBank}.
+   */
+  double getBankChange(CookieClicker state);
+}
@@ -0,0 +1,533 @@
+package com.cookie;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Encodes game states as fixed-size binary records.
+ * <p>
+ * A codec is built from registries of building types, upgrades, and buff prototypes. Buildings and
+ * upgrades are encoded by their index in the registry. A buff is encoded as the index of its
+ * prototype and its time left, and is decoded by warping the prototype. A prototype is a buff with
+ * all its time left, and a buff matches a prototype with the same class, total time, and effects.
+ * <p>
+ * Only the clicking rate is encoded, and no achievements, so only states that click at a constant
+ * rate and track no achievements can be encoded. Decoding them gives back an equal state.
+ * <p>
+ * The record layout is: ticks, the mantissas of the bank and cookies baked, handmade cookies,
+ * cookie clicks, clicking rate, price growth factor, refund factor, the prestige's reset cookies,
+ * ascensions, and heavenly chips, the grimoire's mana and maximum mana, the sugar lumps held and
+ * the growth of the next, the wrinklers attached and the cookies they digested, the binary
+ * exponents of the bank and cookies baked, one int count per building type, one int level per
+ * building type, one bit per upgrade packed into longs, the number of buffs, and then a prototype
+ * index and time left per buff slot.
+ * <p>
+ * Records are written and read at absolute offsets, so the position of buffers is never changed.
+ * <p>
+ * Successive records usually differ in only a few fields, so a record can also be stored as a
+ * delta against the one before it. A delta is the number of changed fields, then for each the gap
+ * from the previous changed field's index and the XOR of the old and new field bits, all as
+ * unsigned variable-length integers. Small count changes and nearby doubles XOR to few bits, so a
+ * typical delta is a handful of bytes.
+ */
+public final class StateCodec {
+
+  private static final int HEADER_FIELDS = 19;
+  private static final int HEADER_BYTES = HEADER_FIELDS * Long.BYTES;
+  private static final int BUFF_BYTES = Integer.BYTES + Long.BYTES;
+
+  private final List<BuildingType> buildings;
+  private final List<ProductionUpgrade> upgrades;
+  private final List<ProductionBuff> prototypes;
+  private final Map<BuildingType, Integer> buildingIndices = new HashMap<>();
+  private final Map<ProductionUpgrade, Integer> upgradeIndices = new HashMap<>();
+  private final int maxBuffs;
+  private final int upgradeWords;
+  private final int recordSize;
+  private final int[] fieldOffsets;
+  private final boolean[] wideFields;
+
+  /**
+   * Create a new codec.
+   *
+   * @param buildings  The building types states may own.
+   * @param upgrades   The upgrades states may own.
+   * @param prototypes The buffs states may have active, each with all its time left.
+   * @param maxBuffs   The non-negative maximum number of buffs a state may have active.
+   * @throws NullPointerException     If any registry is null.
+   * @throws IllegalArgumentException If maxBuffs is negative, or a registry has duplicates.
+   */
+  public StateCodec(List<BuildingType> buildings, List<ProductionUpgrade> upgrades,
+                    List<ProductionBuff> prototypes, int maxBuffs) {
+    if (maxBuffs < 0) {
+      throw new IllegalArgumentException("Cannot use a negative maximum number of buffs.");
+    }
+    this.buildings = List.copyOf(buildings);
+    this.upgrades = List.copyOf(upgrades);
+    this.prototypes = List.copyOf(prototypes);
+    for (int i = 0; i < this.buildings.size(); i++) {
+      if (buildingIndices.put(this.buildings.get(i), i) != null) {
+        throw new IllegalArgumentException("Cannot register a building type twice.");
+      }
+    }
+    for (int i = 0; i < this.upgrades.size(); i++) {
+      if (upgradeIndices.put(this.upgrades.get(i), i) != null) {
+        throw new IllegalArgumentException("Cannot register an upgrade twice.");
+      }
+    }
+    this.maxBuffs = maxBuffs;
+    this.upgradeWords = (this.upgrades.size() + Long.SIZE - 1) / Long.SIZE;
+    this.recordSize = HEADER_BYTES
+            + 2 * Integer.BYTES * this.buildings.size()
+            + Long.BYTES * upgradeWords
+            + Integer.BYTES + BUFF_BYTES * maxBuffs;
+
+    int fields = HEADER_FIELDS + 2 * this.buildings.size() + upgradeWords + 1 + 2 * maxBuffs;
+    this.fieldOffsets = new int[fields];
+    this.wideFields = new boolean[fields];
+    int field = 0;
+    int position = 0;
+    for (int i = 0; i < HEADER_FIELDS; i++) {
+      position = addField(field++, position, true);
+    }
+    for (int i = 0; i < 2 * this.buildings.size(); i++) {
+      position = addField(field++, position, false);
+    }
+    for (int i = 0; i < upgradeWords; i++) {
+      position = addField(field++, position, true);
+    }
+    position = addField(field++, position, false);
+    for (int i = 0; i < maxBuffs; i++) {
+      position = addField(field++, position, false);
+      position = addField(field++, position, true);
+    }
+  }
+
+  private int addField(int field, int position, boolean wide) {
+    fieldOffsets[field] = position;
+    wideFields[field] = wide;
+    return position + (wide ? Long.BYTES : Integer.BYTES);
+  }
+
+  /**
+   * Returns the size of every record.
+   *
+   * @return The number of bytes one encoded state takes.
+   */
+  public int getRecordSize() {
+    return recordSize;
+  }
+
+  /**
+   * Returns the building types of this codec.
+   *
+   * @return A read-only list of building types, in the order of their indices.
+   */
+  public List<BuildingType> getBuildings() {
+    return buildings;
+  }
+
+  /**
+   * Returns the upgrades of this codec.
+   *
+   * @return A read-only list of upgrades, in the order of their indices.
+   */
+  public List<ProductionUpgrade> getUpgrades() {
+    return upgrades;
+  }
+
+  /**
+   * Encode a game state into a buffer.
+   *
+   * @param state  The state to encode, which must be a {@link SimpleCookieClicker}.
+   * @param buffer The buffer to write into.
+   * @param offset The absolute offset in the buffer to write the record at.
+   * @throws NullPointerException      If the state or buffer are null.
+   * @throws IllegalArgumentException  If the state isn't a SimpleCookieClicker, owns buildings,
+   *                                   upgrades, or buffs this codec wasn't built with, tracks
+   *                                   achievements, or doesn't click at a constant rate.
+   * @throws IndexOutOfBoundsException If the record doesn't fit in the buffer at the offset.
+   */
+  public void encode(CookieClicker state, ByteBuffer buffer, int offset) {
+    Objects.requireNonNull(buffer, "Expected a non-null buffer.");
+    if (!(Objects.requireNonNull(state, "Expected a non-null state.") instanceof SimpleCookieClicker)) {
+      throw new IllegalArgumentException("Can only encode SimpleCookieClicker states.");
+    }
+    if (offset < 0 || offset > buffer.limit() - recordSize) {
+      throw new IndexOutOfBoundsException("The record doesn't fit in the buffer.");
+    }
+    SimpleCookieClicker simple = (SimpleCookieClicker) state;
+    if (!simple.achievements.getCatalog().isEmpty()) {
+      throw new IllegalArgumentException("Cannot encode a state that tracks achievements.");
+    }
+    if (simple.scheduleStart != 0 || !simple.clickingSchedule.equals(
+            PiecewiseClickingSchedule.constant(simple.clickingRate))) {
+      throw new IllegalArgumentException("Cannot encode a state with a clicking schedule.");
+    }
+
+    // Everything that can be rejected is checked before writing, so a rejected state leaves the
+    // buffer untouched.
+    int[] counts = new int[buildings.size()];
+    for (Map.Entry<BuildingType, Integer> entry : simple.inventory.entrySet()) {
+      if (entry.getValue() != 0) {
+        counts[index(buildingIndices, entry.getKey())] = entry.getValue();
+      }
+    }
+    int[] levels = new int[buildings.size()];
+    for (Map.Entry<BuildingType, Integer> entry : simple.sugarLumps.getLevels().entrySet()) {
+      levels[index(buildingIndices, entry.getKey())] = entry.getValue();
+    }
+    long[] words = new long[upgradeWords];
+    for (ProductionUpgrade upgrade : simple.upgrades) {
+      int index = index(upgradeIndices, upgrade);
+      words[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+    }
+    Collection<ProductionBuff> active = simple.getActiveProductionBuffs();
+    if (active.size() > maxBuffs) {
+      throw new IllegalArgumentException("Cannot encode more than " + maxBuffs + " buffs.");
+    }
+    int[] buffPrototypes = new int[active.size()];
+    long[] buffTimes = new long[active.size()];
+    int buffIndex = 0;
+    for (ProductionBuff buff : active) {
+      buffPrototypes[buffIndex] = prototypeOf(buff);
+      buffTimes[buffIndex++] = buff.getTimeLeft();
+    }
+
+    int position = offset;
+    buffer.putLong(position, simple.ticks);
+    position += Long.BYTES;
+    for (double value : new double[]{simple.currentBank.getMantissa(),
+            simple.cookiesBaked.getMantissa(),
+            simple.handmadeCookies, simple.cookieClicks, simple.clickingRate,
+            simple.priceGrowthFactor, simple.refundFactor, simple.prestige.getResetCookies()}) {
+      buffer.putDouble(position, value);
+      position += Double.BYTES;
+    }
+    buffer.putLong(position, simple.prestige.getAscensions());
+    buffer.putLong(position + Long.BYTES, simple.prestige.getHeavenlyChips());
+    position += 2 * Long.BYTES;
+    buffer.putDouble(position, simple.grimoire.getMana());
+    buffer.putDouble(position + Double.BYTES, simple.grimoire.getMaxMana());
+    position += 2 * Double.BYTES;
+    buffer.putLong(position, simple.sugarLumps.getLumps());
+    buffer.putLong(position + Long.BYTES, simple.sugarLumps.getGrowth());
+    position += 2 * Long.BYTES;
+    buffer.putLong(position, simple.wrinklers.getAttached());
+    buffer.putDouble(position + Long.BYTES, simple.wrinklers.getDigested());
+    position += Long.BYTES + Double.BYTES;
+    buffer.putLong(position, simple.currentBank.getExponent());
+    buffer.putLong(position + Long.BYTES, simple.cookiesBaked.getExponent());
+    position += 2 * Long.BYTES;
+
+    for (int count : counts) {
+      buffer.putInt(position, count);
+      position += Integer.BYTES;
+    }
+    for (int level : levels) {
+      buffer.putInt(position, level);
+      position += Integer.BYTES;
+    }
+    for (long word : words) {
+      buffer.putLong(position, word);
+      position += Long.BYTES;
+    }
+
+    buffer.putInt(position, buffPrototypes.length);
+    position += Integer.BYTES;
+    for (int i = 0; i < buffPrototypes.length; i++) {
+      buffer.putInt(position, buffPrototypes[i]);
+      buffer.putLong(position + Integer.BYTES, buffTimes[i]);
+      position += BUFF_BYTES;
+    }
+    // Clear unused slots so equal states always encode to equal records.
+    for (int i = buffPrototypes.length; i < maxBuffs; i++) {
+      buffer.putInt(position, 0);
+      buffer.putLong(position + Integer.BYTES, 0);
+      position += BUFF_BYTES;
+    }
+  }
+
+  /**
+   * Decode a game state from a buffer.
+   *
+   * @param buffer The buffer to read from.
+   * @param offset The absolute offset in the buffer of the record.
+   * @return The decoded state.
+   * @throws NullPointerException      If the buffer is null.
+   * @throws IllegalArgumentException  If the record is corrupt.
+   * @throws IndexOutOfBoundsException If the record doesn't fit in the buffer at the offset.
+   */
+  public SimpleCookieClicker decode(ByteBuffer buffer, int offset) {
+    Objects.requireNonNull(buffer, "Expected a non-null buffer.");
+    if (offset < 0 || offset > buffer.limit() - recordSize) {
+      throw new IndexOutOfBoundsException("The record doesn't fit in the buffer.");
+    }
+
+    int position = offset;
+    long ticks = buffer.getLong(position);
+    position += Long.BYTES;
+    double[] values = new double[8];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = buffer.getDouble(position);
+      position += Double.BYTES;
+    }
+    long ascensions = buffer.getLong(position);
+    long heavenlyChips = buffer.getLong(position + Long.BYTES);
+    position += 2 * Long.BYTES;
+    if (!(values[7] >= 0) || ascensions < 0 || heavenlyChips < 0) {
+      throw new IllegalArgumentException("Corrupt record, negative prestige.");
+    }
+    double mana = buffer.getDouble(position);
+    double maxMana = buffer.getDouble(position + Double.BYTES);
+    position += 2 * Double.BYTES;
+    if (!(maxMana >= 0) || Double.isInfinite(maxMana) || !(mana >= 0) || mana > maxMana) {
+      throw new IllegalArgumentException("Corrupt record, impossible mana.");
+    }
+    long lumps = buffer.getLong(position);
+    long growth = buffer.getLong(position + Long.BYTES);
+    position += 2 * Long.BYTES;
+    long attached = buffer.getLong(position);
+    double digested = buffer.getDouble(position + Long.BYTES);
+    position += Long.BYTES + Double.BYTES;
+    if (attached < 0 || attached > Wrinklers.MAX_WRINKLERS || !(digested >= 0)
+            || Double.isInfinite(digested)) {
+      throw new IllegalArgumentException("Corrupt record, impossible wrinklers.");
+    }
+    long bankExponent = buffer.getLong(position);
+    long bakedExponent = buffer.getLong(position + Long.BYTES);
+    position += 2 * Long.BYTES;
+    if (!(values[0] >= 0) || !(values[1] >= 0) || Double.isInfinite(values[0])
+            || Double.isInfinite(values[1])) {
+      throw new IllegalArgumentException("Corrupt record, impossible bank or cookies baked.");
+    }
+
+    Map<BuildingType, Integer> inventory = new LinkedHashMap<>();
+    for (BuildingType building : buildings) {
+      int count = buffer.getInt(position);
+      if (count != 0) {
+        inventory.put(building, count);
+      }
+      position += Integer.BYTES;
+    }
+    Map<BuildingType, Integer> levels = new HashMap<>();
+    for (BuildingType building : buildings) {
+      int level = buffer.getInt(position);
+      if (level != 0) {
+        levels.put(building, level);
+      }
+      position += Integer.BYTES;
+    }
+    SugarLumps sugarLumps;
+    try {
+      sugarLumps = new SugarLumps(lumps, growth, levels);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Corrupt record, impossible sugar lumps.", e);
+    }
+
+    Set<ProductionUpgrade> owned = new LinkedHashSet<>();
+    for (int word = 0; word < upgradeWords; word++) {
+      long bits = buffer.getLong(position);
+      position += Long.BYTES;
+      while (bits != 0) {
+        int index = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+        if (index >= upgrades.size()) {
+          throw new IllegalArgumentException("Corrupt record, unknown upgrade " + index + ".");
+        }
+        owned.add(upgrades.get(index));
+        bits &= bits - 1;
+      }
+    }
+
+    int buffCount = buffer.getInt(position);
+    position += Integer.BYTES;
+    if (buffCount < 0 || buffCount > maxBuffs) {
+      throw new IllegalArgumentException("Corrupt record, " + buffCount + " buffs.");
+    }
+    List<ProductionBuff> buffs = new ArrayList<>(buffCount);
+    for (int i = 0; i < buffCount; i++) {
+      int index = buffer.getInt(position);
+      long timeLeft = buffer.getLong(position + Integer.BYTES);
+      position += BUFF_BYTES;
+      if (index < 0 || index >= prototypes.size()) {
+        throw new IllegalArgumentException("Corrupt record, unknown buff " + index + ".");
+      }
+      ProductionBuff prototype = prototypes.get(index);
+      buffs.add(prototype.warp(prototype.getTimeLeft() - timeLeft).orElseThrow(() ->
+              new IllegalArgumentException("Corrupt record, buff with no time left.")));
+    }
+
+    SimpleCookieClicker state = new SimpleCookieClicker(ticks,
+            Map.copyOf(inventory),
+            Set.copyOf(owned),
+            List.copyOf(buffs),
+            values[4],
+            CookieAmount.ofBinary(values[0], bankExponent),
+            CookieAmount.ofBinary(values[1], bakedExponent), values[2], values[3],
+            values[5], values[6],
+            AchievementTracker.NONE,
+            new Prestige(values[7], ascensions, heavenlyChips));
+    if (mana != 0 || maxMana != 0) {
+      state = (SimpleCookieClicker) state.setGrimoire(new Grimoire(mana, maxMana));
+    }
+    if (!sugarLumps.equals(SugarLumps.NONE)) {
+      state = (SimpleCookieClicker) state.setSugarLumps(sugarLumps);
+    }
+    if (attached != 0 || digested != 0) {
+      state = (SimpleCookieClicker) state.setWrinklers(new Wrinklers((int) attached, digested));
+    }
+    return state;
+  }
+
+  /**
+   * Returns the largest size a delta between two records can take.
+   *
+   * @return The maximum number of bytes one encoded delta takes.
+   */
+  public int getMaxDeltaSize() {
+    return 5 + fieldOffsets.length * (5 + 10);
+  }
+
+  /**
+   * Encode the difference between two records.
+   *
+   * @param base         The buffer holding the record to diff against.
+   * @param baseOffset   The absolute offset in the base buffer of its record.
+   * @param target       The buffer holding the record to encode.
+   * @param targetOffset The absolute offset in the target buffer of its record.
+   * @param out          The buffer to write the delta into.
+   * @param outOffset    The absolute offset in the out buffer to write the delta at.
+   * @return The number of bytes written.
+   * @throws NullPointerException      If any buffer is null.
+   * @throws IndexOutOfBoundsException If a record doesn't fit in its buffer, or the delta doesn't
+   *                                   fit in the out buffer.
+   */
+  public int encodeDelta(ByteBuffer base, int baseOffset, ByteBuffer target, int targetOffset,
+                         ByteBuffer out, int outOffset) {
+    checkRecord(base, baseOffset);
+    checkRecord(target, targetOffset);
+    Objects.requireNonNull(out, "Expected a non-null buffer.");
+
+    int changed = 0;
+    for (int field = 0; field < fieldOffsets.length; field++) {
+      if (readField(base, baseOffset, field) != readField(target, targetOffset, field)) {
+        changed++;
+      }
+    }
+    int position = putVarLong(out, outOffset, changed);
+    int previous = -1;
+    for (int field = 0; field < fieldOffsets.length; field++) {
+      long xor = readField(base, baseOffset, field) ^ readField(target, targetOffset, field);
+      if (xor != 0) {
+        position = putVarLong(out, position, field - previous - 1);
+        position = putVarLong(out, position, xor);
+        previous = field;
+      }
+    }
+    return position - outOffset;
+  }
+
+  /**
+   * Apply a delta to a record in place, turning the base record into the target it was encoded
+   * from.
+   *
+   * @param delta       The buffer holding the delta.
+   * @param deltaOffset The absolute offset in the delta buffer of the delta.
+   * @param record      The buffer holding the base record, which is overwritten.
+   * @param offset      The absolute offset in the record buffer of the record.
+   * @return The number of delta bytes read.
+   * @throws NullPointerException      If either buffer is null.
+   * @throws IllegalArgumentException  If the delta is corrupt.
+   * @throws IndexOutOfBoundsException If the record doesn't fit in its buffer, or the delta runs
+   *                                   past the end of its buffer.
+   */
+  public int applyDelta(ByteBuffer delta, int deltaOffset, ByteBuffer record, int offset) {
+    Objects.requireNonNull(delta, "Expected a non-null buffer.");
+    checkRecord(record, offset);
+
+    int[] cursor = {deltaOffset};
+    long changed = getVarLong(delta, cursor);
+    if (changed < 0 || changed > fieldOffsets.length) {
+      throw new IllegalArgumentException("Corrupt delta, " + changed + " changed fields.");
+    }
+    long field = -1;
+    for (int i = 0; i < changed; i++) {
+      field += getVarLong(delta, cursor) + 1;
+      if (field < 0 || field >= fieldOffsets.length) {
+        throw new IllegalArgumentException("Corrupt delta, unknown field " + field + ".");
+      }
+      long xor = getVarLong(delta, cursor);
+      int at = offset + fieldOffsets[(int) field];
+      if (wideFields[(int) field]) {
+        record.putLong(at, record.getLong(at) ^ xor);
+      } else {
+        record.putInt(at, record.getInt(at) ^ (int) xor);
+      }
+    }
+    return cursor[0] - deltaOffset;
+  }
+
+  private void checkRecord(ByteBuffer buffer, int offset) {
+    Objects.requireNonNull(buffer, "Expected a non-null buffer.");
+    if (offset < 0 || offset > buffer.limit() - recordSize) {
+      throw new IndexOutOfBoundsException("The record doesn't fit in the buffer.");
+    }
+  }
+
+  private long readField(ByteBuffer buffer, int offset, int field) {
+    int at = offset + fieldOffsets[field];
+    return wideFields[field] ? buffer.getLong(at) : buffer.getInt(at) & 0xFFFFFFFFL;
+  }
+
+  private static int putVarLong(ByteBuffer buffer, int position, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put(position++, (byte) value);
+    return position;
+  }
+
+  private static long getVarLong(ByteBuffer buffer, int[] cursor) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = buffer.get(cursor[0]++);
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Corrupt delta, variable-length integer too long.");
+  }
+
+  private int prototypeOf(ProductionBuff buff) {
+    Set<ProductionEffect> effects = new HashSet<>(buff.getEffects());
+    for (int i = 0; i < prototypes.size(); i++) {
+      ProductionBuff prototype = prototypes.get(i);
+      if (prototype.getClass() == buff.getClass()
+              && prototype.getTimeTotal() == buff.getTimeTotal()
+              && prototype.getTimeLeft() >= buff.getTimeLeft()
+              && new HashSet<>(prototype.getEffects()).equals(effects)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Cannot encode an unregistered buff " + buff + ".");
+  }
+
+  private static <T> int index(Map<T, Integer> indices, T item) {
+    Integer index = indices.get(item);
+    if (index == null) {
+      throw new IllegalArgumentException("Cannot encode an unregistered " + item + ".");
+    }
+    return index;
+  }
+}
@@ -0,0 +1,154 @@
+package com.cookie;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Zobrist-style hashing helpers for game states.
+ * <p>
+ * Every (building type, count) pair, upgrade, and buff is given a well-mixed 64-bit key. The hash
+ * of a collection is the combination of its keys, so a state's hash can be maintained
+ * incrementally: buying a building swaps out one key for another, and buying an upgrade combines in
+ * one more key. Because the combination is order-insensitive, states reached by different purchase
+ * orders hash the same.
+ * <p>
+ * Keys are derived from {@link Object#hashCode()}, so they are stable within one JVM only.
+ */
+final class StateHashes {
+
+  private static final long BUILDING_SALT = 0x9E3779B97F4A7C15L;
+  private static final long UPGRADE_SALT = 0xC2B2AE3D27D4EB4FL;
+  private static final long BUFF_SALT = 0x165667B19E3779F9L;
+
+  private StateHashes() {
+  }
+
+  /**
+   * Scramble the bits of a value with the SplitMix64 finalizer.
+   *
+   * @param z The value to scramble.
+   * @return A well-mixed version of the value.
+   */
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns the key of owning a number of one building type.
+   * <p>
+   * Owning none of a building type has a key of zero, so it doesn't matter if an inventory maps
+   * unowned buildings to zero or leaves them out.
+   *
+   * @param type  The building type owned.
+   * @param count The number of the building type owned.
+   * @return The key for this inventory entry.
+   */
+  static long buildingKey(BuildingType type, int count) {
+    if (count == 0) {
+      return 0;
+    }
+    return mix(mix(type.hashCode() ^ BUILDING_SALT) + count);
+  }
+
+  /**
+   * Returns the key of owning an upgrade.
+   *
+   * @param upgrade The upgrade owned.
+   * @return The key for this upgrade.
+   */
+  static long upgradeKey(ProductionUpgrade upgrade) {
+    return mix(upgrade.hashCode() ^ UPGRADE_SALT);
+  }
+
+  /**
+   * Returns the key of an active buff.
+   * <p>
+   * Warping creates new buff instances, so buffs are keyed by their class, times, and effects in
+   * order rather than by identity. This agrees with how {@link SimpleCookieClicker} compares them.
+   *
+   * @param buff The buff active.
+   * @return The key for this buff.
+   */
+  static long buffKey(ProductionBuff buff) {
+    long key = mix(buff.getClass().hashCode() ^ BUFF_SALT);
+    key = mix(key + buff.getTimeTotal());
+    key = mix(key + buff.getTimeLeft());
+    int effects = 1;
+    for (ProductionEffect effect : buff.getEffects()) {
+      effects = 31 * effects + effect.hashCode();
+    }
+    return mix(key + effects);
+  }
+
+  /**
+   * Hash a whole building inventory.
+   *
+   * @param inventory The building inventory to hash.
+   * @return The combined keys of all inventory entries.
+   * @throws NullPointerException If the inventory is null.
+   */
+  static long inventoryHash(Map<BuildingType, Integer> inventory) {
+    Objects.requireNonNull(inventory, "Null building inventory.");
+    long hash = 0;
+    for (Map.Entry<BuildingType, Integer> entry : inventory.entrySet()) {
+      hash ^= buildingKey(entry.getKey(), entry.getValue());
+    }
+    return hash;
+  }
+
+  /**
+   * Hash a whole upgrade inventory.
+   *
+   * @param upgrades The upgrade inventory to hash.
+   * @return The combined keys of all upgrades.
+   * @throws NullPointerException If the upgrades are null.
+   */
+  static long upgradesHash(Set<ProductionUpgrade> upgrades) {
+    Objects.requireNonNull(upgrades, "Null upgrades inventory.");
+    long hash = 0;
+    for (ProductionUpgrade upgrade : upgrades) {
+      hash ^= upgradeKey(upgrade);
+    }
+    return hash;
+  }
+
+  /**
+   * Hash a collection of active buffs.
+   * <p>
+   * Buffs are summed instead of XOR-ed since the same buff may be active twice.
+   *
+   * @param buffs The active buffs to hash.
+   * @return The combined keys of all buffs.
+   */
+  static long buffsHash(Collection<ProductionBuff> buffs) {
+    long hash = 0;
+    for (ProductionBuff buff : buffs) {
+      hash += buffKey(buff);
+    }
+    return hash;
+  }
+
+  /**
+   * Hash a double so that equal values under {@link Double#compare} hash equally.
+   *
+   * @param value The value to hash.
+   * @return A well-mixed key for the value.
+   */
+  static long doubleKey(double value) {
+    return mix(Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Hash an extended-range amount so that equal amounts hash equally.
+   *
+   * @param amount The amount to hash.
+   * @return A well-mixed key for the amount.
+   */
+  static long amountKey(CookieAmount amount) {
+    return mix(Double.doubleToLongBits(amount.getMantissa()) ^ amount.getExponent());
+  }
+}
@@ -0,0 +1,166 @@
+package com.cookie;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of canonical game states, for use as a search's transposition table.
+ * <p>
+ * Interning a state returns a previously interned equal state if there is one, so identical states
+ * reached through different action orders collapse to one instance. States are held weakly, so a
+ * state no longer referenced by the search is evicted by the garbage collector. The cache is also
+ * bounded, evicting the least recently used states first once full, where a state is used when it
+ * is interned or found by a later intern call.
+ * <p>
+ * This relies on the equals and hashCode of the states, see {@link SimpleCookieClicker}.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <T> The type of game state interned.
+ */
+public class StateInterner<T extends SavedCookieClicker> {
+
+  private final int capacity;
+  private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+  private final Map<WeakKey<T>, WeakKey<T>> entries;
+  private long hits;
+  private long misses;
+
+  /**
+   * Create a new empty interner.
+   *
+   * @param capacity The positive maximum number of states to hold on to.
+   * @throws IllegalArgumentException If the capacity is non-positive.
+   */
+  public StateInterner(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive capacity.");
+    }
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<WeakKey<T>, WeakKey<T>> eldest) {
+        return size() > StateInterner.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the canonical instance of a state.
+   *
+   * @param state The state to intern.
+   * @return A previously interned state equal to the given state, or the given state itself if
+   * there is none (which then becomes the canonical instance).
+   * @throws NullPointerException If the state is null.
+   */
+  public synchronized T intern(T state) {
+    Objects.requireNonNull(state, "Cannot intern a null state.");
+    expungeCollected();
+
+    WeakKey<T> existing = entries.get(new WeakKey<>(state, null));
+    if (existing != null) {
+      T canonical = existing.get();
+      if (canonical != null) {
+        hits++;
+        return canonical;
+      }
+      entries.remove(existing);
+    }
+
+    misses++;
+    WeakKey<T> key = new WeakKey<>(state, collected);
+    entries.put(key, key);
+    return state;
+  }
+
+  /**
+   * Returns the number of states currently held, including any not yet noticed as collected.
+   *
+   * @return The number of states held by this interner.
+   */
+  public synchronized int size() {
+    expungeCollected();
+    return entries.size();
+  }
+
+  /**
+   * Returns the maximum number of states this interner holds on to.
+   *
+   * @return The capacity of this interner.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of intern calls that found an existing equal state.
+   *
+   * @return The number of deduplicated states.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of intern calls that found no existing equal state.
+   *
+   * @return The number of new states.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Remove all states from this interner.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    expungeCollected();
+  }
+
+  /**
+   * Remove the entries of all states the garbage collector has cleared.
+   */
+  private void expungeCollected() {
+    Object reference;
+    while ((reference = collected.poll()) != null) {
+      entries.remove(reference);
+    }
+  }
+
+  /**
+   * A weak reference to a state that is compared by the state it refers to.
+   * <p>
+   * A cleared key is only equal to itself, which is enough to remove it from the map.
+   *
+   * @param <T> The type of state referred to.
+   */
+  private static final class WeakKey<T> extends WeakReference<T> {
+    private final int hash;
+
+    WeakKey(T referent, ReferenceQueue<T> queue) {
+      super(referent, queue);
+      this.hash = referent.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof WeakKey)) {
+        return false;
+      }
+      WeakKey<?> other = (WeakKey<?>) o;
+      Object referent = get();
+      return hash == other.hash && referent != null && referent.equals(other.get());
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.cookie;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The sugar lumps of a game, and the building levels bought with them.
+ * <p>
+ * A sugar lump ripens every {@link #RIPENING_TICKS} and is harvested right away. Lumps are spent
+ * to level up building types: the next level of a building type costs one lump more than its
+ * current level. Each level adds {@link #BONUS_PER_LEVEL} to the unit rate of its building type,
+ * folded into the base rate before any effect, so levels cost nothing per effect.
+ * <p>
+ * Lumps ripen from the start of every game, the unlock at a billion cookies baked is not
+ * simulated.
+ * <p>
+ * Instances are immutable.
+ */
+public final class SugarLumps {
+
+  /**
+   * The ticks it takes a sugar lump to ripen, 23 hours.
+   */
+  public static final long RIPENING_TICKS = 30L * 60 * 60 * 23;
+
+  /**
+   * The fraction of a building type's unit rate added by each of its levels.
+   */
+  public static final double BONUS_PER_LEVEL = 0.01;
+
+  /**
+   * The sugar lumps of a fresh game, with no lumps, no growth, and no levels.
+   */
+  public static final SugarLumps NONE = new SugarLumps(0, 0, Collections.emptyMap());
+
+  private final long lumps;
+  private final long growth;
+  private final Map<BuildingType, Integer> levels;
+
+  /**
+   * Create sugar lumps.
+   *
+   * @param lumps  The non-negative number of lumps held.
+   * @param growth The non-negative ticks the current lump has grown, less than {@link
+   *               #RIPENING_TICKS}.
+   * @param levels The non-negative level of each building type, unlisted types are level zero.
+   * @throws IllegalArgumentException If lumps, growth, or a level are negative, or growth is a
+   *                                  full ripening or more.
+   * @throws NullPointerException     If levels, or a building type or level in it, are null.
+   */
+  public SugarLumps(long lumps, long growth, Map<BuildingType, Integer> levels) {
+    if (lumps < 0 || growth < 0 || growth >= RIPENING_TICKS) {
+      throw new IllegalArgumentException("Cannot use negative lumps, or growth outside a"
+              + " ripening.");
+    }
+    Map<BuildingType, Integer> copy = new HashMap<>();
+    for (Map.Entry<BuildingType, Integer> entry :
+            Objects.requireNonNull(levels, "Expected non-null levels.").entrySet()) {
+      int level = Objects.requireNonNull(entry.getValue(), "Expected a non-null level.");
+      if (level < 0) {
+        throw new IllegalArgumentException("Cannot use a negative building level.");
+      }
+      if (level > 0) {
+        copy.put(Objects.requireNonNull(entry.getKey(), "Expected a non-null building type."),
+                level);
+      }
+    }
+    this.lumps = lumps;
+    this.growth = growth;
+    this.levels = Map.copyOf(copy);
+  }
+
+  /**
+   * Returns the lumps held.
+   *
+   * @return The number of ripe lumps not spent.
+   */
+  public long getLumps() {
+    return lumps;
+  }
+
+  /**
+   * Returns how far the current lump has grown.
+   *
+   * @return The ticks grown, less than {@link #RIPENING_TICKS}.
+   */
+  public long getGrowth() {
+    return growth;
+  }
+
+  /**
+   * Returns the building levels.
+   *
+   * @return A read-only map of building types to their positive levels.
+   */
+  public Map<BuildingType, Integer> getLevels() {
+    return levels;
+  }
+
+  /**
+   * Returns the level of a building type.
+   *
+   * @param building The building type.
+   * @return The level, zero if never leveled up.
+   * @throws NullPointerException If the building type is null.
+   */
+  public int getLevel(BuildingType building) {
+    Objects.requireNonNull(building, "Expected a non-null building type.");
+    return levels.getOrDefault(building, 0);
+  }
+
+  /**
+   * Returns the multiplier on the unit rate of a building type from its level.
+   *
+   * @param building The building type.
+   * @return One plus {@link #BONUS_PER_LEVEL} for each level.
+   * @throws NullPointerException If the building type is null.
+   */
+  public double getMultiplier(BuildingType building) {
+    return 1 + BONUS_PER_LEVEL * getLevel(building);
+  }
+
+  /**
+   * Returns the lumps the next level of a building type costs.
+   *
+   * @param building The building type.
+   * @return One more than the current level.
+   * @throws NullPointerException If the building type is null.
+   */
+  public long getLevelUpCost(BuildingType building) {
+    return getLevel(building) + 1L;
+  }
+
+  /**
+   * Returns the number of ticks until the next lump ripens.
+   *
+   * @return The positive ticks left on the current lump.
+   */
+  public long ticksUntilRipe() {
+    return RIPENING_TICKS - growth;
+  }
+
+  /**
+   * Returns the number of ticks until some lumps are held.
+   *
+   * @param target The number of lumps to hold.
+   * @return The fewest ticks to hold at least the target, zero if already held.
+   */
+  public long ticksUntilLumps(long target) {
+    if (target <= lumps) {
+      return 0;
+    }
+    return (target - lumps - 1) * RIPENING_TICKS + ticksUntilRipe();
+  }
+
+  /**
+   * Provides a new version of these sugar lumps fast-forwarded, harvesting every lump ripening.
+   *
+   * @param ticks The non-negative number of ticks to grow for.
+   * @return The sugar lumps after growing.
+   * @throws IllegalArgumentException If ticks is negative.
+   */
+  public SugarLumps warp(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Unable to warp by negative amount of ticks.");
+    }
+    if (ticks == 0) {
+      return this;
+    }
+    // Split the ticks first, so growth plus ticks can't overflow.
+    long ripened = ticks / RIPENING_TICKS;
+    long newGrowth = growth + ticks % RIPENING_TICKS;
+    if (newGrowth >= RIPENING_TICKS) {
+      ripened++;
+      newGrowth -= RIPENING_TICKS;
+    }
+    return new SugarLumps(lumps + ripened, newGrowth, levels);
+  }
+
+  /**
+   * Provides a new version of these sugar lumps with a building type leveled up.
+   *
+   * @param building The building type to level up.
+   * @return The sugar lumps after spending the level's cost.
+   * @throws NullPointerException     If the building type is null.
+   * @throws IllegalArgumentException If the lumps held don't cover the cost.
+   */
+  public SugarLumps levelUp(BuildingType building) {
+    long cost = getLevelUpCost(building);
+    if (cost > lumps) {
+      throw new IllegalArgumentException("Unable to afford the sugar lumps of the level.");
+    }
+    Map<BuildingType, Integer> newLevels = new HashMap<>(levels);
+    newLevels.put(building, getLevel(building) + 1);
+    return new SugarLumps(lumps - cost, growth, newLevels);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(lumps, growth, levels);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof SugarLumps)) {
+      return false;
+    }
+    SugarLumps other = (SugarLumps) o;
+    return lumps == other.lumps && growth == other.growth && levels.equals(other.levels);
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "lumps = " + lumps + ", " +
+            "growth = " + growth + ", " +
+            "levels = " + levels +
+            "}";
+  }
+}
@@ -0,0 +1,123 @@
+package com.cookie;
+
+import java.util.Objects;
+
+/**
+ * An effect on the production of a building type that grows with the count of another.
+ * <p>
+ * A multiplicative synergy adds {@code perBuilding} to its target's multiplier for every source
+ * building owned, and a constant synergy adds {@code perBuilding} cookies per tick to every target
+ * building. A synergy without a source type counts every building that isn't of the target type,
+ * like thousand fingers does.
+ * <p>
+ * The number depends only on one count, which is read in constant time from the game state, so
+ * evaluating every synergy of a game costs one multiply-add each.
+ * <p>
+ * Instances are immutable.
+ */
+public final class SynergyEffect implements BuildingProductionEffect {
+
+  private final BuildingType target;
+  private final BuildingType source;
+  private final double perBuilding;
+  private final TERM term;
+
+  /**
+   * Create a synergy.
+   *
+   * @param target      The building type whose production is affected.
+   * @param source      The building type counted, or null to count every building of another type
+   *                    than the target.
+   * @param perBuilding The finite amount added per source building.
+   * @param term        The term the amount is added to, a multiplier or a constant.
+   * @throws NullPointerException     If the target or term are null.
+   * @throws IllegalArgumentException If perBuilding isn't finite, or the source is the target.
+   */
+  public SynergyEffect(BuildingType target, BuildingType source, double perBuilding, TERM term) {
+    this.target = Objects.requireNonNull(target, "Expected a non-null target.");
+    this.term = Objects.requireNonNull(term, "Expected a non-null term.");
+    if (!Double.isFinite(perBuilding)) {
+      throw new IllegalArgumentException("Cannot use a non-finite amount per building.");
+    }
+    if (target.equals(source)) {
+      throw new IllegalArgumentException("Unable to synergize a building type with itself.");
+    }
+    this.source = source;
+    this.perBuilding = perBuilding;
+  }
+
+  /**
+   * Returns the counted building type.
+   *
+   * @return The source building type, or null if every other building type is counted.
+   */
+  public BuildingType getSource() {
+    return source;
+  }
+
+  /**
+   * Returns the amount added per source building.
+   *
+   * @return The amount added to the term per building counted.
+   */
+  public double getPerBuilding() {
+    return perBuilding;
+  }
+
+  @Override
+  public TERM getTerm() {
+    return term;
+  }
+
+  @Override
+  public BuildingType getTarget() {
+    return target;
+  }
+
+  @Override
+  public double getNumber(SavedCookieClicker stats) {
+    Objects.requireNonNull(stats, "Expected CookieClicker stats to be non-null.");
+    if (source == null) {
+      return numberOf(stats.getBuildingsOwned() - stats.getBuildingCount(target));
+    }
+    return numberOf(stats.getBuildingCount(source));
+  }
+
+  /**
+   * Returns the number of this synergy for a count of source buildings.
+   *
+   * @param count The number of source buildings.
+   * @return One plus the bonus for a multiplier, or the bonus for a constant.
+   */
+  private double numberOf(long count) {
+    double bonus = perBuilding * count;
+    return term == TERM.MULTIPLIER ? 1 + bonus : bonus;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(target, source, perBuilding, term);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof SynergyEffect)) {
+      return false;
+    }
+    SynergyEffect other = (SynergyEffect) o;
+    return target.equals(other.target) && Objects.equals(source, other.source)
+            && Double.compare(perBuilding, other.perBuilding) == 0 && term == other.term;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "target = " + target + ", " +
+            "source = " + source + ", " +
+            "perBuilding = " + perBuilding + ", " +
+            "term = " + term +
+            "}";
+  }
+}
@@ -0,0 +1,173 @@
+package com.cookie;
+
+import java.util.Objects;
+
+/**
+ * The wrinklers attached to a game's big cookie, and the cookies they have sucked.
+ * <p>
+ * Each attached wrinkler withers {@link #WITHER_PER_WRINKLER} of building production: that share
+ * never reaches the bank, and is digested by the wrinklers instead. Popping the wrinklers returns
+ * what they digested times {@link #POP_MULTIPLIER}, as baked cookies.
+ * <p>
+ * Building rates are constant between the segments of a warp, so the cookies digested grow
+ * linearly within a segment, and are accounted for once per segment rather than per tick. For the
+ * same reason, {@link #getPayoutAfter} projects the payout of popping at any later tick in constant
+ * time, as long as rates don't change on the way.
+ * <p>
+ * Wrinklers spawn at random during the grandmapocalypse in the game, which isn't simulated, so they
+ * only attach when {@link CookieClicker#spawnWrinkler} is called. The wrinklers are digested as one
+ * pool and popped together.
+ * <p>
+ * Instances are immutable.
+ */
+public final class Wrinklers {
+
+  /**
+   * The most wrinklers that can be attached at once.
+   */
+  public static final int MAX_WRINKLERS = 10;
+
+  /**
+   * The fraction of building production withered by each attached wrinkler.
+   */
+  public static final double WITHER_PER_WRINKLER = 0.05;
+
+  /**
+   * The multiplier on the cookies digested, returned when popping.
+   */
+  public static final double POP_MULTIPLIER = 1.1;
+
+  /**
+   * A game without wrinklers.
+   */
+  public static final Wrinklers NONE = new Wrinklers(0, 0);
+
+  private final int attached;
+  private final double digested;
+
+  /**
+   * Create wrinklers.
+   *
+   * @param attached The number of wrinklers attached, from zero to {@link #MAX_WRINKLERS}.
+   * @param digested The non-negative, finite, cookies digested so far.
+   * @throws IllegalArgumentException If attached is out of range, or digested is negative or
+   *                                  infinite.
+   */
+  public Wrinklers(int attached, double digested) {
+    if (attached < 0 || attached > MAX_WRINKLERS || !(digested >= 0)
+            || Double.isInfinite(digested)) {
+      throw new IllegalArgumentException("Cannot use attached wrinklers out of range, or negative"
+              + " digested cookies.");
+    }
+    this.attached = attached;
+    this.digested = digested;
+  }
+
+  /**
+   * Returns the number of wrinklers attached.
+   *
+   * @return The number of wrinklers, at most {@link #MAX_WRINKLERS}.
+   */
+  public int getAttached() {
+    return attached;
+  }
+
+  /**
+   * Returns the cookies digested.
+   *
+   * @return The cookies withered since the wrinklers were last popped.
+   */
+  public double getDigested() {
+    return digested;
+  }
+
+  /**
+   * Returns the fraction of building production withered.
+   *
+   * @return {@link #WITHER_PER_WRINKLER} for each attached wrinkler.
+   */
+  public double getWitheredFraction() {
+    return WITHER_PER_WRINKLER * attached;
+  }
+
+  /**
+   * Returns the fraction of building production that reaches the bank.
+   *
+   * @return One minus the withered fraction.
+   */
+  public double getRetainedFraction() {
+    return 1 - getWitheredFraction();
+  }
+
+  /**
+   * Returns the cookies popping the wrinklers now returns.
+   *
+   * @return The cookies digested times {@link #POP_MULTIPLIER}.
+   */
+  public double getPayout() {
+    return digested * POP_MULTIPLIER;
+  }
+
+  /**
+   * Project the cookies popping the wrinklers returns after some ticks, in constant time.
+   *
+   * @param ticks        The non-negative number of ticks to wait before popping.
+   * @param buildingRate The non-negative building production over the wait, before withering, in
+   *                     cookies per tick.
+   * @return The payout after waiting, if building production stays at the rate.
+   * @throws IllegalArgumentException If ticks or buildingRate are negative.
+   */
+  public double getPayoutAfter(long ticks, double buildingRate) {
+    if (ticks < 0 || !(buildingRate >= 0)) {
+      throw new IllegalArgumentException("Cannot use negative ticks, or a negative rate.");
+    }
+    return (digested + getWitheredFraction() * buildingRate * ticks) * POP_MULTIPLIER;
+  }
+
+  /**
+   * Provides a new version of these wrinklers after building production was withered.
+   *
+   * @param withered The non-negative cookies withered.
+   * @return The wrinklers after digesting the cookies.
+   */
+  Wrinklers digest(double withered) {
+    return withered == 0 ? this : new Wrinklers(attached, digested + withered);
+  }
+
+  /**
+   * Provides a new version of these wrinklers with one more attached.
+   *
+   * @return The wrinklers after a wrinkler attaches.
+   * @throws IllegalArgumentException If {@link #MAX_WRINKLERS} are already attached.
+   */
+  public Wrinklers spawn() {
+    if (attached == MAX_WRINKLERS) {
+      throw new IllegalArgumentException("Unable to attach more than the maximum wrinklers.");
+    }
+    return new Wrinklers(attached + 1, digested);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(attached, digested);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof Wrinklers)) {
+      return false;
+    }
+    Wrinklers other = (Wrinklers) o;
+    return attached == other.attached && Double.compare(digested, other.digested) == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "attached = " + attached + ", " +
+            "digested = " + digested +
+            "}";
+  }
+}
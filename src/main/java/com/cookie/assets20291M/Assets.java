@@ -0,0 +1,141 @@
+package com.cookie.assets20291M;
+
+import com.cookie.Achievement;
+import com.cookie.BuildingType;
+import com.cookie.ProductionUpgrade;
+import com.cookie.Spell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A registry of every building, upgrade, achievement, and spell in this package.
+ * <p>
+ * Buildings and upgrades can be looked up by name. Names are the enumeration constant names, like
+ * "FARM" or "CHEAP_HOES". The order of buildings, upgrades, and achievements is stable, so indices
+ * into these lists can be used as compact identifiers.
+ */
+public final class Assets {
+
+  private static final List<BuildingType> BUILDINGS = List.of(Building.values());
+  private static final List<ProductionUpgrade> UPGRADES;
+  private static final List<Achievement> ACHIEVEMENTS = List.of(MilkAchievement.values());
+  private static final List<Spell> SPELLS = List.of(GrimoireSpell.values());
+  private static final Map<String, BuildingType> BUILDINGS_BY_NAME = new LinkedHashMap<>();
+  private static final Map<String, ProductionUpgrade> UPGRADES_BY_NAME = new LinkedHashMap<>();
+  private static final Map<Integer, ProductionUpgrade> SAVED_UPGRADES = Map.ofEntries(
+          Map.entry(0, CursorUpgrade.REINFORCED_INDEX_FINGER),
+          Map.entry(1, CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM),
+          Map.entry(2, CursorUpgrade.AMBIDEXTROUS),
+          Map.entry(3, ClickingUpgrade.THOUSAND_FINGERS),
+          Map.entry(7, DoublingBuildingUpgrades.FORWARDS_FROM_GRANDMA),
+          Map.entry(8, DoublingBuildingUpgrades.STEEL_PLATED_ROLLING_PINS),
+          Map.entry(9, DoublingBuildingUpgrades.LUBRICATED_DENTURES),
+          Map.entry(10, DoublingBuildingUpgrades.CHEAP_HOES),
+          Map.entry(11, DoublingBuildingUpgrades.FERTILIZER),
+          Map.entry(12, DoublingBuildingUpgrades.COOKIE_TREES),
+          Map.entry(16, DoublingBuildingUpgrades.SUGAR_GAS),
+          Map.entry(17, DoublingBuildingUpgrades.MEGADRILL),
+          Map.entry(31, KittenUpgrade.KITTEN_HELPERS),
+          Map.entry(57, GrandmaType.FARMER_GRANDMAS),
+          Map.entry(75, ClickingUpgrade.PLASTIC_MOUSE));
+
+  static {
+    List<ProductionUpgrade> upgrades = new ArrayList<>();
+    upgrades.addAll(Arrays.asList(CursorUpgrade.values()));
+    upgrades.addAll(Arrays.asList(ClickingUpgrade.values()));
+    upgrades.addAll(Arrays.asList(DoublingBuildingUpgrades.values()));
+    upgrades.addAll(Arrays.asList(GrandmaType.values()));
+    upgrades.addAll(Arrays.asList(KittenUpgrade.values()));
+    UPGRADES = Collections.unmodifiableList(upgrades);
+
+    for (Building building : Building.values()) {
+      BUILDINGS_BY_NAME.put(building.name(), building);
+    }
+    for (ProductionUpgrade upgrade : UPGRADES) {
+      UPGRADES_BY_NAME.put(((Enum<?>) upgrade).name(), upgrade);
+    }
+  }
+
+  private Assets() {
+  }
+
+  /**
+   * Returns all building types of this package.
+   *
+   * @return A read-only list of building types in a stable order.
+   */
+  public static List<BuildingType> buildings() {
+    return BUILDINGS;
+  }
+
+  /**
+   * Returns all upgrades of this package.
+   *
+   * @return A read-only list of upgrades in a stable order.
+   */
+  public static List<ProductionUpgrade> upgrades() {
+    return UPGRADES;
+  }
+
+  /**
+   * Returns all achievements of this package.
+   *
+   * @return A read-only list of achievements in a stable order.
+   */
+  public static List<Achievement> achievements() {
+    return ACHIEVEMENTS;
+  }
+
+  /**
+   * Returns all grimoire spells of this package.
+   *
+   * @return A read-only list of spells in a stable order.
+   */
+  public static List<Spell> spells() {
+    return SPELLS;
+  }
+
+  /**
+   * Returns the building types of this package in the order the game saves them.
+   *
+   * @return A read-only list of building types, by their position in a save.
+   */
+  public static List<BuildingType> savedBuildings() {
+    return BUILDINGS;
+  }
+
+  /**
+   * Returns the upgrades of this package by their id in the game, as used in saves.
+   *
+   * @return A read-only map of game ids to upgrades.
+   */
+  public static Map<Integer, ProductionUpgrade> savedUpgrades() {
+    return SAVED_UPGRADES;
+  }
+
+  /**
+   * Look up a building type by name.
+   *
+   * @param name The enumeration constant name of the building.
+   * @return The building type if one has this name, otherwise empty.
+   */
+  public static Optional<BuildingType> building(String name) {
+    return Optional.ofNullable(BUILDINGS_BY_NAME.get(name));
+  }
+
+  /**
+   * Look up an upgrade by name.
+   *
+   * @param name The enumeration constant name of the upgrade.
+   * @return The upgrade if one has this name, otherwise empty.
+   */
+  public static Optional<ProductionUpgrade> upgrade(String name) {
+    return Optional.ofNullable(UPGRADES_BY_NAME.get(name));
+  }
+}
@@ -73,6 +73,18 @@ public enum ClickingUpgrade implements ProductionUpgrade {
     return this.price;
   }
 
+  /**
+   * Count the non-cursor buildings of a game, which both thousand fingers effects grow with.
+   *
+   * @param stats The game state to count buildings in.
+   * @return The number of buildings owned that aren't cursors.
+   * @throws NullPointerException If stats is null.
+   */
+  private static long countNonCursors(SavedCookieClicker stats) {
+    Objects.requireNonNull(stats, "Expected CookieClicker stats to be non-null.");
+    return stats.getBuildingsOwned() - stats.getBuildingCount(Building.CURSOR);
+  }
+
   // In general, to make effect comparison developer-stress-free I've employed singletons.
 
   /**
@@ -106,14 +118,7 @@ public enum ClickingUpgrade implements ProductionUpgrade {
 
     @Override
     public double getNumber(CookieClicker stats) {
-      Objects.requireNonNull(stats, "Expected CookieClicker stats to be non-null.");
-      Map<BuildingType, Integer> inventory = stats.getBuildingInventory();
-      long nonCursors = inventory.entrySet()
-              .stream()
-              .filter(entry -> !entry.getKey().equals(Building.CURSOR))
-              .mapToLong(Map.Entry::getValue)
-              .sum();
-      return 0.1 * nonCursors;
+      return 0.1 * countNonCursors(stats);
     }
 
     @Override
@@ -130,14 +135,7 @@ public enum ClickingUpgrade implements ProductionUpgrade {
 
     @Override
     public double getNumber(SavedCookieClicker stats) {
-      Objects.requireNonNull(stats, "Expected CookieClicker save to be non-null.");
-      Map<BuildingType, Integer> inventory = stats.getBuildingInventory();
-      long nonCursors = inventory.entrySet()
-              .stream()
-              .filter(entry -> !entry.getKey().equals(Building.CURSOR))
-              .mapToLong(Map.Entry::getValue)
-              .sum();
-      return 0.1 * nonCursors;
+      return 0.1 * countNonCursors(stats);
     }
 
     @Override
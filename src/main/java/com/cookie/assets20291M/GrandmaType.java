@@ -74,8 +74,7 @@ public enum GrandmaType implements ProductionUpgrade {
     @Override
     public double getNumber(SavedCookieClicker stats) {
       Objects.requireNonNull(stats, "Expected CookieClicker stats to be non-null.");
-      Map<BuildingType, Integer> inventory = stats.getBuildingInventory();
-      return 1 + 0.01 * inventory.getOrDefault(Building.GRANDMA, 0);
+      return 1 + 0.01 * stats.getBuildingCount(Building.GRANDMA);
     }
 
     @Override
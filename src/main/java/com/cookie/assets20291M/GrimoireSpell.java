@@ -0,0 +1,78 @@
+package com.cookie.assets20291M;
+
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.ProductionBuff;
+import com.cookie.Spell;
+
+import java.util.Objects;
+
+/**
+ * The grimoire spells that change buffs or the bank.
+ * <p>
+ * Spells always succeed, the chance of a spell backfiring is not simulated.
+ */
+public enum GrimoireSpell implements Spell {
+  /**
+   * Bakes the lesser of 15% of the bank, and 30 minutes of production.
+   */
+  CONJURE_BAKED_GOODS(2, 0.4),
+  /**
+   * Extends every active buff by 10% of its total time, at most 5 minutes.
+   */
+  STRETCH_TIME(8, 0.2);
+
+  private static final String UNEXPECTED_BRANCH = "Reached an unexpected branch.";
+  private static final double CONJURE_BANK_FRACTION = 0.15;
+  private static final long CONJURE_TICKS = 30 * 60 * 30;
+  private static final double STRETCH_FRACTION = 0.1;
+  private static final long MAX_STRETCH_TICKS = 30 * 60 * 5;
+
+  private final double baseCost;
+  private final double costFraction;
+
+  /**
+   * Create a new GrimoireSpell singleton with the following constants.
+   *
+   * @param baseCost     The mana this spell costs at any maximum mana.
+   * @param costFraction The fraction of maximum mana this spell costs on top of the base cost.
+   */
+  GrimoireSpell(double baseCost, double costFraction) {
+    this.baseCost = baseCost;
+    this.costFraction = costFraction;
+  }
+
+  @Override
+  public double getCost(double maxMana) {
+    return baseCost + costFraction * maxMana;
+  }
+
+  @Override
+  public ProductionBuff applyToBuff(ProductionBuff buff) {
+    Objects.requireNonNull(buff);
+    switch (this) {
+      case CONJURE_BAKED_GOODS:
+        return buff;
+      case STRETCH_TIME:
+        long extension = Math.min(MAX_STRETCH_TICKS,
+                (long) (buff.getTimeTotal() * STRETCH_FRACTION));
+        return extension == 0 ? buff : new StretchedBuff(buff, extension);
+      default:
+        throw new AssertionError(UNEXPECTED_BRANCH);
+    }
+  }
+
+  @Override
+  public double getBankChange(CookieClicker state) {
+    Objects.requireNonNull(state);
+    switch (this) {
+      case CONJURE_BAKED_GOODS:
+        return Math.min(state.getCurrentBank() * CONJURE_BANK_FRACTION,
+                Forecast.getTotalRate(state) * CONJURE_TICKS);
+      case STRETCH_TIME:
+        return 0;
+      default:
+        throw new AssertionError(UNEXPECTED_BRANCH);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.cookie.assets20291M;
+
+import com.cookie.CookieClicker;
+import com.cookie.ProductionEffect;
+import com.cookie.ProductionUpgrade;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Upgrades that multiply all building production by the milk of earned achievements.
+ */
+public enum KittenUpgrade implements ProductionUpgrade {
+  /**
+   * The first kitten, multiplying production by one plus a tenth of the milk. It needs the milk of
+   * five achievements, which {@link MilkAchievement} can reach on the way to its price.
+   */
+  KITTEN_HELPERS(0.1, 0.2, 9000000);
+
+  private final double requiredMilk;
+  private final double price;
+  private final Collection<ProductionEffect> effects;
+
+  /**
+   * Create a new KittenUpgrade.
+   *
+   * @param factor       The factor of milk to multiply production by.
+   * @param requiredMilk The milk needed before being purchasable.
+   * @param price        The price of this upgrade in cookies.
+   */
+  KittenUpgrade(double factor, double requiredMilk, double price) {
+    this.requiredMilk = requiredMilk;
+    this.price = price;
+    List<ProductionEffect> effects = new ArrayList<>();
+    for (Building building : Building.values()) {
+      effects.add(new MilkMultiplier(building, factor));
+    }
+    this.effects = Collections.unmodifiableList(effects);
+  }
+
+  @Override
+  public boolean isPurchasable(CookieClicker stats) {
+    return stats.getMilk() >= this.requiredMilk;
+  }
+
+  @Override
+  public Collection<ProductionEffect> getEffects() {
+    return this.effects;
+  }
+
+  @Override
+  public double price() {
+    return this.price;
+  }
+}
@@ -0,0 +1,66 @@
+package com.cookie.assets20291M;
+
+import com.cookie.Achievement;
+import com.cookie.AchievementCounter;
+
+/**
+ * The achievements reasonably earned on the route to the first one million cookies.
+ */
+public enum MilkAchievement implements Achievement {
+  /**
+   * Bake one cookie.
+   */
+  WAKE_AND_BAKE(AchievementCounter.COOKIES_BAKED, 1),
+  /**
+   * Bake one thousand cookies.
+   */
+  MAKING_SOME_DOUGH(AchievementCounter.COOKIES_BAKED, 1000),
+  /**
+   * Bake one hundred thousand cookies.
+   */
+  SO_BAKED_RIGHT_NOW(AchievementCounter.COOKIES_BAKED, 100000),
+  /**
+   * Bake one million cookies.
+   */
+  FLEDGLING_BAKERY(AchievementCounter.COOKIES_BAKED, 1000000),
+  /**
+   * Make one thousand cookies from clicking.
+   */
+  CLICKTASTIC(AchievementCounter.HANDMADE_COOKIES, 1000),
+  /**
+   * Make one hundred thousand cookies from clicking.
+   */
+  CLICKATHLON(AchievementCounter.HANDMADE_COOKIES, 100000),
+  /**
+   * Own one hundred buildings.
+   */
+  BUILDER(AchievementCounter.BUILDINGS_OWNED, 100),
+  /**
+   * Purchase twenty upgrades.
+   */
+  ENHANCER(AchievementCounter.UPGRADES_OWNED, 20);
+
+  private final AchievementCounter counter;
+  private final double threshold;
+
+  /**
+   * Create a new MilkAchievement.
+   *
+   * @param counter   The counter watched.
+   * @param threshold The value of the counter to reach.
+   */
+  MilkAchievement(AchievementCounter counter, double threshold) {
+    this.counter = counter;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public AchievementCounter getCounter() {
+    return counter;
+  }
+
+  @Override
+  public double getThreshold() {
+    return threshold;
+  }
+}
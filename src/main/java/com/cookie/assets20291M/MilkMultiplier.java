@@ -0,0 +1,70 @@
+package com.cookie.assets20291M;
+
+import com.cookie.BuildingProductionEffect;
+import com.cookie.BuildingType;
+import com.cookie.SavedCookieClicker;
+
+import java.util.Objects;
+
+/**
+ * An effect multiplying building production by one plus a factor of the milk.
+ * <p>
+ * The number is read from {@link SavedCookieClicker#getMilk()}, which is kept by the achievement
+ * tracker, so evaluating this effect never rescans achievements.
+ */
+public final class MilkMultiplier implements BuildingProductionEffect {
+  private final BuildingType target;
+  private final double factor;
+
+  /**
+   * Create a new milk multiplier.
+   *
+   * @param target The building target of this effect.
+   * @param factor The factor of milk to add to the multiplier.
+   * @throws NullPointerException If the building target is null.
+   */
+  public MilkMultiplier(BuildingType target, double factor) {
+    this.target = Objects.requireNonNull(target, "Expected non-null building target.");
+    this.factor = factor;
+  }
+
+  @Override
+  public double getNumber(SavedCookieClicker stats) {
+    Objects.requireNonNull(stats, "Expected CookieClicker stats to be non-null.");
+    return 1 + factor * stats.getMilk();
+  }
+
+  @Override
+  public BuildingType getTarget() {
+    return target;
+  }
+
+  @Override
+  public TERM getTerm() {
+    return TERM.MULTIPLIER;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof MilkMultiplier)) {
+      return false;
+    }
+    MilkMultiplier other = (MilkMultiplier) o;
+    return target.equals(other.target) && Double.compare(factor, other.factor) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * target.hashCode() + Double.hashCode(factor);
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "target = " + target + ", " +
+            "factor = " + factor +
+            "}";
+  }
+}
@@ -0,0 +1,94 @@
+package com.cookie.assets20291M;
+
+import com.cookie.ProductionBuff;
+import com.cookie.ProductionEffect;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A buff with extra time, as added by {@link GrimoireSpell#STRETCH_TIME}.
+ * <p>
+ * The original buff runs as usual until its last tick, and is then held there with its effects
+ * while the extra time runs out.
+ */
+final class StretchedBuff implements ProductionBuff {
+
+  private final ProductionBuff buff;
+  private final long extension;
+  private final long extraLeft;
+
+  /**
+   * Create a stretched buff with all its extra time left.
+   *
+   * @param buff      The active buff to stretch.
+   * @param extension The positive number of ticks to add.
+   */
+  StretchedBuff(ProductionBuff buff, long extension) {
+    this(buff, extension, extension);
+  }
+
+  private StretchedBuff(ProductionBuff buff, long extension, long extraLeft) {
+    this.buff = Objects.requireNonNull(buff);
+    this.extension = extension;
+    this.extraLeft = extraLeft;
+  }
+
+  @Override
+  public long getTimeLeft() {
+    return buff.getTimeLeft() + extraLeft;
+  }
+
+  @Override
+  public long getTimeTotal() {
+    return buff.getTimeTotal() + extension;
+  }
+
+  @Override
+  public Optional<ProductionBuff> warp(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Unable to warp by negative amount of ticks.");
+    }
+    long timeLeft = buff.getTimeLeft();
+    if (ticks < timeLeft) {
+      return buff.warp(ticks).map(warped -> new StretchedBuff(warped, extension, extraLeft));
+    } else if (ticks >= timeLeft + extraLeft) {
+      return Optional.empty();
+    }
+    // Hold the original on its last tick, and take the rest out of the extra time.
+    return buff.warp(timeLeft - 1).map(last ->
+            new StretchedBuff(last, extension, extraLeft - (ticks - timeLeft + 1)));
+  }
+
+  @Override
+  public Collection<ProductionEffect> getEffects() {
+    return buff.getEffects();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(buff, extension, extraLeft);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof StretchedBuff)) {
+      return false;
+    }
+    StretchedBuff other = (StretchedBuff) o;
+    return buff.equals(other.buff) && extension == other.extension
+            && extraLeft == other.extraLeft;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "buff = " + buff + ", " +
+            "extension = " + extension + ", " +
+            "extraLeft = " + extraLeft +
+            "}";
+  }
+}
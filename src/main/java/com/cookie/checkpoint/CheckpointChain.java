@@ -0,0 +1,262 @@
+package com.cookie.checkpoint;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.StateCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A compact history of successive game states, such as the states of an action sequence.
+ * <p>
+ * Every state at an index that is a multiple of the keyframe interval is stored as a full {@link
+ * StateCodec} record. Every other state is stored as a delta against the state before it, see
+ * {@link StateCodec#encodeDelta}. Since successive states usually differ in a few fields, a chain
+ * takes a small fraction of the space of full snapshots.
+ * <p>
+ * Any state can be read back by decoding the nearest keyframe at or before it and replaying the
+ * deltas up to it, so reads cost at most one keyframe interval of deltas. Reading forward from the
+ * last state read continues its replay instead of starting over.
+ * <p>
+ * A chain can be saved to and loaded from a file: a magic number, the record size, the keyframe
+ * interval, the number of states, the number of data bytes, and then the data. The file must be
+ * loaded with a codec built from the same registries.
+ * <p>
+ * What the codec doesn't encode, like clicking schedules and achievements, isn't kept either.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class CheckpointChain {
+
+  static final int MAGIC = 0x434B5031;
+  private static final int HEADER_BYTES = 3 * Integer.BYTES + 2 * Long.BYTES;
+
+  private final StateCodec codec;
+  private final int keyframeInterval;
+  private final ByteBuffer last;
+  private final ByteBuffer replay;
+  private ByteBuffer data;
+  private int length;
+  private int[] offsets = new int[16];
+  private int size;
+  private int replayIndex = -1;
+
+  /**
+   * Create a new empty chain.
+   *
+   * @param codec            The codec to encode states with.
+   * @param keyframeInterval The positive number of states per keyframe.
+   * @throws NullPointerException     If the codec is null.
+   * @throws IllegalArgumentException If the keyframe interval is non-positive.
+   */
+  public CheckpointChain(StateCodec codec, int keyframeInterval) {
+    this.codec = Objects.requireNonNull(codec, "Expected a non-null codec.");
+    if (keyframeInterval <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive keyframe interval.");
+    }
+    this.keyframeInterval = keyframeInterval;
+    this.last = ByteBuffer.allocate(codec.getRecordSize());
+    this.replay = ByteBuffer.allocate(codec.getRecordSize());
+    this.data = ByteBuffer.allocate(Math.max(256, codec.getRecordSize()));
+  }
+
+  /**
+   * Append a state to the end of the chain.
+   *
+   * @param state The state to append, which must be encodable by the codec.
+   * @throws NullPointerException     If the state is null.
+   * @throws IllegalArgumentException If the codec can't encode the state.
+   */
+  public void append(CookieClicker state) {
+    // Encode into the replay record first, so a state the codec rejects leaves the chain as it was.
+    replayIndex = -1;
+    codec.encode(state, replay, 0);
+    replayIndex = size;
+    if (size % keyframeInterval == 0) {
+      ensureCapacity(length + codec.getRecordSize());
+      System.arraycopy(replay.array(), 0, data.array(), length, codec.getRecordSize());
+      addEntry(codec.getRecordSize());
+    } else {
+      ensureCapacity(length + codec.getMaxDeltaSize());
+      addEntry(codec.encodeDelta(last, 0, replay, 0, data, length));
+    }
+    System.arraycopy(replay.array(), 0, last.array(), 0, codec.getRecordSize());
+  }
+
+  /**
+   * Read a state of the chain.
+   *
+   * @param index The index of the state, in the order states were appended.
+   * @return The decoded state.
+   * @throws IndexOutOfBoundsException If the index is negative or not less than the size.
+   */
+  public SimpleCookieClicker get(int index) {
+    Objects.checkIndex(index, size);
+    int keyframe = index - index % keyframeInterval;
+    if (replayIndex < keyframe || replayIndex > index) {
+      System.arraycopy(data.array(), offsets[keyframe], replay.array(), 0,
+              codec.getRecordSize());
+      replayIndex = keyframe;
+    }
+    while (replayIndex < index) {
+      replayIndex++;
+      codec.applyDelta(data, offsets[replayIndex], replay, 0);
+    }
+    return codec.decode(replay, 0);
+  }
+
+  /**
+   * Returns the number of states in the chain.
+   *
+   * @return The number of states appended.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of states per keyframe.
+   *
+   * @return The keyframe interval.
+   */
+  public int getKeyframeInterval() {
+    return keyframeInterval;
+  }
+
+  /**
+   * Returns the storage used by the states of the chain.
+   *
+   * @return The number of bytes of keyframes and deltas, not counting the index of offsets.
+   */
+  public long getStoredBytes() {
+    return length;
+  }
+
+  /**
+   * Save the chain to a file, replacing any existing file.
+   *
+   * @param file The file to write.
+   * @throws NullPointerException If the file is null.
+   * @throws IOException          If the file can't be written.
+   */
+  public void write(Path file) throws IOException {
+    Objects.requireNonNull(file, "Expected a non-null file.");
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+            .putInt(MAGIC)
+            .putInt(codec.getRecordSize())
+            .putInt(keyframeInterval)
+            .putLong(size)
+            .putLong(length)
+            .flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      ByteBuffer body = data.duplicate().position(0).limit(length);
+      while (body.hasRemaining()) {
+        channel.write(body);
+      }
+    }
+  }
+
+  /**
+   * Load a chain from a file.
+   *
+   * @param codec The codec the chain was written with.
+   * @param file  The file to read.
+   * @return The chain stored in the file, which can be appended to.
+   * @throws NullPointerException     If the codec or file is null.
+   * @throws IllegalArgumentException If the file isn't a chain of the codec, or is corrupt.
+   * @throws IOException              If the file can't be read.
+   */
+  public static CheckpointChain read(StateCodec codec, Path file) throws IOException {
+    Objects.requireNonNull(codec, "Expected a non-null codec.");
+    Objects.requireNonNull(file, "Expected a non-null file.");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      readFully(channel, header);
+      header.flip();
+      if (header.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a checkpoint chain file.");
+      } else if (header.getInt() != codec.getRecordSize()) {
+        throw new IllegalArgumentException("The chain was written with a different codec.");
+      }
+      CheckpointChain chain = new CheckpointChain(codec, header.getInt());
+      long size = header.getLong();
+      long length = header.getLong();
+      if (size < 0 || length < 0 || length != channel.size() - HEADER_BYTES
+              || length > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("Corrupt chain file header.");
+      }
+
+      chain.ensureCapacity((int) length);
+      ByteBuffer body = chain.data.duplicate().position(0).limit((int) length);
+      readFully(channel, body);
+
+      // Rebuild the index by walking the entries, which also checks every delta parses.
+      int offset = 0;
+      for (long i = 0; i < size; i++) {
+        if (offset >= length) {
+          throw new IllegalArgumentException("Corrupt chain file, truncated at state " + i + ".");
+        }
+        int entry;
+        if (chain.size % chain.keyframeInterval == 0) {
+          if (offset > length - codec.getRecordSize()) {
+            throw new IllegalArgumentException("Corrupt chain file, truncated keyframe.");
+          }
+          System.arraycopy(chain.data.array(), offset, chain.last.array(), 0,
+                  codec.getRecordSize());
+          entry = codec.getRecordSize();
+        } else {
+          entry = codec.applyDelta(chain.data, offset, chain.last, 0);
+        }
+        chain.addEntry(entry);
+        offset += entry;
+      }
+      if (offset != length) {
+        throw new IllegalArgumentException("Corrupt chain file, trailing bytes.");
+      }
+      return chain;
+    } catch (IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Corrupt chain file, an entry runs past the end.", e);
+    }
+  }
+
+  private void addEntry(int bytes) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, size * 2);
+    }
+    offsets[size++] = length;
+    length += bytes;
+  }
+
+  private void ensureCapacity(int needed) {
+    if (needed > data.capacity()) {
+      data = ByteBuffer.wrap(Arrays.copyOf(data.array(), Math.max(needed, data.capacity() * 2)));
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IllegalArgumentException("Corrupt chain file, unexpected end of file.");
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "size = " + size + ", " +
+            "keyframeInterval = " + keyframeInterval + ", " +
+            "storedBytes = " + length +
+            "}";
+  }
+}
@@ -0,0 +1,40 @@
+package com.cookie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for evaluating the numbers of every production effect of a state.
+ * <p>
+ * Disabled by default, enable {@value #NAME} in a recording's settings to record it.
+ */
+@Name(EffectEvaluationEvent.NAME)
+@Label("Effect Evaluation")
+@Description("The production effects of a game state were evaluated as one batch.")
+@Category({"Cookie Clicker", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public final class EffectEvaluationEvent extends Event {
+
+  /**
+   * The name of this event type in recordings.
+   */
+  public static final String NAME = "com.cookie.EffectEvaluation";
+
+  /**
+   * The number of effects evaluated.
+   */
+  @Label("Effect Count")
+  public int effectCount;
+
+  /**
+   * The number of building types rates were computed for.
+   */
+  @Label("Building Count")
+  public int buildingCount;
+}
@@ -0,0 +1,46 @@
+package com.cookie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for expanding one state of a search into its successors.
+ * <p>
+ * Disabled by default, enable {@value #NAME} in a recording's settings to record it.
+ */
+@Name(SearchExpansionEvent.NAME)
+@Label("Search Expansion")
+@Description("A search generated the successors of a game state.")
+@Category({"Cookie Clicker", "Search"})
+@Enabled(false)
+@StackTrace(false)
+public final class SearchExpansionEvent extends Event {
+
+  /**
+   * The name of this event type in recordings.
+   */
+  public static final String NAME = "com.cookie.SearchExpansion";
+
+  /**
+   * The tick of the state expanded.
+   */
+  @Label("Tick")
+  public long tick;
+
+  /**
+   * The number of successors generated.
+   */
+  @Label("Successor Count")
+  public int successorCount;
+
+  /**
+   * The most ticks any successor is ahead of the state expanded.
+   */
+  @Label("Tick Span")
+  public long tickSpan;
+}
@@ -0,0 +1,46 @@
+package com.cookie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for building a game state, and computing its rates.
+ * <p>
+ * Disabled by default, enable {@value #NAME} in a recording's settings to record it.
+ */
+@Name(StateConstructionEvent.NAME)
+@Label("State Construction")
+@Description("A game state was built, and its rates computed.")
+@Category({"Cookie Clicker", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public final class StateConstructionEvent extends Event {
+
+  /**
+   * The name of this event type in recordings.
+   */
+  public static final String NAME = "com.cookie.StateConstruction";
+
+  /**
+   * The tick of the state built.
+   */
+  @Label("Tick")
+  public long tick;
+
+  /**
+   * The number of production effects applied to the state.
+   */
+  @Label("Effect Count")
+  public int effectCount;
+
+  /**
+   * The number of buffs of the state.
+   */
+  @Label("Buff Count")
+  public int buffCount;
+}
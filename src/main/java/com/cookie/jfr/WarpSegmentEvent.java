@@ -0,0 +1,46 @@
+package com.cookie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for one segment of a warp, between changes of rates.
+ * <p>
+ * Disabled by default, enable {@value #NAME} in a recording's settings to record it.
+ */
+@Name(WarpSegmentEvent.NAME)
+@Label("Warp Segment")
+@Description("A game state was fast-forwarded over a span of constant rates.")
+@Category({"Cookie Clicker", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public final class WarpSegmentEvent extends Event {
+
+  /**
+   * The name of this event type in recordings.
+   */
+  public static final String NAME = "com.cookie.WarpSegment";
+
+  /**
+   * The tick the segment started at.
+   */
+  @Label("Start Tick")
+  public long startTick;
+
+  /**
+   * The number of ticks the segment spans.
+   */
+  @Label("Tick Span")
+  public long tickSpan;
+
+  /**
+   * The number of buffs active over the segment.
+   */
+  @Label("Buff Count")
+  public int buffCount;
+}
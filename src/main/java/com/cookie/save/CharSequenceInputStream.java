@@ -0,0 +1,46 @@
+package com.cookie.save;
+
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * The characters of a save's text, read as ASCII bytes without copying the text.
+ * <p>
+ * Characters outside of ASCII are read as {@code ?}, like encoding the text as ASCII would.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class CharSequenceInputStream extends InputStream {
+
+  private final CharSequence text;
+  private int position;
+
+  CharSequenceInputStream(CharSequence text) {
+    this.text = Objects.requireNonNull(text, "Expected a non-null text.");
+  }
+
+  @Override
+  public int read() {
+    if (position >= text.length()) {
+      return -1;
+    }
+    char c = text.charAt(position++);
+    return c < 0x80 ? c : '?';
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    } else if (position >= text.length()) {
+      return -1;
+    }
+    int count = Math.min(len, text.length() - position);
+    for (int i = 0; i < count; i++) {
+      char c = text.charAt(position++);
+      b[off + i] = (byte) (c < 0x80 ? c : '?');
+    }
+    return count;
+  }
+}
@@ -0,0 +1,278 @@
+package com.cookie.save;
+
+import com.cookie.Achievement;
+import com.cookie.AchievementTracker;
+import com.cookie.BuildingType;
+import com.cookie.Prestige;
+import com.cookie.ProductionUpgrade;
+import com.cookie.SimpleCookieClicker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Imports saves exported by the browser game into game states.
+ * <p>
+ * An exported save is the URL escaped base64 of {@code |} separated sections, followed by
+ * {@code !END!}. This importer reads the run dates, the statistics, the building amounts, and the
+ * bought upgrades. The cookies baked before the last ascension, and the number of ascensions,
+ * become the game's {@link Prestige}, with every level's heavenly chip unspent. Everything else,
+ * like preferences and minigames, is skipped.
+ * <p>
+ * Saves are decoded as a stream, one buffer at a time. Only the few numbers that are imported are
+ * ever copied out of the buffer, and reading stops after the upgrades section, so the cost of an
+ * import doesn't depend on the size of the sections skipped.
+ * <p>
+ * Buildings are identified by their position in the save, and upgrades by their id in the game.
+ * Buildings and upgrades without a mapping are dropped. Saves don't record a clicking rate, so
+ * imported games have a clicking rate of zero.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class SaveImporter {
+
+  private static final int RUN_SECTION = 2;
+  private static final int STATISTICS_SECTION = 4;
+  private static final int BUILDINGS_SECTION = 5;
+  private static final int UPGRADES_SECTION = 6;
+
+  private static final int START_DATE_FIELD = 0;
+  private static final int LAST_DATE_FIELD = 2;
+  private static final int BANK_FIELD = 0;
+  private static final int EARNED_FIELD = 1;
+  private static final int CLICKS_FIELD = 2;
+  private static final int HANDMADE_FIELD = 4;
+  private static final int RESET_FIELD = 8;
+  private static final int ASCENSIONS_FIELD = 14;
+
+  private static final long TICKS_PER_SECOND = 30;
+  private static final double PRICE_GROWTH_FACTOR = 1.15;
+  private static final double REFUND_FACTOR = 0.25;
+
+  private final BuildingType[] buildings;
+  private final ProductionUpgrade[] upgrades;
+  private final List<Achievement> achievements;
+
+  /**
+   * Create an importer.
+   *
+   * @param buildings    The building types in the order the game saves them. Buildings past the
+   *                     end of the list are dropped.
+   * @param upgrades     The upgrades by their id in the game.
+   * @param achievements The achievements imported games can earn.
+   * @throws NullPointerException     If any argument, building, upgrade, or achievement is null.
+   * @throws IllegalArgumentException If an upgrade id is negative.
+   */
+  public SaveImporter(List<? extends BuildingType> buildings,
+                      Map<Integer, ? extends ProductionUpgrade> upgrades,
+                      Collection<? extends Achievement> achievements) {
+    this.buildings = List.copyOf(Objects.requireNonNull(buildings, "Expected non-null buildings."))
+            .toArray(new BuildingType[0]);
+    Objects.requireNonNull(upgrades, "Expected non-null upgrades.");
+    int length = 0;
+    for (int id : upgrades.keySet()) {
+      if (id < 0) {
+        throw new IllegalArgumentException("Cannot use a negative upgrade id.");
+      }
+      length = Math.max(length, id + 1);
+    }
+    this.upgrades = new ProductionUpgrade[length];
+    for (Map.Entry<Integer, ? extends ProductionUpgrade> entry : upgrades.entrySet()) {
+      this.upgrades[entry.getKey()] =
+              Objects.requireNonNull(entry.getValue(), "Expected a non-null upgrade.");
+    }
+    this.achievements = List.copyOf(
+            Objects.requireNonNull(achievements, "Expected non-null achievements."));
+  }
+
+  /**
+   * Import an exported save.
+   *
+   * @param save The text of the save.
+   * @return The game state of the save.
+   * @throws NullPointerException If the save is null.
+   * @throws IOException          If the save is malformed.
+   */
+  public SimpleCookieClicker read(CharSequence save) throws IOException {
+    Objects.requireNonNull(save, "Expected a non-null save.");
+    return read(new CharSequenceInputStream(save));
+  }
+
+  /**
+   * Import an exported save from a stream.
+   * <p>
+   * Reading stops after the upgrades section, so the stream may be left partway through the save.
+   * The stream is not closed.
+   *
+   * @param in The stream of the text of the save.
+   * @return The game state of the save.
+   * @throws NullPointerException If the stream is null.
+   * @throws IOException          If the stream can't be read, or the save is malformed.
+   */
+  public SimpleCookieClicker read(InputStream in) throws IOException {
+    InputStream decoded = Base64.getMimeDecoder().wrap(new SaveTextInputStream(in));
+    Parser parser = new Parser();
+    byte[] buffer = new byte[8192];
+    int count;
+    while (!parser.isDone() && (count = decoded.read(buffer)) > 0) {
+      parser.accept(buffer, count);
+    }
+    return parser.finish();
+  }
+
+  /**
+   * The position within a save, and the values read so far.
+   */
+  private final class Parser {
+    private final byte[] token = new byte[32];
+    private final int[] amounts = new int[buildings.length];
+    private final Set<ProductionUpgrade> bought = new HashSet<>();
+    private int tokenLength;
+    private int section;
+    private int field;
+    private int subfield;
+    private long upgradePosition;
+
+    private double startDate;
+    private double lastDate;
+    private double bank;
+    private double earned;
+    private double clicks;
+    private double handmade;
+    private double reset;
+    private double ascensions;
+
+    boolean isDone() {
+      return section > UPGRADES_SECTION;
+    }
+
+    void accept(byte[] buffer, int count) throws IOException {
+      for (int i = 0; i < count && !isDone(); i++) {
+        byte c = buffer[i];
+        if (c == '|') {
+          endToken();
+          section++;
+          field = 0;
+          subfield = 0;
+        } else if (section == UPGRADES_SECTION) {
+          // Each upgrade is two characters, whether it is unlocked, then whether it is bought.
+          long id = upgradePosition++ >> 1;
+          if ((upgradePosition & 1) == 0 && c == '1' && id < upgrades.length
+                  && upgrades[(int) id] != null) {
+            bought.add(upgrades[(int) id]);
+          }
+        } else if (c == ';') {
+          endToken();
+          field++;
+          subfield = 0;
+        } else if (c == ',') {
+          endToken();
+          subfield++;
+        } else if (isImported()) {
+          if (tokenLength == token.length) {
+            throw new IOException("Not a Cookie Clicker save, number too long.");
+          }
+          token[tokenLength++] = c;
+        }
+      }
+    }
+
+    SimpleCookieClicker finish() throws IOException {
+      endToken();
+      if (section < UPGRADES_SECTION) {
+        throw new IOException("Not a Cookie Clicker save, missing sections.");
+      }
+      Map<BuildingType, Integer> inventory = new HashMap<>();
+      for (int i = 0; i < buildings.length; i++) {
+        if (amounts[i] > 0) {
+          inventory.merge(buildings[i], amounts[i], Integer::sum);
+        }
+      }
+      long ticks = (long) Math.max(0, (lastDate - startDate) * TICKS_PER_SECOND / 1000);
+      return new SimpleCookieClicker(ticks, inventory, bought, Collections.emptyList(), 0,
+              bank, earned + reset, handmade, clicks, PRICE_GROWTH_FACTOR, REFUND_FACTOR,
+              AchievementTracker.of(achievements),
+              new Prestige(reset, (long) ascensions, Prestige.levelOf(reset)));
+    }
+
+    private boolean isImported() {
+      switch (section) {
+        case RUN_SECTION:
+          return field == START_DATE_FIELD || field == LAST_DATE_FIELD;
+        case STATISTICS_SECTION:
+          return field == BANK_FIELD || field == EARNED_FIELD || field == CLICKS_FIELD
+                  || field == HANDMADE_FIELD || field == RESET_FIELD
+                  || field == ASCENSIONS_FIELD;
+        case BUILDINGS_SECTION:
+          return subfield == 0 && field < buildings.length;
+        default:
+          return false;
+      }
+    }
+
+    private void endToken() throws IOException {
+      if (tokenLength == 0) {
+        return;
+      }
+      if (section == BUILDINGS_SECTION) {
+        amounts[field] = parseAmount();
+      } else {
+        double value = parseNumber();
+        if (section == RUN_SECTION) {
+          if (field == START_DATE_FIELD) {
+            startDate = value;
+          } else {
+            lastDate = value;
+          }
+        } else if (field == BANK_FIELD) {
+          bank = value;
+        } else if (field == EARNED_FIELD) {
+          earned = value;
+        } else if (field == CLICKS_FIELD) {
+          clicks = value;
+        } else if (field == HANDMADE_FIELD) {
+          handmade = value;
+        } else if (field == RESET_FIELD) {
+          reset = value;
+        } else {
+          ascensions = value;
+        }
+      }
+      tokenLength = 0;
+    }
+
+    private int parseAmount() throws IOException {
+      long amount = 0;
+      for (int i = 0; i < tokenLength; i++) {
+        int digit = token[i] - '0';
+        if (digit < 0 || digit > 9 || (amount = amount * 10 + digit) > Integer.MAX_VALUE) {
+          throw new IOException("Not a Cookie Clicker save, bad building amount.");
+        }
+      }
+      return (int) amount;
+    }
+
+    private double parseNumber() throws IOException {
+      double value;
+      try {
+        value = Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+        throw new IOException("Not a Cookie Clicker save, bad number.", e);
+      }
+      if (!(value >= 0) || Double.isInfinite(value)) {
+        throw new IOException("Not a Cookie Clicker save, bad number.");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.cookie.save;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * The base64 text of an exported save, with URL escapes undone and the end marker cut off.
+ * <p>
+ * The game exports saves as {@code escape(base64 + "!END!")}, so escapes like {@code %3D} are
+ * undone as they are read, and the stream ends at the first {@code !}, escaped or not.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class SaveTextInputStream extends InputStream {
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[8192];
+  private int position;
+  private int limit;
+  private boolean ended;
+
+  SaveTextInputStream(InputStream in) {
+    this.in = Objects.requireNonNull(in, "Expected a non-null input stream.");
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (ended) {
+      return -1;
+    }
+    int c = next();
+    if (c == '%') {
+      c = (hex(next()) << 4) | hex(next());
+    }
+    if (c == '!' || c < 0) {
+      ended = true;
+      return -1;
+    }
+    return c;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+    int count = 0;
+    while (count < len) {
+      int c = read();
+      if (c < 0) {
+        break;
+      }
+      b[off + count++] = (byte) c;
+    }
+    return count == 0 ? -1 : count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private int next() throws IOException {
+    if (position == limit) {
+      limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+      position = 0;
+      if (limit == 0) {
+        return -1;
+      }
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  private static int hex(int c) throws IOException {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    } else if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    } else if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    throw new IOException("Not a Cookie Clicker save, bad escape.");
+  }
+}
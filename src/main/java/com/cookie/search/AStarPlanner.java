@@ -0,0 +1,365 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.ProductionBuff;
+import com.cookie.ProductionUpgrade;
+import com.cookie.SugarLumps;
+import com.cookie.jfr.SearchExpansionEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds a fast sequence of purchases to reach a goal with weighted A* search.
+ * <p>
+ * Every action waits until a purchase is affordable, then makes it. The cost of a plan is the
+ * in-game time it takes. The estimate of the time left is the cookies the goal still needs divided
+ * by the highest income the game could have right now, which is the current income with every
+ * unlocked upgrade applied for free, scaled by a heuristic weight.
+ * <p>
+ * That estimate ignores the income of buildings bought later, so it can overestimate, and is not
+ * admissible: with a positive weight, plans are fast but not guaranteed to be the fastest. With a
+ * weight of zero the search is uniform-cost, and the plan found is the fastest, as long as the
+ * memory cap is never reached.
+ * <p>
+ * States with the same buildings, upgrades, buffs, achievements, prestige, maximum mana, building
+ * levels, and wrinklers attached are compared, and any state that is no earlier, and no richer in
+ * cookies, mana, sugar lumps, or digested cookies than another is pruned as dominated. Buffs are
+ * keyed with their time left, so buffed states are only compared at the same point of the buff. Memory is capped: once the open set grows past
+ * the cap, its least promising half is dropped, trading optimality for memory, and only the most
+ * recently expanded states up to the cap are remembered for pruning.
+ */
+public class AStarPlanner {
+
+  private final List<BuildingType> buildings;
+  private final List<ProductionUpgrade> upgrades;
+  private final int maxOpenStates;
+  private final long maxExpansions;
+  private final double heuristicWeight;
+
+  /**
+   * Create a new planner, with the full weight on the heuristic.
+   *
+   * @param buildings     The building types plans may buy.
+   * @param upgrades      The upgrades plans may buy.
+   * @param maxOpenStates The positive maximum number of states waiting to be expanded, and of
+   *                      expanded states remembered.
+   * @param maxExpansions The positive maximum number of states to expand before giving up.
+   * @throws NullPointerException     If buildings or upgrades are null.
+   * @throws IllegalArgumentException If either maximum is non-positive.
+   */
+  public AStarPlanner(List<BuildingType> buildings, List<ProductionUpgrade> upgrades,
+                      int maxOpenStates, long maxExpansions) {
+    this(buildings, upgrades, maxOpenStates, maxExpansions, 1);
+  }
+
+  /**
+   * Create a new planner.
+   *
+   * @param buildings       The building types plans may buy.
+   * @param upgrades        The upgrades plans may buy.
+   * @param maxOpenStates   The positive maximum number of states waiting to be expanded, and of
+   *                        expanded states remembered.
+   * @param maxExpansions   The positive maximum number of states to expand before giving up.
+   * @param heuristicWeight The weight, from zero to one, of the estimate of the time left. Zero
+   *                        finds the fastest plan, one searches the fewest states.
+   * @throws NullPointerException     If buildings or upgrades are null.
+   * @throws IllegalArgumentException If either maximum is non-positive, or the weight is out of
+   *                                  range.
+   */
+  public AStarPlanner(List<BuildingType> buildings, List<ProductionUpgrade> upgrades,
+                      int maxOpenStates, long maxExpansions, double heuristicWeight) {
+    if (maxOpenStates <= 0 || maxExpansions <= 0) {
+      throw new IllegalArgumentException("Cannot use non-positive maximums.");
+    }
+    if (!(heuristicWeight >= 0 && heuristicWeight <= 1)) {
+      throw new IllegalArgumentException("Cannot use a heuristic weight outside zero to one.");
+    }
+    this.buildings = List.copyOf(buildings);
+    this.upgrades = List.copyOf(upgrades);
+    this.maxOpenStates = maxOpenStates;
+    this.maxExpansions = maxExpansions;
+    this.heuristicWeight = heuristicWeight;
+  }
+
+  /**
+   * Find the fastest plan from a game state to a goal.
+   *
+   * @param start The game state to start from.
+   * @param goal  The goal to reach.
+   * @return The plan found, or empty if the goal couldn't be reached within the maximum number of
+   * expansions.
+   * @throws NullPointerException If start or goal are null.
+   */
+  public Optional<Plan> plan(CookieClicker start, Goal goal) {
+    Objects.requireNonNull(start, "Expected a non-null start state.");
+    Objects.requireNonNull(goal, "Expected a non-null goal.");
+
+    Search search = new Search(start, goal);
+    search.push(null, null, start);
+    long expansions = 0;
+    while (!search.open.isEmpty() && expansions < maxExpansions) {
+      Node node = search.open.poll();
+      if (node.pruned) {
+        continue;
+      }
+      if (goal.isReached(node.state)) {
+        return Optional.of(search.toPlan(node, expansions));
+      }
+      expansions++;
+      search.expand(node);
+      search.close(node);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns every step that can be taken from a game state towards a goal.
+   * <p>
+   * A step waits until one building or upgrade is affordable and then buys it, or waits until the
+   * goal's remaining cookies are banked.
+   *
+   * @param state     The state to step from.
+   * @param goal      The goal being searched for.
+   * @param buildings The building types that may be bought.
+   * @param upgrades  The upgrades that may be bought.
+   * @return The steps from the state, in the order of buildings, upgrades, and then waiting.
+   */
+  static List<PlanStep> successors(CookieClicker state, Goal goal, List<BuildingType> buildings,
+                                   List<ProductionUpgrade> upgrades) {
+    List<PlanStep> steps = new ArrayList<>();
+    for (BuildingType building : buildings) {
+      Forecast.warpUntilAffordable(state, building, 1).ifPresent(ready -> steps.add(
+              new PlanStep(PlanStep.Kind.BUILDING, building, state.getTicks(), ready.getTicks(),
+                      ready.transactBuildings(building, 1))));
+    }
+    Set<ProductionUpgrade> owned = state.getProductionUpgrades();
+    for (ProductionUpgrade upgrade : upgrades) {
+      if (!owned.contains(upgrade) && upgrade.isPurchasable(state)) {
+        Forecast.warpUntilAffordable(state, upgrade).ifPresent(ready -> steps.add(
+                new PlanStep(PlanStep.Kind.UPGRADE, upgrade, state.getTicks(), ready.getTicks(),
+                        ready.buyUpgrade(upgrade))));
+      }
+    }
+    double remaining = goal.getCookiesRemaining(state);
+    if (remaining > 0) {
+      Forecast.warpUntilBank(state, state.getCurrentBank() + remaining).ifPresent(ready ->
+              steps.add(new PlanStep(PlanStep.Kind.WAIT, null, state.getTicks(),
+                      ready.getTicks(), ready)));
+    }
+    return steps;
+  }
+
+  /**
+   * Fill in the fields of a flight recorder event for an expansion.
+   *
+   * @param event The event to fill in.
+   * @param tick  The tick of the state expanded.
+   * @param steps The steps generated from the state.
+   */
+  static void describe(SearchExpansionEvent event, long tick, List<PlanStep> steps) {
+    long span = 0;
+    for (PlanStep step : steps) {
+      span = Math.max(span, step.getState().getTicks() - tick);
+    }
+    event.tick = tick;
+    event.successorCount = steps.size();
+    event.tickSpan = span;
+  }
+
+  /**
+   * A state waiting in, or expanded from, the search.
+   */
+  private static final class Node {
+    final CookieClicker state;
+    final List<Object> key;
+    final Node parent;
+    final PlanStep step;
+    final double priority;
+    boolean pruned;
+
+    Node(CookieClicker state, List<Object> key, Node parent, PlanStep step, double priority) {
+      this.state = state;
+      this.key = key;
+      this.parent = parent;
+      this.step = step;
+      this.priority = priority;
+    }
+
+    /**
+     * Returns if this node is no earlier, and no richer than another with the same key.
+     */
+    boolean isDominatedBy(Node other) {
+      SugarLumps lumps = state.getSugarLumps();
+      SugarLumps otherLumps = other.state.getSugarLumps();
+      return other.state.getTicks() <= state.getTicks()
+              && other.state.getCurrentBank() >= state.getCurrentBank()
+              && other.state.getCookiesBaked() >= state.getCookiesBaked()
+              && other.state.getHandmadeCookies() >= state.getHandmadeCookies()
+              && other.state.getGrimoire().getMana() >= state.getGrimoire().getMana()
+              && (otherLumps.getLumps() > lumps.getLumps()
+              || otherLumps.getLumps() == lumps.getLumps()
+              && otherLumps.getGrowth() >= lumps.getGrowth())
+              && other.state.getWrinklers().getDigested() >= state.getWrinklers().getDigested();
+    }
+  }
+
+  /**
+   * The bookkeeping of one plan search.
+   */
+  private final class Search {
+    final CookieClicker start;
+    final Goal goal;
+    final PriorityQueue<Node> open = new PriorityQueue<>(Comparator
+            .comparingDouble((Node node) -> node.priority)
+            .thenComparing(Comparator.comparingLong((Node node) -> node.state.getTicks()).reversed()));
+    // Non-dominated nodes, and the optimistic income, of each dominance key.
+    // Both only hold keys of open or remembered nodes, so they are bounded like them.
+    final Map<List<Object>, List<Node>> frontiers = new HashMap<>();
+    final Map<List<Object>, Double> optimisticRates = new HashMap<>();
+    // Expanded nodes still remembered in the frontiers, oldest first.
+    final Deque<Node> closed = new ArrayDeque<>();
+
+    Search(CookieClicker start, Goal goal) {
+      this.start = start;
+      this.goal = goal;
+    }
+
+    void expand(Node node) {
+      SearchExpansionEvent event = new SearchExpansionEvent();
+      event.begin();
+      List<PlanStep> steps = successors(node.state, goal, buildings, upgrades);
+      for (PlanStep step : steps) {
+        push(node, step);
+      }
+      event.end();
+      if (event.shouldCommit()) {
+        describe(event, node.state.getTicks(), steps);
+        event.commit();
+      }
+    }
+
+    void push(Node parent, PlanStep step) {
+      push(parent, step, step.getState());
+    }
+
+    void push(Node parent, PlanStep step, CookieClicker state) {
+      List<Object> key = dominanceKey(state);
+      double remaining = goal.getCookiesRemaining(state);
+      double heuristic = 0;
+      if (remaining > 0 && heuristicWeight > 0) {
+        double rate = optimisticRates.computeIfAbsent(key, unused -> optimisticRate(state));
+        heuristic = rate > 0 ? heuristicWeight * remaining / rate : 0;
+      }
+      Node node = new Node(state, key, parent, step,
+              state.getTicks() - start.getTicks() + heuristic);
+
+      List<Node> frontier = frontiers.computeIfAbsent(key, unused -> new LinkedList<>());
+      for (Node other : frontier) {
+        if (node.isDominatedBy(other)) {
+          return;
+        }
+      }
+      for (Iterator<Node> iterator = frontier.iterator(); iterator.hasNext(); ) {
+        Node other = iterator.next();
+        if (other.isDominatedBy(node)) {
+          other.pruned = true;
+          iterator.remove();
+        }
+      }
+      frontier.add(node);
+      open.add(node);
+
+      if (open.size() > maxOpenStates) {
+        List<Node> kept = new ArrayList<>(open);
+        kept.sort(open.comparator());
+        for (Node dropped : kept.subList(maxOpenStates / 2, kept.size())) {
+          forget(dropped);
+        }
+        open.clear();
+        open.addAll(kept.subList(0, maxOpenStates / 2));
+      }
+    }
+
+    /**
+     * Remember an expanded node for pruning, forgetting the oldest ones past the cap.
+     */
+    void close(Node node) {
+      closed.add(node);
+      while (closed.size() > maxOpenStates) {
+        forget(closed.poll());
+      }
+    }
+
+    /**
+     * Returns everything that two states must share to be compared, besides what only grows.
+     * <p>
+     * Buffs are recreated by every warp, so they are keyed by their class, times, and effects.
+     */
+    List<Object> dominanceKey(CookieClicker state) {
+      Map<List<Object>, Integer> buffs = new HashMap<>();
+      for (ProductionBuff buff : state.getActiveProductionBuffs()) {
+        buffs.merge(List.of(buff.getClass(), buff.getTimeTotal(), buff.getTimeLeft(),
+                List.copyOf(buff.getEffects())), 1, Integer::sum);
+      }
+      return List.of(state.getBuildingInventory(), state.getProductionUpgrades(), buffs,
+              state.getAchievements(), state.getPrestige(), state.getGrimoire().getMaxMana(),
+              state.getSugarLumps().getLevels(), state.getWrinklers().getAttached());
+    }
+
+    /**
+     * Prune a node, and remove it from its frontier so it no longer dominates new nodes.
+     */
+    void forget(Node node) {
+      node.pruned = true;
+      List<Node> frontier = frontiers.get(node.key);
+      if (frontier != null && frontier.remove(node) && frontier.isEmpty()) {
+        frontiers.remove(node.key);
+        optimisticRates.remove(node.key);
+      }
+    }
+
+    /**
+     * Returns the income of a state with every unlocked upgrade applied for free.
+     */
+    double optimisticRate(CookieClicker state) {
+      CookieClicker optimistic = state;
+      boolean bought = true;
+      while (bought) { // Buying an upgrade may unlock others.
+        bought = false;
+        for (ProductionUpgrade upgrade : upgrades) {
+          if (!optimistic.getProductionUpgrades().contains(upgrade)
+                  && upgrade.isPurchasable(optimistic)) {
+            optimistic = optimistic.adjustBank(optimistic.getUpgradePrice(upgrade))
+                    .buyUpgrade(upgrade);
+            bought = true;
+          }
+        }
+      }
+      return Forecast.getTotalRate(optimistic);
+    }
+
+    Plan toPlan(Node node, long expansions) {
+      List<PlanStep> steps = new ArrayList<>();
+      for (Node current = node; current.step != null; current = current.parent) {
+        steps.add(current.step);
+      }
+      Collections.reverse(steps);
+      return new Plan(start, steps, expansions);
+    }
+  }
+}
@@ -0,0 +1,423 @@
+package com.cookie.search;
+
+import com.cookie.SimpleCookieClicker;
+import com.cookie.StateCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates a search shared by several worker processes on one machine.
+ * <p>
+ * The search explores every sequence of purchases (see {@link AStarPlanner}) level by level, one
+ * purchase per round, to find the earliest state reaching the goal. Workers exchange {@link
+ * StateCodec} records over loopback sockets. Each worker owns the states whose record fingerprint
+ * falls in its partition, and is the only one to check those states for duplicates and expand
+ * them, so the visited set and frontier are spread over every worker's heap. Fingerprints are
+ * computed from the encoded bytes, never from {@link Object#hashCode()}, so every process agrees
+ * on who owns a state.
+ * <p>
+ * Each round, the coordinator tells every worker the earliest goal tick known. Workers prune
+ * states no earlier than it, expand the rest of their frontier, send successors straight to their
+ * owners, and report back. The search ends when no worker has a frontier left, or after the
+ * maximum number of rounds.
+ * <p>
+ * States are decoded from records between rounds, so what the codec doesn't encode, like clicking
+ * schedules and achievements, is lost. Start states should click at a constant rate.
+ * <p>
+ * Only exact duplicates are merged: states whose whole records match, ticks and bank included.
+ * Purchase orders reaching the same inventory at different ticks are all kept, and unlike {@link
+ * AStarPlanner} no state is pruned as dominated by another. The frontier therefore grows with the
+ * number of distinct purchase orders, roughly exponentially in the rounds, and adding workers
+ * spreads that growth over more heaps rather than taming it. Duplicates are detected by 64-bit
+ * fingerprint, so two distinct states colliding would wrongly be merged, which is vanishingly
+ * unlikely at the sizes a machine can search.
+ */
+public class DistributedSearch {
+
+  static final int OP_ROUND = 1;
+  static final int OP_STOP = 2;
+  private static final int ACCEPT_TIMEOUT_MILLIS = 60_000;
+
+  private final SearchProblem problem;
+  private final int maxRounds;
+
+  /**
+   * Launches the workers of a search.
+   */
+  @FunctionalInterface
+  public interface WorkerLauncher {
+
+    /**
+     * Start workers that connect to a coordinator, see {@link DistributedSearchWorker#run}.
+     *
+     * @param coordinator The loopback address of the coordinator.
+     * @param workers     The number of workers to start.
+     * @return A handle that waits for, or stops, the workers when closed.
+     * @throws IOException If the workers can't be started.
+     */
+    Closeable launch(InetSocketAddress coordinator, int workers) throws IOException;
+  }
+
+  /**
+   * Create a new search coordinator.
+   *
+   * @param problem   The problem to search.
+   * @param maxRounds The positive maximum number of purchases to search through.
+   * @throws NullPointerException     If the problem is null.
+   * @throws IllegalArgumentException If the maximum number of rounds is non-positive.
+   */
+  public DistributedSearch(SearchProblem problem, int maxRounds) {
+    this.problem = Objects.requireNonNull(problem, "Expected a non-null problem.");
+    if (maxRounds <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive maximum number of rounds.");
+    }
+    this.maxRounds = maxRounds;
+  }
+
+  /**
+   * Returns a launcher of worker JVM processes on this machine.
+   * <p>
+   * Workers are started with the Java executable and class path of this JVM, and rebuild the
+   * problem from its class.
+   *
+   * @param problemClass The class of the problem, see {@link SearchProblem}.
+   * @return A launcher of local processes.
+   * @throws NullPointerException If the problem class is null.
+   */
+  public static WorkerLauncher localProcesses(Class<? extends SearchProblem> problemClass) {
+    Objects.requireNonNull(problemClass, "Expected a non-null problem class.");
+    return (coordinator, workers) -> {
+      String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+      List<Process> processes = new ArrayList<>();
+      Closeable handle = () -> {
+        for (Process process : processes) {
+          try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+              process.destroyForcibly();
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+          }
+        }
+      };
+      try {
+        for (int i = 0; i < workers; i++) {
+          processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                  DistributedSearchWorker.class.getName(),
+                  coordinator.getHostString(), Integer.toString(coordinator.getPort()),
+                  problemClass.getName())
+                  .inheritIO()
+                  .start());
+        }
+      } catch (IOException e) {
+        processes.forEach(Process::destroyForcibly);
+        throw e;
+      }
+      return handle;
+    };
+  }
+
+  /**
+   * Returns a launcher of worker threads in this JVM.
+   * <p>
+   * Workers still talk over loopback sockets, so this runs the same protocol as processes do,
+   * without the startup cost of a JVM per worker.
+   *
+   * @param problem The problem every worker searches.
+   * @return A launcher of local threads.
+   * @throws NullPointerException If the problem is null.
+   */
+  public static WorkerLauncher localThreads(SearchProblem problem) {
+    Objects.requireNonNull(problem, "Expected a non-null problem.");
+    return (coordinator, workers) -> {
+      List<Thread> threads = new ArrayList<>();
+      List<Throwable> failures = new ArrayList<>();
+      for (int i = 0; i < workers; i++) {
+        Thread thread = new Thread(() -> {
+          try {
+            DistributedSearchWorker.run(coordinator, problem);
+          } catch (IOException | RuntimeException e) {
+            synchronized (failures) {
+              failures.add(e);
+            }
+          }
+        }, "search-worker-" + i);
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+      }
+      return () -> {
+        for (Thread thread : threads) {
+          try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+        }
+        synchronized (failures) {
+          if (!failures.isEmpty()) {
+            throw new IOException("A search worker failed.", failures.get(0));
+          }
+        }
+      };
+    };
+  }
+
+  /**
+   * Run the search.
+   *
+   * @param workers  The positive number of workers to share the search between.
+   * @param launcher The launcher to start workers with.
+   * @return The result of the search.
+   * @throws NullPointerException     If the launcher is null.
+   * @throws IllegalArgumentException If the number of workers is non-positive.
+   * @throws IOException              If a worker fails, or can't be reached.
+   */
+  public Result search(int workers, WorkerLauncher launcher) throws IOException {
+    Objects.requireNonNull(launcher, "Expected a non-null launcher.");
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive number of workers.");
+    }
+    try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+      Closeable launched = launcher.launch(
+              new InetSocketAddress(server.getInetAddress(), server.getLocalPort()), workers);
+      List<Socket> sockets = new ArrayList<>();
+      try {
+        return coordinate(server, workers, sockets);
+      } finally {
+        // Connections are closed first, so workers blocked on the coordinator fail fast instead of
+        // being waited on.
+        try {
+          for (Socket socket : sockets) {
+            socket.close();
+          }
+        } finally {
+          launched.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Accept every worker, and run rounds of the search with them until it ends.
+   *
+   * @param server  The socket workers connect to.
+   * @param workers The number of workers to accept.
+   * @param sockets The list to add each accepted socket to, closed by the caller.
+   * @return The result of the search.
+   * @throws IOException If a worker fails, or can't be reached.
+   */
+  private Result coordinate(ServerSocket server, int workers, List<Socket> sockets)
+          throws IOException {
+    StateCodec codec = problem.getCodec();
+    server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+    List<DataInputStream> ins = new ArrayList<>();
+    List<DataOutputStream> outs = new ArrayList<>();
+    int[] ports = new int[workers];
+    for (int i = 0; i < workers; i++) {
+      Socket socket = server.accept();
+      sockets.add(socket);
+      socket.setTcpNoDelay(true);
+      ins.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+      outs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+      if (ins.get(i).readInt() != codec.getRecordSize()) {
+        throw new IOException("A worker was built with a different codec.");
+      }
+      ports[i] = ins.get(i).readInt();
+    }
+    for (int i = 0; i < workers; i++) {
+      DataOutputStream out = outs.get(i);
+      out.writeInt(i);
+      out.writeInt(workers);
+      for (int port : ports) {
+        out.writeInt(port);
+      }
+      out.flush();
+    }
+
+    long startNanos = System.nanoTime();
+    long bestTicks = Long.MAX_VALUE;
+    byte[] bestRecord = null;
+    long expanded = 0;
+    long generated = 0;
+    long duplicates = 0;
+    long visited = 0;
+    int rounds = 0;
+    long frontier = 1;
+    while (rounds < maxRounds && frontier > 0) {
+      for (DataOutputStream out : outs) {
+        out.writeInt(OP_ROUND);
+        out.writeLong(bestTicks);
+        out.flush();
+      }
+      frontier = 0;
+      visited = 0;
+      for (DataInputStream in : ins) {
+        frontier += in.readLong();
+        expanded += in.readLong();
+        generated += in.readLong();
+        duplicates += in.readLong();
+        visited += in.readLong();
+        long workerBest = in.readLong();
+        if (in.readBoolean()) {
+          byte[] record = new byte[codec.getRecordSize()];
+          in.readFully(record);
+          if (workerBest < bestTicks) {
+            bestTicks = workerBest;
+            bestRecord = record;
+          }
+        }
+      }
+      rounds++;
+    }
+    for (DataOutputStream out : outs) {
+      out.writeInt(OP_STOP);
+      out.flush();
+    }
+
+    Optional<SimpleCookieClicker> best = bestRecord == null ? Optional.empty()
+            : Optional.of(codec.decode(ByteBuffer.wrap(bestRecord), 0));
+    return new Result(best, workers, rounds, expanded, generated, duplicates, visited,
+            System.nanoTime() - startNanos);
+  }
+
+  /**
+   * The outcome of a distributed search.
+   */
+  public static final class Result {
+    private final Optional<SimpleCookieClicker> best;
+    private final int workers;
+    private final int rounds;
+    private final long expanded;
+    private final long generated;
+    private final long duplicates;
+    private final long visited;
+    private final long elapsedNanos;
+
+    Result(Optional<SimpleCookieClicker> best, int workers, int rounds, long expanded,
+           long generated, long duplicates, long visited, long elapsedNanos) {
+      this.best = best;
+      this.workers = workers;
+      this.rounds = rounds;
+      this.expanded = expanded;
+      this.generated = generated;
+      this.duplicates = duplicates;
+      this.visited = visited;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the earliest state found that reaches the goal.
+     *
+     * @return The best state, or empty if none was found within the maximum rounds.
+     */
+    public Optional<SimpleCookieClicker> getBest() {
+      return best;
+    }
+
+    /**
+     * Returns the number of workers the search was shared by.
+     *
+     * @return The number of workers.
+     */
+    public int getWorkers() {
+      return workers;
+    }
+
+    /**
+     * Returns the number of rounds searched, one purchase deeper each.
+     *
+     * @return The number of rounds.
+     */
+    public int getRounds() {
+      return rounds;
+    }
+
+    /**
+     * Returns the number of states expanded by all workers.
+     *
+     * @return The number of states expanded.
+     */
+    public long getExpanded() {
+      return expanded;
+    }
+
+    /**
+     * Returns the number of successor states generated by all workers.
+     *
+     * @return The number of successors generated.
+     */
+    public long getGenerated() {
+      return generated;
+    }
+
+    /**
+     * Returns the number of successors dropped by their owner as already visited, with a record
+     * identical to one seen before.
+     *
+     * @return The number of duplicates detected.
+     */
+    public long getDuplicates() {
+      return duplicates;
+    }
+
+    /**
+     * Returns the number of distinct states held in the visited sets of all workers.
+     *
+     * @return The number of distinct states visited.
+     */
+    public long getVisited() {
+      return visited;
+    }
+
+    /**
+     * Returns the time the rounds of the search took, not counting starting workers.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns the throughput of the search.
+     *
+     * @return The number of states expanded per second of elapsed time.
+     */
+    public double getExpansionsPerSecond() {
+      return elapsedNanos == 0 ? 0 : expanded * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "best = " + best.map(SimpleCookieClicker::getTicks) + ", " +
+              "workers = " + workers + ", " +
+              "rounds = " + rounds + ", " +
+              "expanded = " + expanded + ", " +
+              "generated = " + generated + ", " +
+              "duplicates = " + duplicates + ", " +
+              "visited = " + visited + ", " +
+              "elapsedNanos = " + elapsedNanos +
+              "}";
+    }
+  }
+}
@@ -0,0 +1,401 @@
+package com.cookie.search;
+
+import com.cookie.CookieClicker;
+import com.cookie.StateCodec;
+import com.cookie.jfr.SearchExpansionEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A worker of a {@link DistributedSearch}, usually run as its own JVM process.
+ * <p>
+ * A worker connects to the coordinator, then to every other worker. It keeps the visited
+ * fingerprints and frontier of the states it owns as primitive arrays and records. Successors it
+ * generates for other workers are batched and sent straight to them. Incoming batches are read by
+ * one thread per peer into a queue, so sending never waits on a peer that is itself sending.
+ * <p>
+ * This class is not meant to be instantiated, see {@link #main} and {@link #run}.
+ */
+public final class DistributedSearchWorker {
+
+  private static final int BATCH_RECORDS = 1024;
+  private static final byte[] END = new byte[0];
+  private static final byte[] FAILED = new byte[0];
+
+  private final StateCodec codec;
+  private final Goal goal;
+  private final SearchProblem problem;
+  private final int recordSize;
+  private final int id;
+  private final int workers;
+  private final DataOutputStream[] peers;
+  private final byte[][] batches;
+  private final int[] batchCounts;
+  private final FingerprintSet visited = new FingerprintSet();
+  private final ByteBuffer scratch;
+  private RecordList frontier = new RecordList();
+  private RecordList next = new RecordList();
+  private long bestTicks = Long.MAX_VALUE;
+  private byte[] bestRecord;
+  private long expanded;
+  private long generated;
+  private long duplicates;
+
+  private DistributedSearchWorker(SearchProblem problem, int id, int workers,
+                                  DataOutputStream[] peers) {
+    this.problem = problem;
+    this.codec = problem.getCodec();
+    this.goal = problem.getGoal();
+    this.recordSize = codec.getRecordSize();
+    this.id = id;
+    this.workers = workers;
+    this.peers = peers;
+    this.batches = new byte[workers][];
+    this.batchCounts = new int[workers];
+    this.scratch = ByteBuffer.allocate(recordSize);
+  }
+
+  /**
+   * Run a worker process.
+   *
+   * @param args The coordinator host, the coordinator port, and the class name of the problem.
+   * @throws Exception If the problem can't be built, or the search fails.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 3) {
+      throw new IllegalArgumentException("Expected a coordinator host, port, and problem class.");
+    }
+    SearchProblem problem = Class.forName(args[2]).asSubclass(SearchProblem.class)
+            .getConstructor()
+            .newInstance();
+    run(new InetSocketAddress(args[0], Integer.parseInt(args[1])), problem);
+  }
+
+  /**
+   * Connect to a coordinator and work on its search until it stops.
+   *
+   * @param coordinator The address of the coordinator.
+   * @param problem     The problem being searched, which must match the coordinator's.
+   * @throws NullPointerException If the coordinator or problem is null.
+   * @throws IOException          If the coordinator or a peer can't be reached, or disconnects.
+   */
+  public static void run(InetSocketAddress coordinator, SearchProblem problem) throws IOException {
+    Objects.requireNonNull(coordinator, "Expected a non-null coordinator.");
+    Objects.requireNonNull(problem, "Expected a non-null problem.");
+    int recordSize = problem.getCodec().getRecordSize();
+    List<Socket> sockets = new ArrayList<>();
+    try (ServerSocket peerServer = new ServerSocket(0, 64, InetAddress.getLoopbackAddress());
+         Socket control = new Socket(coordinator.getAddress(), coordinator.getPort())) {
+      control.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(control.getInputStream()));
+      DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(control.getOutputStream()));
+      out.writeInt(recordSize);
+      out.writeInt(peerServer.getLocalPort());
+      out.flush();
+
+      int id = in.readInt();
+      int workers = in.readInt();
+      int[] ports = new int[workers];
+      for (int i = 0; i < workers; i++) {
+        ports[i] = in.readInt();
+      }
+
+      // Connect out to every peer first, the peers' backlogs hold the connections until accepted.
+      DataOutputStream[] peers = new DataOutputStream[workers];
+      for (int i = 0; i < workers; i++) {
+        if (i != id) {
+          Socket socket = new Socket(InetAddress.getLoopbackAddress(), ports[i]);
+          sockets.add(socket);
+          peers[i] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                  1 << 16));
+          peers[i].writeInt(id);
+          peers[i].flush();
+        }
+      }
+      BlockingQueue<byte[]> inbox = new LinkedBlockingQueue<>();
+      for (int i = 0; i < workers - 1; i++) {
+        Socket socket = peerServer.accept();
+        sockets.add(socket);
+        DataInputStream peerIn = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        peerIn.readInt();
+        Thread reader = new Thread(() -> readPeer(peerIn, recordSize, inbox),
+                "search-peer-reader");
+        reader.setDaemon(true);
+        reader.start();
+      }
+
+      new DistributedSearchWorker(problem, id, workers, peers).work(in, out, inbox);
+    } finally {
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+
+  /**
+   * Move batches from a peer into the inbox until the peer disconnects.
+   */
+  private static void readPeer(DataInputStream in, int recordSize, BlockingQueue<byte[]> inbox) {
+    try {
+      while (true) {
+        int count = in.readInt();
+        if (count == 0) {
+          inbox.add(END);
+        } else {
+          byte[] batch = new byte[count * recordSize];
+          in.readFully(batch);
+          inbox.add(batch);
+        }
+      }
+    } catch (EOFException e) {
+      // The peer is done, the search has stopped.
+    } catch (IOException e) {
+      // A peer closing at the end of the search looks like this as well, only fail a round.
+      inbox.add(FAILED);
+    }
+  }
+
+  private void work(DataInputStream in, DataOutputStream out, BlockingQueue<byte[]> inbox)
+          throws IOException {
+    CookieClicker start = problem.getStart();
+    codec.encode(start, scratch, 0);
+    if (owner(fingerprint(scratch.array(), 0)) == id) {
+      if (goal.isReached(start)) {
+        updateBest(start);
+      } else {
+        receive(scratch.array(), 0);
+      }
+    }
+
+    while (in.readInt() == DistributedSearch.OP_ROUND) {
+      bestTicks = Math.min(bestTicks, in.readLong());
+      // The states received last round are expanded, and this round's are received into next.
+      RecordList expanding = next;
+      next = frontier;
+      next.clear();
+      frontier = expanding;
+      for (int i = 0; i < frontier.count; i++) {
+        expand(frontier.records, i * recordSize);
+      }
+      for (int peer = 0; peer < workers; peer++) {
+        if (peer != id) {
+          sendBatch(peer);
+          peers[peer].writeInt(0);
+          peers[peer].flush();
+        }
+      }
+      int ends = 0;
+      while (ends < workers - 1) {
+        byte[] batch;
+        try {
+          batch = inbox.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted waiting for peers.", e);
+        }
+        if (batch == END) {
+          ends++;
+        } else if (batch == FAILED) {
+          throw new IOException("Lost the connection to a peer.");
+        } else {
+          for (int offset = 0; offset < batch.length; offset += recordSize) {
+            receive(batch, offset);
+          }
+        }
+      }
+      out.writeLong(next.count);
+      out.writeLong(expanded);
+      out.writeLong(generated);
+      out.writeLong(duplicates);
+      out.writeLong(visited.size());
+      out.writeLong(bestTicks);
+      out.writeBoolean(bestRecord != null);
+      if (bestRecord != null) {
+        out.write(bestRecord);
+      }
+      out.flush();
+      expanded = 0;
+      generated = 0;
+      duplicates = 0;
+    }
+  }
+
+  private void expand(byte[] records, int offset) throws IOException {
+    if (ByteBuffer.wrap(records).getLong(offset) >= bestTicks) {
+      return; // Ticks only grow, so this state can't beat the best goal state any more.
+    }
+    expanded++;
+    SearchExpansionEvent event = new SearchExpansionEvent();
+    event.begin();
+    CookieClicker state = codec.decode(ByteBuffer.wrap(records), offset);
+    List<PlanStep> steps = AStarPlanner.successors(state, goal, problem.getBuildings(),
+            problem.getUpgrades());
+    for (PlanStep step : steps) {
+      CookieClicker successor = step.getState();
+      generated++;
+      if (goal.isReached(successor)) {
+        if (successor.getTicks() < bestTicks) {
+          updateBest(successor);
+        }
+      } else if (successor.getTicks() < bestTicks) {
+        codec.encode(successor, scratch, 0);
+        int owner = owner(fingerprint(scratch.array(), 0));
+        if (owner == id) {
+          receive(scratch.array(), 0);
+        } else {
+          if (batches[owner] == null) {
+            batches[owner] = new byte[BATCH_RECORDS * recordSize];
+          }
+          System.arraycopy(scratch.array(), 0, batches[owner], batchCounts[owner] * recordSize,
+                  recordSize);
+          if (++batchCounts[owner] == BATCH_RECORDS) {
+            sendBatch(owner);
+          }
+        }
+      }
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      AStarPlanner.describe(event, state.getTicks(), steps);
+      event.commit();
+    }
+  }
+
+  private void sendBatch(int peer) throws IOException {
+    if (batchCounts[peer] > 0) {
+      peers[peer].writeInt(batchCounts[peer]);
+      peers[peer].write(batches[peer], 0, batchCounts[peer] * recordSize);
+      batchCounts[peer] = 0;
+    }
+  }
+
+  /**
+   * Take ownership of a state, adding it to the next frontier unless it was seen before.
+   */
+  private void receive(byte[] records, int offset) {
+    if (visited.add(fingerprint(records, offset))) {
+      next.add(records, offset, recordSize);
+    } else {
+      duplicates++;
+    }
+  }
+
+  private void updateBest(CookieClicker state) {
+    bestTicks = state.getTicks();
+    bestRecord = new byte[recordSize];
+    codec.encode(state, ByteBuffer.wrap(bestRecord), 0);
+  }
+
+  /**
+   * Returns which worker owns a fingerprint, from its high bits so the visited set can use the
+   * low bits independently.
+   */
+  private int owner(long fingerprint) {
+    return (int) (((fingerprint >>> 32) * workers) >>> 32);
+  }
+
+  /**
+   * Returns a 64-bit fingerprint of a record's bytes, the same in every JVM.
+   */
+  private long fingerprint(byte[] records, int offset) {
+    ByteBuffer buffer = ByteBuffer.wrap(records);
+    long hash = recordSize;
+    int end = offset + recordSize;
+    int position = offset;
+    for (; position + Long.BYTES <= end; position += Long.BYTES) {
+      hash = mix(hash ^ buffer.getLong(position));
+    }
+    for (; position < end; position++) {
+      hash = mix(hash ^ records[position]);
+    }
+    return hash;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * A growable list of records in one array.
+   */
+  private static final class RecordList {
+    private byte[] records = new byte[0];
+    private int count;
+
+    void add(byte[] source, int offset, int recordSize) {
+      if ((count + 1) * recordSize > records.length) {
+        records = Arrays.copyOf(records, Math.max(recordSize * 64, records.length * 2));
+      }
+      System.arraycopy(source, offset, records, count * recordSize, recordSize);
+      count++;
+    }
+
+    void clear() {
+      count = 0;
+    }
+  }
+
+  /**
+   * An open-addressing set of fingerprints, with zero standing in for an empty slot.
+   */
+  private static final class FingerprintSet {
+    private long[] table = new long[1024];
+    private int size;
+
+    boolean add(long fingerprint) {
+      long key = fingerprint == 0 ? 1 : fingerprint;
+      if (2 * (size + 1) > table.length) {
+        long[] old = table;
+        table = new long[old.length * 2];
+        for (long existing : old) {
+          if (existing != 0) {
+            table[slot(existing)] = existing;
+          }
+        }
+      }
+      int slot = slot(key);
+      if (table[slot] == key) {
+        return false;
+      }
+      table[slot] = key;
+      size++;
+      return true;
+    }
+
+    /**
+     * Returns the slot holding a key, or the empty slot it belongs in.
+     */
+    private int slot(long key) {
+      int mask = table.length - 1;
+      int slot = (int) key & mask;
+      while (table[slot] != 0 && table[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.cookie.search;
+
+import com.cookie.CookieClicker;
+
+/**
+ * Something a plan should achieve in a game.
+ */
+public interface Goal {
+
+  /**
+   * Returns if a game has achieved this goal.
+   *
+   * @param state The game to check.
+   * @return True if the goal is achieved.
+   * @throws NullPointerException If the state is null.
+   */
+  boolean isReached(CookieClicker state);
+
+  /**
+   * Returns a lower bound on how many more cookies must be baked to achieve this goal.
+   * <p>
+   * This should never overestimate, since it is what keeps planning heuristics admissible. Zero is
+   * always a safe answer.
+   *
+   * @param state The game to check.
+   * @return The non-negative number of cookies that at least still have to be baked.
+   * @throws NullPointerException If the state is null.
+   */
+  double getCookiesRemaining(CookieClicker state);
+}
@@ -0,0 +1,104 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+
+import java.util.Objects;
+
+/**
+ * Common goals.
+ */
+public final class Goals {
+
+  private Goals() {
+  }
+
+  /**
+   * A goal of baking a number of cookies all-time.
+   *
+   * @param cookies The number of cookies baked all-time to reach.
+   * @return The goal.
+   */
+  public static Goal cookiesBaked(double cookies) {
+    return new Goal() {
+      @Override
+      public boolean isReached(CookieClicker state) {
+        return state.getCookiesBaked() >= cookies;
+      }
+
+      @Override
+      public double getCookiesRemaining(CookieClicker state) {
+        return Math.max(0, cookies - state.getCookiesBaked());
+      }
+
+      @Override
+      public String toString() {
+        return "cookiesBaked(" + cookies + ")";
+      }
+    };
+  }
+
+  /**
+   * A goal of owning a number of buildings of one type.
+   *
+   * @param building The building type to own.
+   * @param count    The number of buildings to own.
+   * @return The goal.
+   * @throws NullPointerException If the building type is null.
+   */
+  public static Goal owns(BuildingType building, int count) {
+    Objects.requireNonNull(building, "Expected a non-null building type.");
+    return new Goal() {
+      @Override
+      public boolean isReached(CookieClicker state) {
+        return state.getBuildingInventory().getOrDefault(building, 0) >= count;
+      }
+
+      @Override
+      public double getCookiesRemaining(CookieClicker state) {
+        int missing = count - state.getBuildingInventory().getOrDefault(building, 0);
+        if (missing <= 0) {
+          return 0;
+        }
+        return Math.max(0,
+                state.getBuildingTransactionBill(building, missing) - state.getCurrentBank());
+      }
+
+      @Override
+      public String toString() {
+        return "owns(" + building + ", " + count + ")";
+      }
+    };
+  }
+
+  /**
+   * A goal of owning an upgrade.
+   *
+   * @param upgrade The upgrade to own.
+   * @return The goal.
+   * @throws NullPointerException If the upgrade is null.
+   */
+  public static Goal owns(ProductionUpgrade upgrade) {
+    Objects.requireNonNull(upgrade, "Expected a non-null upgrade.");
+    return new Goal() {
+      @Override
+      public boolean isReached(CookieClicker state) {
+        return state.getProductionUpgrades().contains(upgrade);
+      }
+
+      @Override
+      public double getCookiesRemaining(CookieClicker state) {
+        if (isReached(state)) {
+          return 0;
+        }
+        return Math.max(0, state.getUpgradePrice(upgrade) - state.getCurrentBank());
+      }
+
+      @Override
+      public String toString() {
+        return "owns(" + upgrade + ")";
+      }
+    };
+  }
+}
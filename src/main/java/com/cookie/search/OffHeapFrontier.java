@@ -0,0 +1,255 @@
+package com.cookie.search;
+
+import com.cookie.CookieClicker;
+import com.cookie.StateCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A priority queue of game states stored outside of the Java heap.
+ * <p>
+ * States are encoded into fixed-size records in chunks of direct, or file-mapped, memory. The
+ * queue itself is a binary heap of primitive priorities and record slots, so the Java heap holds
+ * about sixteen bytes per state no matter how large states are, and the garbage collector never
+ * traces them. States are decoded back into objects only when polled.
+ * <p>
+ * The slots of polled states are reused. Memory is only returned when the frontier is garbage
+ * collected, or its mapped files deleted, after closing.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class OffHeapFrontier implements AutoCloseable {
+
+  private final StateCodec codec;
+  private final int recordsPerChunk;
+  private final Path directory;
+  private final List<ByteBuffer> chunks = new ArrayList<>();
+  private final List<Path> files = new ArrayList<>();
+
+  // The binary heap, ordered by priority.
+  private double[] priorities = new double[1024];
+  private long[] slots = new long[1024];
+  private int size;
+
+  // Slots that were polled, waiting to be reused.
+  private long[] freeSlots = new long[64];
+  private int freeCount;
+  private long nextSlot;
+
+  /**
+   * Create a new frontier in direct memory.
+   *
+   * @param codec           The codec to encode states with.
+   * @param recordsPerChunk The positive number of records per allocated chunk.
+   * @throws NullPointerException     If the codec is null.
+   * @throws IllegalArgumentException If records per chunk is non-positive, or too large for one
+   *                                  buffer.
+   */
+  public OffHeapFrontier(StateCodec codec, int recordsPerChunk) {
+    this(codec, recordsPerChunk, null);
+  }
+
+  /**
+   * Create a new frontier in memory-mapped files, letting it grow past physical memory.
+   *
+   * @param codec           The codec to encode states with.
+   * @param recordsPerChunk The positive number of records per mapped file.
+   * @param directory       The directory to create mapped files in, or null for direct memory.
+   * @throws NullPointerException     If the codec is null.
+   * @throws IllegalArgumentException If records per chunk is non-positive, or too large for one
+   *                                  buffer.
+   */
+  public OffHeapFrontier(StateCodec codec, int recordsPerChunk, Path directory) {
+    this.codec = Objects.requireNonNull(codec, "Expected a non-null codec.");
+    if (recordsPerChunk <= 0
+            || (long) recordsPerChunk * codec.getRecordSize() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Cannot use " + recordsPerChunk + " records per chunk.");
+    }
+    this.recordsPerChunk = recordsPerChunk;
+    this.directory = directory;
+  }
+
+  /**
+   * Add a state to the frontier.
+   *
+   * @param state    The state to add.
+   * @param priority The priority of the state, lower priorities are polled first.
+   * @throws NullPointerException     If the state is null.
+   * @throws IllegalArgumentException If the codec can't encode the state.
+   * @throws UncheckedIOException     If a mapped file can't be created.
+   */
+  public void push(CookieClicker state, double priority) {
+    // The slot is only claimed once the codec accepts the state, so a rejected state doesn't leak
+    // it. The codec validates before writing, so the slot's old record is left untouched.
+    long slot = freeCount > 0 ? freeSlots[freeCount - 1] : nextSlot;
+    codec.encode(state, chunkOf(slot), offsetOf(slot));
+    if (slot == nextSlot) {
+      nextSlot++;
+    } else {
+      freeCount--;
+    }
+
+    if (size == slots.length) {
+      priorities = Arrays.copyOf(priorities, size * 2);
+      slots = Arrays.copyOf(slots, size * 2);
+    }
+    int index = size++;
+    // Sift up.
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (priorities[parent] <= priority) {
+        break;
+      }
+      priorities[index] = priorities[parent];
+      slots[index] = slots[parent];
+      index = parent;
+    }
+    priorities[index] = priority;
+    slots[index] = slot;
+  }
+
+  /**
+   * Returns the priority of the next state to be polled.
+   *
+   * @return The lowest priority in the frontier.
+   * @throws NoSuchElementException If the frontier is empty.
+   */
+  public double peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException("The frontier is empty.");
+    }
+    return priorities[0];
+  }
+
+  /**
+   * Remove, and decode the state with the lowest priority.
+   *
+   * @return The state with the lowest priority.
+   * @throws NoSuchElementException If the frontier is empty.
+   */
+  public CookieClicker poll() {
+    if (size == 0) {
+      throw new NoSuchElementException("The frontier is empty.");
+    }
+    long slot = slots[0];
+    CookieClicker state = codec.decode(chunks.get((int) (slot / recordsPerChunk)), offsetOf(slot));
+
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+
+    // Move the last entry to the root, and sift down.
+    size--;
+    double priority = priorities[size];
+    long last = slots[size];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+        child++;
+      }
+      if (priority <= priorities[child]) {
+        break;
+      }
+      priorities[index] = priorities[child];
+      slots[index] = slots[child];
+      index = child;
+    }
+    priorities[index] = priority;
+    slots[index] = last;
+    return state;
+  }
+
+  /**
+   * Returns the number of states in the frontier.
+   *
+   * @return The number of states waiting to be polled.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns if the frontier is empty.
+   *
+   * @return True if no states are waiting to be polled.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the off-heap memory held by this frontier.
+   *
+   * @return The number of bytes allocated for records.
+   */
+  public long getAllocatedBytes() {
+    return (long) chunks.size() * recordsPerChunk * codec.getRecordSize();
+  }
+
+  /**
+   * Drop all states, and delete any mapped files.
+   *
+   * @throws UncheckedIOException If a mapped file can't be deleted.
+   */
+  @Override
+  public void close() {
+    chunks.clear();
+    size = 0;
+    freeCount = 0;
+    nextSlot = 0;
+    try {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      files.clear();
+    }
+  }
+
+  private ByteBuffer chunkOf(long slot) {
+    int chunk = (int) (slot / recordsPerChunk);
+    while (chunks.size() <= chunk) {
+      chunks.add(allocateChunk());
+    }
+    return chunks.get(chunk);
+  }
+
+  private int offsetOf(long slot) {
+    return (int) (slot % recordsPerChunk) * codec.getRecordSize();
+  }
+
+  private ByteBuffer allocateChunk() {
+    int bytes = recordsPerChunk * codec.getRecordSize();
+    if (directory == null) {
+      return ByteBuffer.allocateDirect(bytes);
+    }
+    try {
+      Path file = Files.createTempFile(directory, "frontier-", ".chunk");
+      files.add(file);
+      try (FileChannel channel = FileChannel.open(file,
+              StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
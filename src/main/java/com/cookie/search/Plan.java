@@ -0,0 +1,83 @@
+package com.cookie.search;
+
+import com.cookie.CookieClicker;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A timeline of steps taking a game from a start to a goal.
+ */
+public final class Plan {
+
+  private final CookieClicker start;
+  private final List<PlanStep> steps;
+  private final long expandedStates;
+
+  /**
+   * Create a new plan.
+   *
+   * @param start          The game state the plan starts from.
+   * @param steps          The steps of the plan in order.
+   * @param expandedStates The number of states the planner expanded to find this plan.
+   */
+  Plan(CookieClicker start, List<PlanStep> steps, long expandedStates) {
+    this.start = Objects.requireNonNull(start);
+    this.steps = List.copyOf(steps);
+    this.expandedStates = expandedStates;
+  }
+
+  /**
+   * Returns the game state the plan starts from.
+   *
+   * @return The starting game state.
+   */
+  public CookieClicker getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the steps of the plan.
+   *
+   * @return A read-only list of steps in order.
+   */
+  public List<PlanStep> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Returns the game state at the end of the plan.
+   *
+   * @return The game state with the goal reached.
+   */
+  public CookieClicker getEnd() {
+    return steps.isEmpty() ? start : steps.get(steps.size() - 1).getState();
+  }
+
+  /**
+   * Returns how long the plan takes.
+   *
+   * @return The number of ticks from start to end.
+   */
+  public long getTicks() {
+    return getEnd().getTicks() - start.getTicks();
+  }
+
+  /**
+   * Returns how many states the planner expanded to find this plan.
+   *
+   * @return The number of states expanded.
+   */
+  public long getExpandedStates() {
+    return expandedStates;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "ticks = " + getTicks() + ", " +
+            "steps = " + steps + ", " +
+            "expandedStates = " + expandedStates +
+            "}";
+  }
+}
@@ -0,0 +1,146 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * One step of a plan: wait for a while, then maybe make a purchase.
+ */
+public final class PlanStep {
+
+  /**
+   * The purchase made at the end of a step.
+   */
+  public enum Kind {
+    /**
+     * Buy one building.
+     */
+    BUILDING,
+    /**
+     * Buy an upgrade.
+     */
+    UPGRADE,
+    /**
+     * Buy nothing, only wait.
+     */
+    WAIT
+  }
+
+  private final Kind kind;
+  private final Object target;
+  private final long startTick;
+  private final long purchaseTick;
+  private final CookieClicker state;
+
+  /**
+   * Create a new step.
+   *
+   * @param kind         The purchase made.
+   * @param target       The building type or upgrade bought, or null for waiting.
+   * @param startTick    The tick the step starts waiting at.
+   * @param purchaseTick The tick the purchase is made at, after waiting.
+   * @param state        The game state after the step.
+   */
+  PlanStep(Kind kind, Object target, long startTick, long purchaseTick, CookieClicker state) {
+    this.kind = Objects.requireNonNull(kind);
+    this.target = target;
+    this.startTick = startTick;
+    this.purchaseTick = purchaseTick;
+    this.state = Objects.requireNonNull(state);
+  }
+
+  /**
+   * Returns what this step buys.
+   *
+   * @return The kind of purchase made.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the building type bought.
+   *
+   * @return The building type bought.
+   * @throws IllegalStateException If this step does not buy a building.
+   */
+  public BuildingType getBuilding() {
+    if (kind != Kind.BUILDING) {
+      throw new IllegalStateException("This step does not buy a building.");
+    }
+    return (BuildingType) target;
+  }
+
+  /**
+   * Returns the upgrade bought.
+   *
+   * @return The upgrade bought.
+   * @throws IllegalStateException If this step does not buy an upgrade.
+   */
+  public ProductionUpgrade getUpgrade() {
+    if (kind != Kind.UPGRADE) {
+      throw new IllegalStateException("This step does not buy an upgrade.");
+    }
+    return (ProductionUpgrade) target;
+  }
+
+  /**
+   * Returns the tick this step starts waiting at.
+   *
+   * @return The in-game tick the previous step ended at.
+   */
+  public long getStartTick() {
+    return startTick;
+  }
+
+  /**
+   * Returns the tick the purchase of this step is made at.
+   *
+   * @return The in-game tick after waiting.
+   */
+  public long getPurchaseTick() {
+    return purchaseTick;
+  }
+
+  /**
+   * Returns the game state after this step.
+   *
+   * @return The game state after waiting, and purchasing.
+   */
+  public CookieClicker getState() {
+    return state;
+  }
+
+  /**
+   * Returns this step as an action, which waits as long as this step did, then purchases.
+   *
+   * @return An action to replay this step on a game.
+   */
+  public UnaryOperator<CookieClicker> toAction() {
+    long wait = purchaseTick - startTick;
+    switch (kind) {
+      case BUILDING:
+        return game -> game.warp(wait).transactBuildings(getBuilding(), 1);
+      case UPGRADE:
+        return game -> game.warp(wait).buyUpgrade(getUpgrade());
+      case WAIT:
+        return game -> game.warp(wait);
+      default:
+        throw new AssertionError("Reached an unexpected branch.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "kind = " + kind + ", " +
+            "target = " + target + ", " +
+            "startTick = " + startTick + ", " +
+            "purchaseTick = " + purchaseTick +
+            "}";
+  }
+}
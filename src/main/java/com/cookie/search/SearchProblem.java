@@ -0,0 +1,53 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+import com.cookie.StateCodec;
+
+import java.util.List;
+
+/**
+ * Everything a search needs to know to run in another process.
+ * <p>
+ * Worker processes of a {@link DistributedSearch} rebuild the problem from its class name, so
+ * implementations run in processes must be public, with a public no-argument constructor, and
+ * must build the same problem every time they are constructed.
+ */
+public interface SearchProblem {
+
+  /**
+   * Returns the codec states are exchanged with.
+   *
+   * @return A codec that can encode every state of the search.
+   */
+  StateCodec getCodec();
+
+  /**
+   * Returns the state the search starts from.
+   *
+   * @return The start state.
+   */
+  CookieClicker getStart();
+
+  /**
+   * Returns the goal the search looks for.
+   *
+   * @return The goal.
+   */
+  Goal getGoal();
+
+  /**
+   * Returns the building types the search may buy.
+   *
+   * @return The building types.
+   */
+  List<BuildingType> getBuildings();
+
+  /**
+   * Returns the upgrades the search may buy.
+   *
+   * @return The upgrades.
+   */
+  List<ProductionUpgrade> getUpgrades();
+}
@@ -0,0 +1,160 @@
+package com.cookie.session;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * One subscriber's subscription to a session's deltas.
+ * <p>
+ * Offering a delta never blocks the simulation. Deltas wait in a single pending slot, coalescing
+ * with later deltas until the subscriber requests more, so a slow subscriber sees fewer, larger
+ * deltas instead of holding up the session or growing a queue. Signals are delivered on the
+ * executor, at most one drain running at a time.
+ */
+final class DeltaSubscription implements Flow.Subscription, Runnable {
+
+  private final Flow.Subscriber<? super StateDelta> subscriber;
+  private final Executor executor;
+
+  // Guarded by this.
+  private StateDelta pending;
+  private long demand;
+  private boolean completing;
+  private boolean cancelled;
+  private boolean draining;
+  private Throwable requestError;
+
+  /**
+   * Create a new subscription.
+   *
+   * @param subscriber The subscriber to deliver deltas to.
+   * @param executor   The executor to deliver deltas on.
+   */
+  DeltaSubscription(Flow.Subscriber<? super StateDelta> subscriber, Executor executor) {
+    this.subscriber = Objects.requireNonNull(subscriber);
+    this.executor = executor;
+  }
+
+  /**
+   * Offer a delta, coalescing it with any delta not yet delivered.
+   *
+   * @param delta The delta to deliver.
+   */
+  void offer(StateDelta delta) {
+    synchronized (this) {
+      if (cancelled || completing) {
+        return;
+      }
+      pending = pending == null ? delta : pending.merge(delta);
+    }
+    schedule();
+  }
+
+  /**
+   * Complete this subscription once any pending delta is delivered.
+   */
+  void complete() {
+    synchronized (this) {
+      completing = true;
+    }
+    schedule();
+  }
+
+  /**
+   * Returns if this subscription will deliver no more deltas.
+   *
+   * @return True if cancelled or completed.
+   */
+  synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  @Override
+  public void request(long n) {
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      if (n <= 0) {
+        requestError = new IllegalArgumentException("Cannot request a non-positive number of deltas.");
+      } else {
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+      }
+    }
+    schedule();
+  }
+
+  @Override
+  public synchronized void cancel() {
+    cancelled = true;
+    pending = null;
+  }
+
+  /**
+   * Start draining on the executor unless a drain is already running.
+   * <p>
+   * If the executor rejects the drain, nothing could ever be delivered, so the subscription is
+   * cancelled and the rejection is reported to the subscriber.
+   */
+  private void schedule() {
+    synchronized (this) {
+      if (draining || cancelled) {
+        return;
+      }
+      draining = true;
+    }
+    try {
+      executor.execute(this);
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        draining = false;
+        cancelled = true;
+        pending = null;
+      }
+      subscriber.onError(e);
+    }
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      StateDelta next = null;
+      Throwable error = null;
+      synchronized (this) {
+        if (cancelled) {
+          draining = false;
+          return;
+        } else if (requestError != null) {
+          error = requestError;
+          cancelled = true;
+        } else if (pending != null && demand > 0) {
+          next = pending;
+          pending = null;
+          demand--;
+        } else if (pending == null && completing) {
+          cancelled = true;
+        } else {
+          draining = false;
+          return;
+        }
+      }
+
+      if (error != null) {
+        subscriber.onError(error);
+        return;
+      } else if (next == null) {
+        subscriber.onComplete();
+        return;
+      }
+
+      try {
+        subscriber.onNext(next);
+      } catch (RuntimeException e) {
+        cancel();
+        subscriber.onError(e);
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * A session hosted by a session manager, applying its commands one at a time.
+ * <p>
+ * Commands wait in a bounded mailbox, and are drained by a task on the session's executor. The
+ * session only holds its latest state, so its memory is bounded by the mailbox capacity.
+ */
+final class HostedSession implements Runnable {
+
+  // Drains give up the executor after this many commands, so busy sessions can't starve others.
+  private static final int DRAIN_BATCH = 64;
+
+  private final long id;
+  private final Executor executor;
+  private final int capacity;
+  private volatile CookieClicker state;
+
+  // Guarded by this.
+  private final Queue<Command> mailbox = new ArrayDeque<>();
+  private boolean scheduled;
+  private boolean closed;
+
+  /**
+   * Create a new hosted session.
+   *
+   * @param id       The identifier of this session.
+   * @param initial  The game state to start from.
+   * @param executor The executor to apply commands on.
+   * @param capacity The maximum number of commands waiting at once.
+   */
+  HostedSession(long id, CookieClicker initial, Executor executor, int capacity) {
+    this.id = id;
+    this.state = initial;
+    this.executor = executor;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the identifier of this session.
+   *
+   * @return The session identifier.
+   */
+  long getId() {
+    return id;
+  }
+
+  /**
+   * Returns the state after the last applied command.
+   *
+   * @return The current game state.
+   */
+  CookieClicker getState() {
+    return state;
+  }
+
+  /**
+   * Queue a command to be applied.
+   *
+   * @param action The action of the command.
+   * @return A future of the state after the command, failed if the command threw, or if the
+   * mailbox was full or the session closed.
+   */
+  CompletableFuture<CookieClicker> submit(UnaryOperator<CookieClicker> action) {
+    Command command = new Command(action);
+    boolean schedule;
+    synchronized (this) {
+      if (closed) {
+        command.result.completeExceptionally(new IllegalStateException("Session " + id + " is closed."));
+        return command.result;
+      } else if (mailbox.size() >= capacity) {
+        command.result.completeExceptionally(
+                new RejectedExecutionException("Session " + id + " has too many waiting commands."));
+        return command.result;
+      }
+      mailbox.add(command);
+      schedule = !scheduled;
+      scheduled = true;
+    }
+    if (schedule) {
+      executor.execute(this);
+    }
+    return command.result;
+  }
+
+  /**
+   * Close this session, failing commands still waiting.
+   */
+  void close() {
+    synchronized (this) {
+      closed = true;
+      for (Command command : mailbox) {
+        command.result.completeExceptionally(new IllegalStateException("Session " + id + " is closed."));
+      }
+      mailbox.clear();
+    }
+  }
+
+  @Override
+  public void run() {
+    boolean drained = false;
+    try {
+      for (int i = 0; i < DRAIN_BATCH; i++) {
+        Command command;
+        synchronized (this) {
+          command = mailbox.poll();
+          if (command == null) {
+            scheduled = false;
+            return;
+          }
+        }
+        try {
+          CookieClicker next = command.action.apply(state);
+          if (next == null) {
+            throw new NullPointerException("Expected commands to result in a non-null state.");
+          }
+          state = next;
+          command.result.complete(next);
+        } catch (RuntimeException | Error e) {
+          command.result.completeExceptionally(e);
+          if (e instanceof Error) {
+            throw e;
+          }
+        }
+      }
+      drained = true;
+    } finally {
+      if (!drained) {
+        // An error escaped, so the next command submitted has to schedule a new drain.
+        synchronized (this) {
+          scheduled = false;
+        }
+      }
+    }
+    try {
+      executor.execute(this); // Still scheduled, continue after others had a turn.
+    } catch (RejectedExecutionException e) {
+      close(); // The manager is shutting down.
+    }
+  }
+
+  /**
+   * A command waiting to be applied.
+   */
+  private static final class Command {
+    final UnaryOperator<CookieClicker> action;
+    final CompletableFuture<CookieClicker> result = new CompletableFuture<>();
+
+    Command(UnaryOperator<CookieClicker> action) {
+      this.action = action;
+    }
+  }
+}
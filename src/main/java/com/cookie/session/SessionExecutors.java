@@ -0,0 +1,56 @@
+package com.cookie.session;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors for hosting sessions, using virtual threads when the running JDK supports them.
+ * <p>
+ * This library builds against Java 11, so virtual threads are looked up reflectively.
+ */
+final class SessionExecutors {
+
+  private SessionExecutors() {
+  }
+
+  /**
+   * Returns an executor starting a virtual thread per task, if the JDK supports them.
+   *
+   * @return A virtual thread executor, or empty on JDKs without virtual threads.
+   */
+  static Optional<ExecutorService> virtualThreadPerTask() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return Optional.of((ExecutorService) factory.invoke(null));
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns a single-threaded executor, for shards when virtual threads are unsupported.
+   *
+   * @param name The name of the thread.
+   * @return A new executor with one daemon thread.
+   */
+  static ExecutorService singleThreaded(String name) {
+    return Executors.newSingleThreadExecutor(daemonFactory(name));
+  }
+
+  /**
+   * Returns a thread factory for daemon threads with a name.
+   *
+   * @param name The name of the threads.
+   * @return A factory of named daemon threads.
+   */
+  static ThreadFactory daemonFactory(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
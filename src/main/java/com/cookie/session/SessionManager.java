@@ -0,0 +1,177 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hosts many concurrent simulated games, each driven by commands.
+ * <p>
+ * Sessions are sharded by identifier. Each session applies its commands one at a time, so commands
+ * never need to lock a game state. When the JDK supports virtual threads, every session drains on
+ * its own virtual thread. Otherwise each shard drains its sessions on one platform thread, with one
+ * shard per core by default, so a session always runs on the same thread.
+ * <p>
+ * This class is thread-safe.
+ */
+public class SessionManager implements AutoCloseable {
+
+  private final int mailboxCapacity;
+  private final List<Map<Long, HostedSession>> shards;
+  private final List<ExecutorService> executors;
+  private final boolean virtual;
+  private final AtomicLong nextId = new AtomicLong();
+
+  /**
+   * Create a new session manager.
+   *
+   * @param shards          The positive number of shards to split sessions over.
+   * @param mailboxCapacity The positive number of commands each session may have waiting.
+   * @throws IllegalArgumentException If shards or mailbox capacity are non-positive.
+   */
+  public SessionManager(int shards, int mailboxCapacity) {
+    if (shards <= 0 || mailboxCapacity <= 0) {
+      throw new IllegalArgumentException("Cannot use non-positive shards or mailbox capacity.");
+    }
+    this.mailboxCapacity = mailboxCapacity;
+    this.shards = new ArrayList<>(shards);
+    this.executors = new ArrayList<>(shards);
+
+    Optional<ExecutorService> virtualExecutor = SessionExecutors.virtualThreadPerTask();
+    this.virtual = virtualExecutor.isPresent();
+    for (int i = 0; i < shards; i++) {
+      this.shards.add(new ConcurrentHashMap<>());
+      if (!virtual) {
+        this.executors.add(SessionExecutors.singleThreaded("cookie-session-shard-" + i));
+      }
+    }
+    virtualExecutor.ifPresent(executors::add);
+  }
+
+  /**
+   * Create a new session manager with one shard per core.
+   *
+   * @param mailboxCapacity The positive number of commands each session may have waiting.
+   * @throws IllegalArgumentException If the mailbox capacity is non-positive.
+   */
+  public SessionManager(int mailboxCapacity) {
+    this(Runtime.getRuntime().availableProcessors(), mailboxCapacity);
+  }
+
+  /**
+   * Open a new session.
+   *
+   * @param initial The game state to start from.
+   * @return The identifier of the new session.
+   * @throws NullPointerException If the initial state is null.
+   */
+  public long open(CookieClicker initial) {
+    Objects.requireNonNull(initial, "Expected a non-null initial state.");
+    long id = nextId.getAndIncrement();
+    int shard = shardOf(id);
+    ExecutorService executor = executors.get(virtual ? 0 : shard);
+    shards.get(shard).put(id, new HostedSession(id, initial, executor, mailboxCapacity));
+    return id;
+  }
+
+  /**
+   * Queue a command for a session.
+   *
+   * @param id      The identifier of the session.
+   * @param command The command to apply to the session's game, for example
+   *                {@code game -> game.warp(30)}.
+   * @return A future of the game state after the command. It fails with the command's exception,
+   * or a {@link java.util.concurrent.RejectedExecutionException} if the session has too many
+   * commands waiting.
+   * @throws NullPointerException     If the command is null.
+   * @throws IllegalArgumentException If there is no open session with this identifier.
+   */
+  public CompletableFuture<CookieClicker> submit(long id, UnaryOperator<CookieClicker> command) {
+    Objects.requireNonNull(command, "Expected a non-null command.");
+    return session(id).submit(command);
+  }
+
+  /**
+   * Returns the game state of a session after its last applied command.
+   *
+   * @param id The identifier of the session.
+   * @return The current game state of the session.
+   * @throws IllegalArgumentException If there is no open session with this identifier.
+   */
+  public CookieClicker getState(long id) {
+    return session(id).getState();
+  }
+
+  /**
+   * Close a session, failing any commands still waiting.
+   *
+   * @param id The identifier of the session.
+   * @throws IllegalArgumentException If there is no open session with this identifier.
+   */
+  public void close(long id) {
+    HostedSession session = shards.get(shardOf(id)).remove(id);
+    if (session == null) {
+      throw new IllegalArgumentException("No open session " + id + ".");
+    }
+    session.close();
+  }
+
+  /**
+   * Returns the number of open sessions.
+   *
+   * @return The number of sessions across all shards.
+   */
+  public int size() {
+    int size = 0;
+    for (Map<Long, HostedSession> shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns if sessions run on virtual threads.
+   *
+   * @return True if the JDK supports virtual threads, false if shards use platform threads.
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Close all sessions, and stop all threads.
+   */
+  @Override
+  public void close() {
+    for (Map<Long, HostedSession> shard : shards) {
+      for (HostedSession session : shard.values()) {
+        session.close();
+      }
+      shard.clear();
+    }
+    for (ExecutorService executor : executors) {
+      executor.shutdown();
+    }
+  }
+
+  private HostedSession session(long id) {
+    HostedSession session = shards.get(shardOf(id)).get(id);
+    if (session == null) {
+      throw new IllegalArgumentException("No open session " + id + ".");
+    }
+    return session;
+  }
+
+  private int shardOf(long id) {
+    return (int) Math.floorMod(id, (long) shards.size());
+  }
+}
@@ -0,0 +1,173 @@
+package com.cookie.session;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+/**
+ * A line-based command server for a session manager, listening on the loopback interface only.
+ * <p>
+ * Each line is one command, answered by one line. Buildings and upgrades are named as in {@link
+ * Assets}.
+ * <ul>
+ *   <li>{@code OPEN} - open a fresh game, answering {@code OK <id>}.</li>
+ *   <li>{@code WARP <id> <ticks>} - fast-forward a game.</li>
+ *   <li>{@code BUY <id> <building> <amount>} - buy (or sell, if negative) buildings.</li>
+ *   <li>{@code UPGRADE <id> <upgrade>} - buy an upgrade.</li>
+ *   <li>{@code CLICK <id> <rate>} - set the clicking rate.</li>
+ *   <li>{@code STATE <id>} - query a game without changing it.</li>
+ *   <li>{@code CLOSE <id>} - close a game.</li>
+ * </ul>
+ * Game commands answer {@code OK <ticks> <bank> <cookiesBaked>}. Any failure answers
+ * {@code ERR <message>}.
+ */
+public class SessionServer implements AutoCloseable {
+
+  private final SessionManager manager;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+
+  /**
+   * Start a new server on a loopback port.
+   *
+   * @param manager The session manager to host sessions with.
+   * @param port    The port to listen on, zero for any free port.
+   * @throws IOException          If the server socket can't be opened.
+   * @throws NullPointerException If the manager is null.
+   */
+  public SessionServer(SessionManager manager, int port) throws IOException {
+    this.manager = Objects.requireNonNull(manager, "Expected a non-null session manager.");
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    this.connections = SessionExecutors.virtualThreadPerTask()
+            .orElseGet(() -> Executors.newCachedThreadPool(
+                    SessionExecutors.daemonFactory("cookie-session-connection")));
+    Thread acceptor = SessionExecutors.daemonFactory("cookie-session-acceptor")
+            .newThread(this::acceptLoop);
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port this server listens on.
+   *
+   * @return The local port of this server.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    connections.shutdownNow();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.execute(() -> serve(socket));
+      } catch (IOException e) {
+        return; // The server socket was closed.
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+         BufferedReader in = new BufferedReader(
+                 new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         PrintWriter out = new PrintWriter(
+                 new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        out.println(respond(line));
+      }
+    } catch (IOException e) {
+      // The client went away, nothing left to answer.
+    }
+  }
+
+  /**
+   * Answer one command line.
+   *
+   * @param line The command line.
+   * @return The answer line.
+   */
+  String respond(String line) {
+    String[] words = line.trim().split("\\s+");
+    try {
+      switch (words[0]) {
+        case "OPEN":
+          return "OK " + manager.open(new SimpleCookieClicker());
+        case "CLOSE":
+          manager.close(Long.parseLong(argument(words, 1)));
+          return "OK";
+        case "STATE":
+          return describe(manager.getState(Long.parseLong(argument(words, 1))));
+        default:
+          // The verb is checked before its arguments, so unknown commands are named as such.
+          UnaryOperator<CookieClicker> action = parse(words);
+          long id = Long.parseLong(argument(words, 1));
+          return describe(manager.submit(id, action).join());
+      }
+    } catch (CompletionException e) {
+      return "ERR " + e.getCause().getMessage();
+    } catch (RuntimeException e) {
+      return "ERR " + e.getMessage();
+    }
+  }
+
+  private static UnaryOperator<CookieClicker> parse(String[] words) {
+    switch (words[0]) {
+      case "WARP": {
+        long ticks = Long.parseLong(argument(words, 2));
+        return game -> game.warp(ticks);
+      }
+      case "BUY": {
+        BuildingType building = Assets.building(argument(words, 2))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown building " + words[2] + "."));
+        int amount = Integer.parseInt(argument(words, 3));
+        return game -> game.transactBuildings(building, amount);
+      }
+      case "UPGRADE": {
+        ProductionUpgrade upgrade = Assets.upgrade(argument(words, 2))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown upgrade " + words[2] + "."));
+        return game -> game.buyUpgrade(upgrade);
+      }
+      case "CLICK": {
+        double rate = Double.parseDouble(argument(words, 2));
+        return game -> game.setClickingRate(rate);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown command " + words[0] + ".");
+    }
+  }
+
+  private static String argument(String[] words, int index) {
+    if (index >= words.length) {
+      throw new IllegalArgumentException("Missing argument " + index + " of " + words[0] + ".");
+    }
+    return words[index];
+  }
+
+  private static String describe(CookieClicker game) {
+    return "OK " + game.getTicks() + " " + game.getCurrentBank() + " " + game.getCookiesBaked();
+  }
+}
@@ -0,0 +1,123 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+
+/**
+ * A simulated game driven by actions, publishing the changes of every action to subscribers.
+ * <p>
+ * Each action's delta is computed once and shared by all subscribers, so publishing costs the same
+ * no matter how large the game state is. Subscribers are backpressured by coalescing: a subscriber
+ * that hasn't requested more receives one merged delta for everything it missed once it does.
+ * <p>
+ * Subscribers only see changes made after subscribing, use {@link #getState} for a starting point.
+ * <p>
+ * This class is thread-safe. Actions are applied one at a time in the order they arrive.
+ */
+public class SimulationSession implements Flow.Publisher<StateDelta>, AutoCloseable {
+
+  private final List<ProductionUpgrade> watchedUpgrades;
+  private final Executor executor;
+  private final List<DeltaSubscription> subscriptions = new CopyOnWriteArrayList<>();
+  private volatile CookieClicker state;
+  private boolean closed;
+
+  /**
+   * Create a new session.
+   *
+   * @param initial         The game state to start from.
+   * @param watchedUpgrades The upgrades to report unlocks of.
+   * @param executor        The executor to deliver deltas to subscribers on.
+   * @throws NullPointerException If any argument is null.
+   */
+  public SimulationSession(CookieClicker initial, List<ProductionUpgrade> watchedUpgrades,
+                           Executor executor) {
+    this.state = Objects.requireNonNull(initial, "Expected a non-null initial state.");
+    this.watchedUpgrades = List.copyOf(watchedUpgrades);
+    this.executor = Objects.requireNonNull(executor, "Expected a non-null executor.");
+  }
+
+  /**
+   * Create a new session delivering deltas on the common fork-join pool.
+   *
+   * @param initial         The game state to start from.
+   * @param watchedUpgrades The upgrades to report unlocks of.
+   * @throws NullPointerException If any argument is null.
+   */
+  public SimulationSession(CookieClicker initial, List<ProductionUpgrade> watchedUpgrades) {
+    this(initial, watchedUpgrades, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Apply an action to the game, and publish its changes.
+   * <p>
+   * If the action throws, the game state is left unchanged and nothing is published.
+   *
+   * @param action The action to apply, for example {@code game -> game.warp(30)}.
+   * @return The game state after the action.
+   * @throws NullPointerException  If the action, or its result, is null.
+   * @throws IllegalStateException If the session is closed.
+   */
+  public synchronized CookieClicker apply(UnaryOperator<CookieClicker> action) {
+    Objects.requireNonNull(action, "Expected a non-null action.");
+    if (closed) {
+      throw new IllegalStateException("Cannot apply actions to a closed session.");
+    }
+    CookieClicker previous = state;
+    CookieClicker next = Objects.requireNonNull(action.apply(previous),
+            "Expected actions to result in a non-null state.");
+    state = next;
+
+    if (!subscriptions.isEmpty()) {
+      StateDelta delta = StateDelta.between(previous, next, watchedUpgrades);
+      for (DeltaSubscription subscription : subscriptions) {
+        if (subscription.isCancelled()) {
+          subscriptions.remove(subscription);
+        } else {
+          subscription.offer(delta);
+        }
+      }
+    }
+    return next;
+  }
+
+  /**
+   * Returns the current game state.
+   *
+   * @return The game state after the last action.
+   */
+  public CookieClicker getState() {
+    return state;
+  }
+
+  @Override
+  public synchronized void subscribe(Flow.Subscriber<? super StateDelta> subscriber) {
+    DeltaSubscription subscription = new DeltaSubscription(subscriber, executor);
+    subscriber.onSubscribe(subscription);
+    if (closed) {
+      subscription.complete();
+    } else {
+      subscriptions.add(subscription);
+    }
+  }
+
+  /**
+   * Close this session, completing all subscriptions once their pending deltas are delivered.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    for (DeltaSubscription subscription : subscriptions) {
+      subscription.complete();
+    }
+    subscriptions.clear();
+  }
+}
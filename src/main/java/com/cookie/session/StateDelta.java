@@ -0,0 +1,267 @@
+package com.cookie.session;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionBuff;
+import com.cookie.ProductionUpgrade;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The changes between two game states, as published to session subscribers.
+ * <p>
+ * Deltas are immutable and shared between all subscribers. Several deltas can be coalesced into
+ * one for subscribers that fall behind, see {@link #merge}.
+ */
+public final class StateDelta {
+
+  private final long ticks;
+  private final long elapsedTicks;
+  private final double currentBank;
+  private final double bankChange;
+  private final Map<BuildingType, Double> rateChanges;
+  private final List<ProductionBuff> buffsStarted;
+  private final List<ProductionBuff> buffsExpired;
+  private final Set<ProductionUpgrade> upgradesBought;
+  private final Set<ProductionUpgrade> upgradesUnlocked;
+  private final int transitions;
+
+  /**
+   * Create a new delta, see {@link #between} and {@link #merge}.
+   */
+  private StateDelta(long ticks, long elapsedTicks, double currentBank, double bankChange,
+                     Map<BuildingType, Double> rateChanges,
+                     List<ProductionBuff> buffsStarted, List<ProductionBuff> buffsExpired,
+                     Set<ProductionUpgrade> upgradesBought, Set<ProductionUpgrade> upgradesUnlocked,
+                     int transitions) {
+    this.ticks = ticks;
+    this.elapsedTicks = elapsedTicks;
+    this.currentBank = currentBank;
+    this.bankChange = bankChange;
+    this.rateChanges = Collections.unmodifiableMap(rateChanges);
+    this.buffsStarted = Collections.unmodifiableList(buffsStarted);
+    this.buffsExpired = Collections.unmodifiableList(buffsExpired);
+    this.upgradesBought = Collections.unmodifiableSet(upgradesBought);
+    this.upgradesUnlocked = Collections.unmodifiableSet(upgradesUnlocked);
+    this.transitions = transitions;
+  }
+
+  /**
+   * Compute the changes from one state to the next.
+   * <p>
+   * Buffs are matched across the two states by their effects, total time, and time left, since
+   * warped buffs are new instances. A buff without a match in the next state expired, and a buff
+   * without a match in the previous state started.
+   *
+   * @param previous The state before the transition.
+   * @param next     The state after the transition.
+   * @param watched  The upgrades to report as unlocked once they become purchasable.
+   * @return The changes between the two states.
+   */
+  static StateDelta between(CookieClicker previous, CookieClicker next,
+                            Collection<ProductionUpgrade> watched) {
+    long elapsed = next.getTicks() - previous.getTicks();
+
+    Set<BuildingType> buildings = new LinkedHashSet<>(previous.getBuildingInventory().keySet());
+    buildings.addAll(next.getBuildingInventory().keySet());
+    Map<BuildingType, Double> rateChanges = new LinkedHashMap<>();
+    for (BuildingType building : buildings) {
+      double rate = next.getRate(building);
+      if (Double.compare(rate, previous.getRate(building)) != 0) {
+        rateChanges.put(building, rate);
+      }
+    }
+
+    List<ProductionBuff> expired = new ArrayList<>();
+    List<ProductionBuff> started = new LinkedList<>(next.getActiveProductionBuffs());
+    for (ProductionBuff buff : previous.getActiveProductionBuffs()) {
+      if (!started.removeIf(new BuffMatcher(buff, elapsed))) {
+        expired.add(buff);
+      }
+    }
+
+    Set<ProductionUpgrade> previousUpgrades = previous.getProductionUpgrades();
+    Set<ProductionUpgrade> nextUpgrades = next.getProductionUpgrades();
+    Set<ProductionUpgrade> bought = new LinkedHashSet<>(nextUpgrades);
+    bought.removeAll(previousUpgrades);
+    Set<ProductionUpgrade> unlocked = new LinkedHashSet<>();
+    for (ProductionUpgrade upgrade : watched) {
+      if (!nextUpgrades.contains(upgrade) && upgrade.isPurchasable(next)
+              && (previousUpgrades.contains(upgrade) || !upgrade.isPurchasable(previous))) {
+        unlocked.add(upgrade);
+      }
+    }
+
+    return new StateDelta(next.getTicks(), elapsed,
+            next.getCurrentBank(), next.getCurrentBank() - previous.getCurrentBank(),
+            rateChanges, new ArrayList<>(started), expired, bought, unlocked, 1);
+  }
+
+  /**
+   * Coalesce this delta with the delta that followed it.
+   * <p>
+   * Measures take the later value, changes accumulate, and events are concatenated.
+   *
+   * @param later The delta that followed this one.
+   * @return One delta covering both.
+   */
+  StateDelta merge(StateDelta later) {
+    Map<BuildingType, Double> rates = new LinkedHashMap<>(rateChanges);
+    rates.putAll(later.rateChanges);
+    List<ProductionBuff> started = new ArrayList<>(buffsStarted);
+    started.addAll(later.buffsStarted);
+    List<ProductionBuff> expired = new ArrayList<>(buffsExpired);
+    expired.addAll(later.buffsExpired);
+    Set<ProductionUpgrade> bought = new LinkedHashSet<>(upgradesBought);
+    bought.addAll(later.upgradesBought);
+    Set<ProductionUpgrade> unlocked = new LinkedHashSet<>(upgradesUnlocked);
+    unlocked.addAll(later.upgradesUnlocked);
+    unlocked.removeAll(bought);
+    return new StateDelta(later.ticks, elapsedTicks + later.elapsedTicks,
+            later.currentBank, bankChange + later.bankChange,
+            rates, started, expired, bought, unlocked, transitions + later.transitions);
+  }
+
+  /**
+   * Returns the in-game time after the changes.
+   *
+   * @return The ticks of the latest state.
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * Returns the in-game time that passed over the changes.
+   *
+   * @return The number of ticks elapsed.
+   */
+  public long getElapsedTicks() {
+    return elapsedTicks;
+  }
+
+  /**
+   * Returns the bank after the changes.
+   *
+   * @return The number of cookies in the bank of the latest state.
+   */
+  public double getCurrentBank() {
+    return currentBank;
+  }
+
+  /**
+   * Returns the change in bank over the changes.
+   *
+   * @return The number of cookies gained, negative if spent.
+   */
+  public double getBankChange() {
+    return bankChange;
+  }
+
+  /**
+   * Returns the building rates that changed.
+   *
+   * @return A read-only map of building types to their latest rate in cookies per tick, holding
+   * only types whose rate changed.
+   */
+  public Map<BuildingType, Double> getRateChanges() {
+    return rateChanges;
+  }
+
+  /**
+   * Returns the buffs that started.
+   *
+   * @return A read-only list of buffs that became active.
+   */
+  public List<ProductionBuff> getBuffsStarted() {
+    return buffsStarted;
+  }
+
+  /**
+   * Returns the buffs that expired.
+   *
+   * @return A read-only list of buffs, as last seen active, that are no longer active.
+   */
+  public List<ProductionBuff> getBuffsExpired() {
+    return buffsExpired;
+  }
+
+  /**
+   * Returns the upgrades bought.
+   *
+   * @return A read-only set of upgrades newly owned.
+   */
+  public Set<ProductionUpgrade> getUpgradesBought() {
+    return upgradesBought;
+  }
+
+  /**
+   * Returns the watched upgrades that became purchasable.
+   *
+   * @return A read-only set of upgrades newly purchasable, and not yet owned.
+   */
+  public Set<ProductionUpgrade> getUpgradesUnlocked() {
+    return upgradesUnlocked;
+  }
+
+  /**
+   * Returns the number of state transitions covered.
+   *
+   * @return One for a single transition, more if deltas were coalesced.
+   */
+  public int getTransitions() {
+    return transitions;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "ticks = " + ticks + ", " +
+            "elapsedTicks = " + elapsedTicks + ", " +
+            "currentBank = " + currentBank + ", " +
+            "bankChange = " + bankChange + ", " +
+            "rateChanges = " + rateChanges + ", " +
+            "buffsStarted = " + buffsStarted + ", " +
+            "buffsExpired = " + buffsExpired + ", " +
+            "upgradesBought = " + upgradesBought + ", " +
+            "upgradesUnlocked = " + upgradesUnlocked + ", " +
+            "transitions = " + transitions +
+            "}";
+  }
+
+  /**
+   * A predicate matching the first later version of a buff.
+   */
+  private static final class BuffMatcher implements Predicate<ProductionBuff> {
+    private final ProductionBuff buff;
+    private final long elapsed;
+    private boolean matched;
+
+    BuffMatcher(ProductionBuff buff, long elapsed) {
+      this.buff = buff;
+      this.elapsed = elapsed;
+    }
+
+    @Override
+    public boolean test(ProductionBuff candidate) {
+      if (matched) {
+        return false;
+      }
+      matched = candidate == buff
+              || (candidate.getTimeTotal() == buff.getTimeTotal()
+              && candidate.getTimeLeft() == buff.getTimeLeft() - elapsed
+              && new HashSet<>(candidate.getEffects()).equals(new HashSet<>(buff.getEffects())));
+      return matched;
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package com.cookie.strategy;
+
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Finds when to ascend, by simulating several runs in a row for every candidate ascension point.
+ * <p>
+ * A candidate is the number of cookies to bake in each run before ascending. Evaluating one plays
+ * a strategy from the start until that many cookies are baked, ascends, and repeats for a fixed
+ * number of runs, so later runs are played with the prestige the earlier ones earned. Candidates
+ * are scored by the prestige levels gained per tick over all of their runs.
+ * <p>
+ * A run ascends at the first tick its cookies baked reach the candidate: purchases that would
+ * only become affordable later are skipped, and the run waits out the rest with {@link
+ * Forecast#warpUntilBaked}.
+ * <p>
+ * The runs of a candidate depend on each other, so they are simulated in order, but candidates are
+ * independent and are evaluated in parallel on a {@link ForkJoinPool}, one task per candidate.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class AscensionOptimizer {
+
+  private final ForkJoinPool pool;
+  private final Strategy strategy;
+  private final int runs;
+  private final long maxTicksPerRun;
+
+  /**
+   * Create an optimizer.
+   *
+   * @param pool           The pool to evaluate candidates on.
+   * @param strategy       The thread-safe strategy to play every run with.
+   * @param runs           The positive number of runs to simulate per candidate.
+   * @param maxTicksPerRun The positive number of ticks to play a run for at most, before ascending
+   *                       anyway.
+   * @throws NullPointerException     If the pool or strategy are null.
+   * @throws IllegalArgumentException If runs or maxTicksPerRun are non-positive.
+   */
+  public AscensionOptimizer(ForkJoinPool pool, Strategy strategy, int runs,
+                            long maxTicksPerRun) {
+    this.pool = Objects.requireNonNull(pool, "Expected a non-null pool.");
+    this.strategy = Objects.requireNonNull(strategy, "Expected a non-null strategy.");
+    if (runs <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive number of runs.");
+    }
+    if (maxTicksPerRun <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive tick limit.");
+    }
+    this.runs = runs;
+    this.maxTicksPerRun = maxTicksPerRun;
+  }
+
+  /**
+   * Create an optimizer on the common pool.
+   *
+   * @param strategy       The thread-safe strategy to play every run with.
+   * @param runs           The positive number of runs to simulate per candidate.
+   * @param maxTicksPerRun The positive number of ticks to play a run for at most.
+   * @throws NullPointerException     If the strategy is null.
+   * @throws IllegalArgumentException If runs or maxTicksPerRun are non-positive.
+   */
+  public AscensionOptimizer(Strategy strategy, int runs, long maxTicksPerRun) {
+    this(ForkJoinPool.commonPool(), strategy, runs, maxTicksPerRun);
+  }
+
+  /**
+   * Evaluate candidate ascension points from a game.
+   *
+   * @param start      The game to start the first run of every candidate from.
+   * @param candidates The positive cookies to bake per run before ascending, one per candidate.
+   * @return The evaluation of every candidate, in the order given.
+   * @throws NullPointerException     If the start or candidates are null.
+   * @throws IllegalArgumentException If there are no candidates, or a candidate isn't positive.
+   */
+  public List<Candidate> evaluate(CookieClicker start, double... candidates) {
+    Objects.requireNonNull(start, "Expected a non-null game state.");
+    Objects.requireNonNull(candidates, "Expected non-null candidates.");
+    if (candidates.length == 0) {
+      throw new IllegalArgumentException("Cannot evaluate no candidates.");
+    }
+    for (double cookiesPerRun : candidates) {
+      if (!(cookiesPerRun > 0) || Double.isInfinite(cookiesPerRun)) {
+        throw new IllegalArgumentException("Cannot use a non-positive or infinite candidate.");
+      }
+    }
+
+    List<ForkJoinTask<Candidate>> tasks = new ArrayList<>(candidates.length);
+    for (double cookiesPerRun : candidates) {
+      tasks.add(pool.submit(() -> simulate(start, cookiesPerRun)));
+    }
+    List<Candidate> results = new ArrayList<>(candidates.length);
+    for (ForkJoinTask<Candidate> task : tasks) {
+      results.add(task.join());
+    }
+    return results;
+  }
+
+  /**
+   * Find the best of some candidate ascension points from a game.
+   *
+   * @param start      The game to start the first run of every candidate from.
+   * @param candidates The positive cookies to bake per run before ascending, one per candidate.
+   * @return The candidate gaining the most prestige levels per tick, the first of any ties.
+   * @throws NullPointerException     If the start or candidates are null.
+   * @throws IllegalArgumentException If there are no candidates, or a candidate isn't positive.
+   */
+  public Candidate optimize(CookieClicker start, double... candidates) {
+    Candidate best = null;
+    for (Candidate candidate : evaluate(start, candidates)) {
+      if (best == null || candidate.getLevelsPerTick() > best.getLevelsPerTick()) {
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  private Candidate simulate(CookieClicker start, double cookiesPerRun) {
+    CookieClicker state = start;
+    long purchases = 0;
+    for (int run = 0; run < runs; run++) {
+      double target = state.getCookiesBaked() + cookiesPerRun;
+      // The bank and cookies baked grow together, so a purchase whose wait outlasts the run's
+      // remaining cookies would overshoot the ascension point, and isn't made.
+      Strategy capped = game -> strategy.next(game).filter(purchase ->
+              purchase.getPrice(game) - game.getCurrentBank() < target - game.getCookiesBaked());
+      StrategyRunner.Report report = new StrategyRunner(
+              game -> game.getCookiesBaked() >= target, maxTicksPerRun).run(state, capped);
+      purchases += report.getPurchases();
+      CookieClicker ended = report.getState();
+      if (report.getOutcome() == StrategyRunner.Outcome.FINISHED) {
+        long limit = state.getTicks() + Math.min(maxTicksPerRun, Long.MAX_VALUE - state.getTicks());
+        ended = Forecast.warpUntilBaked(ended, target)
+                .filter(ready -> ready.getTicks() <= limit)
+                .orElseGet(() -> report.getState().warp(limit - report.getState().getTicks()));
+      }
+      state = ended.ascend();
+    }
+    return new Candidate(cookiesPerRun, state, state.getTicks() - start.getTicks(),
+            state.getPrestige().getLevel() - start.getPrestige().getLevel(), purchases);
+  }
+
+  /**
+   * The evaluation of one candidate ascension point.
+   */
+  public static final class Candidate {
+    private final double cookiesPerRun;
+    private final CookieClicker state;
+    private final long ticks;
+    private final long levels;
+    private final long purchases;
+
+    private Candidate(double cookiesPerRun, CookieClicker state, long ticks, long levels,
+                      long purchases) {
+      this.cookiesPerRun = cookiesPerRun;
+      this.state = state;
+      this.ticks = ticks;
+      this.levels = levels;
+      this.purchases = purchases;
+    }
+
+    /**
+     * Returns the ascension point of this candidate.
+     *
+     * @return The cookies baked per run before ascending.
+     */
+    public double getCookiesPerRun() {
+      return cookiesPerRun;
+    }
+
+    /**
+     * Returns the game after the last run.
+     *
+     * @return The freshly ascended game state.
+     */
+    public CookieClicker getState() {
+      return state;
+    }
+
+    /**
+     * Returns the time all the runs took.
+     *
+     * @return The number of ticks played over all runs.
+     */
+    public long getTicks() {
+      return ticks;
+    }
+
+    /**
+     * Returns the prestige gained over all the runs.
+     *
+     * @return The number of prestige levels gained.
+     */
+    public long getLevels() {
+      return levels;
+    }
+
+    /**
+     * Returns the purchases made over all the runs.
+     *
+     * @return The number of purchases.
+     */
+    public long getPurchases() {
+      return purchases;
+    }
+
+    /**
+     * Returns the score of this candidate.
+     *
+     * @return The prestige levels gained per tick played, or zero if no time passed.
+     */
+    public double getLevelsPerTick() {
+      return ticks == 0 ? 0 : (double) levels / ticks;
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "cookiesPerRun = " + cookiesPerRun + ", " +
+              "ticks = " + ticks + ", " +
+              "levels = " + levels + ", " +
+              "purchases = " + purchases +
+              "}";
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.cookie.strategy;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A strategy buying whatever available purchase is cheapest.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class CheapestFirstStrategy implements Strategy {
+
+  private final Purchase[] candidates;
+
+  /**
+   * Create a cheapest first strategy.
+   *
+   * @param buildings The building types to buy from.
+   * @param upgrades  The upgrades to buy from.
+   * @throws NullPointerException If either collection, or anything in them, is null.
+   */
+  public CheapestFirstStrategy(Collection<? extends BuildingType> buildings,
+                               Collection<? extends ProductionUpgrade> upgrades) {
+    this.candidates = candidates(buildings, upgrades);
+  }
+
+  @Override
+  public Optional<Purchase> next(CookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    Purchase cheapest = null;
+    double cheapestPrice = Double.POSITIVE_INFINITY;
+    for (Purchase candidate : candidates) {
+      if (candidate.isAvailable(state)) {
+        double price = candidate.getPrice(state);
+        if (price < cheapestPrice) {
+          cheapest = candidate;
+          cheapestPrice = price;
+        }
+      }
+    }
+    return Optional.ofNullable(cheapest);
+  }
+
+  /**
+   * Create one purchase for each building type, then each upgrade.
+   */
+  static Purchase[] candidates(Collection<? extends BuildingType> buildings,
+                               Collection<? extends ProductionUpgrade> upgrades) {
+    Objects.requireNonNull(buildings, "Expected non-null buildings.");
+    Objects.requireNonNull(upgrades, "Expected non-null upgrades.");
+    Purchase[] candidates = new Purchase[buildings.size() + upgrades.size()];
+    int i = 0;
+    for (BuildingType building : buildings) {
+      candidates[i++] = Purchase.of(building);
+    }
+    for (ProductionUpgrade upgrade : upgrades) {
+      candidates[i++] = Purchase.of(upgrade);
+    }
+    return candidates;
+  }
+}
@@ -0,0 +1,79 @@
+package com.cookie.strategy;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.ProductionUpgrade;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A strategy buying whatever pays for itself soonest, counting the wait to afford it.
+ * <p>
+ * A purchase is scored by the ticks to afford it at the current rate, plus its price over the
+ * rate it adds, and the lowest score is bought. The rate an owned building adds is its current
+ * rate over its count. The rate anything else adds is measured by buying it in a copy of the game,
+ * which catches effects on other buildings. Purchases adding no rate are never bought.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class GreedyPaybackStrategy implements Strategy {
+
+  private final Purchase[] candidates;
+
+  /**
+   * Create a greedy payback strategy.
+   *
+   * @param buildings The building types to buy from.
+   * @param upgrades  The upgrades to buy from.
+   * @throws NullPointerException If either collection, or anything in them, is null.
+   */
+  public GreedyPaybackStrategy(Collection<? extends BuildingType> buildings,
+                               Collection<? extends ProductionUpgrade> upgrades) {
+    this.candidates = CheapestFirstStrategy.candidates(buildings, upgrades);
+  }
+
+  @Override
+  public Optional<Purchase> next(CookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    double bank = state.getCurrentBank();
+    double rate = Forecast.getTotalRate(state);
+    Purchase best = null;
+    double bestScore = Double.POSITIVE_INFINITY;
+    for (Purchase candidate : candidates) {
+      if (!candidate.isAvailable(state)) {
+        continue;
+      }
+      double price = candidate.getPrice(state);
+      double gain = gain(state, candidate, price, rate);
+      if (gain <= 0) {
+        continue;
+      }
+      double wait = price <= bank ? 0 : (price - bank) / rate;
+      double score = wait + price / gain;
+      if (score < bestScore) {
+        best = candidate;
+        bestScore = score;
+      }
+    }
+    return Optional.ofNullable(best);
+  }
+
+  /**
+   * Returns the rate a purchase adds to a game.
+   */
+  private static double gain(CookieClicker state, Purchase candidate, double price,
+                             double rate) {
+    BuildingType building = candidate.getBuilding();
+    if (building != null) {
+      int owned = state.getBuildingInventory().getOrDefault(building, 0);
+      if (owned > 0) {
+        // Building rates are before wrinklers wither their share, unlike the total rate.
+        return state.getRate(building) / owned * state.getWrinklers().getRetainedFraction();
+      }
+    }
+    return Forecast.getTotalRate(candidate.applyTo(state.adjustBank(price))) - rate;
+  }
+}
@@ -0,0 +1,128 @@
+package com.cookie.strategy;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+
+import java.util.Objects;
+
+/**
+ * A single purchase a strategy can make, of one building or one upgrade.
+ * <p>
+ * Purchases are immutable, so strategies can create one per building and upgrade up front and
+ * return the same instances every step.
+ */
+public final class Purchase {
+
+  private final BuildingType building;
+  private final ProductionUpgrade upgrade;
+
+  private Purchase(BuildingType building, ProductionUpgrade upgrade) {
+    this.building = building;
+    this.upgrade = upgrade;
+  }
+
+  /**
+   * Create a purchase of one building.
+   *
+   * @param building The building type to buy.
+   * @return The purchase.
+   * @throws NullPointerException If the building type is null.
+   */
+  public static Purchase of(BuildingType building) {
+    return new Purchase(Objects.requireNonNull(building, "Expected a non-null building type."),
+            null);
+  }
+
+  /**
+   * Create a purchase of an upgrade.
+   *
+   * @param upgrade The upgrade to buy.
+   * @return The purchase.
+   * @throws NullPointerException If the upgrade is null.
+   */
+  public static Purchase of(ProductionUpgrade upgrade) {
+    return new Purchase(null, Objects.requireNonNull(upgrade, "Expected a non-null upgrade."));
+  }
+
+  /**
+   * Returns the building type bought.
+   *
+   * @return The building type, or null if this buys an upgrade.
+   */
+  public BuildingType getBuilding() {
+    return building;
+  }
+
+  /**
+   * Returns the upgrade bought.
+   *
+   * @return The upgrade, or null if this buys a building.
+   */
+  public ProductionUpgrade getUpgrade() {
+    return upgrade;
+  }
+
+  /**
+   * Returns if this purchase can be made in a game, given enough cookies.
+   *
+   * @param state The game to check.
+   * @return True for buildings, and for upgrades not owned whose requirements are met.
+   * @throws NullPointerException If the state is null.
+   */
+  public boolean isAvailable(CookieClicker state) {
+    return building != null
+            || (!state.getProductionUpgrades().contains(upgrade) && upgrade.isPurchasable(state));
+  }
+
+  /**
+   * Returns the price of this purchase in a game.
+   *
+   * @param state The game to price in.
+   * @return The price in cookies.
+   * @throws NullPointerException     If the state is null.
+   * @throws IllegalArgumentException If the upgrade is already owned.
+   */
+  public double getPrice(CookieClicker state) {
+    return building != null
+            ? state.getBuildingTransactionBill(building, 1)
+            : state.getUpgradePrice(upgrade);
+  }
+
+  /**
+   * Make this purchase in a game.
+   *
+   * @param state The game to buy in.
+   * @return The game after buying.
+   * @throws NullPointerException     If the state is null.
+   * @throws IllegalArgumentException If the purchase is unavailable or unaffordable.
+   */
+  public CookieClicker applyTo(CookieClicker state) {
+    return building != null
+            ? state.transactBuildings(building, 1)
+            : state.buyUpgrade(upgrade);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(building, upgrade);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof Purchase)) {
+      return false;
+    }
+    Purchase other = (Purchase) o;
+    return Objects.equals(building, other.building) && Objects.equals(upgrade, other.upgrade);
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            (building != null ? "building = " + building : "upgrade = " + upgrade) +
+            "}";
+  }
+}
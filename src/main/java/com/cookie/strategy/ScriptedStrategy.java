@@ -0,0 +1,71 @@
+package com.cookie.strategy;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A strategy following a fixed script of purchases.
+ * <p>
+ * The script is read as targets, so the position in it comes from the game alone: the n-th
+ * purchase of a building type in the script is done once n of them are owned, and a purchase of an
+ * upgrade once it is owned. The next purchase is the first not done, and the strategy finishes
+ * once all are. A game that already owns some of the script skips ahead.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class ScriptedStrategy implements Strategy {
+
+  private final Purchase[] script;
+  private final int[] targets;
+
+  /**
+   * Create a scripted strategy.
+   *
+   * @param script The purchases to make, in order.
+   * @throws NullPointerException If the script, or any purchase in it, is null.
+   */
+  public ScriptedStrategy(List<Purchase> script) {
+    this.script = List.copyOf(Objects.requireNonNull(script, "Expected a non-null script."))
+            .toArray(new Purchase[0]);
+    this.targets = new int[this.script.length];
+    Map<BuildingType, Integer> counts = new HashMap<>();
+    for (int i = 0; i < this.script.length; i++) {
+      BuildingType building = this.script[i].getBuilding();
+      if (building != null) {
+        targets[i] = counts.merge(building, 1, Integer::sum);
+      }
+    }
+  }
+
+  @Override
+  public Optional<Purchase> next(CookieClicker state) {
+    Objects.requireNonNull(state, "Expected a non-null game state.");
+    Map<BuildingType, Integer> inventory = state.getBuildingInventory();
+    for (int i = 0; i < script.length; i++) {
+      Purchase purchase = script[i];
+      BuildingType building = purchase.getBuilding();
+      boolean done = building != null
+              ? inventory.getOrDefault(building, 0) >= targets[i]
+              : state.getProductionUpgrades().contains(purchase.getUpgrade());
+      if (!done) {
+        return Optional.of(purchase);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the script.
+   *
+   * @return A read-only list of the purchases of the script, in order.
+   */
+  public List<Purchase> getScript() {
+    return List.of(script);
+  }
+}
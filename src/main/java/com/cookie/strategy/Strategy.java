@@ -0,0 +1,23 @@
+package com.cookie.strategy;
+
+import com.cookie.CookieClicker;
+
+import java.util.Optional;
+
+/**
+ * A way of playing a game, deciding what to buy next.
+ * <p>
+ * Strategies only decide, {@link StrategyRunner} waits until the purchase is affordable and makes
+ * it. A strategy should choose from the state alone, so one instance can drive many games at once.
+ */
+public interface Strategy {
+
+  /**
+   * Choose the next purchase.
+   *
+   * @param state The game to choose in.
+   * @return The next purchase to make, which must be available, or empty to stop buying.
+   * @throws NullPointerException If the state is null.
+   */
+  Optional<Purchase> next(CookieClicker state);
+}
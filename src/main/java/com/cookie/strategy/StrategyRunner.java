@@ -0,0 +1,192 @@
+package com.cookie.strategy;
+
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Drives games with strategies until a stop condition, or a tick limit.
+ * <p>
+ * Every step asks the strategy for its next purchase, warps straight to the tick it becomes
+ * affordable with {@link Forecast#warpUntilBank}, and makes it. So a step costs the same however
+ * long the wait, and the stop condition is checked at each purchase, not at every tick. Besides
+ * the game states themselves, a step allocates nothing.
+ * <p>
+ * Instances are immutable and thread-safe if their stop condition is.
+ */
+public final class StrategyRunner {
+
+  /**
+   * Why a run ended.
+   */
+  public enum Outcome {
+    /**
+     * The stop condition held.
+     */
+    STOPPED,
+    /**
+     * The strategy had nothing left to buy.
+     */
+    FINISHED,
+    /**
+     * The next purchase wasn't affordable within the tick limit, so the game was warped to it.
+     */
+    OUT_OF_TICKS
+  }
+
+  private final Predicate<? super CookieClicker> stopCondition;
+  private final long maxTicks;
+
+  /**
+   * Create a runner.
+   *
+   * @param stopCondition The condition to stop running at, checked before every purchase.
+   * @param maxTicks      The positive number of ticks to run a game for at most.
+   * @throws NullPointerException     If the stop condition is null.
+   * @throws IllegalArgumentException If maxTicks is non-positive.
+   */
+  public StrategyRunner(Predicate<? super CookieClicker> stopCondition, long maxTicks) {
+    this.stopCondition = Objects.requireNonNull(stopCondition,
+            "Expected a non-null stop condition.");
+    if (maxTicks <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive tick limit.");
+    }
+    this.maxTicks = maxTicks;
+  }
+
+  /**
+   * Run a game with a strategy.
+   *
+   * @param start    The game to start from.
+   * @param strategy The strategy to play with.
+   * @return The report of the run.
+   * @throws NullPointerException     If the start or strategy are null, or the strategy returns
+   *                                  null.
+   * @throws IllegalArgumentException If the strategy chooses an unavailable purchase.
+   */
+  public Report run(CookieClicker start, Strategy strategy) {
+    Objects.requireNonNull(start, "Expected a non-null game state.");
+    Objects.requireNonNull(strategy, "Expected a non-null strategy.");
+    long begin = System.nanoTime();
+    long limit = start.getTicks() + Math.min(maxTicks, Long.MAX_VALUE - start.getTicks());
+    CookieClicker state = start;
+    long purchases = 0;
+    long warps = 0;
+    Outcome outcome;
+    while (true) {
+      if (stopCondition.test(state)) {
+        outcome = Outcome.STOPPED;
+        break;
+      }
+      Optional<Purchase> next = strategy.next(state);
+      if (next.isEmpty()) {
+        outcome = Outcome.FINISHED;
+        break;
+      }
+      Purchase purchase = next.get();
+      double price = purchase.getPrice(state);
+      if (state.getCurrentBank() < price) {
+        Optional<CookieClicker> ready = Forecast.warpUntilBank(state, price);
+        if (ready.isEmpty() || ready.get().getTicks() > limit) {
+          state = state.warp(limit - state.getTicks());
+          warps++;
+          outcome = Outcome.OUT_OF_TICKS;
+          break;
+        }
+        state = ready.get();
+        warps++;
+      }
+      state = purchase.applyTo(state);
+      purchases++;
+    }
+    return new Report(state, outcome, purchases, warps, System.nanoTime() - begin);
+  }
+
+  /**
+   * The result of running a game with a strategy.
+   */
+  public static final class Report {
+    private final CookieClicker state;
+    private final Outcome outcome;
+    private final long purchases;
+    private final long warps;
+    private final long elapsedNanos;
+
+    private Report(CookieClicker state, Outcome outcome, long purchases, long warps,
+                   long elapsedNanos) {
+      this.state = state;
+      this.outcome = outcome;
+      this.purchases = purchases;
+      this.warps = warps;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the game at the end of the run.
+     *
+     * @return The final game state.
+     */
+    public CookieClicker getState() {
+      return state;
+    }
+
+    /**
+     * Returns why the run ended.
+     *
+     * @return The outcome.
+     */
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    /**
+     * Returns the purchases made, which are the steps of the run.
+     *
+     * @return The number of purchases.
+     */
+    public long getPurchases() {
+      return purchases;
+    }
+
+    /**
+     * Returns the warps made, waiting for purchases to become affordable.
+     *
+     * @return The number of warps.
+     */
+    public long getWarps() {
+      return warps;
+    }
+
+    /**
+     * Returns the wall clock time of the run.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns how fast the run stepped.
+     *
+     * @return The purchases made per second of wall clock time.
+     */
+    public double getStepsPerSecond() {
+      return purchases / (Math.max(elapsedNanos, 1) / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return "{" +
+              "outcome = " + outcome + ", " +
+              "purchases = " + purchases + ", " +
+              "warps = " + warps + ", " +
+              "elapsedNanos = " + elapsedNanos + ", " +
+              "state = " + state +
+              "}";
+    }
+  }
+}
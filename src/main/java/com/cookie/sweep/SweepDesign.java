@@ -0,0 +1,158 @@
+package com.cookie.sweep;
+
+import com.cookie.BuildingType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * A set of sweep points, generated on demand by index.
+ * <p>
+ * Points are a pure function of their index, so a design can be regenerated exactly when resuming
+ * an interrupted sweep, and huge designs never need to be held in memory.
+ */
+public abstract class SweepDesign {
+
+  private final List<Map<BuildingType, Integer>> inventories;
+
+  private SweepDesign(List<Map<BuildingType, Integer>> inventories) {
+    Objects.requireNonNull(inventories, "Expected non-null inventories.");
+    if (inventories.isEmpty()) {
+      throw new IllegalArgumentException("Cannot sweep over no inventories.");
+    }
+    this.inventories = List.copyOf(inventories);
+  }
+
+  /**
+   * Create a full factorial design, every combination of the given values.
+   * <p>
+   * Clicking rates vary fastest, then inventories, then refund factors, then price growth factors.
+   *
+   * @param priceGrowthFactors The positive price growth factors to sweep.
+   * @param refundFactors      The positive refund factors to sweep.
+   * @param inventories        The starting inventories to sweep.
+   * @param clickingRates      The non-negative clicking rates to sweep.
+   * @return A grid design.
+   * @throws NullPointerException     If any argument is null.
+   * @throws IllegalArgumentException If any argument is empty.
+   */
+  public static SweepDesign grid(double[] priceGrowthFactors, double[] refundFactors,
+                                 List<Map<BuildingType, Integer>> inventories,
+                                 double[] clickingRates) {
+    double[] growths = priceGrowthFactors.clone();
+    double[] refunds = refundFactors.clone();
+    double[] rates = clickingRates.clone();
+    if (growths.length == 0 || refunds.length == 0 || rates.length == 0) {
+      throw new IllegalArgumentException("Cannot sweep over no values.");
+    }
+    long size = (long) growths.length * refunds.length * inventories.size() * rates.length;
+    return new SweepDesign(inventories) {
+      @Override
+      public long size() {
+        return size;
+      }
+
+      @Override
+      SweepPoint createPoint(long index) {
+        long rest = index;
+        int rate = (int) (rest % rates.length);
+        rest /= rates.length;
+        int inventory = (int) (rest % getInventories().size());
+        rest /= getInventories().size();
+        int refund = (int) (rest % refunds.length);
+        int growth = (int) (rest / refunds.length);
+        return new SweepPoint(index, growths[growth], refunds[refund],
+                inventory, getInventories().get(inventory), rates[rate]);
+      }
+    };
+  }
+
+  /**
+   * Create a random design, drawing every parameter uniformly and independently.
+   * <p>
+   * Each point is drawn from a generator seeded by the seed and its index, so the same seed
+   * always gives the same points.
+   *
+   * @param size             The non-negative number of points.
+   * @param seed             The seed of the design.
+   * @param minPriceGrowth   The positive lowest price growth factor.
+   * @param maxPriceGrowth   The highest price growth factor, not less than the lowest.
+   * @param minRefund        The positive lowest refund factor.
+   * @param maxRefund        The highest refund factor, not less than the lowest.
+   * @param inventories      The starting inventories to choose from.
+   * @param minClickingRate  The non-negative lowest clicking rate.
+   * @param maxClickingRate  The highest clicking rate, not less than the lowest.
+   * @return A random design.
+   * @throws NullPointerException     If the inventories are null.
+   * @throws IllegalArgumentException If any range is invalid, or the inventories are empty.
+   */
+  public static SweepDesign random(long size, long seed,
+                                   double minPriceGrowth, double maxPriceGrowth,
+                                   double minRefund, double maxRefund,
+                                   List<Map<BuildingType, Integer>> inventories,
+                                   double minClickingRate, double maxClickingRate) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Cannot use a negative size.");
+    } else if (minPriceGrowth <= 0 || minRefund <= 0 || minClickingRate < 0) {
+      throw new IllegalArgumentException("Cannot use a range below the legal minimum.");
+    } else if (maxPriceGrowth < minPriceGrowth || maxRefund < minRefund
+            || maxClickingRate < minClickingRate) {
+      throw new IllegalArgumentException("Cannot use a range with its maximum below its minimum.");
+    }
+    return new SweepDesign(inventories) {
+      @Override
+      public long size() {
+        return size;
+      }
+
+      @Override
+      SweepPoint createPoint(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        int inventory = random.nextInt(getInventories().size());
+        return new SweepPoint(index,
+                draw(random, minPriceGrowth, maxPriceGrowth),
+                draw(random, minRefund, maxRefund),
+                inventory, getInventories().get(inventory),
+                draw(random, minClickingRate, maxClickingRate));
+      }
+    };
+  }
+
+  private static double draw(SplittableRandom random, double min, double max) {
+    return min == max ? min : random.nextDouble(min, max);
+  }
+
+  /**
+   * Returns the number of points in this design.
+   *
+   * @return The number of points.
+   */
+  public abstract long size();
+
+  /**
+   * Returns a point of this design.
+   *
+   * @param index The index of the point.
+   * @return The point at that index.
+   * @throws IndexOutOfBoundsException If the index is negative, or not less than the size.
+   */
+  public SweepPoint getPoint(long index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("No point " + index + " in a design of " + size() + ".");
+    }
+    return createPoint(index);
+  }
+
+  /**
+   * Returns the starting inventories of this design.
+   *
+   * @return A read-only list of inventories, indexed by {@link SweepPoint#getInventoryIndex()}.
+   */
+  public List<Map<BuildingType, Integer>> getInventories() {
+    return inventories;
+  }
+
+  abstract SweepPoint createPoint(long index);
+}
@@ -0,0 +1,248 @@
+package com.cookie.sweep;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * A columnar file of sweep results.
+ * <p>
+ * The file starts with a magic number and the number of columns. Rows follow in blocks, each
+ * block being its number of rows, then every column as consecutive eight byte values, then a CRC32
+ * of the block. The columns are, in order: index, price growth factor, refund factor, inventory
+ * index, clicking rate, ticks, current bank, cookies baked, total rate, and buildings owned.
+ * <p>
+ * Blocks are only ever appended whole, so a file cut short by an interruption is repaired by
+ * dropping its last incomplete or corrupt block.
+ */
+public final class SweepFile {
+
+  static final int MAGIC = 0x53575031;
+  static final int COLUMNS = 10;
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+  private SweepFile() {
+  }
+
+  /**
+   * Read all results of a sweep file.
+   *
+   * @param file The sweep file to read.
+   * @return The results of all complete blocks, in the order they were written.
+   * @throws NullPointerException If the file is null.
+   * @throws IOException          If the file can't be read, or isn't a sweep file.
+   */
+  public static List<SweepResult> read(Path file) throws IOException {
+    Objects.requireNonNull(file, "Expected a non-null file.");
+    List<SweepResult> results = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      scan(channel, results);
+    }
+    return results;
+  }
+
+  /**
+   * Open a sweep file for appending, creating it or repairing it as needed.
+   *
+   * @param file         The sweep file to open.
+   * @param rowsPerBlock The positive number of rows to buffer before writing a block.
+   * @return A writer positioned after the last complete block.
+   * @throws IOException If the file can't be opened, or isn't a sweep file.
+   */
+  static Writer open(Path file, int rowsPerBlock) throws IOException {
+    if (rowsPerBlock <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive number of rows per block.");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      List<SweepResult> existing = new ArrayList<>();
+      long end;
+      if (channel.size() == 0) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(COLUMNS);
+        header.flip();
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        end = HEADER_BYTES;
+      } else {
+        end = scan(channel, existing);
+        channel.truncate(end);
+      }
+      channel.position(end);
+      BitSet completed = new BitSet();
+      for (SweepResult result : existing) {
+        completed.set(Math.toIntExact(result.getIndex()));
+      }
+      return new Writer(channel, rowsPerBlock, completed);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Read complete blocks from the start of a channel.
+   *
+   * @param channel The channel to read.
+   * @param out     The list to add results to.
+   * @return The offset just after the last complete block.
+   * @throws IOException If the channel can't be read, or isn't a sweep file.
+   */
+  private static long scan(FileChannel channel, List<SweepResult> out) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    if (readFully(channel, header, 0) < HEADER_BYTES
+            || header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != COLUMNS) {
+      throw new IOException("Not a sweep file.");
+    }
+
+    long position = HEADER_BYTES;
+    ByteBuffer count = ByteBuffer.allocate(Integer.BYTES);
+    while (readFully(channel, count.clear(), position) == Integer.BYTES) {
+      int rows = count.getInt(0);
+      long blockBytes = blockBytes(rows);
+      if (rows <= 0 || position + blockBytes > channel.size()) {
+        break;
+      }
+      ByteBuffer block = ByteBuffer.allocate(Math.toIntExact(blockBytes));
+      readFully(channel, block, position);
+      CRC32 crc = new CRC32();
+      crc.update(block.array(), 0, block.capacity() - Long.BYTES);
+      if (crc.getValue() != block.getLong(block.capacity() - Long.BYTES)) {
+        break;
+      }
+      for (int row = 0; row < rows; row++) {
+        out.add(new SweepResult(
+                column(block, rows, 0, row),
+                Double.longBitsToDouble(column(block, rows, 1, row)),
+                Double.longBitsToDouble(column(block, rows, 2, row)),
+                (int) column(block, rows, 3, row),
+                Double.longBitsToDouble(column(block, rows, 4, row)),
+                column(block, rows, 5, row),
+                Double.longBitsToDouble(column(block, rows, 6, row)),
+                Double.longBitsToDouble(column(block, rows, 7, row)),
+                Double.longBitsToDouble(column(block, rows, 8, row)),
+                column(block, rows, 9, row)));
+      }
+      position += blockBytes;
+    }
+    return position;
+  }
+
+  private static long column(ByteBuffer block, int rows, int column, int row) {
+    return block.getLong(Integer.BYTES + Long.BYTES * (column * rows + row));
+  }
+
+  private static long blockBytes(long rows) {
+    return Integer.BYTES + rows * COLUMNS * Long.BYTES + Long.BYTES;
+  }
+
+  private static int readFully(FileChannel channel, ByteBuffer buffer, long position)
+          throws IOException {
+    int read = 0;
+    while (buffer.hasRemaining()) {
+      int n = channel.read(buffer, position + read);
+      if (n < 0) {
+        break;
+      }
+      read += n;
+    }
+    return read;
+  }
+
+  /**
+   * Appends results to a sweep file a block at a time.
+   * <p>
+   * This class is not thread-safe.
+   */
+  static final class Writer implements Closeable {
+    private final FileChannel channel;
+    private final long[][] columns;
+    private final BitSet completed;
+    private final ByteBuffer block;
+    private int rows;
+
+    private Writer(FileChannel channel, int rowsPerBlock, BitSet completed) {
+      this.channel = channel;
+      this.columns = new long[COLUMNS][rowsPerBlock];
+      this.completed = completed;
+      this.block = ByteBuffer.allocate(Math.toIntExact(blockBytes(rowsPerBlock)));
+    }
+
+    /**
+     * Returns the indices of points already in the file when it was opened.
+     *
+     * @return The completed point indices.
+     */
+    BitSet getCompleted() {
+      return completed;
+    }
+
+    /**
+     * Buffer a result, writing a block once enough are buffered.
+     *
+     * @param result The result to append.
+     * @throws IOException If a block can't be written.
+     */
+    void append(SweepResult result) throws IOException {
+      columns[0][rows] = result.getIndex();
+      columns[1][rows] = Double.doubleToRawLongBits(result.getPriceGrowthFactor());
+      columns[2][rows] = Double.doubleToRawLongBits(result.getRefundFactor());
+      columns[3][rows] = result.getInventoryIndex();
+      columns[4][rows] = Double.doubleToRawLongBits(result.getClickingRate());
+      columns[5][rows] = result.getTicks();
+      columns[6][rows] = Double.doubleToRawLongBits(result.getCurrentBank());
+      columns[7][rows] = Double.doubleToRawLongBits(result.getCookiesBaked());
+      columns[8][rows] = Double.doubleToRawLongBits(result.getTotalRate());
+      columns[9][rows] = result.getBuildingsOwned();
+      rows++;
+      if (rows == columns[0].length) {
+        flush();
+      }
+    }
+
+    /**
+     * Write all buffered results as one block, and force it to storage.
+     *
+     * @throws IOException If the block can't be written.
+     */
+    void flush() throws IOException {
+      if (rows == 0) {
+        return;
+      }
+      block.clear();
+      block.putInt(rows);
+      for (long[] column : columns) {
+        for (int row = 0; row < rows; row++) {
+          block.putLong(column[row]);
+        }
+      }
+      CRC32 crc = new CRC32();
+      crc.update(block.array(), 0, block.position());
+      block.putLong(crc.getValue());
+      block.flip();
+      while (block.hasRemaining()) {
+        channel.write(block);
+      }
+      channel.force(false);
+      rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+}
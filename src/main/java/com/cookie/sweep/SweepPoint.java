@@ -0,0 +1,127 @@
+package com.cookie.sweep;
+
+import com.cookie.BuildingType;
+import com.cookie.SimpleCookieClicker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One combination of parameters in a sweep, describing a starting game state.
+ */
+public final class SweepPoint {
+
+  private final long index;
+  private final double priceGrowthFactor;
+  private final double refundFactor;
+  private final int inventoryIndex;
+  private final Map<BuildingType, Integer> inventory;
+  private final double clickingRate;
+
+  /**
+   * Create a new sweep point.
+   *
+   * @param index             The non-negative index of this point in its design.
+   * @param priceGrowthFactor The positive price growth factor to start with.
+   * @param refundFactor      The positive refund factor to start with.
+   * @param inventoryIndex    The non-negative index of the inventory in its design.
+   * @param inventory         The building inventory to start with.
+   * @param clickingRate      The non-negative clicking rate to start with.
+   * @throws NullPointerException     If the inventory is null.
+   * @throws IllegalArgumentException If any number is out of range.
+   */
+  public SweepPoint(long index, double priceGrowthFactor, double refundFactor,
+                    int inventoryIndex, Map<BuildingType, Integer> inventory,
+                    double clickingRate) {
+    if (index < 0 || inventoryIndex < 0) {
+      throw new IllegalArgumentException("Cannot use negative indices.");
+    } else if (priceGrowthFactor <= 0 || refundFactor <= 0) {
+      throw new IllegalArgumentException("Cannot use non-positive price growth or refund factors.");
+    } else if (clickingRate < 0) {
+      throw new IllegalArgumentException("Cannot use a negative clicking rate.");
+    }
+    this.index = index;
+    this.priceGrowthFactor = priceGrowthFactor;
+    this.refundFactor = refundFactor;
+    this.inventoryIndex = inventoryIndex;
+    this.inventory = Map.copyOf(Objects.requireNonNull(inventory, "Expected a non-null inventory."));
+    this.clickingRate = clickingRate;
+  }
+
+  /**
+   * Create the starting game state of this point.
+   *
+   * @return A new game at tick zero with this point's parameters.
+   */
+  public SimpleCookieClicker toState() {
+    return new SimpleCookieClicker(0, inventory, Collections.emptySet(), List.of(),
+            clickingRate, 0, 0, 0, 0, priceGrowthFactor, refundFactor);
+  }
+
+  /**
+   * Returns the index of this point in its design.
+   *
+   * @return The index of this point.
+   */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the price growth factor.
+   *
+   * @return The price growth factor of the starting state.
+   */
+  public double getPriceGrowthFactor() {
+    return priceGrowthFactor;
+  }
+
+  /**
+   * Returns the refund factor.
+   *
+   * @return The refund factor of the starting state.
+   */
+  public double getRefundFactor() {
+    return refundFactor;
+  }
+
+  /**
+   * Returns the index of the starting inventory in its design.
+   *
+   * @return The index of the starting inventory.
+   */
+  public int getInventoryIndex() {
+    return inventoryIndex;
+  }
+
+  /**
+   * Returns the starting inventory.
+   *
+   * @return A read-only building inventory.
+   */
+  public Map<BuildingType, Integer> getInventory() {
+    return inventory;
+  }
+
+  /**
+   * Returns the clicking rate.
+   *
+   * @return The clicking rate of the starting state.
+   */
+  public double getClickingRate() {
+    return clickingRate;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "index = " + index + ", " +
+            "priceGrowthFactor = " + priceGrowthFactor + ", " +
+            "refundFactor = " + refundFactor + ", " +
+            "inventory = " + inventory + ", " +
+            "clickingRate = " + clickingRate +
+            "}";
+  }
+}
@@ -0,0 +1,154 @@
+package com.cookie.sweep;
+
+/**
+ * The outcome of simulating one sweep point, one row of a sweep file.
+ */
+public final class SweepResult {
+
+  private final long index;
+  private final double priceGrowthFactor;
+  private final double refundFactor;
+  private final int inventoryIndex;
+  private final double clickingRate;
+  private final long ticks;
+  private final double currentBank;
+  private final double cookiesBaked;
+  private final double totalRate;
+  private final long buildingsOwned;
+
+  /**
+   * Create a new result.
+   *
+   * @param index             The index of the simulated point.
+   * @param priceGrowthFactor The price growth factor of the point.
+   * @param refundFactor      The refund factor of the point.
+   * @param inventoryIndex    The index of the starting inventory of the point.
+   * @param clickingRate      The clicking rate of the point.
+   * @param ticks             The ticks of the final state.
+   * @param currentBank       The bank of the final state.
+   * @param cookiesBaked      The cookies baked by the final state.
+   * @param totalRate         The cookies per tick of the final state, buildings and clicking.
+   * @param buildingsOwned    The number of buildings owned by the final state.
+   */
+  public SweepResult(long index, double priceGrowthFactor, double refundFactor,
+                     int inventoryIndex, double clickingRate,
+                     long ticks, double currentBank, double cookiesBaked, double totalRate,
+                     long buildingsOwned) {
+    this.index = index;
+    this.priceGrowthFactor = priceGrowthFactor;
+    this.refundFactor = refundFactor;
+    this.inventoryIndex = inventoryIndex;
+    this.clickingRate = clickingRate;
+    this.ticks = ticks;
+    this.currentBank = currentBank;
+    this.cookiesBaked = cookiesBaked;
+    this.totalRate = totalRate;
+    this.buildingsOwned = buildingsOwned;
+  }
+
+  /**
+   * Returns the index of the simulated point.
+   *
+   * @return The point index.
+   */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the price growth factor of the point.
+   *
+   * @return The price growth factor.
+   */
+  public double getPriceGrowthFactor() {
+    return priceGrowthFactor;
+  }
+
+  /**
+   * Returns the refund factor of the point.
+   *
+   * @return The refund factor.
+   */
+  public double getRefundFactor() {
+    return refundFactor;
+  }
+
+  /**
+   * Returns the index of the starting inventory of the point.
+   *
+   * @return The inventory index.
+   */
+  public int getInventoryIndex() {
+    return inventoryIndex;
+  }
+
+  /**
+   * Returns the clicking rate of the point.
+   *
+   * @return The clicking rate.
+   */
+  public double getClickingRate() {
+    return clickingRate;
+  }
+
+  /**
+   * Returns the ticks of the final state.
+   *
+   * @return The final ticks.
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * Returns the bank of the final state.
+   *
+   * @return The final bank.
+   */
+  public double getCurrentBank() {
+    return currentBank;
+  }
+
+  /**
+   * Returns the cookies baked by the final state.
+   *
+   * @return The final cookies baked.
+   */
+  public double getCookiesBaked() {
+    return cookiesBaked;
+  }
+
+  /**
+   * Returns the cookies per tick of the final state.
+   *
+   * @return The final total rate, buildings and clicking.
+   */
+  public double getTotalRate() {
+    return totalRate;
+  }
+
+  /**
+   * Returns the number of buildings owned by the final state.
+   *
+   * @return The final number of buildings.
+   */
+  public long getBuildingsOwned() {
+    return buildingsOwned;
+  }
+
+  @Override
+  public String toString() {
+    return "{" +
+            "index = " + index + ", " +
+            "priceGrowthFactor = " + priceGrowthFactor + ", " +
+            "refundFactor = " + refundFactor + ", " +
+            "inventoryIndex = " + inventoryIndex + ", " +
+            "clickingRate = " + clickingRate + ", " +
+            "ticks = " + ticks + ", " +
+            "currentBank = " + currentBank + ", " +
+            "cookiesBaked = " + cookiesBaked + ", " +
+            "totalRate = " + totalRate + ", " +
+            "buildingsOwned = " + buildingsOwned +
+            "}";
+  }
+}
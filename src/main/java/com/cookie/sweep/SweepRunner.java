@@ -0,0 +1,179 @@
+package com.cookie.sweep;
+
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs a simulation over every point of a sweep design in parallel.
+ * <p>
+ * Points are split recursively across a work-stealing {@link ForkJoinPool}, so uneven simulation
+ * times balance out across threads. Results are streamed to a {@link SweepFile} by the calling
+ * thread as they finish. Running a sweep against a file that already holds some of its results
+ * skips those points, so an interrupted sweep resumes where it stopped.
+ */
+public class SweepRunner {
+
+  private static final int DEFAULT_ROWS_PER_BLOCK = 1024;
+  private static final long GRAIN = 16;
+
+  private final ForkJoinPool pool;
+  private final UnaryOperator<CookieClicker> simulation;
+  private final int rowsPerBlock;
+
+  /**
+   * Create a new runner.
+   *
+   * @param pool         The pool to simulate on.
+   * @param simulation   The simulation to run from every starting state, returning a final state.
+   * @param rowsPerBlock The positive number of results to write per block.
+   * @throws NullPointerException     If the pool or simulation are null.
+   * @throws IllegalArgumentException If rows per block is non-positive.
+   */
+  public SweepRunner(ForkJoinPool pool, UnaryOperator<CookieClicker> simulation,
+                     int rowsPerBlock) {
+    this.pool = Objects.requireNonNull(pool, "Expected a non-null pool.");
+    this.simulation = Objects.requireNonNull(simulation, "Expected a non-null simulation.");
+    if (rowsPerBlock <= 0) {
+      throw new IllegalArgumentException("Cannot use a non-positive number of rows per block.");
+    }
+    this.rowsPerBlock = rowsPerBlock;
+  }
+
+  /**
+   * Create a new runner on the common pool.
+   *
+   * @param simulation The simulation to run from every starting state, returning a final state.
+   * @throws NullPointerException If the simulation is null.
+   */
+  public SweepRunner(UnaryOperator<CookieClicker> simulation) {
+    this(ForkJoinPool.commonPool(), simulation, DEFAULT_ROWS_PER_BLOCK);
+  }
+
+  /**
+   * Simulate every point of a design not already in the output file.
+   * <p>
+   * If a simulation throws, the results finished so far are still written before rethrowing.
+   *
+   * @param design The design to sweep, with at most {@link Integer#MAX_VALUE} points.
+   * @param output The sweep file to append results to.
+   * @return The number of points simulated by this call.
+   * @throws NullPointerException     If the design or output are null.
+   * @throws IllegalArgumentException If the design is too large.
+   * @throws IOException              If the output can't be read or written.
+   * @throws InterruptedException     If interrupted while waiting for results, after writing the
+   *                                  results finished so far.
+   */
+  public long run(SweepDesign design, Path output) throws IOException, InterruptedException {
+    Objects.requireNonNull(design, "Expected a non-null design.");
+    Objects.requireNonNull(output, "Expected a non-null output.");
+    if (design.size() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Cannot sweep more than " + Integer.MAX_VALUE + " points.");
+    }
+
+    try (SweepFile.Writer writer = SweepFile.open(output, rowsPerBlock)) {
+      BitSet completed = writer.getCompleted();
+      long pending = design.size() - completed.cardinality();
+      LinkedBlockingQueue<SweepResult> results = new LinkedBlockingQueue<>();
+      AtomicBoolean cancelled = new AtomicBoolean();
+      ForkJoinTask<Void> task = pool.submit(
+              new SweepAction(design, completed, results, cancelled, 0, design.size()));
+
+      long written = 0;
+      try {
+        while (written < pending) {
+          SweepResult result = results.poll(10, TimeUnit.MILLISECONDS);
+          if (result != null) {
+            writer.append(result);
+            written++;
+          } else if (task.isDone() && results.isEmpty()) {
+            break;
+          }
+        }
+      } catch (InterruptedException e) {
+        // Cancelling the root task doesn't reach subtasks already forked, so they poll the flag.
+        cancelled.set(true);
+        task.cancel(true);
+        SweepResult result;
+        while ((result = results.poll()) != null) {
+          writer.append(result);
+        }
+        throw e;
+      }
+      // Rethrows anything a simulation threw, once everything finished is written.
+      SweepResult result;
+      while ((result = results.poll()) != null) {
+        writer.append(result);
+        written++;
+      }
+      task.join();
+      return written;
+    }
+  }
+
+  private SweepResult simulate(SweepPoint point) {
+    CookieClicker end = simulation.apply(point.toState());
+    long buildings = 0;
+    for (int count : end.getBuildingInventory().values()) {
+      buildings += count;
+    }
+    return new SweepResult(point.getIndex(), point.getPriceGrowthFactor(),
+            point.getRefundFactor(), point.getInventoryIndex(), point.getClickingRate(),
+            end.getTicks(), end.getCurrentBank(), end.getCookiesBaked(),
+            Forecast.getTotalRate(end), buildings);
+  }
+
+  /**
+   * Simulates a range of points, splitting it in half while it's larger than the grain, until the
+   * sweep is cancelled.
+   */
+  // Tasks only ever run in the pool of this process, and are never serialized.
+  @SuppressWarnings("serial")
+  private final class SweepAction extends RecursiveAction {
+    private final SweepDesign design;
+    private final BitSet completed;
+    private final LinkedBlockingQueue<SweepResult> results;
+    private final AtomicBoolean cancelled;
+    private final long from;
+    private final long to;
+
+    SweepAction(SweepDesign design, BitSet completed, LinkedBlockingQueue<SweepResult> results,
+                AtomicBoolean cancelled, long from, long to) {
+      this.design = design;
+      this.completed = completed;
+      this.results = results;
+      this.cancelled = cancelled;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (cancelled.get()) {
+        return;
+      }
+      if (to - from > GRAIN) {
+        long middle = (from + to) >>> 1;
+        invokeAll(new SweepAction(design, completed, results, cancelled, from, middle),
+                new SweepAction(design, completed, results, cancelled, middle, to));
+        return;
+      }
+      for (long index = from; index < to && !cancelled.get(); index++) {
+        if (!completed.get((int) index)) {
+          results.add(simulate(design.getPoint(index)));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.cookie.trajectory;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionBuff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes trajectory samples to a compact columnar binary file.
+ * <p>
+ * The file starts with a magic number, the number of buildings, and the name of every building
+ * as a length-prefixed UTF-8 string. Samples follow in blocks, each being its number of rows and
+ * then every column as consecutive values: ticks, bank, cookies baked, one rate column per
+ * building, buff counts as ints, and next buff expiries. See {@link TrajectoryReader}.
+ * <p>
+ * Samples are copied into preallocated primitive columns, and a block is encoded into one reused
+ * buffer, so the only object made per sample is the collection of active buffs the state returns,
+ * fetched once. Memory is bounded by the block size no matter how long the trajectory is.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ColumnarTrajectoryWriter implements TrajectorySink {
+
+  static final int MAGIC = 0x54524A31;
+
+  private final WritableByteChannel channel;
+  private final List<BuildingType> buildings;
+  private final long[] ticks;
+  private final double[] banks;
+  private final double[] baked;
+  private final double[][] rates;
+  private final int[] buffCounts;
+  private final long[] buffExpiries;
+  private final ByteBuffer block;
+  private int rows;
+
+  /**
+   * Create a new writer, replacing any existing file.
+   *
+   * @param file         The file to write.
+   * @param buildings    The buildings to record rates of, in column order.
+   * @param rowsPerBlock The positive number of samples to buffer per block.
+   * @throws NullPointerException     If the file or buildings are null.
+   * @throws IllegalArgumentException If rows per block is non-positive.
+   * @throws IOException              If the file can't be opened.
+   */
+  public ColumnarTrajectoryWriter(Path file, List<BuildingType> buildings, int rowsPerBlock)
+          throws IOException {
+    this(FileChannel.open(Objects.requireNonNull(file, "Expected a non-null file."),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING), buildings, rowsPerBlock);
+  }
+
+  /**
+   * Create a new writer to a channel.
+   *
+   * @param channel      The channel to write to, which is closed with this writer.
+   * @param buildings    The buildings to record rates of, in column order.
+   * @param rowsPerBlock The positive number of samples to buffer per block.
+   * @throws NullPointerException     If the channel or buildings are null.
+   * @throws IllegalArgumentException If rows per block is non-positive.
+   * @throws IOException              If the header can't be written.
+   */
+  public ColumnarTrajectoryWriter(WritableByteChannel channel, List<BuildingType> buildings,
+                                  int rowsPerBlock) throws IOException {
+    this.channel = Objects.requireNonNull(channel, "Expected a non-null channel.");
+    this.buildings = List.copyOf(buildings);
+    if (rowsPerBlock <= 0) {
+      channel.close();
+      throw new IllegalArgumentException("Cannot use a non-positive number of rows per block.");
+    }
+    this.ticks = new long[rowsPerBlock];
+    this.banks = new double[rowsPerBlock];
+    this.baked = new double[rowsPerBlock];
+    this.rates = new double[this.buildings.size()][rowsPerBlock];
+    this.buffCounts = new int[rowsPerBlock];
+    this.buffExpiries = new long[rowsPerBlock];
+    this.block = ByteBuffer.allocateDirect(Integer.BYTES
+            + rowsPerBlock * (Long.BYTES * 2 + Double.BYTES * (2 + this.buildings.size())
+            + Integer.BYTES));
+
+    ByteBuffer header = ByteBuffer.allocate(1024);
+    header.putInt(MAGIC).putInt(this.buildings.size());
+    for (BuildingType building : this.buildings) {
+      byte[] name = building.toString().getBytes(StandardCharsets.UTF_8);
+      if (header.remaining() < Short.BYTES + name.length) {
+        header = ByteBuffer.allocate(header.capacity() * 2 + name.length).put(header.flip());
+      }
+      header.putShort((short) name.length).put(name);
+    }
+    drain(header.flip());
+  }
+
+  @Override
+  public void write(CookieClicker state) throws IOException {
+    Objects.requireNonNull(state, "Expected a non-null state.");
+    ticks[rows] = state.getTicks();
+    banks[rows] = state.getCurrentBank();
+    baked[rows] = state.getCookiesBaked();
+    for (int i = 0; i < rates.length; i++) {
+      rates[i][rows] = state.getRate(buildings.get(i));
+    }
+    Collection<ProductionBuff> buffs = state.getActiveProductionBuffs();
+    buffCounts[rows] = buffs.size();
+    buffExpiries[rows] = TrajectorySink.nextBuffExpiry(buffs);
+    rows++;
+    if (rows == ticks.length) {
+      flush();
+    }
+  }
+
+  /**
+   * Write all buffered samples as one block.
+   *
+   * @throws IOException If the block can't be written.
+   */
+  public void flush() throws IOException {
+    if (rows == 0) {
+      return;
+    }
+    block.clear();
+    block.putInt(rows);
+    for (int row = 0; row < rows; row++) {
+      block.putLong(ticks[row]);
+    }
+    for (int row = 0; row < rows; row++) {
+      block.putDouble(banks[row]);
+    }
+    for (int row = 0; row < rows; row++) {
+      block.putDouble(baked[row]);
+    }
+    for (double[] column : rates) {
+      for (int row = 0; row < rows; row++) {
+        block.putDouble(column[row]);
+      }
+    }
+    for (int row = 0; row < rows; row++) {
+      block.putInt(buffCounts[row]);
+    }
+    for (int row = 0; row < rows; row++) {
+      block.putLong(buffExpiries[row]);
+    }
+    drain(block.flip());
+    rows = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void drain(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.cookie.trajectory;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionBuff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes trajectory samples as CSV lines, for tools that don't read the columnar format.
+ * <p>
+ * The header names the columns: ticks, currentBank, cookiesBaked, one rate column per building,
+ * buffs, and nextBuffExpiry. Lines are formatted into one reused builder and copied into one
+ * reused buffer, which is written out whenever it fills. Building names are expected to be ASCII.
+ * <p>
+ * Numbers are formatted digit by digit rather than with {@link Double#toString}, which allocates
+ * for most values. They keep {@value #SIGNIFICANT_DIGITS} significant digits, enough for
+ * spreadsheets and plotting tools, and the last digit may be off by one. The columnar format
+ * keeps exact values.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CsvTrajectoryWriter implements TrajectorySink {
+
+  static final int SIGNIFICANT_DIGITS = 15;
+  private static final long MIN_SIGNIFICAND = 100_000_000_000_000L;
+  private static final long MAX_SIGNIFICAND = 10 * MIN_SIGNIFICAND;
+
+  private final WritableByteChannel channel;
+  private final List<BuildingType> buildings;
+  private final StringBuilder line = new StringBuilder(256);
+  private final char[] digits = new char[SIGNIFICANT_DIGITS];
+  private final ByteBuffer buffer;
+
+  /**
+   * Create a new writer, replacing any existing file.
+   *
+   * @param file        The file to write.
+   * @param buildings   The buildings to record rates of, in column order.
+   * @param bufferBytes The positive size of the write buffer.
+   * @throws NullPointerException     If the file or buildings are null.
+   * @throws IllegalArgumentException If the buffer size is non-positive.
+   * @throws IOException              If the file can't be opened.
+   */
+  public CsvTrajectoryWriter(Path file, List<BuildingType> buildings, int bufferBytes)
+          throws IOException {
+    this(FileChannel.open(Objects.requireNonNull(file, "Expected a non-null file."),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING), buildings, bufferBytes);
+  }
+
+  /**
+   * Create a new writer to a channel.
+   *
+   * @param channel     The channel to write to, which is closed with this writer.
+   * @param buildings   The buildings to record rates of, in column order.
+   * @param bufferBytes The positive size of the write buffer.
+   * @throws NullPointerException     If the channel or buildings are null.
+   * @throws IllegalArgumentException If the buffer size is non-positive.
+   * @throws IOException              If the header can't be written.
+   */
+  public CsvTrajectoryWriter(WritableByteChannel channel, List<BuildingType> buildings,
+                             int bufferBytes) throws IOException {
+    this.channel = Objects.requireNonNull(channel, "Expected a non-null channel.");
+    this.buildings = List.copyOf(buildings);
+    if (bufferBytes <= 0) {
+      channel.close();
+      throw new IllegalArgumentException("Cannot use a non-positive buffer size.");
+    }
+    this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+
+    line.append("ticks,currentBank,cookiesBaked");
+    for (BuildingType building : this.buildings) {
+      line.append(",rate:").append(building);
+    }
+    line.append(",buffs,nextBuffExpiry\n");
+    copyLine();
+  }
+
+  @Override
+  public void write(CookieClicker state) throws IOException {
+    Objects.requireNonNull(state, "Expected a non-null state.");
+    line.append(state.getTicks()).append(',');
+    appendDouble(line, digits, state.getCurrentBank());
+    line.append(',');
+    appendDouble(line, digits, state.getCookiesBaked());
+    for (BuildingType building : buildings) {
+      line.append(',');
+      appendDouble(line, digits, state.getRate(building));
+    }
+    Collection<ProductionBuff> buffs = state.getActiveProductionBuffs();
+    line.append(',').append(buffs.size())
+            .append(',').append(TrajectorySink.nextBuffExpiry(buffs))
+            .append('\n');
+    copyLine();
+  }
+
+  /**
+   * Write all buffered lines to the channel.
+   *
+   * @throws IOException If the lines can't be written.
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Append a number as {@link Double#toString} would lay it out, plain from 1e-3 up to 1e7 and in
+   * computerized scientific notation otherwise, with at most {@value #SIGNIFICANT_DIGITS}
+   * significant digits.
+   *
+   * @param out    The builder to append to.
+   * @param digits A scratch array of {@value #SIGNIFICANT_DIGITS} characters.
+   * @param value  The number to append.
+   */
+  static void appendDouble(StringBuilder out, char[] digits, double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      out.append(value); // Appends a constant without allocating.
+      return;
+    } else if (value == 0) {
+      out.append(1 / value < 0 ? "-0.0" : "0.0");
+      return;
+    } else if (value < 0) {
+      out.append('-');
+      value = -value;
+    }
+
+    // Find the decimal exponent and significand. The logarithm may be off by one near powers of
+    // ten, and rounding may carry into another digit, so both are corrected afterwards.
+    int exponent = (int) Math.floor(Math.log10(value));
+    long significand = significand(value, exponent);
+    while (significand < MIN_SIGNIFICAND || significand >= MAX_SIGNIFICAND) {
+      if (significand >= MAX_SIGNIFICAND) {
+        exponent++;
+      } else {
+        exponent--;
+      }
+      significand = significand(value, exponent);
+      if (significand == MAX_SIGNIFICAND) {
+        significand = MIN_SIGNIFICAND;
+        exponent++;
+      }
+    }
+
+    int length = SIGNIFICANT_DIGITS;
+    for (int i = SIGNIFICANT_DIGITS - 1; i >= 0; i--) {
+      digits[i] = (char) ('0' + significand % 10);
+      significand /= 10;
+    }
+    while (length > 1 && digits[length - 1] == '0') {
+      length--;
+    }
+
+    if (exponent >= -3 && exponent < 7) {
+      if (exponent < 0) {
+        out.append("0.");
+        for (int i = -1; i > exponent; i--) {
+          out.append('0');
+        }
+        out.append(digits, 0, length);
+      } else {
+        for (int i = 0; i <= exponent; i++) {
+          out.append(i < length ? digits[i] : '0');
+        }
+        out.append('.');
+        if (length > exponent + 1) {
+          out.append(digits, exponent + 1, length - exponent - 1);
+        } else {
+          out.append('0');
+        }
+      }
+    } else {
+      out.append(digits[0]).append('.');
+      if (length > 1) {
+        out.append(digits, 1, length - 1);
+      } else {
+        out.append('0');
+      }
+      out.append('E').append(exponent);
+    }
+  }
+
+  /**
+   * Returns a positive number scaled to {@value #SIGNIFICANT_DIGITS} digits and rounded, as if its
+   * decimal exponent were the one given.
+   */
+  private static long significand(double value, int exponent) {
+    int shift = SIGNIFICANT_DIGITS - 1 - exponent;
+    double scaled;
+    if (shift > 300) {
+      // Subnormal numbers need a power of ten past the range of doubles.
+      scaled = value * 1e100 * Math.pow(10, shift - 100);
+    } else if (shift >= 0) {
+      scaled = value * Math.pow(10, shift);
+    } else {
+      scaled = value / Math.pow(10, -shift);
+    }
+    return Math.round(scaled);
+  }
+
+  private void copyLine() throws IOException {
+    for (int i = 0; i < line.length(); i++) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.put((byte) line.charAt(i));
+    }
+    line.setLength(0);
+  }
+}
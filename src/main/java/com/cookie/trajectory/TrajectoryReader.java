@@ -0,0 +1,174 @@
+package com.cookie.trajectory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reads the samples of a file written by {@link ColumnarTrajectoryWriter}, one at a time.
+ * <p>
+ * Only one block is held in memory at once. The getters describe the current sample, after
+ * {@link #next()} returned true.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TrajectoryReader implements Closeable {
+
+  private final FileChannel channel;
+  private final List<String> buildingNames;
+  private long position;
+  private ByteBuffer block = ByteBuffer.allocate(0);
+  private int rows;
+  private int row = -1;
+
+  /**
+   * Open a trajectory file.
+   *
+   * @param file The file to read.
+   * @throws NullPointerException If the file is null.
+   * @throws IOException          If the file can't be read, or isn't a trajectory file.
+   */
+  public TrajectoryReader(Path file) throws IOException {
+    this.channel = FileChannel.open(Objects.requireNonNull(file, "Expected a non-null file."),
+            StandardOpenOption.READ);
+    try {
+      ByteBuffer header = read(2 * Integer.BYTES);
+      if (header.getInt() != ColumnarTrajectoryWriter.MAGIC) {
+        throw new IOException("Not a trajectory file.");
+      }
+      int count = header.getInt();
+      List<String> names = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        int length = read(Short.BYTES).getShort() & 0xFFFF;
+        names.add(StandardCharsets.UTF_8.decode(read(length)).toString());
+      }
+      this.buildingNames = Collections.unmodifiableList(names);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the buildings rates were recorded for.
+   *
+   * @return The names of the buildings, in the order of their rate columns.
+   */
+  public List<String> getBuildingNames() {
+    return buildingNames;
+  }
+
+  /**
+   * Advance to the next sample.
+   *
+   * @return True if there is a next sample, false at the end of the file.
+   * @throws IOException If the file can't be read, or ends within a block.
+   */
+  public boolean next() throws IOException {
+    if (row + 1 < rows) {
+      row++;
+      return true;
+    }
+    if (position >= channel.size()) {
+      return false;
+    }
+    rows = read(Integer.BYTES).getInt();
+    int rowBytes = Long.BYTES * 2 + Double.BYTES * (2 + buildingNames.size()) + Integer.BYTES;
+    block = read(Math.multiplyExact(rows, rowBytes));
+    row = 0;
+    return rows > 0 || next();
+  }
+
+  /**
+   * Returns the ticks of the current sample.
+   *
+   * @return The ticks sampled.
+   */
+  public long getTicks() {
+    return block.getLong(offset(0, Long.BYTES));
+  }
+
+  /**
+   * Returns the bank of the current sample.
+   *
+   * @return The current bank sampled.
+   */
+  public double getCurrentBank() {
+    return block.getDouble(offset(rows * Long.BYTES, Double.BYTES));
+  }
+
+  /**
+   * Returns the cookies baked of the current sample.
+   *
+   * @return The cookies baked sampled.
+   */
+  public double getCookiesBaked() {
+    return block.getDouble(offset(rows * (Long.BYTES + Double.BYTES), Double.BYTES));
+  }
+
+  /**
+   * Returns a building rate of the current sample.
+   *
+   * @param building The index of the building in {@link #getBuildingNames()}.
+   * @return The rate of the building sampled.
+   * @throws IndexOutOfBoundsException If there is no building at the index.
+   */
+  public double getRate(int building) {
+    Objects.checkIndex(building, buildingNames.size());
+    return block.getDouble(offset(rows * (Long.BYTES + Double.BYTES * (2 + building)),
+            Double.BYTES));
+  }
+
+  /**
+   * Returns the number of active buffs of the current sample.
+   *
+   * @return The buff count sampled.
+   */
+  public int getBuffCount() {
+    return block.getInt(offset(rows * (Long.BYTES + Double.BYTES * (2 + buildingNames.size())),
+            Integer.BYTES));
+  }
+
+  /**
+   * Returns the ticks until the next buff expired at the current sample.
+   *
+   * @return The next buff expiry sampled, or -1 if no buffs were active.
+   */
+  public long getNextBuffExpiry() {
+    return block.getLong(offset(rows * (Long.BYTES + Double.BYTES * (2 + buildingNames.size())
+            + Integer.BYTES), Long.BYTES));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int offset(int columnStart, int width) {
+    if (row < 0 || row >= rows) {
+      throw new NoSuchElementException("No current sample.");
+    }
+    return columnStart + row * width;
+  }
+
+  private ByteBuffer read(int bytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(bytes);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("The trajectory file ends within a block.");
+      }
+    }
+    position += bytes;
+    return buffer.flip();
+  }
+}
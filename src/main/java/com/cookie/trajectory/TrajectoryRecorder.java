@@ -0,0 +1,94 @@
+package com.cookie.trajectory;
+
+import com.cookie.CookieClicker;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Warps a game while sampling its trajectory into a sink.
+ * <p>
+ * Samples are taken at every tick that is a multiple of the interval, and, when sampling events,
+ * every tick an active buff expires. Only the sink's bounded buffers are held while warping, never
+ * the states themselves.
+ */
+public class TrajectoryRecorder {
+
+  private final TrajectorySink sink;
+  private final long interval;
+  private final boolean events;
+
+  /**
+   * Create a new recorder.
+   *
+   * @param sink     The sink to write samples to.
+   * @param interval The number of ticks between periodic samples, or zero for none.
+   * @param events   If a sample should also be taken whenever a buff expires.
+   * @throws NullPointerException     If the sink is null.
+   * @throws IllegalArgumentException If the interval is negative, or nothing would be sampled.
+   */
+  public TrajectoryRecorder(TrajectorySink sink, long interval, boolean events) {
+    this.sink = Objects.requireNonNull(sink, "Expected a non-null sink.");
+    if (interval < 0) {
+      throw new IllegalArgumentException("Cannot use a negative interval.");
+    } else if (interval == 0 && !events) {
+      throw new IllegalArgumentException("Cannot record without an interval or events.");
+    }
+    this.interval = interval;
+    this.events = events;
+  }
+
+  /**
+   * Write one sample of a state now, for example the starting state.
+   *
+   * @param state The state to sample.
+   * @throws NullPointerException If the state is null.
+   * @throws IOException          If the sample can't be written.
+   */
+  public void sample(CookieClicker state) throws IOException {
+    sink.write(state);
+  }
+
+  /**
+   * Warp a game, sampling every interval and event tick after the start, up to and including the
+   * end.
+   *
+   * @param state The state to warp from.
+   * @param ticks The non-negative number of ticks to warp.
+   * @return The warped state, which is the state warped at once up to floating point rounding.
+   * @throws NullPointerException     If the state is null.
+   * @throws IllegalArgumentException If the ticks are negative.
+   * @throws IOException              If a sample can't be written.
+   */
+  public CookieClicker warp(CookieClicker state, long ticks) throws IOException {
+    Objects.requireNonNull(state, "Expected a non-null state.");
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Cannot warp by negative ticks.");
+    }
+    long end = state.getTicks() + ticks;
+    while (state.getTicks() < end) {
+      long now = state.getTicks();
+      long next = end;
+      boolean sample = false;
+      if (interval > 0) {
+        long boundary = (now / interval + 1) * interval;
+        if (boundary <= next) {
+          next = boundary;
+          sample = true;
+        }
+      }
+      if (events) {
+        long expiry = TrajectorySink.nextBuffExpiry(state.getActiveProductionBuffs());
+        if (expiry > 0 && now + expiry <= next) {
+          next = now + expiry;
+          sample = true;
+        }
+      }
+      state = state.warp(next - now);
+      if (sample) {
+        sink.write(state);
+      }
+    }
+    return state;
+  }
+}
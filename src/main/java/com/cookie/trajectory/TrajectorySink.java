@@ -0,0 +1,43 @@
+package com.cookie.trajectory;
+
+import com.cookie.CookieClicker;
+import com.cookie.ProductionBuff;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * A destination for samples of a simulation's trajectory.
+ * <p>
+ * A sample is a fixed set of values: ticks, current bank, cookies baked, the rate of every
+ * building the sink was created with, the number of active buffs, and the ticks left until the
+ * next buff expires (or -1 if none are active).
+ */
+public interface TrajectorySink extends Closeable {
+
+  /**
+   * Write one sample of a game state.
+   *
+   * @param state The state to sample.
+   * @throws NullPointerException If the state is null.
+   * @throws IOException          If the sample can't be written.
+   */
+  void write(CookieClicker state) throws IOException;
+
+  /**
+   * Returns the ticks left until the next of some active buffs expires.
+   *
+   * @param buffs The active buffs of a state.
+   * @return The least time left of any buff, or -1 if there are none.
+   */
+  static long nextBuffExpiry(Collection<ProductionBuff> buffs) {
+    long next = -1;
+    for (ProductionBuff buff : buffs) {
+      if (next < 0 || buff.getTimeLeft() < next) {
+        next = buff.getTimeLeft();
+      }
+    }
+    return next;
+  }
+}
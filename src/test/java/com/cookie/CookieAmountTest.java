@@ -0,0 +1,139 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for CookieAmount and CookieAccumulator.
+ */
+public class CookieAmountTest {
+
+  /**
+   * Verify arithmetic within the range of doubles agrees with doubles.
+   */
+  @Test
+  public void testMatchesDoubles() {
+    double[] values = {0, 1, -3.5, 1e-310, 123456.789, 6e300, -2e-5};
+    for (double a : values) {
+      assertEquals(a, CookieAmount.of(a).toDouble());
+      for (double b : values) {
+        assertEquals(a + b, CookieAmount.of(a).plus(CookieAmount.of(b)).toDouble(),
+                Math.ulp(a + b) * 2);
+        assertEquals(a * b, CookieAmount.of(a).times(b).toDouble(), Math.ulp(a * b));
+        assertEquals(Double.compare(a, b),
+                Integer.signum(CookieAmount.of(a).compareTo(CookieAmount.of(b))));
+      }
+    }
+    assertEquals(Math.pow(1.15, 200), CookieAmount.pow(1.15, 200).toDouble());
+    assertThrows(IllegalArgumentException.class, () -> CookieAmount.of(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> CookieAmount.pow(0, 2));
+    assertThrows(ArithmeticException.class, () -> CookieAmount.ONE.dividedBy(CookieAmount.ZERO));
+  }
+
+  /**
+   * Verify amounts past the range of doubles stay finite and ordered.
+   */
+  @Test
+  public void testBeyondDoubles() {
+    CookieAmount huge = CookieAmount.of(1e300).times(CookieAmount.of(1e300));
+    assertEquals(600, huge.log10(), 1e-9);
+    assertEquals(Double.POSITIVE_INFINITY, huge.toDouble());
+    assertTrue(huge.compareTo(CookieAmount.of(Double.MAX_VALUE)) > 0);
+    assertTrue(huge.negate().compareTo(CookieAmount.of(-Double.MAX_VALUE)) < 0);
+    assertEquals(1e300, huge.dividedBy(CookieAmount.of(1e300)).toDouble(), 1e288);
+    assertEquals(huge, huge.plus(CookieAmount.ONE));
+    assertTrue(huge.toString().startsWith("1.0") || huge.toString().startsWith("9.99"));
+    assertTrue(huge.toString().endsWith("e600") || huge.toString().endsWith("e599"));
+
+    // 1.15^10000 is about 1e607.
+    assertEquals(10000 * Math.log10(1.15), CookieAmount.pow(1.15, 10000).log10(), 1e-6);
+  }
+
+  /**
+   * Verify the accumulator agrees with immutable arithmetic, past the range of doubles.
+   */
+  @Test
+  public void testAccumulator() {
+    CookieAccumulator accumulator = new CookieAccumulator();
+    CookieAmount expected = CookieAmount.ZERO;
+    for (int i = 0; i < 1000; i++) {
+      accumulator.addProduct(1e300, 1e10 + i);
+      expected = expected.plus(CookieAmount.of(1e300).times(1e10 + i));
+    }
+    assertEquals(expected.log10(), accumulator.toAmount().log10(), 1e-12);
+    assertEquals(Double.POSITIVE_INFINITY, accumulator.toDouble());
+
+    accumulator.subtract(expected);
+    assertTrue(Math.abs(accumulator.toAmount().log10() - expected.log10()) > 10
+            || accumulator.toAmount().signum() == 0);
+    accumulator.reset().add(5).add(-2).multiply(4);
+    assertEquals(12, accumulator.toDouble());
+    assertEquals(0, accumulator.compareTo(CookieAmount.of(12)));
+    assertThrows(IllegalArgumentException.class, () -> accumulator.add(Double.NaN));
+  }
+
+  /**
+   * Verify extended bills match double bills, and stay finite where doubles overflow.
+   */
+  @Test
+  public void testBuildingBill() {
+    CookieClicker state = new SimpleCookieClicker().adjustBank(1e6)
+            .transactBuildings(Building.CURSOR, 20);
+    for (int amount : new int[]{1, 5, 0, -3, -20}) {
+      assertEquals(state.getBuildingTransactionBill(Building.CURSOR, amount),
+              state.getBuildingTransactionBillAmount(Building.CURSOR, amount).toDouble());
+    }
+
+    CookieClicker endgame = new SimpleCookieClicker(0, Map.of(Building.CURSOR, 6000), Set.of(),
+            List.of(), 1, 0, 0, 0, 0, 1.15, 0.25);
+    assertEquals(Double.POSITIVE_INFINITY, endgame.getBuildingTransactionBill(Building.CURSOR, 1));
+    CookieAmount price = endgame.getBuildingTransactionBillAmount(Building.CURSOR, 1);
+    assertEquals(6000 * Math.log10(1.15) + Math.log10(Building.CURSOR.getUnitPrice()),
+            price.log10(), 1e-6);
+    assertTrue(endgame.getBuildingTransactionBillAmount(Building.CURSOR, -1).signum() < 0);
+
+    // Buildings that aren't owned are priced from a count of zero.
+    CookieClicker empty = new SimpleCookieClicker();
+    for (int amount : new int[]{1, 3}) {
+      double expected = Math.ceil(Building.CURSOR.getUnitPrice() * (Math.pow(1.15, amount) - 1)
+              / 0.15);
+      assertEquals(expected, empty.getBuildingTransactionBill(Building.CURSOR, amount));
+      assertEquals(expected,
+              empty.getBuildingTransactionBillAmount(Building.CURSOR, amount).toDouble());
+    }
+    assertThrows(IllegalArgumentException.class,
+            () -> empty.getBuildingTransactionBillAmount(Building.CURSOR, -1));
+  }
+
+  /**
+   * Verify the bank and cookies baked keep growing past the range of doubles, and survive the
+   * codec.
+   */
+  @Test
+  public void testExtendedBank() {
+    CookieClicker state = new SimpleCookieClicker(0, Map.of(Building.CURSOR, 1), Set.of(),
+            List.of(), 0, 1e308, 1e308, 0, 0, 1.15, 0.25).adjustBank(1e308);
+    CookieClicker warped = state.warp(1000);
+    assertEquals(Double.POSITIVE_INFINITY, warped.getCurrentBank());
+    assertEquals(308 + Math.log10(2), warped.getCurrentBankAmount().log10(), 1e-9);
+    assertEquals(308 + Math.log10(2), warped.getCookiesBakedAmount().log10(), 1e-9);
+    assertEquals(2,
+            warped.transactBuildings(Building.CURSOR, 1).getBuildingCount(Building.CURSOR));
+    assertEquals(1e308, warped.adjustBank(-1e308).getCurrentBank(), 1e295);
+
+    StateCodec codec = new StateCodec(List.of(Building.CURSOR), List.of(), List.of(), 0);
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getRecordSize());
+    codec.encode(warped, buffer, 0);
+    assertEquals(warped, codec.decode(buffer, 0));
+  }
+}
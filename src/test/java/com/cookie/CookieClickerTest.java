@@ -99,6 +99,55 @@ public interface CookieClickerTest extends SavedCookieClickerTest {
     assertEquals(nonzeroIncome.getClickingRate(), warped.getClickingRate());
   }
 
+  // WARPOFFLINE
+
+  /**
+   * Verify warpOffline's promised argument validation.
+   */
+  @Test
+  default void testWarpOfflineIllegalArguments() {
+    CookieClicker impl = getImplementation();
+    assertThrows(IllegalArgumentException.class, () -> impl.warpOffline(-1, OfflineRules.ONLINE));
+    assertThrows(NullPointerException.class, () -> impl.warpOffline(1, null));
+  }
+
+  /**
+   * Verify warpOffline itemizes earnings over a very long gap, and agrees with warp when earning as
+   * if online.
+   * <p>
+   * This depends on correct getters, measures, setClickingRate, registerBuff, and
+   * transactBuildings.
+   */
+  @Test
+  default void testWarpOffline() {
+    final long GAP = 10_000_000;
+    final BuildingType BUILDING = MockBuildingType.RATE1PRICE1;
+
+    CookieClicker impl = getImplementation();
+    CookieClicker earning = impl.adjustBank(impl.getBuildingTransactionBill(BUILDING, 1))
+            .transactBuildings(BUILDING, 1)
+            .setClickingRate(1)
+            .registerBuff(new MockClickingBuff(10, 20));
+
+    OfflineReport online = earning.warpOffline(GAP, OfflineRules.ONLINE);
+    CookieClicker warped = earning.warp(GAP);
+    assertEquals(GAP, online.getTicks());
+    assertEquals(warped.getTicks(), online.getState().getTicks());
+    assertEquals(warped.getCurrentBank(), online.getState().getCurrentBank(), DELTA);
+    assertEquals(online.getTotalCookies(),
+            online.getState().getCurrentBank() - earning.getCurrentBank(), DELTA);
+    assertEquals(GAP, online.getCookieClicks(), DELTA);
+    assertEquals(earning.getRate(BUILDING) * 10 + warped.getRate(BUILDING) * (GAP - 10),
+            online.getBuildingCookies().get(BUILDING), DELTA);
+    // The buff doubles clicking for its ten ticks.
+    assertEquals(10 * warped.getCookiesPerClick(), online.getBuffCookies(), DELTA);
+
+    OfflineReport idle = earning.warpOffline(GAP, OfflineRules.IDLE);
+    assertEquals(0, idle.getCookieClicks());
+    assertEquals(0, idle.getClickingCookies());
+    assertEquals(online.getBuildingCookies(), idle.getBuildingCookies());
+  }
+
   // BARTERBUILDINGS
 
   /**
@@ -152,6 +201,33 @@ public interface CookieClickerTest extends SavedCookieClickerTest {
             zeroPurchase.getBuildingInventory().getOrDefault(BUILDING, 0));
   }
 
+  /**
+   * Verify a building that isn't in inventory is billed as if none are owned, the same as one
+   * bought and sold back down to zero.
+   * <p>
+   * This relies on adjustBank and transactBuildings.
+   */
+  @Test
+  default void testBuildingBillUnowned() {
+    CookieClicker impl = getImplementation();
+    BuildingType building = MockBuildingType.RATE1PRICE1;
+    CookieClicker resold = impl.adjustBank(impl.getBuildingTransactionBill(building, 1))
+            .transactBuildings(building, 1)
+            .transactBuildings(building, -1);
+    assertEquals(0, resold.getBuildingInventory().getOrDefault(building, 0));
+
+    for (int amount : new int[]{1, 2, 5}) {
+      assertEquals(resold.getBuildingTransactionBill(building, amount),
+              impl.getBuildingTransactionBill(building, amount), DELTA);
+      assertEquals(resold.getBuildingTransactionBillAmount(building, amount).toDouble(),
+              impl.getBuildingTransactionBillAmount(building, amount).toDouble(), DELTA);
+    }
+    assertThrows(IllegalArgumentException.class,
+            () -> impl.getBuildingTransactionBill(building, -1));
+    assertThrows(IllegalArgumentException.class,
+            () -> impl.getBuildingTransactionBillAmount(building, -1));
+  }
+
   /**
    * Verify transactBuildings correctly behaves when purchasing and refunding buildings.
    * <p>
@@ -360,6 +436,47 @@ public interface CookieClickerTest extends SavedCookieClickerTest {
     assertEquals(CLICKING_RATE, clicking.getClickingRate());
   }
 
+  // SETCLICKINGSCHEDULE
+
+  /**
+   * Test that setClickingSchedule correctly invalidates illegal arguments.
+   */
+  @Test
+  default void testSetClickingScheduleIllegalArgument() {
+    assertThrows(NullPointerException.class, () -> getImplementation().setClickingSchedule(null));
+  }
+
+  /**
+   * Test that warping over a clicking schedule counts the clicks of the schedule, and follows its
+   * clicking rate.
+   * <p>
+   * This relies on correct getters and warp.
+   */
+  @Test
+  default void testSetClickingSchedule() {
+    final long BURST = 10;
+    final double BURST_RATE = 2;
+    final long REST = 20;
+
+    CookieClicker impl = getImplementation();
+    CookieClicker scheduled = impl.setClickingSchedule(
+            PiecewiseClickingSchedule.bursts(BURST, BURST_RATE, REST));
+    assertEquals(BURST_RATE, scheduled.getClickingRate());
+
+    // Two and a half periods, ending in a rest.
+    CookieClicker warped = scheduled.warp(2 * (BURST + REST) + BURST + 5);
+    assertEquals(3 * BURST * BURST_RATE,
+            warped.getCookieClicks() - scheduled.getCookieClicks(), DELTA);
+    assertEquals(warped.getCookieClicks() - scheduled.getCookieClicks(),
+            (warped.getHandmadeCookies() - scheduled.getHandmadeCookies())
+                    / scheduled.getCookiesPerClick(), DELTA);
+    assertEquals(0, warped.getClickingRate());
+
+    // Setting a constant rate replaces the schedule.
+    CookieClicker constant = warped.setClickingRate(1);
+    assertEquals(BURST, constant.warp(BURST).getCookieClicks() - constant.getCookieClicks(), DELTA);
+  }
+
   // GETRATE
 
   /**
@@ -0,0 +1,83 @@
+package com.cookie;
+
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the FluidModel, checked against simulating the same policy exactly.
+ */
+public class FluidModelTest {
+
+  private static final List<BuildingType> BUILDINGS = List.of(MockBuildingType.RATE8PRICE100,
+          MockBuildingType.RATE50PRICE1200);
+  private static final long DAY = 30L * 60 * 60 * 24;
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    FluidModel.Policy policy = FluidModel.Policy.bestPayback();
+    assertThrows(NullPointerException.class, () -> new FluidModel(null, policy, 1e-6));
+    assertThrows(NullPointerException.class, () -> new FluidModel(BUILDINGS, null, 1e-6));
+    assertThrows(IllegalArgumentException.class, () -> new FluidModel(List.of(), policy, 1e-6));
+    assertThrows(IllegalArgumentException.class, () -> new FluidModel(BUILDINGS, policy, 0));
+    assertThrows(IllegalArgumentException.class, () -> FluidModel.Policy.fixedShares(1, -1));
+    assertThrows(IllegalArgumentException.class, () -> FluidModel.Policy.fixedShares(0, 0));
+
+    FluidModel model = new FluidModel(BUILDINGS, policy, 1e-6);
+    assertThrows(IllegalArgumentException.class,
+            () -> model.run(new SimpleCookieClicker(), -1));
+    assertThrows(NullPointerException.class, () -> model.run(null, 1));
+  }
+
+  /**
+   * Verify the approximation stays close to buying by best payback exactly.
+   */
+  @Test
+  public void testBestPayback() {
+    FluidModel model = new FluidModel(BUILDINGS, FluidModel.Policy.bestPayback(), 1e-6);
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(0.2);
+    FluidModel.Result fluid = model.run(start, DAY);
+    FluidModel.Result exact = model.runExact(start, DAY);
+
+    assertEquals(exact.getCookiesBaked(), fluid.getCookiesBaked(),
+            0.01 * exact.getCookiesBaked());
+    assertEquals(exact.getRate(), fluid.getRate(), 0.01 * exact.getRate());
+    for (BuildingType building : BUILDINGS) {
+      assertEquals(exact.getCounts().get(building), fluid.getCounts().get(building), 2);
+    }
+    assertTrue(fluid.getSteps() < exact.getSteps());
+    assertTrue(fluid.getErrorEstimate() < 1e-6 * fluid.getCookiesBaked());
+  }
+
+  /**
+   * Verify the approximation stays close to buying by fixed shares exactly, and that the start's
+   * bank is spent before counts become continuous.
+   */
+  @Test
+  public void testFixedShares() {
+    FluidModel model = new FluidModel(BUILDINGS, FluidModel.Policy.fixedShares(1, 3), 1e-6);
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(0.2).adjustBank(1e5);
+    FluidModel.Result fluid = model.run(start, DAY);
+    FluidModel.Result exact = model.runExact(start, DAY);
+
+    assertEquals(exact.getCookiesBaked(), fluid.getCookiesBaked(),
+            0.01 * exact.getCookiesBaked());
+    for (BuildingType building : BUILDINGS) {
+      assertEquals(exact.getCounts().get(building), fluid.getCounts().get(building), 2);
+    }
+
+    FluidModel.Result spent = model.run(start, 0);
+    assertTrue(spent.getBank() < 1e5);
+    assertEquals(spent.getBank(), model.runExact(start, 0).getBank());
+    assertEquals(0, spent.getCookiesBaked());
+  }
+}
@@ -0,0 +1,48 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for Forecast, and how it warps to goals with a clicking schedule.
+ */
+public class ForecastTest {
+
+  /**
+   * Verify a game resting between clicking bursts still reaches a bank its next burst earns.
+   */
+  @Test
+  public void testWarpUntilBankDuringRest() {
+    CookieClicker resting = new SimpleCookieClicker()
+            .setClickingSchedule(PiecewiseClickingSchedule.bursts(10, 1, 90)).warp(20);
+    assertEquals(10, resting.getCurrentBank(), 1e-9);
+    assertEquals(0, Forecast.getTotalRate(resting));
+
+    CookieClicker ready = Forecast.warpUntilBank(resting, 15).orElseThrow();
+    assertEquals(105, ready.getTicks());
+    assertTrue(Forecast.warpUntilBank(new SimpleCookieClicker(), 1).isEmpty());
+  }
+
+  /**
+   * Verify the game returned is the earliest to reach the bank, even when a burst starts mid-jump.
+   */
+  @Test
+  public void testWarpUntilBankIsEarliest() {
+    CookieClicker resting = new SimpleCookieClicker(0, Map.of(Building.CURSOR, 1), Set.of(),
+            List.of(), 0, 0, 0, 0, 0, 1.15, 0.25)
+            .setClickingSchedule(PiecewiseClickingSchedule.bursts(10, 100, 90)).warp(20);
+    for (double bank : new double[]{1010, 1500, 5000}) {
+      CookieClicker ready = Forecast.warpUntilBank(resting, bank).orElseThrow();
+      assertTrue(ready.getCurrentBank() >= bank);
+      assertTrue(resting.warp(ready.getTicks() - resting.getTicks() - 1).getCurrentBank() < bank);
+    }
+  }
+}
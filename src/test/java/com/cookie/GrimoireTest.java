@@ -0,0 +1,140 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.GrimoireSpell;
+import com.cookie.mocks.MockBuildingType;
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the Grimoire, and casting spells.
+ */
+public class GrimoireTest {
+
+  private static final CookieClicker START = new SimpleCookieClicker().setClickingRate(1)
+          .adjustBank(10_000)
+          .transactBuildings(MockBuildingType.RATE8PRICE100, 5)
+          .setGrimoire(new Grimoire(0, 50));
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new Grimoire(-1, 10));
+    assertThrows(IllegalArgumentException.class, () -> new Grimoire(11, 10));
+    assertThrows(IllegalArgumentException.class,
+            () -> new Grimoire(0, Double.POSITIVE_INFINITY));
+    assertThrows(IllegalArgumentException.class, () -> new Grimoire(0, 10).warp(-1));
+    assertThrows(NullPointerException.class, () -> START.setGrimoire(null));
+    assertThrows(NullPointerException.class, () -> START.castSpell(null));
+    assertThrows(IllegalArgumentException.class,
+            () -> START.castSpell(GrimoireSpell.CONJURE_BAKED_GOODS));
+  }
+
+  /**
+   * Verify regeneration follows the square root of the mana held above the minimum, and that the
+   * ticks found to reach an amount are the fewest that do.
+   */
+  @Test
+  public void testRegeneration() {
+    Grimoire empty = new Grimoire(0, 50);
+    assertEquals(Grimoire.REGENERATION * Grimoire.MIN_FRACTION, empty.getRegenerationRate());
+    assertEquals(Grimoire.REGENERATION * 0.5, new Grimoire(25, 100).getRegenerationRate(),
+            1e-15);
+    assertEquals(0, new Grimoire(50, 50).getRegenerationRate());
+
+    // Regenerating tick by tick from a rate agrees with the closed form.
+    Grimoire half = new Grimoire(25, 100);
+    double mana = half.getMana();
+    for (int i = 0; i < 1000; i++) {
+      mana += new Grimoire(mana, 100).getRegenerationRate();
+    }
+    assertEquals(mana, half.warp(1000).getMana(), 1e-3);
+
+    for (double target : new double[]{1e-4, 1, 10, 25, 49.5, 50}) {
+      long ticks = empty.ticksUntil(target).orElseThrow();
+      assertTrue(empty.warp(ticks).getMana() >= target);
+      assertTrue(empty.warp(ticks - 1).getMana() < target);
+    }
+    assertEquals(0, empty.ticksUntil(0).orElseThrow());
+    assertTrue(empty.ticksUntil(51).isEmpty());
+    assertEquals(50, empty.warp(empty.ticksUntilFull()).getMana());
+    assertSame(Grimoire.NONE, Grimoire.NONE.warp(1000));
+  }
+
+  /**
+   * Verify mana regenerates as games warp, and forecasts land on the first tick of each event.
+   */
+  @Test
+  public void testEvents() {
+    assertEquals(START.getGrimoire().warp(1234), START.warp(1234).getGrimoire());
+    assertEquals(START.getGrimoire().warp(1234).getMana(),
+            START.warp(1000).warp(234).getGrimoire().getMana(), 1e-12);
+
+    CookieClicker full = Forecast.warpUntilManaFull(START);
+    assertEquals(START.getTicks() + START.getGrimoire().ticksUntilFull(), full.getTicks());
+    assertEquals(50, full.getGrimoire().getMana());
+
+    CookieClicker castable = Forecast.warpUntilCastable(START, GrimoireSpell.STRETCH_TIME)
+            .orElseThrow();
+    assertTrue(castable.getGrimoire().canCast(GrimoireSpell.STRETCH_TIME));
+    assertFalse(START.warp(castable.getTicks() - START.getTicks() - 1).getGrimoire()
+            .canCast(GrimoireSpell.STRETCH_TIME));
+    assertTrue(Forecast.warpUntilCastable(new SimpleCookieClicker(),
+            GrimoireSpell.STRETCH_TIME).isEmpty());
+  }
+
+  /**
+   * Verify spells spend mana, stretch buffs, and conjure cookies.
+   */
+  @Test
+  public void testCastSpell() {
+    CookieClicker full = Forecast.warpUntilManaFull(START)
+            .registerBuff(new MockClickingBuff(300, 1000));
+    double rate = Forecast.getTotalRate(full);
+
+    CookieClicker stretched = full.castSpell(GrimoireSpell.STRETCH_TIME);
+    assertEquals(50 - 18, stretched.getGrimoire().getMana(), 1e-12);
+    ProductionBuff buff = stretched.getActiveProductionBuffs().iterator().next();
+    assertEquals(400, buff.getTimeLeft());
+    assertEquals(1100, buff.getTimeTotal());
+    // The buff keeps its effect for the extra time, and expires after it.
+    assertEquals(rate, Forecast.getTotalRate(stretched.warp(399)));
+    assertTrue(stretched.warp(400).getActiveProductionBuffs().isEmpty());
+    assertEquals(1, stretched.warp(100).warp(299).getActiveProductionBuffs().iterator().next()
+            .getTimeLeft());
+
+    CookieClicker conjured = full.castSpell(GrimoireSpell.CONJURE_BAKED_GOODS);
+    assertEquals(full.getCurrentBank() * 1.15, conjured.getCurrentBank(), 1e-9);
+    assertEquals(full.getCookiesBaked() + full.getCurrentBank() * 0.15,
+            conjured.getCookiesBaked(), 1e-9);
+    assertEquals(50 - 22, conjured.getGrimoire().getMana(), 1e-12);
+    assertThrows(IllegalArgumentException.class,
+            () -> conjured.castSpell(GrimoireSpell.CONJURE_BAKED_GOODS)
+                    .castSpell(GrimoireSpell.CONJURE_BAKED_GOODS));
+  }
+
+  /**
+   * Verify the codec round trips the grimoire.
+   */
+  @Test
+  public void testCodec() {
+    StateCodec codec = new StateCodec(List.of(Building.CURSOR, MockBuildingType.RATE8PRICE100),
+            List.of(), List.of(), 0);
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getRecordSize());
+    CookieClicker state = START.warp(500);
+    codec.encode(state, buffer, 0);
+    assertEquals(state, codec.decode(buffer, 0));
+  }
+}
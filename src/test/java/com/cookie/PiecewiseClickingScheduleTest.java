@@ -0,0 +1,95 @@
+package com.cookie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for the PiecewiseClickingSchedule.
+ */
+public class PiecewiseClickingScheduleTest {
+
+  private static final double DELTA = 1e-9;
+
+  /**
+   * Verify the constructor and queries reject illegal arguments.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class,
+            () -> new PiecewiseClickingSchedule(new long[]{}, new double[]{}, true));
+    assertThrows(IllegalArgumentException.class,
+            () -> new PiecewiseClickingSchedule(new long[]{1, 2}, new double[]{1}, true));
+    assertThrows(IllegalArgumentException.class,
+            () -> new PiecewiseClickingSchedule(new long[]{0}, new double[]{1}, true));
+    assertThrows(IllegalArgumentException.class, () -> PiecewiseClickingSchedule.constant(-1));
+
+    ClickingSchedule schedule = PiecewiseClickingSchedule.constant(1);
+    assertThrows(IllegalArgumentException.class, () -> schedule.getRate(-1));
+    assertThrows(IllegalArgumentException.class, () -> schedule.getClicks(-1, 1));
+    assertThrows(IllegalArgumentException.class, () -> schedule.getClicks(1, -1));
+  }
+
+  /**
+   * Verify clicks integrated in closed form match summing the rate tick by tick.
+   */
+  @Test
+  public void testGetClicksMatchesStepping() {
+    ClickingSchedule periodic = new PiecewiseClickingSchedule(new long[]{3, 5, 2},
+            new double[]{1, 0.5, 4}, true);
+    ClickingSchedule held = new PiecewiseClickingSchedule(new long[]{3, 5, 2},
+            new double[]{1, 0.5, 4}, false);
+
+    for (ClickingSchedule schedule : new ClickingSchedule[]{periodic, held}) {
+      for (long from = 0; from < 25; from++) {
+        double stepped = 0;
+        for (long ticks = 0; ticks < 40; ticks++) {
+          assertEquals(stepped, schedule.getClicks(from, ticks), DELTA);
+          stepped += schedule.getRate(from + ticks);
+        }
+      }
+    }
+  }
+
+  /**
+   * Verify spans ending past Long.MAX_VALUE are counted without overflowing.
+   */
+  @Test
+  public void testGetClicksNearMaxTicks() {
+    ClickingSchedule constant = PiecewiseClickingSchedule.constant(2);
+    assertEquals(2.0 * Long.MAX_VALUE, constant.getClicks(1000, Long.MAX_VALUE));
+
+    ClickingSchedule periodic = PiecewiseClickingSchedule.bursts(10, 1, 90);
+    double clicks = periodic.getClicks(Long.MAX_VALUE - 5, Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE / 10.0, clicks, Long.MAX_VALUE * 1e-12);
+    assertEquals(periodic.getClicks(Long.MAX_VALUE - 5, 200) + periodic.getClicks(
+            Long.MAX_VALUE - 5 - 100, 100), periodic.getClicks(Long.MAX_VALUE - 105, 300), DELTA);
+
+    ClickingSchedule held = new PiecewiseClickingSchedule(new long[]{2, 4},
+            new double[]{3, 7}, false);
+    assertEquals(7.0 * Long.MAX_VALUE, held.getClicks(Long.MAX_VALUE, Long.MAX_VALUE));
+    assertEquals(3 + 28 + 7 * (Long.MAX_VALUE - 5.0), held.getClicks(1, Long.MAX_VALUE),
+            Long.MAX_VALUE * 1e-12);
+
+    CookieClicker game = new SimpleCookieClicker().warp(1000).setClickingSchedule(periodic)
+            .warp(Long.MAX_VALUE - 1000);
+    assertEquals(Long.MAX_VALUE, game.getTicks());
+    assertEquals(Long.MAX_VALUE / 10.0, game.getCookieClicks(), Long.MAX_VALUE * 1e-12);
+  }
+
+  /**
+   * Verify the rate past the end of the segments repeats or holds.
+   */
+  @Test
+  public void testGetRatePastSegments() {
+    ClickingSchedule periodic = PiecewiseClickingSchedule.bursts(2, 3, 4);
+    assertEquals(3, periodic.getRate(6));
+    assertEquals(0, periodic.getRate(9));
+
+    ClickingSchedule held = new PiecewiseClickingSchedule(new long[]{2, 4},
+            new double[]{3, 7}, false);
+    assertEquals(7, held.getRate(1_000_000));
+    assertEquals(6 + 28 + 7 * 10, held.getClicks(0, 16), DELTA);
+  }
+}
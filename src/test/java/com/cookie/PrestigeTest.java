@@ -0,0 +1,88 @@
+package com.cookie;
+
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for Prestige, and ascending games.
+ */
+public class PrestigeTest {
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new Prestige(-1, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new Prestige(Double.NaN, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new Prestige(0, -1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new Prestige(0, 0, -1));
+    assertThrows(IllegalArgumentException.class, () -> Prestige.NONE.ascend(-1));
+  }
+
+  /**
+   * Verify levels are the rounded down cube root of the cookies baked in trillions, exactly at
+   * every cube.
+   */
+  @Test
+  public void testLevels() {
+    assertEquals(0, Prestige.levelOf(0));
+    assertEquals(0, Prestige.levelOf(Math.nextDown(1e12)));
+    assertEquals(1, Prestige.levelOf(1e12));
+    assertEquals(1, Prestige.levelOf(Math.nextDown(8e12)));
+    assertEquals(2, Prestige.levelOf(8e12));
+    for (long level = 1; level < 100_000; level += 997) {
+      double cube = (double) level * level * level * Prestige.COOKIES_PER_LEVEL;
+      assertEquals(level, Prestige.levelOf(cube));
+      assertEquals(level - 1, Prestige.levelOf(Math.nextDown(cube)));
+    }
+  }
+
+  /**
+   * Verify ascending counts the cookies baked all-time, and earns the new levels as chips.
+   */
+  @Test
+  public void testAscend() {
+    Prestige first = Prestige.NONE.ascend(27e12);
+    assertEquals(new Prestige(27e12, 1, 3), first);
+    assertEquals(3, first.getLevel());
+    assertEquals(1.03, first.getMultiplier(), 1e-12);
+    assertEquals(1, first.getPendingChips(64e12));
+
+    // Ascending again without baking more earns nothing, but still counts.
+    assertEquals(new Prestige(27e12, 2, 3), first.ascend(27e12));
+    assertEquals(new Prestige(64e12, 2, 4), first.ascend(64e12));
+  }
+
+  /**
+   * Verify ascending a game resets it, keeping its time, statistics, and prestige, and that
+   * prestige multiplies building production.
+   */
+  @Test
+  public void testAscendGame() {
+    CookieClicker state = new SimpleCookieClicker(100, Map.of(MockBuildingType.RATE8PRICE100, 3),
+            Set.of(), List.of(), 0.5, 50, 8e12, 10, 20, 1.15, 0.25);
+    CookieClicker ascended = state.ascend();
+    assertEquals(100, ascended.getTicks());
+    assertTrue(ascended.getBuildingInventory().isEmpty());
+    assertEquals(0, ascended.getCurrentBank());
+    assertEquals(8e12, ascended.getCookiesBaked());
+    assertEquals(0.5, ascended.getClickingRate());
+    assertEquals(new Prestige(8e12, 1, 2), ascended.getPrestige());
+
+    CookieClicker rebuilt = ascended.adjustBank(1e6)
+            .transactBuildings(MockBuildingType.RATE8PRICE100, 3);
+    assertEquals(state.getRate(MockBuildingType.RATE8PRICE100) * 1.02,
+            rebuilt.getRate(MockBuildingType.RATE8PRICE100), 1e-9);
+    assertEquals(ascended.getPrestige(), rebuilt.warp(10).getPrestige());
+  }
+}
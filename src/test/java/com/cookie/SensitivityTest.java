@@ -0,0 +1,133 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for Sensitivity, checked against finite differences of real games.
+ */
+public class SensitivityTest {
+
+  private static final List<BuildingType> BUILDINGS = List.of(Building.CURSOR, Building.GRANDMA);
+  private static final List<ProductionUpgrade> UPGRADES = List.of(
+          CursorUpgrade.REINFORCED_INDEX_FINGER, CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM);
+  private static final long HORIZON = 200;
+
+  private static CookieClicker base(double clickingRate, int cursors, boolean upgraded) {
+    CookieClicker state = new SimpleCookieClicker().setClickingRate(clickingRate)
+            .adjustBank(1e6)
+            .transactBuildings(Building.CURSOR, cursors);
+    if (upgraded) {
+      state = state.buyUpgrade(CursorUpgrade.REINFORCED_INDEX_FINGER);
+    }
+    return state.registerBuff(new MockClickingBuff(50, 100));
+  }
+
+  private static double produced(CookieClicker state) {
+    return state.warp(HORIZON).getCurrentBank() - state.getCurrentBank();
+  }
+
+  private static CookieClicker infest(CookieClicker state) {
+    return state.spawnWrinkler().spawnWrinkler().spawnWrinkler().spawnWrinkler();
+  }
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    CookieClicker state = new SimpleCookieClicker();
+    assertThrows(NullPointerException.class, () -> Sensitivity.of(null, BUILDINGS, UPGRADES, 1));
+    assertThrows(IllegalArgumentException.class,
+            () -> Sensitivity.of(state, BUILDINGS, UPGRADES, -1));
+  }
+
+  /**
+   * Verify rate derivatives match the change in total rate of changing each input.
+   */
+  @Test
+  public void testRateDerivatives() {
+    CookieClicker state = base(2, 3, true);
+    Sensitivity sensitivity = Sensitivity.of(state, BUILDINGS, UPGRADES, HORIZON);
+    double rate = Forecast.getTotalRate(state);
+    assertEquals(rate, sensitivity.getTotalRate(), 1e-12);
+
+    assertEquals(Forecast.getTotalRate(base(2, 4, true)) - rate,
+            sensitivity.getRateDerivatives().get(Building.CURSOR), 1e-12);
+    assertEquals(rate - Forecast.getTotalRate(base(2, 3, false)),
+            sensitivity.getRateDerivatives().get(CursorUpgrade.REINFORCED_INDEX_FINGER), 1e-12);
+    assertEquals(Forecast.getTotalRate(state.buyUpgrade(
+            CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM)) - rate,
+            sensitivity.getRateDerivatives().get(CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM),
+            1e-12);
+    assertEquals(Forecast.getTotalRate(base(3, 3, true)) - rate,
+            sensitivity.getRateDerivatives().get(Sensitivity.Parameter.CLICKING_RATE), 1e-12);
+  }
+
+  /**
+   * Verify bank derivatives account for the buff expiring within the horizon.
+   */
+  @Test
+  public void testBankDerivatives() {
+    CookieClicker state = base(2, 3, true);
+    Sensitivity sensitivity = Sensitivity.of(state, BUILDINGS, UPGRADES, HORIZON);
+    assertEquals(state.warp(HORIZON).getCurrentBank(), sensitivity.getBankAtHorizon(), 1e-6);
+
+    double produced = produced(state);
+    assertEquals(produced(base(3, 3, true)) - produced,
+            sensitivity.getBankDerivatives().get(Sensitivity.Parameter.CLICKING_RATE), 1e-6);
+    assertEquals(produced(base(2, 4, true)) - produced,
+            sensitivity.getBankDerivatives().get(Building.CURSOR), 1e-6);
+    assertEquals(produced - produced(base(2, 3, false)),
+            sensitivity.getBankDerivatives().get(CursorUpgrade.REINFORCED_INDEX_FINGER), 1e-6);
+
+    // More clicking reaches the same bank sooner, with no buff left to speed up the last tick.
+    double ticks = sensitivity.getTicksDerivatives().get(Sensitivity.Parameter.CLICKING_RATE);
+    assertTrue(ticks < 0);
+    assertEquals(-sensitivity.getBankDerivatives().get(Sensitivity.Parameter.CLICKING_RATE)
+            / Forecast.getTotalRate(state.warp(HORIZON)), ticks, 1e-12);
+  }
+
+  /**
+   * Verify rate and bank derivatives count only the production wrinklers leave to the bank.
+   */
+  @Test
+  public void testWrinklers() {
+    CookieClicker state = infest(base(2, 3, true));
+    Sensitivity sensitivity = Sensitivity.of(state, BUILDINGS, UPGRADES, HORIZON);
+    double rate = Forecast.getTotalRate(state);
+    double produced = produced(state);
+    assertEquals(rate, sensitivity.getTotalRate(), 1e-12);
+    assertEquals(state.warp(HORIZON).getCurrentBank(), sensitivity.getBankAtHorizon(), 1e-6);
+
+    assertEquals(Forecast.getTotalRate(infest(base(2, 4, true))) - rate,
+            sensitivity.getRateDerivatives().get(Building.CURSOR), 1e-12);
+    assertEquals(rate - Forecast.getTotalRate(infest(base(2, 3, false))),
+            sensitivity.getRateDerivatives().get(CursorUpgrade.REINFORCED_INDEX_FINGER), 1e-12);
+    assertEquals(produced(infest(base(2, 4, true))) - produced,
+            sensitivity.getBankDerivatives().get(Building.CURSOR), 1e-6);
+    assertEquals(produced - produced(infest(base(2, 3, false))),
+            sensitivity.getBankDerivatives().get(CursorUpgrade.REINFORCED_INDEX_FINGER), 1e-6);
+  }
+
+  /**
+   * Verify price derivatives follow the price growth formula.
+   */
+  @Test
+  public void testPriceDerivatives() {
+    Sensitivity sensitivity = Sensitivity.of(base(2, 3, true), BUILDINGS, UPGRADES, 0);
+    assertEquals(0, sensitivity.getPriceDerivatives().get(Building.GRANDMA));
+    assertEquals(3 * Building.CURSOR.getUnitPrice() * 1.15 * 1.15,
+            sensitivity.getPriceDerivatives().get(Building.CURSOR), 1e-9);
+    assertEquals(0, sensitivity.getBankDerivatives().get(Building.CURSOR));
+  }
+}
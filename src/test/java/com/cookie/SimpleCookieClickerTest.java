@@ -1,5 +1,28 @@
 package com.cookie;
 
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.ClickingUpgrade;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.assets20291M.KittenUpgrade;
+import com.cookie.assets20291M.MilkAchievement;
+import com.cookie.mocks.MockBuildingType;
+import com.cookie.mocks.MockClickingBuff;
+import com.cookie.mocks.MockProductionUpgrade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
  * A test suite of mixins and custom tests for a SimpleCookieClicker.
  */
@@ -8,4 +31,207 @@ public class SimpleCookieClickerTest implements CookieClickerTest {
   public CookieClicker getImplementation() {
     return new SimpleCookieClicker();
   }
+
+  /**
+   * Verify that states reached through different purchase orders are equal and hash the same.
+   */
+  @Test
+  public void testEqualsIgnoresPurchaseOrder() {
+    CookieClicker funded = getImplementation().adjustBank(1000);
+    CookieClicker upgradeFirst = funded.buyUpgrade(MockProductionUpgrade.DUD)
+            .transactBuildings(MockBuildingType.RATE1PRICE1, 1)
+            .buyUpgrade(MockProductionUpgrade.MUST_OWN_1RATE1PRICE1);
+    CookieClicker buildingFirst = funded.transactBuildings(MockBuildingType.RATE1PRICE1, 1)
+            .buyUpgrade(MockProductionUpgrade.MUST_OWN_1RATE1PRICE1)
+            .buyUpgrade(MockProductionUpgrade.DUD);
+
+    assertEquals(upgradeFirst, buildingFirst);
+    assertEquals(upgradeFirst.hashCode(), buildingFirst.hashCode());
+    assertEquals(((SimpleCookieClicker) upgradeFirst).getStateHash(),
+            ((SimpleCookieClicker) buildingFirst).getStateHash());
+  }
+
+  /**
+   * Verify that the incrementally maintained hash matches a hash computed from scratch, and that
+   * zero counts in an inventory don't matter.
+   */
+  @Test
+  public void testIncrementalHashMatchesConstructed() {
+    SimpleCookieClicker bought = (SimpleCookieClicker) getImplementation().adjustBank(10)
+            .transactBuildings(MockBuildingType.RATE1PRICE1, 2)
+            .transactBuildings(MockBuildingType.RATE1PRICE1, -1);
+    SimpleCookieClicker constructed = new SimpleCookieClicker(bought.getTicks(),
+            Map.of(MockBuildingType.RATE1PRICE1, 1),
+            Collections.emptySet(),
+            Collections.emptyList(),
+            bought.getClickingRate(),
+            bought.getCurrentBank(),
+            bought.getCookiesBaked(), bought.getHandmadeCookies(), bought.getCookieClicks(),
+            bought.getPriceGrowthFactor(), bought.getRefundFactor());
+    assertEquals(constructed.getStateHash(), bought.getStateHash());
+    assertEquals(constructed, bought);
+
+    SimpleCookieClicker sold = (SimpleCookieClicker) bought
+            .transactBuildings(MockBuildingType.RATE1PRICE1, -1);
+    SimpleCookieClicker empty = new SimpleCookieClicker(sold.getTicks(),
+            Collections.emptyMap(),
+            Set.of(),
+            List.of(),
+            sold.getClickingRate(),
+            sold.getCurrentBank(),
+            sold.getCookiesBaked(), sold.getHandmadeCookies(), sold.getCookieClicks(),
+            sold.getPriceGrowthFactor(), sold.getRefundFactor());
+    assertEquals(empty.getStateHash(), sold.getStateHash());
+    assertEquals(empty, sold);
+  }
+
+  /**
+   * Verify that states differing in a single value are not equal.
+   */
+  @Test
+  public void testEqualsDistinguishesStates() {
+    CookieClicker impl = getImplementation();
+    assertNotEquals(impl, impl.adjustBank(1));
+    assertNotEquals(impl, impl.warp(1));
+    assertNotEquals(impl, impl.setClickingRate(1));
+    assertNotEquals(impl.adjustBank(1), impl.adjustBank(1).buyUpgrade(MockProductionUpgrade.DUD)
+            .adjustBank(1));
+  }
+
+  /**
+   * Verify attribution shares add up to the rates, and marginals match rebuilding the state.
+   */
+  @Test
+  public void testAttribution() {
+    Map<BuildingType, Integer> inventory = Map.of(Building.CURSOR, 4, Building.GRANDMA, 2);
+    Set<ProductionUpgrade> upgrades = Set.of(CursorUpgrade.REINFORCED_INDEX_FINGER,
+            CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM, ClickingUpgrade.THOUSAND_FINGERS);
+    ProductionBuff buff = new MockClickingBuff(5, 10);
+    SimpleCookieClicker state = new SimpleCookieClicker(0, inventory, upgrades, List.of(buff),
+            0, 0, 0, 0, 0, 1.15, 0.25);
+    Attribution attribution = state.getAttribution();
+    // Contributions are built once, on the first request.
+    assertSame(attribution, state.getAttribution());
+
+    for (BuildingType building : inventory.keySet()) {
+      double shares = attribution.getBaseRate(building);
+      for (Attribution.Contribution contribution : attribution.getContributions(building)) {
+        shares += contribution.getShare();
+      }
+      assertEquals(state.buildingRates.get(building), shares, 1e-12);
+      assertEquals(state.buildingRates.get(building), attribution.getBuildingRate(building));
+    }
+    double clickShares = 1;
+    for (Attribution.Contribution contribution : attribution.getClickingContributions()) {
+      clickShares += contribution.getShare();
+    }
+    assertEquals(state.getCookiesPerClick(), clickShares, 1e-12);
+    assertTrue(attribution.getClickingContributions().stream().anyMatch(contribution ->
+            contribution.getSource() == buff
+                    && contribution.getSourceKind() == Attribution.SourceKind.BUFF));
+
+    // Both doubling upgrades contribute equally to cursors, and removing one halves the product.
+    SimpleCookieClicker without = new SimpleCookieClicker(0, inventory,
+            Set.of(CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM, ClickingUpgrade.THOUSAND_FINGERS),
+            List.of(buff), 0, 0, 0, 0, 0, 1.15, 0.25);
+    Map<Object, Double> bySource = attribution.getBuildingSharesBySource();
+    assertEquals(bySource.get(CursorUpgrade.REINFORCED_INDEX_FINGER),
+            bySource.get(CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM), 1e-12);
+    for (Attribution.Contribution contribution : attribution.getContributions(Building.CURSOR)) {
+      if (contribution.getSource() == CursorUpgrade.REINFORCED_INDEX_FINGER) {
+        assertEquals(state.buildingRates.get(Building.CURSOR)
+                - without.buildingRates.get(Building.CURSOR), contribution.getMarginal(), 1e-12);
+      }
+    }
+  }
+
+  /**
+   * Verify achievements are earned on the exact tick a warp crosses their threshold.
+   */
+  @Test
+  public void testAchievementCrossingTicks() {
+    SimpleCookieClicker state = new SimpleCookieClicker(0, Map.of(), Set.of(), List.of(),
+            1, 0, 0, 0, 0, 1.15, 0.25, AchievementTracker.of(Assets.achievements()));
+    SimpleCookieClicker warped = (SimpleCookieClicker) state.warp(2000);
+    Map<Achievement, Long> earned = warped.getAchievementTracker().getEarnedTicks();
+    assertEquals(Map.of(MilkAchievement.WAKE_AND_BAKE, 1L,
+            MilkAchievement.MAKING_SOME_DOUGH, 1000L,
+            MilkAchievement.CLICKTASTIC, 1000L), earned);
+    assertEquals(3 * AchievementTracker.MILK_PER_ACHIEVEMENT, warped.getMilk(), 1e-12);
+    assertEquals(2000, warped.getCurrentBank(), 1e-9);
+    assertNotEquals(warped, new SimpleCookieClicker().setClickingRate(1).warp(2000));
+  }
+
+  /**
+   * Verify milk from achievements scales production through kitten upgrades.
+   */
+  @Test
+  public void testMilkMultiplier() {
+    SimpleCookieClicker state = new SimpleCookieClicker(0, Map.of(Building.CURSOR, 30),
+            Set.of(KittenUpgrade.KITTEN_HELPERS), List.of(),
+            0, 0, 0, 0, 0, 1.15, 0.25, AchievementTracker.of(Assets.achievements()));
+    assertEquals(0, state.getMilk());
+    double unbuffedRate = state.getRate(Building.CURSOR);
+
+    // Thirty cursors bake the first cookie after ten ticks, earning milk mid-warp.
+    SimpleCookieClicker warped = (SimpleCookieClicker) state.warp(20);
+    assertEquals(10L, warped.getAchievementTracker().getEarnedTicks()
+            .get(MilkAchievement.WAKE_AND_BAKE));
+    double milkRate = unbuffedRate * (1 + 0.1 * AchievementTracker.MILK_PER_ACHIEVEMENT);
+    assertEquals(milkRate, warped.getRate(Building.CURSOR), 1e-12);
+    assertEquals(10 * unbuffedRate + 10 * milkRate, warped.getCookiesBaked(), 1e-9);
+
+    // Transactions only check the counters they change.
+    Achievement thirtyTwoBuildings = new Achievement() {
+      @Override
+      public AchievementCounter getCounter() {
+        return AchievementCounter.BUILDINGS_OWNED;
+      }
+
+      @Override
+      public double getThreshold() {
+        return 32;
+      }
+    };
+    SimpleCookieClicker tracked = new SimpleCookieClicker(5, Map.of(Building.CURSOR, 30),
+            Set.of(), List.of(), 0, 1e6, 0, 0, 0, 1.15, 0.25,
+            AchievementTracker.of(List.of(thirtyTwoBuildings)));
+    CookieClicker bought = tracked.transactBuildings(Building.CURSOR, 1);
+    assertTrue(bought.getAchievements().isEmpty());
+    assertEquals(Set.of(thirtyTwoBuildings),
+            bought.transactBuildings(Building.CURSOR, 1).getAchievements());
+
+    // Trackers with nothing earned yet are only equal if they can earn the same achievements.
+    assertEquals(AchievementTracker.of(List.of(thirtyTwoBuildings)),
+            tracked.getAchievementTracker());
+    assertEquals(AchievementTracker.of(List.of(thirtyTwoBuildings)).hashCode(),
+            tracked.getAchievementTracker().hashCode());
+    assertNotEquals(AchievementTracker.NONE, tracked.getAchievementTracker());
+    assertNotEquals(new SimpleCookieClicker(5, Map.of(Building.CURSOR, 30), Set.of(), List.of(),
+            0, 1e6, 0, 0, 0, 1.15, 0.25), tracked);
+  }
+
+  /**
+   * Verify the kitten upgrade can be bought once enough milk is earned, and multiplies production
+   * by the milk.
+   */
+  @Test
+  public void testKittenUpgradeIsReachable() {
+    CookieClicker rich = new SimpleCookieClicker(0, Map.of(Building.CURSOR, 10), Set.of(),
+            List.of(), 0, 0, 0, 0, 0, 1.15, 0.25, AchievementTracker.of(Assets.achievements()))
+            .adjustBank(1e7);
+    // Baking ten million cookies earns the four cookies baked achievements, one short.
+    assertEquals(4 * AchievementTracker.MILK_PER_ACHIEVEMENT, rich.getMilk(), 1e-12);
+    assertThrows(IllegalArgumentException.class,
+            () -> rich.buyUpgrade(KittenUpgrade.KITTEN_HELPERS));
+
+    CookieClicker clicked = rich.setClickingRate(1).warp(1000);
+    assertTrue(clicked.getAchievements().contains(MilkAchievement.CLICKTASTIC));
+    double milk = clicked.getMilk();
+    assertEquals(5 * AchievementTracker.MILK_PER_ACHIEVEMENT, milk, 1e-12);
+    CookieClicker bought = clicked.buyUpgrade(KittenUpgrade.KITTEN_HELPERS);
+    assertTrue(bought.getProductionUpgrades().contains(KittenUpgrade.KITTEN_HELPERS));
+    assertEquals(clicked.getRate(Building.CURSOR) * (1 + 0.1 * milk),
+            bought.getRate(Building.CURSOR), 1e-9);
+  }
 }
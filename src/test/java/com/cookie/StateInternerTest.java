@@ -0,0 +1,77 @@
+package com.cookie;
+
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for the StateInterner.
+ */
+public class StateInternerTest {
+
+  /**
+   * Verify the constructor and intern reject illegal arguments.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new StateInterner<CookieClicker>(0));
+    StateInterner<CookieClicker> interner = new StateInterner<>(1);
+    assertThrows(NullPointerException.class, () -> interner.intern(null));
+  }
+
+  /**
+   * Verify that equal states intern to the first instance seen.
+   */
+  @Test
+  public void testInternDeduplicates() {
+    StateInterner<CookieClicker> interner = new StateInterner<>(16);
+    CookieClicker first = new SimpleCookieClicker().adjustBank(5);
+    CookieClicker second = new SimpleCookieClicker().adjustBank(5);
+
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+    assertEquals(1, interner.getHits());
+    assertEquals(1, interner.getMisses());
+    assertEquals(1, interner.size());
+  }
+
+  /**
+   * Verify that the interner never holds more states than its capacity.
+   */
+  @Test
+  public void testInternBounded() {
+    StateInterner<CookieClicker> interner = new StateInterner<>(2);
+    CookieClicker first = new SimpleCookieClicker().adjustBank(1);
+    interner.intern(first);
+    interner.intern(new SimpleCookieClicker().adjustBank(2));
+    interner.intern(new SimpleCookieClicker().adjustBank(3));
+    assertEquals(2, interner.size());
+
+    // The first state was evicted, so an equal state becomes canonical again.
+    CookieClicker equalToFirst = new SimpleCookieClicker().adjustBank(1);
+    assertSame(equalToFirst, interner.intern(equalToFirst));
+  }
+
+  /**
+   * Verify that equal buffed states reached by separate warps hash the same, and deduplicate.
+   */
+  @Test
+  public void testInternBuffedStates() {
+    StateInterner<CookieClicker> interner = new StateInterner<>(16);
+    CookieClicker buffed = new SimpleCookieClicker().setClickingRate(1)
+            .registerBuff(new MockClickingBuff(50, 100));
+    CookieClicker first = buffed.warp(10);
+    CookieClicker second = buffed.warp(4).warp(6);
+
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+    assertNotEquals(first, buffed.warp(11));
+  }
+}
@@ -0,0 +1,93 @@
+package com.cookie;
+
+import com.cookie.assets20291M.Building;
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for SugarLumps, and building levels.
+ */
+public class SugarLumpsTest {
+
+  private static final long RIPE = SugarLumps.RIPENING_TICKS;
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SugarLumps(-1, 0, Map.of()));
+    assertThrows(IllegalArgumentException.class, () -> new SugarLumps(0, RIPE, Map.of()));
+    assertThrows(IllegalArgumentException.class,
+            () -> new SugarLumps(0, 0, Map.of(Building.CURSOR, -1)));
+    assertThrows(NullPointerException.class, () -> new SugarLumps(0, 0, null));
+    assertThrows(IllegalArgumentException.class, () -> SugarLumps.NONE.warp(-1));
+    assertThrows(IllegalArgumentException.class,
+            () -> SugarLumps.NONE.levelUp(Building.CURSOR));
+    CookieClicker state = new SimpleCookieClicker();
+    assertThrows(NullPointerException.class, () -> state.levelUpBuilding(null));
+    assertThrows(IllegalArgumentException.class, () -> state.levelUpBuilding(Building.CURSOR));
+  }
+
+  /**
+   * Verify lumps ripen on a fixed timer as games warp, and forecasts land on the ripening tick.
+   */
+  @Test
+  public void testRipening() {
+    SugarLumps grown = SugarLumps.NONE.warp(RIPE - 1);
+    assertEquals(0, grown.getLumps());
+    assertEquals(1, grown.ticksUntilRipe());
+    assertEquals(new SugarLumps(1, 0, Map.of()), grown.warp(1));
+    assertEquals(new SugarLumps(3, 5, Map.of()), grown.warp(2 * RIPE + 6));
+    // Growth plus the ticks would overflow if added first.
+    assertEquals(Long.MAX_VALUE / RIPE + 1, grown.warp(Long.MAX_VALUE).getLumps());
+
+    CookieClicker state = new SimpleCookieClicker().warp(1000);
+    assertEquals(SugarLumps.NONE.warp(1000), state.getSugarLumps());
+    CookieClicker ripe = Forecast.warpUntilLumps(state, 3);
+    assertEquals(3 * RIPE, ripe.getTicks());
+    assertEquals(3, ripe.getSugarLumps().getLumps());
+    CookieClicker almost = ripe.warp(RIPE / 2).warp(RIPE - RIPE / 2 - 1);
+    assertEquals(3, almost.getSugarLumps().getLumps());
+    assertEquals(4, almost.warp(1).getSugarLumps().getLumps());
+  }
+
+  /**
+   * Verify levels cost one lump more each, and raise the base rate of their building type.
+   */
+  @Test
+  public void testLevels() {
+    CookieClicker state = new SimpleCookieClicker().adjustBank(1000)
+            .transactBuildings(MockBuildingType.RATE8PRICE100, 2)
+            .setSugarLumps(new SugarLumps(3, 0, Map.of()));
+    double rate = state.getRate(MockBuildingType.RATE8PRICE100);
+
+    CookieClicker leveled = state.levelUpBuilding(MockBuildingType.RATE8PRICE100)
+            .levelUpBuilding(MockBuildingType.RATE8PRICE100);
+    assertEquals(0, leveled.getSugarLumps().getLumps());
+    assertEquals(2, leveled.getSugarLumps().getLevel(MockBuildingType.RATE8PRICE100));
+    assertEquals(rate * 1.02, leveled.getRate(MockBuildingType.RATE8PRICE100), 1e-12);
+    assertEquals(leveled.getRate(MockBuildingType.RATE8PRICE100),
+            ((SimpleCookieClicker) leveled).getAttribution()
+                    .getBaseRate(MockBuildingType.RATE8PRICE100), 1e-12);
+    assertThrows(IllegalArgumentException.class,
+            () -> leveled.levelUpBuilding(MockBuildingType.RATE8PRICE100));
+
+    // Levels carry over ascensions, and round trip the codec.
+    assertEquals(leveled.getSugarLumps(), leveled.ascend().getSugarLumps());
+    StateCodec codec = new StateCodec(List.of(Building.CURSOR, MockBuildingType.RATE8PRICE100),
+            List.of(), List.of(), 0);
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getRecordSize());
+    CookieClicker warped = leveled.warp(RIPE + 7);
+    codec.encode(warped, buffer, 0);
+    assertEquals(warped, codec.decode(buffer, 0));
+  }
+}
@@ -0,0 +1,114 @@
+package com.cookie;
+
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.cookie.ProductionEffect.TERM.CONSTANT;
+import static com.cookie.ProductionEffect.TERM.MULTIPLIER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for SynergyEffect, and the building totals it reads.
+ */
+public class SynergyEffectTest {
+
+  private static final MockBuildingType SMALL = MockBuildingType.RATE1PRICE1;
+  private static final MockBuildingType MEDIUM = MockBuildingType.RATE8PRICE100;
+  private static final MockBuildingType LARGE = MockBuildingType.RATE50PRICE1200;
+
+  private static final List<SynergyEffect> SYNERGIES = List.of(
+          new SynergyEffect(MEDIUM, SMALL, 0.05, MULTIPLIER),
+          new SynergyEffect(SMALL, MEDIUM, 0.001, MULTIPLIER),
+          new SynergyEffect(MEDIUM, LARGE, 0.02, MULTIPLIER),
+          new SynergyEffect(SMALL, null, 0.1, CONSTANT),
+          new SynergyEffect(LARGE, null, 0.5, CONSTANT));
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class,
+            () -> new SynergyEffect(null, SMALL, 1, MULTIPLIER));
+    assertThrows(NullPointerException.class, () -> new SynergyEffect(SMALL, MEDIUM, 1, null));
+    assertThrows(IllegalArgumentException.class,
+            () -> new SynergyEffect(SMALL, SMALL, 1, MULTIPLIER));
+    assertThrows(IllegalArgumentException.class,
+            () -> new SynergyEffect(SMALL, MEDIUM, Double.NaN, MULTIPLIER));
+    assertThrows(NullPointerException.class, () -> SYNERGIES.get(0).getNumber(null));
+  }
+
+  /**
+   * Verify transactions keep the running total of buildings owned equal to the inventory's sum.
+   */
+  @Test
+  public void testBuildingsOwned() {
+    CookieClicker state = new SimpleCookieClicker(0, Map.of(SMALL, 4), Set.of(), List.of(), 0,
+            1e9, 1e9, 0, 0, 1.15, 0.25);
+    assertEquals(4, state.getBuildingsOwned());
+    state = state.transactBuildings(MEDIUM, 3).transactBuildings(LARGE, 2)
+            .transactBuildings(SMALL, -1);
+    assertEquals(8, state.getBuildingsOwned());
+    assertEquals(3, state.getBuildingCount(SMALL));
+    assertEquals(0, new SimpleCookieClicker().getBuildingCount(MEDIUM));
+
+    long sum = 0;
+    for (int count : state.getBuildingInventory().values()) {
+      sum += count;
+    }
+    assertEquals(sum, state.getBuildingsOwned());
+    assertEquals(0, state.ascend().getBuildingsOwned());
+  }
+
+  /**
+   * Verify synergies count their source buildings, or every building of another type.
+   */
+  @Test
+  public void testNumbers() {
+    CookieClicker state = new SimpleCookieClicker(0, Map.of(SMALL, 10, MEDIUM, 4, LARGE, 2),
+            Set.of(), List.of(), 0, 0, 0, 0, 0, 1.15, 0.25);
+    assertEquals(1.5, SYNERGIES.get(0).getNumber(state), 1e-12);
+    assertEquals(1.004, SYNERGIES.get(1).getNumber(state), 1e-12);
+    assertEquals(1.04, SYNERGIES.get(2).getNumber(state), 1e-12);
+    assertEquals(0.1 * 6, SYNERGIES.get(3).getNumber(state), 1e-12);
+    assertEquals(0.5 * 14, SYNERGIES.get(4).getNumber(state), 1e-12);
+    assertEquals(1, SYNERGIES.get(0).getNumber(new SimpleCookieClicker()));
+  }
+
+  /**
+   * Verify synergies bought as an upgrade change production as they grow.
+   */
+  @Test
+  public void testSynergyUpgrade() {
+    ProductionUpgrade upgrade = new ProductionUpgrade() {
+      @Override
+      public boolean isPurchasable(CookieClicker stats) {
+        return true;
+      }
+
+      @Override
+      public Collection<ProductionEffect> getEffects() {
+        return new ArrayList<>(SYNERGIES);
+      }
+
+      @Override
+      public double price() {
+        return 1;
+      }
+    };
+    CookieClicker plain = new SimpleCookieClicker(0, Map.of(SMALL, 10, MEDIUM, 4), Set.of(),
+            List.of(), 0, 0, 0, 0, 0, 1.15, 0.25);
+    CookieClicker boosted = new SimpleCookieClicker(0, Map.of(SMALL, 10, MEDIUM, 4),
+            Set.of(upgrade), List.of(), 0, 0, 0, 0, 0, 1.15, 0.25);
+    assertEquals(plain.getRate(MEDIUM) * 1.5, boosted.getRate(MEDIUM), 1e-9);
+    assertEquals(plain.getRate(SMALL) * 1.004 + 10 * 0.1 * 4, boosted.getRate(SMALL), 1e-9);
+  }
+}
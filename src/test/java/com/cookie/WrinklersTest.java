@@ -0,0 +1,105 @@
+package com.cookie;
+
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for Wrinklers, and how they wither production.
+ */
+public class WrinklersTest {
+
+  private static final MockBuildingType BUILDING = MockBuildingType.RATE8PRICE100;
+
+  private static CookieClicker start() {
+    return new SimpleCookieClicker(0, Map.of(BUILDING, 10), Set.of(), List.of(), 0,
+            0, 0, 0, 0, 1.15, 0.25);
+  }
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new Wrinklers(-1, 0));
+    assertThrows(IllegalArgumentException.class,
+            () -> new Wrinklers(Wrinklers.MAX_WRINKLERS + 1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new Wrinklers(0, -1));
+    assertThrows(IllegalArgumentException.class, () -> new Wrinklers(0, Double.NaN));
+    assertThrows(IllegalArgumentException.class,
+            () -> new Wrinklers(Wrinklers.MAX_WRINKLERS, 0).spawn());
+    assertThrows(IllegalArgumentException.class, () -> Wrinklers.NONE.getPayoutAfter(-1, 0));
+    assertThrows(NullPointerException.class, () -> start().setWrinklers(null));
+  }
+
+  /**
+   * Verify attached wrinklers wither their share of building production, and digest it, however
+   * the warp is split.
+   */
+  @Test
+  public void testWarpWithers() {
+    CookieClicker state = start();
+    double rate = state.getRate(BUILDING);
+    CookieClicker infested = state.spawnWrinkler().spawnWrinkler();
+    assertEquals(2, infested.getWrinklers().getAttached());
+    assertEquals(rate * 0.9, Forecast.getTotalRate(infested), 1e-9);
+
+    CookieClicker warped = infested.warp(100);
+    assertEquals(rate * 100 * 0.9, warped.getCurrentBank(), 1e-9);
+    assertEquals(rate * 100 * 0.9, warped.getCookiesBaked(), 1e-9);
+    assertEquals(rate * 100 * 0.1, warped.getWrinklers().getDigested(), 1e-9);
+    assertEquals(warped.getWrinklers().getDigested(),
+            infested.warp(40).warp(60).getWrinklers().getDigested(), 1e-9);
+    assertEquals(Wrinklers.NONE, state.warp(100).getWrinklers());
+  }
+
+  /**
+   * Verify payouts projected without warping match what warping digests.
+   */
+  @Test
+  public void testProjection() {
+    CookieClicker infested = start().spawnWrinkler().spawnWrinkler().spawnWrinkler().warp(30);
+    LongToDoubleFunction payout = Forecast.projectWrinklerPayout(infested);
+    assertEquals(infested.getWrinklers().getPayout(), payout.applyAsDouble(0), 1e-9);
+    for (long ticks : new long[]{1, 17, 1000, 1_000_000}) {
+      assertEquals(infested.warp(ticks).getWrinklers().getPayout(), payout.applyAsDouble(ticks),
+              1e-6);
+    }
+  }
+
+  /**
+   * Verify popping pays out the digested cookies multiplied, and ascending loses them.
+   */
+  @Test
+  public void testPop() {
+    CookieClicker warped = start().spawnWrinkler().warp(200);
+    double payout = warped.getWrinklers().getDigested() * Wrinklers.POP_MULTIPLIER;
+    CookieClicker popped = warped.popWrinklers();
+    assertEquals(Wrinklers.NONE, popped.getWrinklers());
+    assertEquals(warped.getCurrentBank() + payout, popped.getCurrentBank(), 1e-9);
+    assertEquals(warped.getCookiesBaked() + payout, popped.getCookiesBaked(), 1e-9);
+    assertEquals(Wrinklers.NONE, warped.ascend().getWrinklers());
+    assertEquals(start(), start().popWrinklers());
+  }
+
+  /**
+   * Verify wrinklers survive a round trip through the codec.
+   */
+  @Test
+  public void testCodec() {
+    StateCodec codec = new StateCodec(List.of(BUILDING), List.of(), List.of(), 0);
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getRecordSize());
+    CookieClicker warped = start().spawnWrinkler().warp(77);
+    codec.encode(warped, buffer, 0);
+    assertEquals(warped, codec.decode(buffer, 0));
+  }
+}
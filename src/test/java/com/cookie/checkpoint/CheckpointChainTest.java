@@ -0,0 +1,130 @@
+package com.cookie.checkpoint;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.StateCodec;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the CheckpointChain.
+ */
+public class CheckpointChainTest {
+
+  private static final StateCodec CODEC = new StateCodec(Assets.buildings(), Assets.upgrades(),
+          List.of(new MockClickingBuff(10, 10)), 2);
+
+  private static List<CookieClicker> history(int length) {
+    List<CookieClicker> states = new ArrayList<>();
+    CookieClicker state = new SimpleCookieClicker().setClickingRate(1);
+    for (int i = 0; i < length; i++) {
+      if (i % 7 == 3 && state.getActiveProductionBuffs().isEmpty()) {
+        state = state.registerBuff(new MockClickingBuff(10, 10));
+      } else if (i == 40) {
+        state = state.adjustBank(1e6).buyUpgrade(CursorUpgrade.REINFORCED_INDEX_FINGER);
+      } else if (state.getCurrentBank() >= state.getBuildingTransactionBill(Building.CURSOR, 1)) {
+        state = state.transactBuildings(Building.CURSOR, 1);
+      } else {
+        state = state.warp(5);
+      }
+      states.add(state);
+    }
+    return states;
+  }
+
+  /**
+   * Assert two states encode to the same record, since the mock buffs aren't compared by equals.
+   */
+  private static void assertSameRecord(CookieClicker expected, CookieClicker actual) {
+    ByteBuffer expectedRecord = ByteBuffer.allocate(CODEC.getRecordSize());
+    ByteBuffer actualRecord = ByteBuffer.allocate(CODEC.getRecordSize());
+    CODEC.encode(expected, expectedRecord, 0);
+    CODEC.encode(actual, actualRecord, 0);
+    assertArrayEquals(expectedRecord.array(), actualRecord.array(), actual.toString());
+  }
+
+  /**
+   * Verify every state can be read back, in order and out of order.
+   */
+  @Test
+  public void testRandomAccess() {
+    List<CookieClicker> states = history(100);
+    CheckpointChain chain = new CheckpointChain(CODEC, 16);
+    states.forEach(chain::append);
+    assertEquals(100, chain.size());
+
+    for (int i = 0; i < states.size(); i++) {
+      assertSameRecord(states.get(i), chain.get(i));
+    }
+    for (int i : new int[]{99, 0, 57, 17, 16, 15, 63, 62}) {
+      assertSameRecord(states.get(i), chain.get(i));
+    }
+    assertTrue(chain.getStoredBytes() < 100L * CODEC.getRecordSize() / 4);
+    assertThrows(IndexOutOfBoundsException.class, () -> chain.get(100));
+    assertThrows(IndexOutOfBoundsException.class, () -> chain.get(-1));
+  }
+
+  /**
+   * Verify a chain survives a round trip through a file, and can be appended to after loading.
+   */
+  @Test
+  public void testFileRoundTrip() throws IOException {
+    List<CookieClicker> states = history(50);
+    CheckpointChain chain = new CheckpointChain(CODEC, 8);
+    states.subList(0, 45).forEach(chain::append);
+    Path file = Files.createTempFile("chain", ".bin");
+    chain.write(file);
+
+    CheckpointChain loaded = CheckpointChain.read(CODEC, file);
+    assertEquals(45, loaded.size());
+    assertEquals(chain.getStoredBytes(), loaded.getStoredBytes());
+    states.subList(45, 50).forEach(loaded::append);
+    for (int i = 0; i < states.size(); i++) {
+      assertSameRecord(states.get(i), loaded.get(i));
+    }
+
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IllegalArgumentException.class, () -> CheckpointChain.read(CODEC, file));
+    StateCodec other = new StateCodec(List.of(), List.of(), List.of(), 0);
+    chain.write(file);
+    assertThrows(IllegalArgumentException.class, () -> CheckpointChain.read(other, file));
+    Files.delete(file);
+  }
+
+  /**
+   * Verify illegal arguments are rejected, and a rejected state leaves the chain unchanged.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class, () -> new CheckpointChain(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> new CheckpointChain(CODEC, 0));
+
+    CheckpointChain chain = new CheckpointChain(CODEC, 4);
+    CookieClicker state = new SimpleCookieClicker().adjustBank(3);
+    chain.append(state);
+    assertEquals(state, chain.get(0));
+    CookieClicker tooManyBuffs = state.registerBuff(new MockClickingBuff(1, 10))
+            .registerBuff(new MockClickingBuff(2, 10)).registerBuff(new MockClickingBuff(3, 10));
+    assertThrows(IllegalArgumentException.class, () -> chain.append(tooManyBuffs));
+    assertEquals(1, chain.size());
+    assertEquals(state, chain.get(0));
+  }
+}
@@ -0,0 +1,95 @@
+package com.cookie.jfr;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.mocks.MockClickingBuff;
+import com.cookie.search.AStarPlanner;
+import com.cookie.search.Goals;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the flight recorder events of the engine.
+ */
+public class EngineEventsTest {
+
+  private static final List<String> NAMES = List.of(StateConstructionEvent.NAME,
+          EffectEvaluationEvent.NAME, WarpSegmentEvent.NAME, SearchExpansionEvent.NAME);
+
+  /**
+   * Play a little of a game, and plan a purchase, while recording.
+   *
+   * @param recording The recording to run, not yet started.
+   * @return The events recorded from this package.
+   * @throws IOException If the recording can't be dumped or read.
+   */
+  private static List<RecordedEvent> record(Recording recording) throws IOException {
+    recording.start();
+    CookieClicker state = new SimpleCookieClicker().setClickingRate(1)
+            .registerBuff(new MockClickingBuff(10, 10));
+    state.warp(25);
+    new AStarPlanner(Assets.buildings(), Assets.upgrades(), 100, 100)
+            .plan(state, Goals.owns(Building.CURSOR, 1));
+    recording.stop();
+
+    Path file = Files.createTempFile("engine-events", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+              .filter(event -> NAMES.contains(event.getEventType().getName()))
+              .collect(Collectors.toList());
+    } finally {
+      recording.close();
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Verify no event is recorded unless enabled.
+   */
+  @Test
+  public void testDisabledByDefault() throws IOException {
+    assertTrue(record(new Recording()).isEmpty());
+  }
+
+  /**
+   * Verify enabled events are recorded with their fields.
+   */
+  @Test
+  public void testEnabled() throws IOException {
+    Recording recording = new Recording();
+    for (String name : NAMES) {
+      recording.enable(name);
+    }
+    List<RecordedEvent> events = record(recording);
+    for (String name : NAMES) {
+      assertFalse(events.stream().noneMatch(event -> event.getEventType().getName().equals(name)),
+              name);
+    }
+
+    // The warp splits where the buff expires.
+    List<RecordedEvent> segments = events.stream()
+            .filter(event -> event.getEventType().getName().equals(WarpSegmentEvent.NAME))
+            .collect(Collectors.toList());
+    assertEquals(10, segments.get(0).getLong("tickSpan"));
+    assertEquals(1, segments.get(0).getInt("buffCount"));
+    assertEquals(15, segments.get(1).getLong("tickSpan"));
+    assertEquals(0, segments.get(1).getInt("buffCount"));
+  }
+}
@@ -6,7 +6,9 @@ import com.cookie.BuildingType;
  * A collection of mock building types for testing.
  */
 public enum MockBuildingType implements BuildingType {
-  RATE1PRICE1(1, 1);
+  RATE1PRICE1(1, 1),
+  RATE8PRICE100(8, 100),
+  RATE50PRICE1200(50, 1200);
 
   private final double rate;
   private final double unitPrice;
@@ -0,0 +1,120 @@
+package com.cookie.save;
+
+import com.cookie.AchievementTracker;
+import com.cookie.Prestige;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.ClickingUpgrade;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.assets20291M.DoublingBuildingUpgrades;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A collection of tests for the SaveImporter.
+ */
+public class SaveImporterTest {
+
+  private static final SaveImporter IMPORTER = new SaveImporter(Assets.savedBuildings(),
+          Assets.savedUpgrades(), Assets.achievements());
+
+  /**
+   * Export save text the way the game does, escaping the base64 and the end marker.
+   */
+  private static String export(String text) {
+    String base64 = Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    return base64.replace("=", "%3D").replace("+", "%2B").replace("/", "%2F") + "%21END%21";
+  }
+
+  /**
+   * Build save text with the given statistics, buildings, and upgrades sections.
+   */
+  private static String save(String statistics, String buildings, String upgrades) {
+    return "2.052||1600000000000;1600000000000;1600000100000;Bäkery;abcde|1010101|"
+            + statistics + "|" + buildings + "|" + upgrades + "|1100|";
+  }
+
+  /**
+   * Verify a save imports its statistics, buildings, upgrades, and prestige.
+   */
+  @Test
+  public void testImport() throws IOException {
+    String upgrades = "11" + "11" + "10" + "00" + "00" + "00" + "00" + "11";
+    SimpleCookieClicker state = IMPORTER.read(export(save(
+            "1500.5;2000;30;0;450;0;0;0;1e+3;0;0;0;0;0;2;",
+            "10,10,500,0,,0,10;2,2,100,0,,0,2;0,0,0,0,,0,0;",
+            upgrades)));
+
+    assertEquals(100 * 30, state.getTicks());
+    assertEquals(1500.5, state.getCurrentBank());
+    assertEquals(3000, state.getCookiesBaked());
+    assertEquals(30, state.getCookieClicks());
+    assertEquals(450, state.getHandmadeCookies());
+    assertEquals(0, state.getClickingRate());
+    assertEquals(10, state.getBuildingInventory().get(Building.CURSOR));
+    assertEquals(2, state.getBuildingInventory().get(Building.GRANDMA));
+    assertFalse(state.getBuildingInventory().containsKey(Building.FARM));
+    assertEquals(Set.of(CursorUpgrade.REINFORCED_INDEX_FINGER,
+            CursorUpgrade.CARPAL_TUNNEL_PREVENTION_CREAM,
+            DoublingBuildingUpgrades.FORWARDS_FROM_GRANDMA), state.getProductionUpgrades());
+    assertEquals(state, new SimpleCookieClicker(100 * 30,
+            Map.of(Building.CURSOR, 10, Building.GRANDMA, 2),
+            state.getProductionUpgrades(), List.of(), 0, 1500.5, 3000, 450, 30,
+            1.15, 0.25, AchievementTracker.of(Assets.achievements()), new Prestige(1000, 2, 0)));
+  }
+
+  /**
+   * Verify unmapped buildings and upgrades are dropped, and sections after the upgrades are
+   * never parsed.
+   */
+  @Test
+  public void testUnmappedAndTrailingSectionsAreSkipped() throws IOException {
+    StringBuilder buildings = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      buildings.append(i + 1).append(",0,0,0,minigame:data 1 2,0,0;");
+    }
+    StringBuilder upgrades = new StringBuilder();
+    for (int i = 0; i < 80; i++) {
+      upgrades.append(i == 75 || i == 4 ? "11" : "00");
+    }
+    // The trailing garbage would be rejected if it were parsed.
+    String text = save("0;0;0;0;0;0;0;0;0", buildings.toString(), upgrades.toString())
+            + "99999999999999999999999999999999999999999;not a number";
+    SimpleCookieClicker state = IMPORTER.read(
+            new ByteArrayInputStream(export(text).getBytes(StandardCharsets.US_ASCII)));
+
+    assertEquals(Assets.buildings().size(), state.getBuildingInventory().size());
+    assertEquals(5, state.getBuildingInventory().get(Building.FACTORY));
+    assertEquals(Set.of(ClickingUpgrade.PLASTIC_MOUSE), state.getProductionUpgrades());
+  }
+
+  /**
+   * Verify malformed saves, and illegal arguments, are rejected.
+   */
+  @Test
+  public void testMalformedSaves() {
+    assertThrows(IOException.class, () -> IMPORTER.read(export("2.052||0;0;0|")));
+    assertThrows(IOException.class, () -> IMPORTER.read(export(save(
+            "lots;0;0;0;0", "1;", "11"))));
+    assertThrows(IOException.class, () -> IMPORTER.read(export(save(
+            "0;0;0;0;0", "-1;", "11"))));
+    assertThrows(IOException.class, () -> IMPORTER.read("%ZZ"));
+    assertThrows(IllegalArgumentException.class,
+            () -> new SaveImporter(Assets.savedBuildings(),
+                    Map.of(-1, ClickingUpgrade.PLASTIC_MOUSE),
+                    Assets.achievements()));
+  }
+}
@@ -0,0 +1,175 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the AStarPlanner.
+ */
+public class AStarPlannerTest {
+
+  private static final AStarPlanner PLANNER = new AStarPlanner(Assets.buildings(),
+          Assets.upgrades(), 10_000, 50_000);
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class,
+            () -> new AStarPlanner(List.of(), List.of(), 0, 1));
+    assertThrows(IllegalArgumentException.class,
+            () -> new AStarPlanner(List.of(), List.of(), 1, 0));
+    assertThrows(IllegalArgumentException.class,
+            () -> new AStarPlanner(List.of(), List.of(), 1, 1, 1.5));
+    assertThrows(NullPointerException.class,
+            () -> PLANNER.plan(null, Goals.cookiesBaked(1)));
+    assertThrows(NullPointerException.class,
+            () -> PLANNER.plan(new SimpleCookieClicker(), null));
+  }
+
+  /**
+   * Verify the plan for a single purchase waits exactly until it's affordable.
+   */
+  @Test
+  public void testSinglePurchase() {
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(1);
+    Plan plan = PLANNER.plan(start, Goals.owns(Building.CURSOR, 1)).orElseThrow();
+    long affordable = Forecast.warpUntilAffordable(start, Building.CURSOR, 1)
+            .orElseThrow().getTicks();
+    assertEquals(1, plan.getSteps().size());
+    assertEquals(Building.CURSOR, plan.getSteps().get(0).getBuilding());
+    assertEquals(affordable, plan.getTicks());
+  }
+
+  /**
+   * Verify a plan reaches its goal no slower than waiting, and can be replayed.
+   */
+  @Test
+  public void testPlanBeatsWaiting() {
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(1);
+    Goal goal = Goals.owns(CursorUpgrade.REINFORCED_INDEX_FINGER);
+    Optional<Plan> found = PLANNER.plan(start, goal);
+    assertTrue(found.isPresent());
+    Plan plan = found.get();
+    assertTrue(goal.isReached(plan.getEnd()));
+
+    CookieClicker replayed = start;
+    for (PlanStep step : plan.getSteps()) {
+      assertEquals(replayed.getTicks(), step.getStartTick());
+      replayed = step.toAction().apply(replayed);
+    }
+    assertEquals(plan.getEnd(), replayed);
+
+    Plan baked = PLANNER.plan(start, Goals.cookiesBaked(500)).orElseThrow();
+    assertTrue(baked.getTicks() <= 500);
+    assertTrue(baked.getEnd().getCookiesBaked() >= 500);
+  }
+
+  /**
+   * A small building type, slow to pay for itself.
+   */
+  private static final BuildingType SLOW = new BuildingType() {
+    @Override
+    public double getRate() {
+      return 0.1;
+    }
+
+    @Override
+    public double getUnitPrice() {
+      return 10;
+    }
+
+    @Override
+    public String toString() {
+      return "SLOW";
+    }
+  };
+
+  /**
+   * A larger building type, faster to pay for itself.
+   */
+  private static final BuildingType FAST = new BuildingType() {
+    @Override
+    public double getRate() {
+      return 0.8;
+    }
+
+    @Override
+    public double getUnitPrice() {
+      return 60;
+    }
+
+    @Override
+    public String toString() {
+      return "FAST";
+    }
+  };
+
+  /**
+   * Returns the fewest ticks any sequence of steps takes to reach a goal, by trying them all.
+   *
+   * @param state The state to search from.
+   * @param goal  The goal to reach.
+   * @param best  The ticks of the fastest plan found so far, steps ending later are cut.
+   * @return The ticks of the fastest plan, or best if none is faster.
+   */
+  private static long exhaustive(CookieClicker state, Goal goal, long best) {
+    if (goal.isReached(state)) {
+      return Math.min(best, state.getTicks());
+    }
+    for (PlanStep step : AStarPlanner.successors(state, goal, List.of(SLOW, FAST), List.of())) {
+      if (step.getState().getTicks() < best) {
+        best = exhaustive(step.getState(), goal, best);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Verify a planner without heuristic weight finds the fastest plan an exhaustive search finds,
+   * and that the weighted planner finds a plan no faster.
+   */
+  @Test
+  public void testOptimalPlan() {
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(1);
+    for (Goal goal : List.of(Goals.cookiesBaked(400), Goals.owns(FAST, 2),
+            Goals.owns(SLOW, 6))) {
+      Plan weighted = new AStarPlanner(List.of(SLOW, FAST), List.of(), 10_000, 100_000)
+              .plan(start, goal).orElseThrow();
+      assertTrue(goal.isReached(weighted.getEnd()), goal.toString());
+      // The weighted plan bounds the exhaustive search, which would otherwise never end.
+      long optimum = exhaustive(start, goal, weighted.getEnd().getTicks() + 1);
+      Plan exact = new AStarPlanner(List.of(SLOW, FAST), List.of(), 10_000, 100_000, 0)
+              .plan(start, goal).orElseThrow();
+      assertEquals(optimum, exact.getEnd().getTicks(), goal.toString());
+      assertTrue(weighted.getTicks() >= exact.getTicks(), goal.toString());
+    }
+  }
+
+  /**
+   * Verify a tiny memory cap still finds a plan, since dropped states stop pruning others.
+   */
+  @Test
+  public void testMemoryCap() {
+    CookieClicker start = new SimpleCookieClicker().setClickingRate(1);
+    Goal goal = Goals.cookiesBaked(400);
+    Plan plan = new AStarPlanner(List.of(SLOW, FAST), List.of(), 2, 100_000, 0)
+            .plan(start, goal).orElseThrow();
+    assertTrue(goal.isReached(plan.getEnd()));
+  }
+}
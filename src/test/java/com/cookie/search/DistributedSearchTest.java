@@ -0,0 +1,103 @@
+package com.cookie.search;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.ProductionUpgrade;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.StateCodec;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the DistributedSearch and its workers.
+ */
+public class DistributedSearchTest {
+
+  /**
+   * A small problem, public with a no-argument constructor so worker processes can build it.
+   */
+  public static final class SmallProblem implements SearchProblem {
+    private final StateCodec codec = new StateCodec(Assets.buildings(), Assets.upgrades(),
+            List.of(), 0);
+
+    @Override
+    public StateCodec getCodec() {
+      return codec;
+    }
+
+    @Override
+    public CookieClicker getStart() {
+      return new SimpleCookieClicker().setClickingRate(1);
+    }
+
+    @Override
+    public Goal getGoal() {
+      return Goals.cookiesBaked(400);
+    }
+
+    @Override
+    public List<BuildingType> getBuildings() {
+      return List.of(Building.CURSOR, Building.GRANDMA);
+    }
+
+    @Override
+    public List<ProductionUpgrade> getUpgrades() {
+      return List.of(CursorUpgrade.REINFORCED_INDEX_FINGER);
+    }
+  }
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class, () -> new DistributedSearch(null, 1));
+    assertThrows(IllegalArgumentException.class,
+            () -> new DistributedSearch(new SmallProblem(), 0));
+    DistributedSearch search = new DistributedSearch(new SmallProblem(), 1);
+    assertThrows(IllegalArgumentException.class,
+            () -> search.search(0, DistributedSearch.localThreads(new SmallProblem())));
+    assertThrows(NullPointerException.class, () -> search.search(1, null));
+  }
+
+  /**
+   * Verify the best state found doesn't depend on how many workers share the search.
+   */
+  @Test
+  public void testWorkersAgree() throws IOException {
+    SmallProblem problem = new SmallProblem();
+    DistributedSearch search = new DistributedSearch(problem, 8);
+    DistributedSearch.Result single = search.search(1, DistributedSearch.localThreads(problem));
+    DistributedSearch.Result shared = search.search(3, DistributedSearch.localThreads(problem));
+
+    CookieClicker best = single.getBest().orElseThrow();
+    assertTrue(problem.getGoal().isReached(best));
+    assertTrue(best.getTicks() < 400); // Buying the upgrade beats only clicking.
+    assertEquals(best, shared.getBest().orElseThrow());
+    assertTrue(shared.getVisited() > 0);
+    assertEquals(3, shared.getWorkers());
+  }
+
+  /**
+   * Verify workers in their own JVM processes reach the same answer.
+   */
+  @Test
+  public void testWorkerProcesses() throws IOException {
+    SmallProblem problem = new SmallProblem();
+    DistributedSearch search = new DistributedSearch(problem, 8);
+    DistributedSearch.Result threads = search.search(1, DistributedSearch.localThreads(problem));
+    DistributedSearch.Result processes = search.search(2,
+            DistributedSearch.localProcesses(SmallProblem.class));
+    assertEquals(threads.getBest(), processes.getBest());
+  }
+}
@@ -0,0 +1,202 @@
+package com.cookie.search;
+
+import com.cookie.AchievementTracker;
+import com.cookie.CookieClicker;
+import com.cookie.PiecewiseClickingSchedule;
+import com.cookie.ProductionBuff;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.StateCodec;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the OffHeapFrontier and the StateCodec it stores states with.
+ */
+public class OffHeapFrontierTest {
+
+  private static final StateCodec CODEC = new StateCodec(Assets.buildings(), Assets.upgrades(),
+          List.of(new MockClickingBuff(10, 10)), 2);
+
+  private static CookieClicker sample(int seed) {
+    return new SimpleCookieClicker()
+            .setClickingRate(1 + seed)
+            .warp(100 * seed)
+            .transactBuildings(Building.CURSOR, seed % 3)
+            .setClickingRate(seed);
+  }
+
+  /**
+   * Verify states survive a round trip through the codec.
+   */
+  @Test
+  public void testCodecRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocate(CODEC.getRecordSize() + 3);
+    CookieClicker state = new SimpleCookieClicker().setClickingRate(50).warp(40)
+            .transactBuildings(Building.CURSOR, 2)
+            .buyUpgrade(CursorUpgrade.REINFORCED_INDEX_FINGER);
+    CODEC.encode(state, buffer, 3);
+    assertEquals(0, buffer.position());
+    assertEquals(state, CODEC.decode(buffer, 3));
+
+    CookieClicker buffed = state.registerBuff(new MockClickingBuff(4, 10));
+    CODEC.encode(buffed, buffer, 0);
+    List<ProductionBuff> decoded = new ArrayList<>(
+            CODEC.decode(buffer, 0).getActiveProductionBuffs());
+    assertEquals(1, decoded.size());
+    assertEquals(4, decoded.get(0).getTimeLeft());
+    assertEquals(10, decoded.get(0).getTimeTotal());
+  }
+
+  /**
+   * Verify the codec rejects states it can't represent.
+   */
+  @Test
+  public void testCodecIllegalArguments() {
+    ByteBuffer buffer = ByteBuffer.allocate(CODEC.getRecordSize());
+    StateCodec empty = new StateCodec(List.of(), List.of(), List.of(), 0);
+    CookieClicker withCursor = new SimpleCookieClicker().setClickingRate(1).warp(20)
+            .transactBuildings(Building.CURSOR, 1);
+    assertThrows(IllegalArgumentException.class, () -> empty.encode(withCursor, buffer, 0));
+    assertThrows(IllegalArgumentException.class, () -> empty.encode(
+            new SimpleCookieClicker().registerBuff(new MockClickingBuff(1, 1)), buffer, 0));
+    assertThrows(IllegalArgumentException.class, () -> empty.encode(new SimpleCookieClicker()
+            .setClickingSchedule(PiecewiseClickingSchedule.bursts(2, 5, 3)), buffer, 0));
+    assertThrows(IllegalArgumentException.class, () -> empty.encode(new SimpleCookieClicker(0,
+            Map.of(), Set.of(), List.of(), 0, 0, 0, 0, 0, 1.15, 0.25,
+            AchievementTracker.of(Assets.achievements())),
+            buffer, 0));
+    assertThrows(IndexOutOfBoundsException.class,
+            () -> CODEC.encode(new SimpleCookieClicker(), buffer, 1));
+    assertThrows(IllegalArgumentException.class,
+            () -> new StateCodec(List.of(Building.CURSOR, Building.CURSOR), List.of(), List.of(), 0));
+    assertThrows(IllegalArgumentException.class,
+            () -> new StateCodec(List.of(), List.of(), List.of(), -1));
+  }
+
+  /**
+   * Verify a rejected state leaves the buffer untouched.
+   */
+  @Test
+  public void testCodecRejectsBeforeWriting() {
+    ByteBuffer buffer = ByteBuffer.allocate(CODEC.getRecordSize());
+    CookieClicker state = sample(5);
+    CODEC.encode(state, buffer, 0);
+    ByteBuffer expected = ByteBuffer.allocate(CODEC.getRecordSize()).put(buffer.duplicate());
+
+    StateCodec narrow = new StateCodec(List.of(), Assets.upgrades(),
+            List.of(new MockClickingBuff(10, 10)), 2);
+    assertThrows(IllegalArgumentException.class, () -> narrow.encode(sample(7)
+            .transactBuildings(Building.CURSOR, 1), buffer, 0));
+    assertThrows(IllegalArgumentException.class, () -> CODEC.encode(sample(7)
+            .registerBuff(new MockClickingBuff(1, 10))
+            .registerBuff(new MockClickingBuff(2, 10))
+            .registerBuff(new MockClickingBuff(3, 10)), buffer, 0));
+    assertEquals(expected.flip(), buffer);
+    assertEquals(state, CODEC.decode(buffer, 0));
+  }
+
+  /**
+   * Verify a rejected push neither leaks its slot nor corrupts the frontier.
+   */
+  @Test
+  public void testRejectedPush() {
+    CookieClicker unencodable = sample(7).registerBuff(new MockClickingBuff(1, 10))
+            .registerBuff(new MockClickingBuff(2, 10))
+            .registerBuff(new MockClickingBuff(3, 10));
+    try (OffHeapFrontier frontier = new OffHeapFrontier(CODEC, 2)) {
+      frontier.push(sample(1), 1);
+      frontier.push(sample(2), 2);
+      assertEquals(sample(1), frontier.poll());
+      assertThrows(IllegalArgumentException.class, () -> frontier.push(unencodable, 0));
+      assertEquals(1, frontier.size());
+
+      // The freed slot is still reused, so no chunk is allocated.
+      frontier.push(sample(3), 3);
+      assertEquals(2L * CODEC.getRecordSize(), frontier.getAllocatedBytes());
+      assertThrows(IllegalArgumentException.class, () -> frontier.push(unencodable, 0));
+      frontier.push(sample(4), 4);
+      assertEquals(4L * CODEC.getRecordSize(), frontier.getAllocatedBytes());
+      for (int seed = 2; seed <= 4; seed++) {
+        assertEquals(sample(seed), frontier.poll());
+      }
+      assertTrue(frontier.isEmpty());
+    }
+  }
+
+  /**
+   * Verify states are polled in priority order, and decode equal to what was pushed.
+   */
+  @Test
+  public void testPriorityOrder() {
+    try (OffHeapFrontier frontier = new OffHeapFrontier(CODEC, 16)) {
+      assertTrue(frontier.isEmpty());
+      assertThrows(NoSuchElementException.class, frontier::poll);
+
+      Random random = new Random(7);
+      List<Integer> order = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        order.add(i);
+      }
+      Collections.shuffle(order, random);
+      for (int seed : order) {
+        frontier.push(sample(seed), seed);
+      }
+      assertEquals(100, frontier.size());
+      assertEquals(7L * 16 * CODEC.getRecordSize(), frontier.getAllocatedBytes());
+
+      for (int seed = 0; seed < 50; seed++) {
+        assertEquals(seed, frontier.peekPriority());
+        assertEquals(sample(seed), frontier.poll());
+      }
+      // Freed slots are reused before new chunks are allocated.
+      for (int seed = 0; seed < 50; seed++) {
+        frontier.push(sample(seed), seed);
+      }
+      assertEquals(7L * 16 * CODEC.getRecordSize(), frontier.getAllocatedBytes());
+      for (int seed = 0; seed < 100; seed++) {
+        assertEquals(sample(seed), frontier.poll());
+      }
+      assertTrue(frontier.isEmpty());
+    }
+  }
+
+  /**
+   * Verify a frontier backed by mapped files works, and deletes its files on close.
+   */
+  @Test
+  public void testMappedFiles() throws IOException {
+    Path directory = Files.createTempDirectory("frontier");
+    try (OffHeapFrontier frontier = new OffHeapFrontier(CODEC, 4, directory)) {
+      for (int seed = 9; seed >= 0; seed--) {
+        frontier.push(sample(seed), seed);
+      }
+      for (int seed = 0; seed < 10; seed++) {
+        assertEquals(sample(seed), frontier.poll());
+      }
+    }
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+    Files.delete(directory);
+  }
+}
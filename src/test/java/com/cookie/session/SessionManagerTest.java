@@ -0,0 +1,140 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the SessionManager, and its SessionServer.
+ */
+public class SessionManagerTest {
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SessionManager(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new SessionManager(1, 0));
+    try (SessionManager manager = new SessionManager(2, 4)) {
+      assertThrows(NullPointerException.class, () -> manager.open(null));
+      assertThrows(IllegalArgumentException.class, () -> manager.getState(42));
+      long id = manager.open(new SimpleCookieClicker());
+      assertThrows(NullPointerException.class, () -> manager.submit(id, null));
+    }
+  }
+
+  /**
+   * Verify each session applies its commands in order, independently of other sessions.
+   */
+  @Test
+  public void testCommandsApplyInOrder() throws Exception {
+    try (SessionManager manager = new SessionManager(3, 1000)) {
+      List<Long> ids = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        ids.add(manager.open(new SimpleCookieClicker().setClickingRate(1)));
+      }
+      List<CompletableFuture<CookieClicker>> last = new ArrayList<>();
+      for (long id : ids) {
+        CompletableFuture<CookieClicker> future = null;
+        for (int i = 0; i < 100; i++) {
+          future = manager.submit(id, game -> game.warp(1));
+        }
+        last.add(future);
+      }
+      for (int i = 0; i < ids.size(); i++) {
+        assertEquals(100, last.get(i).get().getTicks());
+        assertEquals(100, manager.getState(ids.get(i)).getCookieClicks(), 1e-9);
+      }
+      assertEquals(10, manager.size());
+
+      // A failing command fails its future, and leaves the state alone.
+      CompletableFuture<CookieClicker> failed = manager.submit(ids.get(0), game -> game.warp(-1));
+      ExecutionException thrown = assertThrows(ExecutionException.class, failed::get);
+      assertTrue(thrown.getCause() instanceof IllegalArgumentException);
+      assertEquals(100, manager.getState(ids.get(0)).getTicks());
+
+      // An error fails its future too, and the session keeps draining later commands.
+      CompletableFuture<CookieClicker> errored = manager.submit(ids.get(0), game -> {
+        throw new AssertionError("Expected by the test.");
+      });
+      thrown = assertThrows(ExecutionException.class, errored::get);
+      assertTrue(thrown.getCause() instanceof AssertionError);
+      assertEquals(101, manager.submit(ids.get(0), game -> game.warp(1)).get().getTicks());
+    }
+  }
+
+  /**
+   * Verify a session rejects commands beyond its mailbox capacity.
+   */
+  @Test
+  public void testMailboxBounded() throws Exception {
+    try (SessionManager manager = new SessionManager(1, 2)) {
+      long id = manager.open(new SimpleCookieClicker());
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch started = new CountDownLatch(1);
+      manager.submit(id, game -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return game;
+      });
+      started.await();
+      manager.submit(id, game -> game.warp(1));
+      manager.submit(id, game -> game.warp(1));
+      CompletableFuture<CookieClicker> rejected = manager.submit(id, game -> game.warp(1));
+      ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+      assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+      release.countDown();
+    }
+  }
+
+  /**
+   * Verify the server answers commands over a loopback socket.
+   */
+  @Test
+  public void testServer() throws Exception {
+    try (SessionManager manager = new SessionManager(2, 16);
+         SessionServer server = new SessionServer(manager, 0);
+         Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+         BufferedReader in = new BufferedReader(
+                 new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+      out.println("OPEN");
+      String id = in.readLine().split(" ")[1];
+      out.println("CLICK " + id + " 1");
+      assertEquals("OK 0 0.0 0.0", in.readLine());
+      out.println("WARP " + id + " 20");
+      assertEquals("OK 20 20.0 20.0", in.readLine());
+      out.println("BUY " + id + " CURSOR 1");
+      assertTrue(in.readLine().startsWith("OK 20 "));
+      out.println("BUY " + id + " NOTHING 1");
+      assertTrue(in.readLine().startsWith("ERR"));
+      out.println("FOO");
+      assertEquals("ERR Unknown command FOO.", in.readLine());
+      out.println("CLOSE " + id);
+      assertEquals("OK", in.readLine());
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.cookie.session;
+
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.mocks.MockBuildingType;
+import com.cookie.mocks.MockClickingBuff;
+import com.cookie.mocks.MockProductionUpgrade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the SimulationSession publisher.
+ */
+public class SimulationSessionTest {
+
+  /**
+   * A subscriber recording everything it receives, requesting only when told to.
+   */
+  private static class RecordingSubscriber implements Flow.Subscriber<StateDelta> {
+    final List<StateDelta> received = new ArrayList<>();
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(StateDelta item) {
+      received.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      if (error != null) {
+        throw new AssertionError("Received more than one error.", throwable);
+      }
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+  private static SimulationSession newSession() {
+    return new SimulationSession(new SimpleCookieClicker().adjustBank(10),
+            List.of(MockProductionUpgrade.MUST_OWN_1RATE1PRICE1), Runnable::run);
+  }
+
+  /**
+   * Verify illegal arguments and closed sessions are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class,
+            () -> new SimulationSession(null, List.of(), Runnable::run));
+    SimulationSession session = newSession();
+    assertThrows(NullPointerException.class, () -> session.apply(null));
+    assertThrows(NullPointerException.class, () -> session.apply(game -> null));
+    session.close();
+    assertThrows(IllegalStateException.class, () -> session.apply(game -> game));
+  }
+
+  /**
+   * Verify deltas describe the changes of each action.
+   */
+  @Test
+  public void testDeltas() {
+    SimulationSession session = newSession();
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    session.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    CookieClicker bought = session.apply(game -> game.transactBuildings(MockBuildingType.RATE1PRICE1, 1));
+    StateDelta purchase = subscriber.received.get(0);
+    assertEquals(bought.getCurrentBank() - 10, purchase.getBankChange());
+    assertEquals(bought.getRate(MockBuildingType.RATE1PRICE1),
+            purchase.getRateChanges().get(MockBuildingType.RATE1PRICE1));
+    assertTrue(purchase.getUpgradesUnlocked().contains(MockProductionUpgrade.MUST_OWN_1RATE1PRICE1));
+
+    MockClickingBuff buff = new MockClickingBuff(5, 5);
+    session.apply(game -> game.registerBuff(buff));
+    assertEquals(List.of(buff), subscriber.received.get(1).getBuffsStarted());
+
+    session.apply(game -> game.warp(2));
+    StateDelta ticking = subscriber.received.get(2);
+    assertTrue(ticking.getBuffsStarted().isEmpty());
+    assertTrue(ticking.getBuffsExpired().isEmpty());
+    assertEquals(2, ticking.getElapsedTicks());
+
+    session.apply(game -> game.warp(10));
+    assertEquals(1, subscriber.received.get(3).getBuffsExpired().size());
+
+    session.close();
+    assertTrue(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  /**
+   * Verify an executor rejecting a drain is reported to the subscriber, and doesn't leave the
+   * subscription stuck or fail the session.
+   */
+  @Test
+  public void testRejectedDrain() {
+    boolean[] reject = {true};
+    SimulationSession session = new SimulationSession(new SimpleCookieClicker().adjustBank(10),
+            List.of(), task -> {
+              if (reject[0]) {
+                throw new RejectedExecutionException("Saturated.");
+              }
+              task.run();
+            });
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    session.subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.error instanceof RejectedExecutionException);
+
+    reject[0] = false;
+    session.apply(game -> game.warp(3));
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.received.isEmpty());
+
+    RecordingSubscriber later = new RecordingSubscriber();
+    session.subscribe(later);
+    later.subscription.request(1);
+    session.apply(game -> game.warp(4));
+    assertEquals(4, later.received.get(0).getElapsedTicks());
+    session.close();
+    assertTrue(later.completed);
+    assertFalse(subscriber.completed);
+  }
+
+  /**
+   * Verify a subscriber without demand receives one coalesced delta once it requests.
+   */
+  @Test
+  public void testCoalescing() {
+    SimulationSession session = newSession();
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    session.subscribe(subscriber);
+
+    session.apply(game -> game.transactBuildings(MockBuildingType.RATE1PRICE1, 1));
+    session.apply(game -> game.warp(3));
+    session.apply(game -> game.warp(4));
+    assertTrue(subscriber.received.isEmpty());
+
+    subscriber.subscription.request(1);
+    assertEquals(1, subscriber.received.size());
+    StateDelta coalesced = subscriber.received.get(0);
+    assertEquals(3, coalesced.getTransitions());
+    assertEquals(7, coalesced.getElapsedTicks());
+    assertEquals(session.getState().getCurrentBank() - 10, coalesced.getBankChange(), 1e-9);
+    assertEquals(session.getState().getCurrentBank(), coalesced.getCurrentBank());
+  }
+}
@@ -0,0 +1,82 @@
+package com.cookie.strategy;
+
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the AscensionOptimizer.
+ */
+public class AscensionOptimizerTest {
+
+  private static final CookieClicker START = new SimpleCookieClicker().setClickingRate(0.5);
+  private static final Strategy STRATEGY = new GreedyPaybackStrategy(
+          List.of(MockBuildingType.RATE1PRICE1, MockBuildingType.RATE8PRICE100,
+                  MockBuildingType.RATE50PRICE1200), List.of());
+  private static final long MAX_TICKS = Long.MAX_VALUE / 4;
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class, () -> new AscensionOptimizer(null, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new AscensionOptimizer(STRATEGY, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new AscensionOptimizer(STRATEGY, 1, 0));
+    AscensionOptimizer optimizer = new AscensionOptimizer(STRATEGY, 1, 1);
+    assertThrows(NullPointerException.class, () -> optimizer.evaluate(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> optimizer.evaluate(START));
+    assertThrows(IllegalArgumentException.class, () -> optimizer.evaluate(START, 1, 0));
+  }
+
+  /**
+   * Verify candidates evaluated in parallel match running them one after another, every run
+   * ascends as soon as it reaches the candidate, and the best candidate has the highest score.
+   */
+  @Test
+  public void testOptimize() {
+    double[] candidates = {1e12, 8e12, 27e12, 1e15};
+    AscensionOptimizer optimizer = new AscensionOptimizer(new ForkJoinPool(4), STRATEGY, 3,
+            MAX_TICKS);
+    List<AscensionOptimizer.Candidate> results = optimizer.evaluate(START, candidates);
+    assertEquals(candidates.length, results.size());
+
+    for (int i = 0; i < candidates.length; i++) {
+      AscensionOptimizer.Candidate result = results.get(i);
+      CookieClicker expected = START;
+      for (int run = 0; run < 3; run++) {
+        double target = expected.getCookiesBaked() + candidates[i];
+        CookieClicker ended = new StrategyRunner(state -> state.getCookiesBaked() >= target,
+                MAX_TICKS).run(expected, state -> STRATEGY.next(state).filter(purchase ->
+                purchase.getPrice(state) - state.getCurrentBank()
+                        < target - state.getCookiesBaked())).getState();
+        ended = Forecast.warpUntilBaked(ended, target).orElseThrow();
+        // Ascending at the first tick the target is reached overshoots it by under a tick.
+        assertTrue(ended.getCookiesBaked() >= target);
+        assertTrue(ended.getCookiesBaked() - target < Forecast.getTotalRate(ended));
+        expected = ended.ascend();
+      }
+      assertEquals(candidates[i], result.getCookiesPerRun());
+      assertEquals(expected, result.getState());
+      assertEquals(3, result.getState().getPrestige().getAscensions());
+      assertEquals(expected.getPrestige().getLevel(), result.getLevels());
+      assertEquals(expected.getTicks(), result.getTicks());
+      assertTrue(result.getLevels() > 0);
+    }
+
+    AscensionOptimizer.Candidate best = optimizer.optimize(START, candidates);
+    for (AscensionOptimizer.Candidate result : results) {
+      assertTrue(best.getLevelsPerTick() >= result.getLevelsPerTick());
+    }
+  }
+}
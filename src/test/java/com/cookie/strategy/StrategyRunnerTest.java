@@ -0,0 +1,104 @@
+package com.cookie.strategy;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Assets;
+import com.cookie.assets20291M.Building;
+import com.cookie.assets20291M.CursorUpgrade;
+import com.cookie.mocks.MockBuildingType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the StrategyRunner, and the built-in strategies.
+ */
+public class StrategyRunnerTest {
+
+  private static final CookieClicker START = new SimpleCookieClicker().setClickingRate(0.5);
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() {
+    assertThrows(NullPointerException.class, () -> new StrategyRunner(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> new StrategyRunner(state -> true, 0));
+    StrategyRunner runner = new StrategyRunner(state -> true, 1);
+    assertThrows(NullPointerException.class, () -> runner.run(null, state -> null));
+    assertThrows(NullPointerException.class, () -> runner.run(START, null));
+    assertThrows(NullPointerException.class,
+            () -> new ScriptedStrategy(Arrays.asList(Purchase.of(Building.CURSOR), null)));
+  }
+
+  /**
+   * Verify a script is bought in order, waiting exactly until each purchase is affordable.
+   */
+  @Test
+  public void testScripted() {
+    List<Purchase> script = List.of(Purchase.of(Building.CURSOR), Purchase.of(Building.CURSOR),
+            Purchase.of(CursorUpgrade.REINFORCED_INDEX_FINGER), Purchase.of(Building.GRANDMA));
+    StrategyRunner.Report report = new StrategyRunner(state -> false, Long.MAX_VALUE)
+            .run(START, new ScriptedStrategy(script));
+
+    CookieClicker expected = START;
+    for (Purchase purchase : script) {
+      expected = purchase.applyTo(Forecast.warpUntilBank(expected, purchase.getPrice(expected))
+              .orElseThrow());
+    }
+    assertEquals(StrategyRunner.Outcome.FINISHED, report.getOutcome());
+    assertEquals(4, report.getPurchases());
+    assertEquals(4, report.getWarps());
+    assertEquals(expected, report.getState());
+
+    // A game part way through the script picks up where it is.
+    StrategyRunner.Report resumed = new StrategyRunner(state -> false, Long.MAX_VALUE)
+            .run(report.getState(), new ScriptedStrategy(script));
+    assertEquals(0, resumed.getPurchases());
+  }
+
+  /**
+   * Verify cheapest first buys the cheapest purchase, and stops at the stop condition.
+   */
+  @Test
+  public void testCheapestFirst() {
+    Strategy strategy = new CheapestFirstStrategy(Assets.buildings(), Assets.upgrades());
+    assertEquals(Purchase.of(Building.CURSOR), strategy.next(START).orElseThrow());
+
+    StrategyRunner.Report report = new StrategyRunner(
+            state -> state.getCookiesBaked() >= 10_000, Long.MAX_VALUE).run(START, strategy);
+    assertEquals(StrategyRunner.Outcome.STOPPED, report.getOutcome());
+    assertTrue(report.getState().getCookiesBaked() >= 10_000);
+    assertTrue(report.getPurchases() > 0);
+    assertTrue(report.getStepsPerSecond() > 0);
+  }
+
+  /**
+   * Verify greedy payback prefers the faster payback, skips purchases adding nothing, and ends at
+   * the tick limit.
+   */
+  @Test
+  public void testGreedyPayback() {
+    List<BuildingType> buildings = List.of(MockBuildingType.RATE8PRICE100,
+            MockBuildingType.RATE50PRICE1200, Building.GRANDMA);
+    Strategy strategy = new GreedyPaybackStrategy(buildings, List.of());
+    assertEquals(Purchase.of(MockBuildingType.RATE8PRICE100), strategy.next(START).orElseThrow());
+    assertTrue(new GreedyPaybackStrategy(List.of(Building.GRANDMA), List.of()).next(START)
+            .isEmpty());
+
+    StrategyRunner.Report report = new StrategyRunner(state -> false, 30 * 60 * 60)
+            .run(START, strategy);
+    assertEquals(StrategyRunner.Outcome.OUT_OF_TICKS, report.getOutcome());
+    assertEquals(30 * 60 * 60, report.getState().getTicks());
+    assertTrue(report.getState().getBuildingInventory().get(MockBuildingType.RATE50PRICE1200) > 0);
+    assertEquals(0, report.getState().getBuildingInventory().getOrDefault(Building.GRANDMA, 0));
+  }
+}
@@ -0,0 +1,169 @@
+package com.cookie.sweep;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.Forecast;
+import com.cookie.assets20291M.Building;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for the SweepRunner, SweepDesign, and SweepFile.
+ */
+public class SweepRunnerTest {
+
+  private static final List<Map<BuildingType, Integer>> INVENTORIES = List.of(
+          Map.of(), Map.of(Building.CURSOR, 3));
+
+  private static final SweepDesign GRID = SweepDesign.grid(new double[]{1.1, 1.15, 1.2},
+          new double[]{0.25, 0.5}, INVENTORIES, new double[]{1, 2, 5});
+
+  private static final UnaryOperator<CookieClicker> BUY_CURSORS = state -> {
+    for (int i = 0; i < 5; i++) {
+      state = Forecast.warpUntilAffordable(state, Building.CURSOR, 1).orElseThrow()
+              .transactBuildings(Building.CURSOR, 1);
+    }
+    return state;
+  };
+
+  /**
+   * Verify designs generate the expected points.
+   */
+  @Test
+  public void testDesigns() {
+    assertEquals(36, GRID.size());
+    SweepPoint last = GRID.getPoint(35);
+    assertEquals(1.2, last.getPriceGrowthFactor());
+    assertEquals(0.5, last.getRefundFactor());
+    assertEquals(1, last.getInventoryIndex());
+    assertEquals(5, last.getClickingRate());
+    assertEquals(3, last.toState().getBuildingInventory().get(Building.CURSOR));
+    assertThrows(IndexOutOfBoundsException.class, () -> GRID.getPoint(36));
+
+    SweepDesign random = SweepDesign.random(100, 42, 1.1, 1.2, 0.2, 0.3, INVENTORIES, 0, 10);
+    for (long i = 0; i < random.size(); i++) {
+      SweepPoint point = random.getPoint(i);
+      assertTrue(point.getPriceGrowthFactor() >= 1.1 && point.getPriceGrowthFactor() < 1.2);
+      assertEquals(point.toString(), random.getPoint(i).toString());
+    }
+    assertThrows(IllegalArgumentException.class,
+            () -> SweepDesign.random(1, 0, 1.2, 1.1, 0.2, 0.3, INVENTORIES, 0, 1));
+    assertThrows(IllegalArgumentException.class,
+            () -> SweepDesign.grid(new double[]{}, new double[]{1}, INVENTORIES, new double[]{1}));
+  }
+
+  /**
+   * Verify a sweep simulates every point once, and a complete sweep resumes to nothing.
+   */
+  @Test
+  public void testRunAndResume() throws IOException, InterruptedException {
+    Path output = Files.createTempFile("sweep", ".bin");
+    Files.delete(output);
+    SweepRunner runner = new SweepRunner(new ForkJoinPool(4), BUY_CURSORS, 8);
+
+    assertEquals(36, runner.run(GRID, output));
+    List<SweepResult> results = SweepFile.read(output);
+    assertEquals(36, results.size());
+    assertEquals(36, results.stream().map(SweepResult::getIndex).collect(Collectors.toSet()).size());
+    for (SweepResult result : results) {
+      SweepPoint point = GRID.getPoint(result.getIndex());
+      CookieClicker end = BUY_CURSORS.apply(point.toState());
+      assertEquals(end.getTicks(), result.getTicks());
+      assertEquals(end.getCurrentBank(), result.getCurrentBank());
+      assertEquals(5 + point.getInventory().getOrDefault(Building.CURSOR, 0),
+              result.getBuildingsOwned());
+    }
+    assertEquals(0, runner.run(GRID, output));
+
+    // Cutting the file mid-block loses that block, which a resume simulates again.
+    try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+    assertEquals(32, SweepFile.read(output).size());
+    assertEquals(4, runner.run(GRID, output));
+    assertEquals(36, SweepFile.read(output).size());
+    Files.delete(output);
+  }
+
+  /**
+   * Verify results finished before a failing simulation are kept for resuming.
+   */
+  @Test
+  public void testFailureKeepsResults() throws IOException, InterruptedException {
+    Path output = Files.createTempFile("sweep", ".bin");
+    Files.delete(output);
+    SweepRunner failingRunner = new SweepRunner(new ForkJoinPool(1), state -> {
+      if (state.getClickingRate() == 2 && state.getBuildingInventory().isEmpty()) {
+        throw new IllegalStateException("Simulated failure.");
+      }
+      return BUY_CURSORS.apply(state);
+    }, 4);
+    assertThrows(IllegalStateException.class, () -> failingRunner.run(GRID, output));
+    int kept = SweepFile.read(output).size();
+    assertTrue(kept > 0 && kept < 36);
+
+    SweepRunner runner = new SweepRunner(BUY_CURSORS);
+    assertEquals(36 - kept, runner.run(GRID, output));
+    assertEquals(36, SweepFile.read(output).size());
+    Files.delete(output);
+  }
+
+  /**
+   * Verify interrupting a sweep stops the simulations already forked, not just the root task.
+   */
+  @Test
+  public void testInterruptStopsSubtasks() throws IOException, InterruptedException {
+    Path output = Files.createTempFile("sweep", ".bin");
+    Files.delete(output);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicInteger simulated = new AtomicInteger();
+    SweepRunner runner = new SweepRunner(pool, state -> {
+      started.countDown();
+      simulated.incrementAndGet();
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return state;
+    }, 8);
+
+    Thread runnerThread = Thread.currentThread();
+    Thread interrupter = new Thread(() -> {
+      try {
+        started.await();
+      } catch (InterruptedException e) {
+        return;
+      }
+      runnerThread.interrupt();
+    });
+    interrupter.start();
+    SweepDesign design = SweepDesign.random(1000, 7, 1.1, 1.2, 0.2, 0.3, INVENTORIES, 0, 10);
+    assertThrows(InterruptedException.class, () -> runner.run(design, output));
+    interrupter.join();
+
+    assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+    assertTrue(simulated.get() < 100, "Simulated " + simulated.get() + " points.");
+    pool.shutdown();
+    Files.deleteIfExists(output);
+  }
+}
@@ -0,0 +1,138 @@
+package com.cookie.trajectory;
+
+import com.cookie.BuildingType;
+import com.cookie.CookieClicker;
+import com.cookie.SimpleCookieClicker;
+import com.cookie.assets20291M.Building;
+import com.cookie.mocks.MockClickingBuff;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A collection of tests for recording trajectories to columnar and CSV files.
+ */
+public class TrajectoryRecorderTest {
+
+  private static final double DELTA = 1e-9;
+  private static final List<BuildingType> BUILDINGS = List.of(Building.CURSOR, Building.GRANDMA);
+
+  private static CookieClicker start() {
+    return new SimpleCookieClicker().setClickingRate(10).warp(10)
+            .transactBuildings(Building.CURSOR, 2)
+            .registerBuff(new MockClickingBuff(25, 30));
+  }
+
+  /**
+   * Verify interval and event samples are written to a columnar file and read back.
+   */
+  @Test
+  public void testColumnarRoundTrip() throws IOException {
+    Path file = Files.createTempFile("trajectory", ".bin");
+    CookieClicker end;
+    try (ColumnarTrajectoryWriter writer = new ColumnarTrajectoryWriter(file, BUILDINGS, 3)) {
+      TrajectoryRecorder recorder = new TrajectoryRecorder(writer, 10, true);
+      recorder.sample(start());
+      end = recorder.warp(start(), 100);
+    }
+
+    // The start, every tenth tick from 20 to 110, and the buff expiring at tick 35.
+    long[] expected = {10, 20, 30, 35, 40, 50, 60, 70, 80, 90, 100, 110};
+    try (TrajectoryReader reader = new TrajectoryReader(file)) {
+      assertEquals(List.of("CURSOR", "GRANDMA"), reader.getBuildingNames());
+      for (long ticks : expected) {
+        assertTrue(reader.next());
+        assertEquals(ticks, reader.getTicks());
+        assertEquals(ticks < 35 ? 1 : 0, reader.getBuffCount());
+        assertEquals(ticks < 35 ? 35 - ticks : -1, reader.getNextBuffExpiry());
+        assertEquals(start().getRate(Building.CURSOR), reader.getRate(0), DELTA);
+      }
+      assertEquals(end.getCurrentBank(), reader.getCurrentBank(), DELTA);
+      assertEquals(end.getCookiesBaked(), reader.getCookiesBaked(), DELTA);
+      assertFalse(reader.next());
+    }
+    assertEquals(start().warp(100).getCurrentBank(), end.getCurrentBank(), DELTA);
+    Files.delete(file);
+  }
+
+  /**
+   * Verify samples are written as CSV lines.
+   */
+  @Test
+  public void testCsv() throws IOException {
+    Path file = Files.createTempFile("trajectory", ".csv");
+    try (CsvTrajectoryWriter writer = new CsvTrajectoryWriter(file, BUILDINGS, 16)) {
+      new TrajectoryRecorder(writer, 0, true).warp(start(), 50);
+    }
+    List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+    assertEquals(2, lines.size());
+    assertEquals("ticks,currentBank,cookiesBaked,rate:CURSOR,rate:GRANDMA,buffs,nextBuffExpiry",
+            lines.get(0));
+    String[] values = lines.get(1).split(",");
+    assertEquals("35", values[0]);
+    assertEquals(start().warp(25).getCurrentBank(), Double.parseDouble(values[1]), DELTA);
+    assertEquals("0", values[5]);
+    assertEquals("-1", values[6]);
+    Files.delete(file);
+  }
+
+  /**
+   * Verify numbers are formatted like Double#toString, up to the significant digits kept.
+   */
+  @Test
+  public void testCsvNumbers() {
+    StringBuilder out = new StringBuilder();
+    char[] digits = new char[CsvTrajectoryWriter.SIGNIFICANT_DIGITS];
+    double[] exact = {0, -0.0, 1, 0.1, 125.5, -2.5e-5, 1e7, 1.2e-3, 9999999, 6.02e23, 1e308,
+            Double.NaN, Double.NEGATIVE_INFINITY};
+    for (double value : exact) {
+      out.setLength(0);
+      CsvTrajectoryWriter.appendDouble(out, digits, value);
+      assertEquals(Double.toString(value), out.toString());
+    }
+
+    out.setLength(0);
+    CsvTrajectoryWriter.appendDouble(out, digits, Double.MIN_VALUE);
+    assertEquals(Double.MIN_VALUE, Double.parseDouble(out.toString()));
+
+    Random random = new Random(35);
+    for (int i = 0; i < 10_000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(value)) {
+        continue;
+      }
+      out.setLength(0);
+      CsvTrajectoryWriter.appendDouble(out, digits, value);
+      double parsed = Double.parseDouble(out.toString());
+      assertEquals(value, parsed, Math.abs(value) * 1e-14, out.toString());
+      assertEquals(Double.toString(value).contains("E"), out.toString().contains("E"));
+    }
+  }
+
+  /**
+   * Verify illegal arguments are rejected.
+   */
+  @Test
+  public void testIllegalArguments() throws IOException {
+    Path file = Files.createTempFile("trajectory", ".csv");
+    try (CsvTrajectoryWriter writer = new CsvTrajectoryWriter(file, BUILDINGS, 16)) {
+      assertThrows(IllegalArgumentException.class, () -> new TrajectoryRecorder(writer, 0, false));
+      assertThrows(IllegalArgumentException.class, () -> new TrajectoryRecorder(writer, -1, true));
+      assertThrows(IllegalArgumentException.class,
+              () -> new TrajectoryRecorder(writer, 1, true).warp(start(), -1));
+      assertThrows(NullPointerException.class, () -> writer.write(null));
+    }
+    Files.delete(file);
+  }
+}